@@ -0,0 +1,95 @@
+package io.github.lambig.union;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Producers append unions while a flusher drains every millisecond.
+ * Compare producer throughput of ConcurrentUnionSink with a synchronized pair of lists,
+ * changing the number of producers by -tg (e.g. ./gradlew jmh -Pjmh="ConcurrentUnionSinkBenchmark -tg 8,1").
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentUnionSinkBenchmark {
+    private static final Union<Long, String> LEFT = UnionOf.left(1L);
+    private static final Union<Long, String> RIGHT = UnionOf.right("failure");
+
+    @State(Scope.Group)
+    public static class StripedSink {
+        final ConcurrentUnionSink<Long, String> sink = ConcurrentUnionSink.create();
+    }
+
+    @State(Scope.Group)
+    public static class SynchronizedSink {
+        List<Long> lefts = new ArrayList<>();
+        List<String> rights = new ArrayList<>();
+
+        synchronized void add(Union<Long, String> union) {
+            union.accept(this.lefts::add, this.rights::add);
+        }
+
+        synchronized void drainTo(Blackhole blackhole) {
+            blackhole.consume(this.lefts);
+            blackhole.consume(this.rights);
+            this.lefts = new ArrayList<>();
+            this.rights = new ArrayList<>();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        long count;
+
+        Union<Long, String> next() {
+            return (this.count++ & 7) == 0 ? RIGHT : LEFT;
+        }
+    }
+
+    @Benchmark
+    @Group("striped")
+    @GroupThreads(4)
+    public void stripedProduce(StripedSink state, Producer producer) {
+        state.sink.accept(producer.next());
+    }
+
+    @Benchmark
+    @Group("striped")
+    @GroupThreads(1)
+    public void stripedFlush(StripedSink state, Blackhole blackhole) {
+        state.sink.drainTo(blackhole::consume, blackhole::consume);
+        LockSupport.parkNanos(1_000_000L);
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(4)
+    public void synchronizedProduce(SynchronizedSink state, Producer producer) {
+        state.add(producer.next());
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(1)
+    public void synchronizedFlush(SynchronizedSink state, Blackhole blackhole) {
+        state.drainTo(blackhole);
+        LockSupport.parkNanos(1_000_000L);
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.lambig.union;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sum and histogram of one side of a million unions,
+ * by kernels of LongUnionArray and by a naive Union.asJoined loop over a list.
+ * rightRatio 0 and 1 take the unmasked loops, and 0.1 mostly the masked ones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LongUnionArrayBenchmark {
+    private static final int SIZE = 1 << 20;
+
+    @Param({"0.0", "0.1", "0.5"})
+    double rightRatio;
+
+    List<Union<Long, Long>> unions;
+    LongUnionArray array;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(38);
+        this.unions = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            long value = random.nextInt(16);
+            this.unions.add(random.nextDouble() < this.rightRatio ? UnionOf.right(value) : UnionOf.left(value));
+        }
+        this.array = LongUnionArray.of(this.unions);
+    }
+
+    @Benchmark
+    public long sumLeft_kernel() {
+        return this.array.sumLeft();
+    }
+
+    @Benchmark
+    public long sumLeft_asJoined() {
+        long sum = 0;
+        for (Union<Long, Long> union : this.unions) {
+            sum += union.asJoined(left -> left, right -> 0L);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long maxLeft_kernel() {
+        return this.array.maxLeft().orElse(0L);
+    }
+
+    @Benchmark
+    public long maxLeft_asJoined() {
+        long max = Long.MIN_VALUE;
+        for (Union<Long, Long> union : this.unions) {
+            max = Math.max(max, union.asJoined(left -> left, right -> Long.MIN_VALUE));
+        }
+        return max;
+    }
+
+    @Benchmark
+    public long[] countRightByValue_kernel() {
+        return this.array.countRightByValue(16);
+    }
+
+    @Benchmark
+    public long[] countRightByValue_asJoined() {
+        long[] counts = new long[16];
+        for (Union<Long, Long> union : this.unions) {
+            union.acceptRight(right -> counts[right.intValue()]++);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.lambig.union;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures startup of a short-lived JVM up to its first union:
+ * milliseconds from JVM start to UnionOf.left returning, and number of classes loaded by then.
+ * Run by ./gradlew startup (without archive) and ./gradlew startupCds (with AppCDS archive of this run).
+ * The management classes loaded to read the numbers are counted as well, in both runs alike.
+ */
+public final class StartupProbe {
+    private StartupProbe() {
+    }
+
+    public static void main(String[] args) {
+        Union<String, Exception> union = UnionOf.left("started");
+        long now = System.currentTimeMillis();
+        long timeToFirstUnion = now - ManagementFactory.getRuntimeMXBean().getStartTime();
+        long loadedClasses = ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount();
+        System.out.println(union.left() + " [" + System.getProperty("java.vm.info") + "]: "
+                + "time to first UnionOf.left " + timeToFirstUnion + " ms, loaded classes " + loadedClasses);
+    }
+}
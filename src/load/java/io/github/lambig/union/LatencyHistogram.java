@@ -0,0 +1,160 @@
+package io.github.lambig.union;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of latencies in nanoseconds, for the load harness.
+ * Values below 2^precisionBits are counted exactly; above that, each power of two is split into
+ * 2^(precisionBits - 1) buckets of equal width, so that a value is reported within 2^(1 - precisionBits) of itself
+ * (0.8% with the default 8 bits) from a fixed array of counts, with no allocation on record.
+ * Values above highestTrackable are counted as highestTrackable; max keeps the exact value.
+ * NOTE: Not thread-safe; record on one thread, and add histograms of threads together after the run.
+ */
+final class LatencyHistogram {
+    private final int precisionBits;
+    private final int subBucketCount;
+    private final int halfCount;
+    private final long highestTrackable;
+    private final long[] counts;
+    private long totalCount;
+    private long min = Long.MAX_VALUE;
+    private long max;
+    private double sum;
+
+    LatencyHistogram(long highestTrackable, int precisionBits) {
+        if (precisionBits < 2 || precisionBits > 16) {
+            throw new IllegalArgumentException("precisionBits must be between 2 and 16: " + precisionBits);
+        }
+        if (highestTrackable < 1L << precisionBits) {
+            throw new IllegalArgumentException("highestTrackable must be at least 2^precisionBits: " + highestTrackable);
+        }
+        this.precisionBits = precisionBits;
+        this.subBucketCount = 1 << precisionBits;
+        this.halfCount = this.subBucketCount >> 1;
+        this.highestTrackable = highestTrackable;
+        this.counts = new long[this.indexOf(highestTrackable) + 1];
+    }
+
+    /**
+     * Returns histogram of up to an hour with 8 bits of precision.
+     */
+    static LatencyHistogram create() {
+        return new LatencyHistogram(3_600_000_000_000L, 8);
+    }
+
+    void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("value must not be negative: " + value);
+        }
+        this.counts[this.indexOf(Math.min(value, this.highestTrackable))]++;
+        this.totalCount++;
+        this.min = Math.min(this.min, value);
+        this.max = Math.max(this.max, value);
+        this.sum += value;
+    }
+
+    /**
+     * Records the value measured by a caller waiting for each response before the next request,
+     * with the values the requests that should have been sent meanwhile would have seen:
+     * value - expectedInterval, value - 2 * expectedInterval, and so on down to expectedInterval.
+     * Not needed for values measured from the intended start time, as the load harness does.
+     *
+     * @param value            measured latency
+     * @param expectedInterval interval between requests at the intended rate, 0 for no correction
+     */
+    void recordCorrected(long value, long expectedInterval) {
+        this.record(value);
+        if (expectedInterval <= 0) {
+            return;
+        }
+        for (long missing = value - expectedInterval; missing >= expectedInterval; missing -= expectedInterval) {
+            this.record(missing);
+        }
+    }
+
+    void add(LatencyHistogram other) {
+        if (other.precisionBits != this.precisionBits || other.highestTrackable != this.highestTrackable) {
+            throw new IllegalArgumentException("histograms of different precision or range cannot be added");
+        }
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] += other.counts[i];
+        }
+        this.totalCount += other.totalCount;
+        this.min = Math.min(this.min, other.min);
+        this.max = Math.max(this.max, other.max);
+        this.sum += other.sum;
+    }
+
+    void reset() {
+        Arrays.fill(this.counts, 0);
+        this.totalCount = 0;
+        this.min = Long.MAX_VALUE;
+        this.max = 0;
+        this.sum = 0;
+    }
+
+    long count() {
+        return this.totalCount;
+    }
+
+    long min() {
+        return this.totalCount == 0 ? 0 : this.min;
+    }
+
+    long max() {
+        return this.max;
+    }
+
+    double mean() {
+        return this.totalCount == 0 ? 0 : this.sum / this.totalCount;
+    }
+
+    /**
+     * Returns the highest value of the bucket holding the value at the percentile, capped by max.
+     *
+     * @param percentile percentile between 0 and 100
+     * @return value at the percentile, 0 if empty
+     */
+    long valueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100: " + percentile);
+        }
+        if (this.totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.totalCount));
+        long seen = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(this.highestValueAt(i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    int indexOf(long value) {
+        if (value < this.subBucketCount) {
+            return (int) value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - this.precisionBits;
+        return this.subBucketCount + (shift - 1) * this.halfCount + (int) (value >>> shift) - this.halfCount;
+    }
+
+    long lowestValueAt(int index) {
+        if (index < this.subBucketCount) {
+            return index;
+        }
+        int offset = index - this.subBucketCount;
+        int shift = offset / this.halfCount + 1;
+        return (long) (offset % this.halfCount + this.halfCount) << shift;
+    }
+
+    long highestValueAt(int index) {
+        if (index < this.subBucketCount) {
+            return index;
+        }
+        int shift = (index - this.subBucketCount) / this.halfCount + 1;
+        return this.lowestValueAt(index) + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,172 @@
+package io.github.lambig.union;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+/**
+ * Open-loop load harness for tail latency of union workloads under sustained load.
+ * Requests are scheduled at a fixed rate regardless of responses, and each latency is measured from the time
+ * the request was scheduled to start, not from when it actually started: a stall (e.g. a GC pause) delays
+ * every request scheduled during it, and all of them are recorded as late, avoiding coordinated omission.
+ * Run by ./gradlew load -Pload="run --rate=200000 --duration=30" and ./gradlew load -Pload="compare base.tsv new.tsv".
+ * <pre>
+ * run [--workloads=CONSTRUCT,JOIN,PEEK,PARTITION] [--rate=100000] [--threads=1] [--warmup=5] [--duration=20] [--output=path]
+ *     rate is requests per second over all threads, warmup and duration are seconds per workload
+ * compare baseline.tsv candidate.tsv
+ * </pre>
+ */
+public final class LoadHarness {
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private LoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage();
+            return;
+        }
+        Map<String, String> options = new HashMap<>();
+        List<String> operands = new ArrayList<>();
+        for (String arg : Arrays.asList(args).subList(1, args.length)) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                operands.add(arg);
+            }
+        }
+        switch (args[0]) {
+            case "run":
+                run(options);
+                break;
+            case "compare":
+                if (operands.size() != 2) {
+                    usage();
+                    return;
+                }
+                System.out.print(LoadReport.comparison(LoadReport.read(Paths.get(operands.get(0))), LoadReport.read(Paths.get(operands.get(1)))));
+                break;
+            default:
+                usage();
+        }
+    }
+
+    private static void usage() {
+        System.out.println("usage: run [--workloads=CONSTRUCT,JOIN,PEEK,PARTITION] [--rate=100000] [--threads=1] [--warmup=5] [--duration=20] [--output=path]");
+        System.out.println("       compare baseline.tsv candidate.tsv");
+    }
+
+    private static void run(Map<String, String> options) throws IOException, InterruptedException {
+        List<LoadWorkload> workloads = Arrays.stream(options.getOrDefault("workloads", "CONSTRUCT,JOIN,PEEK,PARTITION").split(","))
+                .map(name -> LoadWorkload.valueOf(name.trim().toUpperCase(Locale.ROOT)))
+                .collect(Collectors.toList());
+        long rate = Long.parseLong(options.getOrDefault("rate", "100000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "1"));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("warmup", "5")));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "20")));
+        Path output = Paths.get(options.getOrDefault("output", "union-load.tsv"));
+        if (rate < 1 || threads < 1 || durationNanos < 1) {
+            throw new IllegalArgumentException("rate, threads and duration must be positive");
+        }
+        List<LoadReport.Row> rows = new ArrayList<>();
+        for (LoadWorkload workload : workloads) {
+            System.out.printf("%s: %d requests/s on %d threads, %d s warmup, %d s%n",
+                    workload, rate, threads, TimeUnit.NANOSECONDS.toSeconds(warmupNanos), TimeUnit.NANOSECONDS.toSeconds(durationNanos));
+            drive(workload, rate, threads, warmupNanos);
+            long[] gcBefore = gc();
+            LatencyHistogram histogram = drive(workload, rate, threads, durationNanos);
+            long[] gcAfter = gc();
+            rows.add(LoadReport.Row.of(workload.name(), rate, threads, durationNanos / 1e9, histogram, gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]));
+        }
+        System.out.print(LoadReport.table(rows));
+        LoadReport.write(output, rows);
+        System.out.println("report written to " + output.toAbsolutePath());
+    }
+
+    /**
+     * Drives the workload on the threads for the duration and returns latencies of all threads together.
+     */
+    private static LatencyHistogram drive(LoadWorkload workload, long rate, int threads, long durationNanos) throws InterruptedException {
+        double intervalNanos = 1e9 * threads / rate;
+        // starts all threads at the same time, offset by their share of the interval
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+        List<Driver> drivers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Driver driver = new Driver(workload, start + (long) (intervalNanos * i / threads), intervalNanos, durationNanos);
+            Thread thread = new Thread(driver, "union-load-" + workload.name().toLowerCase(Locale.ROOT) + "-" + i);
+            driver.thread = thread;
+            drivers.add(driver);
+            thread.start();
+        }
+        LatencyHistogram total = LatencyHistogram.create();
+        for (Driver driver : drivers) {
+            driver.thread.join();
+            total.add(driver.histogram);
+        }
+        return total;
+    }
+
+    private static long[] gc() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+            millis += Math.max(0, bean.getCollectionTime());
+        }
+        return new long[]{count, millis};
+    }
+
+    /**
+     * Sends requests of a thread at the intended times, recording latency from each intended time.
+     */
+    private static final class Driver implements Runnable {
+        private final LoadWorkload workload;
+        private final long start;
+        private final double intervalNanos;
+        private final long durationNanos;
+        private final LatencyHistogram histogram = LatencyHistogram.create();
+        private Thread thread;
+        // keeps results from dead code elimination
+        private Object sink;
+
+        private Driver(LoadWorkload workload, long start, double intervalNanos, long durationNanos) {
+            this.workload = workload;
+            this.start = start;
+            this.intervalNanos = intervalNanos;
+            this.durationNanos = durationNanos;
+        }
+
+        @Override
+        public void run() {
+            for (long sequence = 0; ; sequence++) {
+                long intended = this.start + (long) (sequence * this.intervalNanos);
+                if (intended - this.start >= this.durationNanos) {
+                    return;
+                }
+                long now = System.nanoTime();
+                while (intended - now > 0) {
+                    if (intended - now > SPIN_NANOS) {
+                        LockSupport.parkNanos(intended - now - SPIN_NANOS);
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                    now = System.nanoTime();
+                }
+                this.sink = this.workload.run(sequence);
+                this.histogram.record(System.nanoTime() - intended);
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.lambig.union;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Percentile tables of load runs, saved as tab-separated values in nanoseconds so that runs of two builds can be compared.
+ */
+final class LoadReport {
+    static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final String HEADER = "workload\trate\tthreads\tcount\tachievedRate\tmean\tp50\tp90\tp99\tp99.9\tp99.99\tmax\tgcCount\tgcMillis";
+
+    private LoadReport() {
+    }
+
+    /**
+     * Result of a workload at a rate.
+     */
+    static final class Row {
+        final String workload;
+        final long rate;
+        final int threads;
+        final long count;
+        final double achievedRate;
+        final double mean;
+        final long[] percentiles;
+        final long max;
+        final long gcCount;
+        final long gcMillis;
+
+        Row(String workload, long rate, int threads, long count, double achievedRate, double mean, long[] percentiles, long max, long gcCount, long gcMillis) {
+            this.workload = workload;
+            this.rate = rate;
+            this.threads = threads;
+            this.count = count;
+            this.achievedRate = achievedRate;
+            this.mean = mean;
+            this.percentiles = percentiles;
+            this.max = max;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+        }
+
+        static Row of(String workload, long rate, int threads, double seconds, LatencyHistogram histogram, long gcCount, long gcMillis) {
+            long[] percentiles = new long[PERCENTILES.length];
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                percentiles[i] = histogram.valueAtPercentile(PERCENTILES[i]);
+            }
+            return new Row(workload, rate, threads, histogram.count(), histogram.count() / seconds, histogram.mean(),
+                    percentiles, histogram.max(), gcCount, gcMillis);
+        }
+
+        private String key() {
+            return this.workload + "@" + this.rate + "x" + this.threads;
+        }
+    }
+
+    static void write(Path path, List<Row> rows) throws IOException {
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (Row row : rows) {
+            StringBuilder line = new StringBuilder()
+                    .append(row.workload).append('\t').append(row.rate).append('\t').append(row.threads).append('\t')
+                    .append(row.count).append('\t').append(String.format(Locale.ROOT, "%.1f", row.achievedRate)).append('\t')
+                    .append(String.format(Locale.ROOT, "%.1f", row.mean));
+            for (long percentile : row.percentiles) {
+                line.append('\t').append(percentile);
+            }
+            lines.add(line.append('\t').append(row.max).append('\t').append(row.gcCount).append('\t').append(row.gcMillis).toString());
+        }
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    static List<Row> read(Path path) throws IOException {
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !lines.get(0).equals(HEADER)) {
+            throw new IllegalArgumentException("not a union load report: " + path);
+        }
+        List<Row> rows = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] cells = line.split("\t");
+            long[] percentiles = new long[PERCENTILES.length];
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                percentiles[i] = Long.parseLong(cells[6 + i]);
+            }
+            int next = 6 + PERCENTILES.length;
+            rows.add(new Row(cells[0], Long.parseLong(cells[1]), Integer.parseInt(cells[2]), Long.parseLong(cells[3]),
+                    Double.parseDouble(cells[4]), Double.parseDouble(cells[5]), percentiles,
+                    Long.parseLong(cells[next]), Long.parseLong(cells[next + 1]), Long.parseLong(cells[next + 2])));
+        }
+        return rows;
+    }
+
+    /**
+     * Returns table of latencies in microseconds.
+     */
+    static String table(List<Row> rows) {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-10s %9s %3s %10s %10s %9s", "workload", "rate/s", "thr", "count", "achieved/s", "mean"));
+        for (double percentile : PERCENTILES) {
+            table.append(String.format(Locale.ROOT, " %9s", label(percentile)));
+        }
+        table.append(String.format(Locale.ROOT, " %9s %4s %6s  (latencies in us)%n", "max", "gc", "gc ms"));
+        for (Row row : rows) {
+            table.append(String.format(Locale.ROOT, "%-10s %9d %3d %10d %10.0f %9.2f", row.workload, row.rate, row.threads, row.count, row.achievedRate, row.mean / 1e3));
+            for (long percentile : row.percentiles) {
+                table.append(String.format(Locale.ROOT, " %9.2f", percentile / 1e3));
+            }
+            table.append(String.format(Locale.ROOT, " %9.2f %4d %6d%n", row.max / 1e3, row.gcCount, row.gcMillis));
+        }
+        return table.toString();
+    }
+
+    /**
+     * Returns comparison of rows of the same workload, rate and threads in two reports,
+     * with change of each percentile from baseline to candidate.
+     */
+    static String comparison(List<Row> baseline, List<Row> candidate) {
+        Map<String, Row> candidates = new LinkedHashMap<>();
+        candidate.forEach(row -> candidates.put(row.key(), row));
+        StringBuilder comparison = new StringBuilder(String.format(Locale.ROOT, "%-22s %-7s %12s %12s %8s  (latencies in us)%n", "workload@rate x threads", "", "baseline", "candidate", "change"));
+        for (Row base : baseline) {
+            Row other = candidates.get(base.key());
+            if (other == null) {
+                comparison.append(String.format(Locale.ROOT, "%-22s only in baseline%n", base.key()));
+                continue;
+            }
+            comparison.append(line(base.key(), "mean", base.mean, other.mean));
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                comparison.append(line("", label(PERCENTILES[i]), base.percentiles[i], other.percentiles[i]));
+            }
+            comparison.append(line("", "max", base.max, other.max));
+            comparison.append(String.format(Locale.ROOT, "%-22s %-7s %12.0f %12.0f %7.1f%%%n", "", "rate/s", base.achievedRate, other.achievedRate, change(base.achievedRate, other.achievedRate)));
+        }
+        return comparison.toString();
+    }
+
+    private static String line(String key, String label, double base, double other) {
+        return String.format(Locale.ROOT, "%-22s %-7s %12.2f %12.2f %7.1f%%%n", key, label, base / 1e3, other / 1e3, change(base, other));
+    }
+
+    private static double change(double base, double other) {
+        return base == 0 ? 0 : (other - base) * 100 / base;
+    }
+
+    private static String label(double percentile) {
+        return "p" + (percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile));
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.lambig.union;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Representative union workloads driven by the load harness, one request per call of run.
+ * Every 10th request takes the right side, as a failing request would.
+ */
+enum LoadWorkload {
+    /**
+     * Constructs a union by UnionOf.
+     */
+    CONSTRUCT {
+        @Override
+        Object run(long sequence) {
+            return isFailure(sequence) ? UnionOf.right("failed " + sequence) : UnionOf.left(sequence);
+        }
+    },
+    /**
+     * Dispatches a union to a value by asJoined.
+     */
+    JOIN {
+        @Override
+        Object run(long sequence) {
+            return union(sequence).asJoined(left -> left * 31, right -> (long) right.length());
+        }
+    },
+    /**
+     * Passes a union through a chain of peeks and maps, as a logging and metrics pipeline does.
+     */
+    PEEK {
+        @Override
+        Object run(long sequence) {
+            long[] observed = new long[1];
+            return union(sequence)
+                    .peekLeft(left -> observed[0] += left)
+                    .peekRight(right -> observed[0] -= right.length())
+                    .mapLeft(left -> left + 1)
+                    .peek(left -> observed[0]++, right -> observed[0]--)
+                    .mapRight(String::length)
+                    .peek((left, right) -> observed[0] ^= 1)
+                    .asJoined(left -> left + observed[0], right -> right + observed[0]);
+        }
+    },
+    /**
+     * Partitions and collects a batch of 64 unions, by Unions.accumulate and by a collector.
+     */
+    PARTITION {
+        @Override
+        Object run(long sequence) {
+            List<Union<Long, String>> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                batch.add(union(sequence * BATCH_SIZE + i));
+            }
+            Union<List<Long>, List<String>> accumulated = Unions.accumulate(batch);
+            Map<Boolean, List<Union<Long, String>>> partitioned = batch.stream().collect(Collectors.partitioningBy(Union::hasLeft));
+            return accumulated.hasLeft() ? partitioned.get(true).size() : accumulated.right().size() + partitioned.get(false).size();
+        }
+    };
+
+    private static final int BATCH_SIZE = 64;
+    private static final String FAILURE = "failed";
+
+    /**
+     * Runs one request.
+     *
+     * @param sequence number of the request
+     * @return result to be kept from dead code elimination
+     */
+    abstract Object run(long sequence);
+
+    private static boolean isFailure(long sequence) {
+        return sequence % 10 == 9;
+    }
+
+    private static Union<Long, String> union(long sequence) {
+        return isFailure(sequence) ? UnionOf.right(FAILURE) : UnionOf.left(sequence);
+    }
+}
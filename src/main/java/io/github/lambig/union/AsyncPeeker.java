@@ -0,0 +1,295 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Peeks union values asynchronously.
+ * Sampled values are handed off to a bounded queue and consumed by a background drainer thread,
+ * so that slow consumers (e.g. loggers) stay off the calling thread.
+ * Use with Union.peekAsync.
+ *
+ * @param <L> type of left value
+ * @param <R> type of right value
+ */
+public final class AsyncPeeker<L, R> implements AutoCloseable {
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final Consumer<? super L> leftResolver;
+    private final Consumer<? super R> rightResolver;
+    private final UnionQueue<L, R> queue;
+    private final Sampler sampler;
+    private final OverflowPolicy overflowPolicy;
+    private final WaitStrategy waitStrategy;
+    private final int batchSize;
+    private final Thread drainer;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    // submits past the running check, so the final drain waits for their values
+    private final LongAdder submitting = new LongAdder();
+    private volatile boolean running = true;
+
+    private AsyncPeeker(Builder<L, R> builder) {
+        this.leftResolver = builder.leftResolver;
+        this.rightResolver = builder.rightResolver;
+        this.waitStrategy = builder.waitStrategy;
+        this.queue = UnionQueue.mpsc(builder.capacity, builder.waitStrategy);
+        this.sampler = builder.sampler;
+        this.overflowPolicy = builder.overflowPolicy;
+        this.batchSize = builder.batchSize;
+        this.drainer = builder.threadFactory.newThread(this::drainLoop);
+    }
+
+    /**
+     * Returns builder of AsyncPeeker.
+     *
+     * @param leftResolver  consumer accepts left value on the drainer thread
+     * @param rightResolver consumer accepts right value on the drainer thread
+     * @param <L>           type of left value
+     * @param <R>           type of right value
+     * @return builder
+     */
+    public static <L, R> Builder<L, R> builder(
+            @NonNull Consumer<? super L> leftResolver,
+            @NonNull Consumer<? super R> rightResolver) {
+        return new Builder<>(leftResolver, rightResolver);
+    }
+
+    /**
+     * Hands value of the union off to the drainer if sampled.
+     * On overflow, behaves as the overflow policy.
+     *
+     * @param union union to peek
+     * @throws IllegalStateException when the queue is full with policy FAIL
+     */
+    public void submit(@NonNull Union<? extends L, ? extends R> union) {
+        if (!this.sampler.sample()) {
+            return;
+        }
+        this.submitting.increment();
+        try {
+            this.offer(union);
+        } finally {
+            this.submitting.decrement();
+        }
+    }
+
+    private void offer(Union<? extends L, ? extends R> union) {
+        if (!this.running) {
+            this.dropped.increment();
+            return;
+        }
+        if (this.queue.offer(union)) {
+            return;
+        }
+        switch (this.overflowPolicy) {
+            case BLOCK:
+                this.offerWaiting(union);
+                return;
+            case FAIL:
+                throw new IllegalStateException("queue of AsyncPeeker is full");
+            default:
+                this.dropped.increment();
+        }
+    }
+
+    private void offerWaiting(Union<? extends L, ? extends R> union) {
+        for (int attempt = 0; !this.queue.offer(union); attempt++) {
+            if (!this.running || Thread.currentThread().isInterrupted()) {
+                this.dropped.increment();
+                return;
+            }
+            this.waitStrategy.idle(attempt);
+        }
+    }
+
+    /**
+     * Returns number of sampled values dropped by overflow or after close.
+     *
+     * @return number of dropped values
+     */
+    public long droppedCount() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * Returns number of values whose consumer threw exception or error.
+     *
+     * @return number of failed values
+     */
+    public long failedCount() {
+        return this.failed.sum();
+    }
+
+    /**
+     * Returns number of values waiting for the drainer.
+     *
+     * @return number of pending values
+     */
+    public int pendingCount() {
+        return this.queue.size();
+    }
+
+    /**
+     * Stops accepting values, and waits for the drainer to consume pending ones.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        boolean interrupted = false;
+        while (this.drainer.isAlive()) {
+            try {
+                this.drainer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private AsyncPeeker<L, R> start() {
+        this.drainer.start();
+        return this;
+    }
+
+    private void drainLoop() {
+        Consumer<L> leftResolver = this.guarded(this.leftResolver);
+        Consumer<R> rightResolver = this.guarded(this.rightResolver);
+        int attempt = 0;
+        while (true) {
+            if (this.queue.drain(leftResolver, rightResolver, this.batchSize) > 0) {
+                attempt = 0;
+            } else if (!this.running) {
+                // values offered by submits racing with close are drained here, once none is in progress
+                boolean settled = this.submitting.sum() == 0;
+                if (this.queue.drain(leftResolver, rightResolver, Integer.MAX_VALUE) == 0 && settled) {
+                    return;
+                }
+            } else {
+                this.waitStrategy.idle(attempt++);
+            }
+        }
+    }
+
+    private <T> Consumer<T> guarded(Consumer<? super T> resolver) {
+        return value -> {
+            try {
+                resolver.accept(value);
+            } catch (Throwable e) {
+                this.failed.increment();
+            }
+        };
+    }
+
+    /**
+     * Builder of AsyncPeeker.
+     *
+     * @param <L> type of left value
+     * @param <R> type of right value
+     */
+    public static final class Builder<L, R> {
+        private final Consumer<? super L> leftResolver;
+        private final Consumer<? super R> rightResolver;
+        private int capacity = 1024;
+        private int batchSize = 256;
+        private Sampler sampler = Sampler.all();
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+        private WaitStrategy waitStrategy = WaitStrategy.backoff(100, 10, Duration.ofMillis(1));
+        private ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "union-async-peek-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        private Builder(Consumer<? super L> leftResolver, Consumer<? super R> rightResolver) {
+            this.leftResolver = leftResolver;
+            this.rightResolver = rightResolver;
+        }
+
+        /**
+         * Sets capacity of the queue (default 1024).
+         *
+         * @param capacity minimum capacity, rounded up to power of 2
+         * @return this builder
+         */
+        public Builder<L, R> capacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Sets maximum number of values consumed in a batch (default 256).
+         *
+         * @param batchSize maximum batch size, must be positive
+         * @return this builder
+         */
+        public Builder<L, R> batchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets sampler (default Sampler.all()).
+         *
+         * @param sampler sampler deciding values to peek
+         * @return this builder
+         */
+        public Builder<L, R> sampler(@NonNull Sampler sampler) {
+            this.sampler = sampler;
+            return this;
+        }
+
+        /**
+         * Sets behavior on full queue (default DROP).
+         *
+         * @param overflowPolicy overflow policy
+         * @return this builder
+         */
+        public Builder<L, R> overflowPolicy(@NonNull OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * Sets strategy to wait for values on the drainer, and for space with BLOCK policy.
+         *
+         * @param waitStrategy wait strategy
+         * @return this builder
+         */
+        public Builder<L, R> waitStrategy(@NonNull WaitStrategy waitStrategy) {
+            this.waitStrategy = waitStrategy;
+            return this;
+        }
+
+        /**
+         * Sets factory of the drainer thread (default: daemon platform thread).
+         * Pass a virtual thread factory on runtimes supporting it.
+         *
+         * @param threadFactory factory of the drainer thread
+         * @return this builder
+         */
+        public Builder<L, R> threadFactory(@NonNull ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        /**
+         * Builds AsyncPeeker and starts its drainer thread.
+         *
+         * @return started AsyncPeeker
+         */
+        public AsyncPeeker<L, R> start() {
+            return new AsyncPeeker<>(this).start();
+        }
+    }
+}
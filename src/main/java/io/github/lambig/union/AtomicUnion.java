@@ -0,0 +1,320 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Union reference which may be updated atomically without lock.
+ * Update functions may be called more than once under contention, so they should be free of side effects.
+ * Read methods (accept, asJoined, ...) work on a single snapshot and allocate nothing by themselves.
+ *
+ * @param <L> type of left value
+ * @param <R> type of right value
+ */
+public final class AtomicUnion<L, R> {
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(AtomicUnion.class, "value", Union.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile Union<L, R> value;
+
+    private AtomicUnion(Union<L, R> initialValue) {
+        this.value = initialValue;
+    }
+
+    /**
+     * Returns AtomicUnion with initial value.
+     *
+     * @param initialValue initial value
+     * @param <L>          type of left value
+     * @param <R>          type of right value
+     * @return AtomicUnion instance
+     */
+    public static <L, R> AtomicUnion<L, R> of(@NonNull Union<L, R> initialValue) {
+        return new AtomicUnion<>(initialValue);
+    }
+
+    /**
+     * Returns AtomicUnion with initial left value.
+     *
+     * @param leftValue initial left value
+     * @param <L>       type of left value
+     * @param <R>       type of right value
+     * @return AtomicUnion instance
+     */
+    public static <L, R> AtomicUnion<L, R> ofLeft(L leftValue) {
+        return new AtomicUnion<>(Left.of(leftValue));
+    }
+
+    /**
+     * Returns AtomicUnion with initial right value.
+     *
+     * @param rightValue initial right value
+     * @param <L>        type of left value
+     * @param <R>        type of right value
+     * @return AtomicUnion instance
+     */
+    public static <L, R> AtomicUnion<L, R> ofRight(R rightValue) {
+        return new AtomicUnion<>(Right.of(rightValue));
+    }
+
+    /**
+     * Returns current value.
+     *
+     * @return current value
+     */
+    public Union<L, R> get() {
+        return this.value;
+    }
+
+    /**
+     * Sets new value.
+     *
+     * @param newValue new value
+     */
+    public void set(@NonNull Union<L, R> newValue) {
+        this.value = newValue;
+    }
+
+    /**
+     * Sets new left value.
+     *
+     * @param leftValue new left value
+     */
+    public void setLeft(L leftValue) {
+        this.value = Left.of(leftValue);
+    }
+
+    /**
+     * Sets new right value.
+     *
+     * @param rightValue new right value
+     */
+    public void setRight(R rightValue) {
+        this.value = Right.of(rightValue);
+    }
+
+    /**
+     * Sets new value if current value is identical to expected one.
+     *
+     * @param expectedValue expected current value
+     * @param newValue      new value
+     * @return true if updated
+     */
+    public boolean compareAndSet(Union<L, R> expectedValue, @NonNull Union<L, R> newValue) {
+        return VALUE.compareAndSet(this, expectedValue, newValue);
+    }
+
+    /**
+     * Sets new value and returns previous one.
+     *
+     * @param newValue new value
+     * @return previous value
+     */
+    @SuppressWarnings("unchecked")
+    public Union<L, R> getAndSet(@NonNull Union<L, R> newValue) {
+        return (Union<L, R>) VALUE.getAndSet(this, newValue);
+    }
+
+    /**
+     * Sets new left value and returns previous value.
+     *
+     * @param leftValue new left value
+     * @return previous value
+     */
+    public Union<L, R> getAndSetLeft(L leftValue) {
+        return this.getAndSet(Left.of(leftValue));
+    }
+
+    /**
+     * Sets new right value and returns previous value.
+     *
+     * @param rightValue new right value
+     * @return previous value
+     */
+    public Union<L, R> getAndSetRight(R rightValue) {
+        return this.getAndSet(Right.of(rightValue));
+    }
+
+    /**
+     * Updates value by function and returns updated one.
+     *
+     * @param updater function maps current value to new value
+     * @return updated value
+     */
+    public Union<L, R> updateAndGet(@NonNull UnaryOperator<Union<L, R>> updater) {
+        Union<L, R> current;
+        Union<L, R> next;
+        do {
+            current = this.value;
+            next = requireUpdated(updater.apply(current));
+        } while (!VALUE.weakCompareAndSet(this, current, next));
+        return next;
+    }
+
+    /**
+     * Updates value by function and returns previous one.
+     *
+     * @param updater function maps current value to new value
+     * @return previous value
+     */
+    public Union<L, R> getAndUpdate(@NonNull UnaryOperator<Union<L, R>> updater) {
+        Union<L, R> current;
+        do {
+            current = this.value;
+        } while (!VALUE.weakCompareAndSet(this, current, requireUpdated(updater.apply(current))));
+        return current;
+    }
+
+    /**
+     * Updates left value by function if current value is left.
+     * Right value is kept as it is.
+     *
+     * @param leftUpdater function maps current left value to new left value
+     * @return value after the update
+     */
+    public Union<L, R> updateLeft(@NonNull UnaryOperator<L> leftUpdater) {
+        Union<L, R> current;
+        Union<L, R> next;
+        do {
+            current = this.value;
+            if (!current.hasLeft()) {
+                return current;
+            }
+            next = Left.of(leftUpdater.apply(current.left()));
+        } while (!VALUE.weakCompareAndSet(this, current, next));
+        return next;
+    }
+
+    /**
+     * Updates right value by function if current value is right.
+     * Left value is kept as it is.
+     *
+     * @param rightUpdater function maps current right value to new right value
+     * @return value after the update
+     */
+    public Union<L, R> updateRight(@NonNull UnaryOperator<R> rightUpdater) {
+        Union<L, R> current;
+        Union<L, R> next;
+        do {
+            current = this.value;
+            if (!current.hasRight()) {
+                return current;
+            }
+            next = Right.of(rightUpdater.apply(current.right()));
+        } while (!VALUE.weakCompareAndSet(this, current, next));
+        return next;
+    }
+
+    /**
+     * Replaces left value with right value mapped from it, only if current value is still left.
+     *
+     * @param transition function maps current left value to new right value
+     * @return true if this thread made the transition
+     */
+    public boolean transitionToRight(@NonNull Function<? super L, ? extends R> transition) {
+        Union<L, R> current;
+        do {
+            current = this.value;
+            if (!current.hasLeft()) {
+                return false;
+            }
+        } while (!VALUE.weakCompareAndSet(this, current, Right.<L, R>of(transition.apply(current.left()))));
+        return true;
+    }
+
+    /**
+     * Replaces right value with left value mapped from it, only if current value is still right.
+     *
+     * @param transition function maps current right value to new left value
+     * @return true if this thread made the transition
+     */
+    public boolean transitionToLeft(@NonNull Function<? super R, ? extends L> transition) {
+        Union<L, R> current;
+        do {
+            current = this.value;
+            if (!current.hasRight()) {
+                return false;
+            }
+        } while (!VALUE.weakCompareAndSet(this, current, Left.<L, R>of(transition.apply(current.right()))));
+        return true;
+    }
+
+    /**
+     * Returns if current value is left.
+     *
+     * @return true if current value is left
+     */
+    public boolean hasLeft() {
+        return this.value.hasLeft();
+    }
+
+    /**
+     * Returns if current value is right.
+     *
+     * @return true if current value is right
+     */
+    public boolean hasRight() {
+        return this.value.hasRight();
+    }
+
+    /**
+     * Join current value to an instance of single class.
+     *
+     * @param leftResolver  function maps left value to output
+     * @param rightResolver function maps right value to output
+     * @param <O>           output type
+     * @return Resolved value by either argument
+     */
+    public <O> O asJoined(
+            @NonNull Function<? super L, ? extends O> leftResolver,
+            @NonNull Function<? super R, ? extends O> rightResolver) {
+        return this.value.asJoined(leftResolver, rightResolver);
+    }
+
+    /**
+     * Make either consumer accept correspondent current value.
+     *
+     * @param leftResolver  consumer accepts left value
+     * @param rightResolver consumer accepts right value
+     */
+    public void accept(@NonNull Consumer<? super L> leftResolver, @NonNull Consumer<? super R> rightResolver) {
+        this.value.accept(leftResolver, rightResolver);
+    }
+
+    /**
+     * Make consumer accept current left value if it exists.
+     *
+     * @param leftResolver consumer accepts left value
+     */
+    public void acceptLeft(@NonNull Consumer<? super L> leftResolver) {
+        this.value.acceptLeft(leftResolver);
+    }
+
+    /**
+     * Make consumer accept current right value if it exists.
+     *
+     * @param rightResolver consumer accepts right value
+     */
+    public void acceptRight(@NonNull Consumer<? super R> rightResolver) {
+        this.value.acceptRight(rightResolver);
+    }
+
+    private static <L, R> Union<L, R> requireUpdated(Union<L, R> updated) {
+        if (updated == null) {
+            throw new NullPointerException("updater of AtomicUnion returned null");
+        }
+        return updated;
+    }
+}
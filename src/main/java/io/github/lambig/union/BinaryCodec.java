@@ -0,0 +1,91 @@
+package io.github.lambig.union;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoder and decoder of values to bytes, for SharedUnionQueue and ExternalPartitioner.
+ *
+ * @param <T> type of value
+ */
+public interface BinaryCodec<T> {
+
+    /**
+     * Writes the value from the position of the buffer.
+     * The bytes written are those from the initial position to the position after the call.
+     *
+     * @param value  value to encode
+     * @param target buffer limited to the maximum length, whose position need not be 0
+     * @throws java.nio.BufferOverflowException if the value does not fit
+     */
+    void encode(T value, ByteBuffer target);
+
+    /**
+     * Reads value from the remaining bytes of the buffer.
+     * NOTE: The buffer is a view of shared memory reused after the call; the value must not retain it.
+     * The view is not a slice: read relative to its position, or at offsets from it.
+     *
+     * @param source buffer whose remaining bytes are the value
+     * @return decoded value
+     */
+    T decode(ByteBuffer source);
+
+    /**
+     * Returns codec of string as UTF-8 bytes.
+     *
+     * @return codec of string
+     */
+    static BinaryCodec<String> utf8() {
+        return new BinaryCodec<String>() {
+            @Override
+            public void encode(String value, ByteBuffer target) {
+                target.put(value.getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public String decode(ByteBuffer source) {
+                return StandardCharsets.UTF_8.decode(source).toString();
+            }
+        };
+    }
+
+    /**
+     * Returns codec of long as 8 bytes.
+     *
+     * @return codec of long
+     */
+    static BinaryCodec<Long> longs() {
+        return new BinaryCodec<Long>() {
+            @Override
+            public void encode(Long value, ByteBuffer target) {
+                target.putLong(value);
+            }
+
+            @Override
+            public Long decode(ByteBuffer source) {
+                return source.getLong();
+            }
+        };
+    }
+
+    /**
+     * Returns codec of byte array as it is.
+     *
+     * @return codec of byte array
+     */
+    static BinaryCodec<byte[]> bytes() {
+        return new BinaryCodec<byte[]>() {
+            @Override
+            public void encode(byte[] value, ByteBuffer target) {
+                target.put(value);
+            }
+
+            @Override
+            public byte[] decode(ByteBuffer source) {
+                byte[] value = new byte[source.remaining()];
+                source.get(value);
+                return value;
+            }
+        };
+    }
+}
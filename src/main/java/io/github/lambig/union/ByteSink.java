@@ -0,0 +1,123 @@
+package io.github.lambig.union;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Growable little-endian byte buffer for encoding, with varint helpers shared by encoders and decoders.
+ */
+final class ByteSink {
+    private ByteBuffer buffer;
+
+    ByteSink(int initialCapacity) {
+        this.buffer = ByteBuffer.allocate(Math.max(initialCapacity, 16)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    void put(byte value) {
+        this.ensure(1).put(value);
+    }
+
+    void putInt(int value) {
+        this.ensure(Integer.BYTES).putInt(value);
+    }
+
+    void putLong(long value) {
+        this.ensure(Long.BYTES).putLong(value);
+    }
+
+    void put(byte[] bytes) {
+        this.ensure(bytes.length).put(bytes);
+    }
+
+    /**
+     * Puts value encoded by the codec, growing until it fits.
+     */
+    <T> void put(BinaryCodec<? super T> codec, T value) {
+        int start = this.buffer.position();
+        while (true) {
+            try {
+                codec.encode(value, this.buffer);
+                return;
+            } catch (BufferOverflowException e) {
+                this.buffer.position(start);
+                this.ensure(this.buffer.remaining() + 1);
+            }
+        }
+    }
+
+    /**
+     * Puts unsigned varint in 7 bits per byte, least significant group first.
+     */
+    void putVarLong(long value) {
+        ByteBuffer buffer = this.ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Puts signed value as zigzag varint, so that values near zero take few bytes.
+     */
+    void putZigZag(long value) {
+        this.putVarLong(value << 1 ^ value >> 63);
+    }
+
+    int position() {
+        return this.buffer.position();
+    }
+
+    /**
+     * Returns the bytes put so far as a buffer ready to read, valid until the next put or clear.
+     */
+    ByteBuffer flip() {
+        return this.buffer.duplicate().flip();
+    }
+
+    void clear() {
+        this.buffer.clear();
+    }
+
+    static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = buffer.get();
+            value |= (long) (current & 0x7F) << shift;
+            shift += 7;
+        } while (current < 0);
+        return value;
+    }
+
+    static long readZigZag(ByteBuffer buffer) {
+        long encoded = readVarLong(buffer);
+        return encoded >>> 1 ^ -(encoded & 1);
+    }
+
+    static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static int zigZagSize(long value) {
+        return varLongSize(value << 1 ^ value >> 63);
+    }
+
+    private ByteBuffer ensure(int bytes) {
+        if (this.buffer.remaining() < bytes) {
+            int capacity = Math.max(this.buffer.capacity() * 2, this.buffer.position() + bytes);
+            ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+            this.buffer.flip();
+            grown.put(this.buffer);
+            this.buffer = grown;
+        }
+        return this.buffer;
+    }
+}
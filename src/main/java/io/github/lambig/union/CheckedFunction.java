@@ -0,0 +1,19 @@
+package io.github.lambig.union;
+
+/**
+ * Function which may throw checked exception.
+ *
+ * @param <T> type of argument
+ * @param <O> output type
+ */
+@FunctionalInterface
+public interface CheckedFunction<T, O> {
+    /**
+     * Applies this function to the argument.
+     *
+     * @param t argument
+     * @return output
+     * @throws Exception when the function fails
+     */
+    O apply(T t) throws Exception;
+}
@@ -0,0 +1,19 @@
+package io.github.lambig.union;
+
+/**
+ * Encoding of a value column in a block of UnionSnapshot.
+ */
+public enum ColumnEncoding {
+    /**
+     * Values as they are: 8 bytes little-endian per long, or length and UTF-8 bytes per string.
+     */
+    PLAIN,
+    /**
+     * Distinct strings once, and a varint index per value.
+     */
+    DICTIONARY,
+    /**
+     * Zigzag varint of difference from the previous long.
+     */
+    DELTA
+}
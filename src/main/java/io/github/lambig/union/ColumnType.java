@@ -0,0 +1,356 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Type of value column in UnionSnapshot, with its encoding per block.
+ * Without explicit encoding, the smaller one is chosen for each block.
+ *
+ * @param <T> type of value
+ */
+public abstract class ColumnType<T> {
+    static final byte LONGS = 1;
+    static final byte STRINGS = 2;
+
+    private final byte id;
+    private final ColumnEncoding encoding;
+
+    ColumnType(byte id, ColumnEncoding encoding) {
+        this.id = id;
+        this.encoding = encoding;
+    }
+
+    /**
+     * Returns column of long, encoded by PLAIN or DELTA whichever smaller.
+     *
+     * @return column type
+     */
+    public static ColumnType<Long> longs() {
+        return new Longs(null);
+    }
+
+    /**
+     * Returns column of long with fixed encoding.
+     *
+     * @param encoding PLAIN or DELTA
+     * @return column type
+     */
+    public static ColumnType<Long> longs(@NonNull ColumnEncoding encoding) {
+        if (encoding == ColumnEncoding.DICTIONARY) {
+            throw new IllegalArgumentException("encoding of longs must be PLAIN or DELTA: " + encoding);
+        }
+        return new Longs(encoding);
+    }
+
+    /**
+     * Returns column of string, encoded by DICTIONARY if values repeat twice on average, otherwise PLAIN.
+     *
+     * @return column type
+     */
+    public static ColumnType<String> strings() {
+        return new Strings(null);
+    }
+
+    /**
+     * Returns column of string with fixed encoding.
+     *
+     * @param encoding PLAIN or DICTIONARY
+     * @return column type
+     */
+    public static ColumnType<String> strings(@NonNull ColumnEncoding encoding) {
+        if (encoding == ColumnEncoding.DELTA) {
+            throw new IllegalArgumentException("encoding of strings must be PLAIN or DICTIONARY: " + encoding);
+        }
+        return new Strings(encoding);
+    }
+
+    static ColumnType<?> of(byte id) {
+        switch (id) {
+            case LONGS:
+                return longs();
+            case STRINGS:
+                return strings();
+            default:
+                throw new IllegalStateException("unknown column type: " + id);
+        }
+    }
+
+    byte id() {
+        return this.id;
+    }
+
+    ColumnEncoding encoding() {
+        return this.encoding;
+    }
+
+    abstract ColumnWriter<T> newWriter(int capacity);
+
+    /**
+     * Returns reader of count values in chunk, which starts with encoding byte.
+     */
+    abstract ColumnReader<T> newReader(ByteBuffer chunk, int count);
+
+    void visitLongs(ByteBuffer chunk, int count, LongConsumer visitor) {
+        throw new IllegalStateException("column of " + this + " has no long values");
+    }
+
+    void visitBytes(ByteBuffer chunk, int count, Consumer<? super ByteBuffer> visitor) {
+        throw new IllegalStateException("column of " + this + " has no string values");
+    }
+
+    /**
+     * Buffer of values in a block.
+     */
+    abstract static class ColumnWriter<T> {
+        abstract void add(T value);
+
+        abstract int size();
+
+        /**
+         * Writes encoding byte and encoded values, and clears values.
+         */
+        abstract ColumnEncoding writeTo(ByteSink sink);
+    }
+
+    /**
+     * Cursor of values in a block.
+     */
+    abstract static class ColumnReader<T> {
+        abstract T next();
+    }
+
+    private static final class Longs extends ColumnType<Long> {
+        Longs(ColumnEncoding encoding) {
+            super(LONGS, encoding);
+        }
+
+        @Override
+        ColumnWriter<Long> newWriter(int capacity) {
+            ColumnEncoding fixed = this.encoding();
+            return new ColumnWriter<Long>() {
+                private final long[] values = new long[capacity];
+                private int size;
+
+                @Override
+                void add(Long value) {
+                    this.values[this.size++] = value;
+                }
+
+                @Override
+                int size() {
+                    return this.size;
+                }
+
+                @Override
+                ColumnEncoding writeTo(ByteSink sink) {
+                    ColumnEncoding encoding = fixed != null ? fixed : this.smaller();
+                    sink.put((byte) encoding.ordinal());
+                    long previous = 0;
+                    for (int i = 0; i < this.size; i++) {
+                        if (encoding == ColumnEncoding.PLAIN) {
+                            sink.putLong(this.values[i]);
+                        } else {
+                            sink.putZigZag(this.values[i] - previous);
+                            previous = this.values[i];
+                        }
+                    }
+                    this.size = 0;
+                    return encoding;
+                }
+
+                private ColumnEncoding smaller() {
+                    long deltaSize = 0;
+                    long previous = 0;
+                    for (int i = 0; i < this.size; i++) {
+                        deltaSize += ByteSink.zigZagSize(this.values[i] - previous);
+                        previous = this.values[i];
+                    }
+                    return deltaSize < (long) Long.BYTES * this.size ? ColumnEncoding.DELTA : ColumnEncoding.PLAIN;
+                }
+            };
+        }
+
+        @Override
+        ColumnReader<Long> newReader(ByteBuffer chunk, int count) {
+            LongCursor cursor = new LongCursor(chunk);
+            return new ColumnReader<Long>() {
+                @Override
+                Long next() {
+                    return cursor.next();
+                }
+            };
+        }
+
+        @Override
+        void visitLongs(ByteBuffer chunk, int count, LongConsumer visitor) {
+            LongCursor cursor = new LongCursor(chunk);
+            for (int i = 0; i < count; i++) {
+                visitor.accept(cursor.next());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "longs";
+        }
+    }
+
+    private static final class LongCursor {
+        private final ByteBuffer chunk;
+        private final boolean plain;
+        private long previous;
+
+        LongCursor(ByteBuffer chunk) {
+            this.chunk = chunk.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            this.plain = this.chunk.get() == ColumnEncoding.PLAIN.ordinal();
+        }
+
+        long next() {
+            if (this.plain) {
+                return this.chunk.getLong();
+            }
+            this.previous += ByteSink.readZigZag(this.chunk);
+            return this.previous;
+        }
+    }
+
+    private static final class Strings extends ColumnType<String> {
+        Strings(ColumnEncoding encoding) {
+            super(STRINGS, encoding);
+        }
+
+        @Override
+        ColumnWriter<String> newWriter(int capacity) {
+            ColumnEncoding fixed = this.encoding();
+            return new ColumnWriter<String>() {
+                private final String[] values = new String[capacity];
+                private int size;
+
+                @Override
+                void add(String value) {
+                    this.values[this.size++] = value;
+                }
+
+                @Override
+                int size() {
+                    return this.size;
+                }
+
+                @Override
+                ColumnEncoding writeTo(ByteSink sink) {
+                    Map<String, Integer> dictionary = new HashMap<>();
+                    if (fixed != ColumnEncoding.PLAIN) {
+                        for (int i = 0; i < this.size; i++) {
+                            dictionary.putIfAbsent(this.values[i], dictionary.size());
+                        }
+                    }
+                    ColumnEncoding encoding = fixed != null
+                            ? fixed
+                            : dictionary.size() * 2 <= this.size ? ColumnEncoding.DICTIONARY : ColumnEncoding.PLAIN;
+                    sink.put((byte) encoding.ordinal());
+                    if (encoding == ColumnEncoding.PLAIN) {
+                        for (int i = 0; i < this.size; i++) {
+                            putString(sink, this.values[i]);
+                        }
+                    } else {
+                        String[] entries = new String[dictionary.size()];
+                        dictionary.forEach((value, index) -> entries[index] = value);
+                        sink.putVarLong(entries.length);
+                        for (String entry : entries) {
+                            putString(sink, entry);
+                        }
+                        for (int i = 0; i < this.size; i++) {
+                            sink.putVarLong(dictionary.get(this.values[i]));
+                        }
+                    }
+                    Arrays.fill(this.values, 0, this.size, null);
+                    this.size = 0;
+                    return encoding;
+                }
+            };
+        }
+
+        private static void putString(ByteSink sink, String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            sink.putVarLong(bytes.length);
+            sink.put(bytes);
+        }
+
+        @Override
+        ColumnReader<String> newReader(ByteBuffer chunk, int count) {
+            BytesCursor cursor = new BytesCursor(chunk);
+            return new ColumnReader<String>() {
+                @Override
+                String next() {
+                    return StandardCharsets.UTF_8.decode(cursor.next()).toString();
+                }
+            };
+        }
+
+        @Override
+        void visitBytes(ByteBuffer chunk, int count, Consumer<? super ByteBuffer> visitor) {
+            BytesCursor cursor = new BytesCursor(chunk);
+            for (int i = 0; i < count; i++) {
+                visitor.accept(cursor.next());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "strings";
+        }
+    }
+
+    /**
+     * Cursor returning a reused view of UTF-8 bytes of each string in chunk.
+     */
+    private static final class BytesCursor {
+        private final ByteBuffer chunk;
+        private final ByteBuffer view;
+        private final int[] entryPositions;
+        private final int[] entryLengths;
+
+        BytesCursor(ByteBuffer chunk) {
+            this.chunk = chunk.duplicate();
+            this.view = chunk.duplicate();
+            if (this.chunk.get() == ColumnEncoding.PLAIN.ordinal()) {
+                this.entryPositions = null;
+                this.entryLengths = null;
+                return;
+            }
+            int entries = (int) ByteSink.readVarLong(this.chunk);
+            this.entryPositions = new int[entries];
+            this.entryLengths = new int[entries];
+            for (int i = 0; i < entries; i++) {
+                this.entryLengths[i] = (int) ByteSink.readVarLong(this.chunk);
+                this.entryPositions[i] = this.chunk.position();
+                this.chunk.position(this.chunk.position() + this.entryLengths[i]);
+            }
+        }
+
+        ByteBuffer next() {
+            int position;
+            int length;
+            if (this.entryPositions == null) {
+                length = (int) ByteSink.readVarLong(this.chunk);
+                position = this.chunk.position();
+                this.chunk.position(position + length);
+            } else {
+                int index = (int) ByteSink.readVarLong(this.chunk);
+                position = this.entryPositions[index];
+                length = this.entryLengths[index];
+            }
+            this.view.limit(position + length).position(position);
+            return this.view;
+        }
+    }
+}
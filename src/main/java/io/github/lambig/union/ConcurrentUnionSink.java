@@ -0,0 +1,147 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Sink partitioning unions from many producer threads into left and right batches.
+ * Values are appended to one of striped buffers chosen by the producer thread,
+ * so producers on different stripes never contend,
+ * and drainTo swaps the buffers stripe by stripe without stopping producers.
+ * Values from a single thread keep their order within each side.
+ *
+ * @param <L> type of left value
+ * @param <R> type of right value
+ */
+public final class ConcurrentUnionSink<L, R> implements Consumer<Union<? extends L, ? extends R>> {
+    private final Stripe<L, R>[] stripes;
+    private final int mask;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private ConcurrentUnionSink(int stripeCount) {
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe<>();
+        }
+        this.mask = stripeCount - 1;
+    }
+
+    /**
+     * Returns sink with stripes enough for available processors.
+     *
+     * @param <L> type of left value
+     * @param <R> type of right value
+     * @return ConcurrentUnionSink instance
+     */
+    public static <L, R> ConcurrentUnionSink<L, R> create() {
+        return create(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * Returns sink with specified number of stripes.
+     *
+     * @param stripes minimum number of stripes, rounded up to power of 2
+     * @param <L>     type of left value
+     * @param <R>     type of right value
+     * @return ConcurrentUnionSink instance
+     */
+    public static <L, R> ConcurrentUnionSink<L, R> create(int stripes) {
+        if (stripes < 1 || stripes > 1 << 16) {
+            throw new IllegalArgumentException("stripes must be between 1 and 2^16: " + stripes);
+        }
+        return new ConcurrentUnionSink<>(stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1);
+    }
+
+    /**
+     * Appends left value.
+     *
+     * @param leftValue left value
+     */
+    public void addLeft(@NonNull L leftValue) {
+        Stripe<L, R> stripe = this.stripe();
+        synchronized (stripe) {
+            stripe.lefts.add(leftValue);
+        }
+    }
+
+    /**
+     * Appends right value.
+     *
+     * @param rightValue right value
+     */
+    public void addRight(@NonNull R rightValue) {
+        Stripe<L, R> stripe = this.stripe();
+        synchronized (stripe) {
+            stripe.rights.add(rightValue);
+        }
+    }
+
+    /**
+     * Appends value of the union to correspondent side.
+     *
+     * @param union union to append
+     */
+    @Override
+    public void accept(@NonNull Union<? extends L, ? extends R> union) {
+        // dispatches by hasLeft rather than accept, so that no method reference is bound per union
+        if (union.hasLeft()) {
+            this.addLeft(union.left());
+        } else {
+            this.addRight(union.right());
+        }
+    }
+
+    /**
+     * Takes all values appended so far, and passes them to consumers as a left batch and a right batch.
+     * Each stripe is locked only while its buffers are swapped.
+     * Values appended concurrently are included either in this batch or in the next one.
+     *
+     * @param leftBatchResolver  consumer accepts list of left values
+     * @param rightBatchResolver consumer accepts list of right values
+     */
+    public void drainTo(
+            @NonNull Consumer<? super List<L>> leftBatchResolver,
+            @NonNull Consumer<? super List<R>> rightBatchResolver) {
+        List<List<L>> leftBuffers = new ArrayList<>(this.stripes.length);
+        List<List<R>> rightBuffers = new ArrayList<>(this.stripes.length);
+        int leftSize = 0;
+        int rightSize = 0;
+        for (Stripe<L, R> stripe : this.stripes) {
+            List<L> lefts;
+            List<R> rights;
+            synchronized (stripe) {
+                lefts = stripe.lefts;
+                rights = stripe.rights;
+                stripe.lefts = new ArrayList<>(Math.max(lefts.size(), Stripe.INITIAL_CAPACITY));
+                stripe.rights = new ArrayList<>(Math.max(rights.size(), Stripe.INITIAL_CAPACITY));
+            }
+            leftBuffers.add(lefts);
+            rightBuffers.add(rights);
+            leftSize += lefts.size();
+            rightSize += rights.size();
+        }
+        leftBatchResolver.accept(concat(leftBuffers, leftSize));
+        rightBatchResolver.accept(concat(rightBuffers, rightSize));
+    }
+
+    private static <T> List<T> concat(List<List<T>> buffers, int size) {
+        List<T> batch = new ArrayList<>(size);
+        buffers.forEach(batch::addAll);
+        return batch;
+    }
+
+    private Stripe<L, R> stripe() {
+        long id = Thread.currentThread().getId();
+        return this.stripes[(int) (id ^ id >>> 16) & this.mask];
+    }
+
+    private static final class Stripe<L, R> {
+        static final int INITIAL_CAPACITY = 16;
+
+        List<L> lefts = new ArrayList<>(INITIAL_CAPACITY);
+        List<R> rights = new ArrayList<>(INITIAL_CAPACITY);
+    }
+}
@@ -0,0 +1,253 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Thread-safe UnionValueMap, striped by hash of key.
+ * Each stripe is a UnionValueMap locked only while it is read or written,
+ * so that threads on different stripes never contend.
+ * Resolvers are called after the lock is released.
+ *
+ * @param <K> type of key
+ * @param <L> type of left value
+ * @param <R> type of right value
+ */
+public final class ConcurrentUnionValueMap<K, L, R> {
+    private final UnionValueMap<K, L, R>[] stripes;
+    private final int shift;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private ConcurrentUnionValueMap(int stripeCount, int expectedSize) {
+        this.stripes = new UnionValueMap[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = UnionValueMap.create(expectedSize / stripeCount);
+        }
+        this.shift = Integer.SIZE - Integer.numberOfTrailingZeros(stripeCount);
+    }
+
+    /**
+     * Returns empty map with stripes enough for available processors.
+     *
+     * @param <K> type of key
+     * @param <L> type of left value
+     * @param <R> type of right value
+     * @return ConcurrentUnionValueMap instance
+     */
+    public static <K, L, R> ConcurrentUnionValueMap<K, L, R> create() {
+        return create(Runtime.getRuntime().availableProcessors() * 4, 0);
+    }
+
+    /**
+     * Returns empty map with specified number of stripes.
+     *
+     * @param stripes      minimum number of stripes, rounded up to power of 2
+     * @param expectedSize expected number of entries in total
+     * @param <K>          type of key
+     * @param <L>          type of left value
+     * @param <R>          type of right value
+     * @return ConcurrentUnionValueMap instance
+     */
+    public static <K, L, R> ConcurrentUnionValueMap<K, L, R> create(int stripes, int expectedSize) {
+        if (stripes < 1 || stripes > 1 << 16) {
+            throw new IllegalArgumentException("stripes must be between 1 and 2^16: " + stripes);
+        }
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+        }
+        return new ConcurrentUnionValueMap<>(stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1, expectedSize);
+    }
+
+    /**
+     * Returns number of entries, summed over stripes one by one.
+     *
+     * @return number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (UnionValueMap<K, L, R> stripe : this.stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns if the key is mapped.
+     *
+     * @param key key
+     * @return true if mapped to either value
+     */
+    public boolean containsKey(@NonNull K key) {
+        UnionValueMap<K, L, R> stripe = this.stripe(key);
+        synchronized (stripe) {
+            return stripe.containsKey(key);
+        }
+    }
+
+    /**
+     * Maps the key to left value, replacing the value of either side.
+     *
+     * @param key       key
+     * @param leftValue left value
+     */
+    public void putLeft(@NonNull K key, @NonNull L leftValue) {
+        UnionValueMap<K, L, R> stripe = this.stripe(key);
+        synchronized (stripe) {
+            stripe.putLeft(key, leftValue);
+        }
+    }
+
+    /**
+     * Maps the key to right value, replacing the value of either side.
+     *
+     * @param key        key
+     * @param rightValue right value
+     */
+    public void putRight(@NonNull K key, @NonNull R rightValue) {
+        UnionValueMap<K, L, R> stripe = this.stripe(key);
+        synchronized (stripe) {
+            stripe.putRight(key, rightValue);
+        }
+    }
+
+    /**
+     * Maps the key to the value of the union.
+     *
+     * @param key   key
+     * @param union union whose value is mapped
+     */
+    public void put(@NonNull K key, @NonNull Union<? extends L, ? extends R> union) {
+        // dispatches by hasLeft rather than accept, so that no lambda captures the key
+        if (union.hasLeft()) {
+            this.putLeft(key, union.left());
+        } else {
+            this.putRight(key, union.right());
+        }
+    }
+
+    /**
+     * Applies function of the side to the value mapped to the key.
+     *
+     * @param key           key
+     * @param leftResolver  function applied to left value
+     * @param rightResolver function applied to right value
+     * @param <O>           type of result
+     * @return result of the function, or null if the key is not mapped
+     */
+    public <O> O get(
+            @NonNull K key,
+            @NonNull Function<? super L, ? extends O> leftResolver,
+            @NonNull Function<? super R, ? extends O> rightResolver) {
+        UnionValueMap<K, L, R> stripe = this.stripe(key);
+        Object value;
+        boolean right;
+        synchronized (stripe) {
+            int index = stripe.indexOf(key);
+            if (index < 0) {
+                return null;
+            }
+            value = stripe.valueAt(index);
+            right = stripe.isRightAt(index);
+        }
+        return UnionValueMap.resolve(value, right, leftResolver, rightResolver);
+    }
+
+    /**
+     * Makes consumer of the side accept the value mapped to the key.
+     *
+     * @param key           key
+     * @param leftResolver  consumer accepts left value
+     * @param rightResolver consumer accepts right value
+     * @return true if the key is mapped
+     */
+    public boolean accept(
+            @NonNull K key,
+            @NonNull Consumer<? super L> leftResolver,
+            @NonNull Consumer<? super R> rightResolver) {
+        UnionValueMap<K, L, R> stripe = this.stripe(key);
+        Object value;
+        boolean right;
+        synchronized (stripe) {
+            int index = stripe.indexOf(key);
+            if (index < 0) {
+                return false;
+            }
+            value = stripe.valueAt(index);
+            right = stripe.isRightAt(index);
+        }
+        UnionValueMap.accept(value, right, leftResolver, rightResolver);
+        return true;
+    }
+
+    /**
+     * Returns the value mapped to the key as a new Union.
+     *
+     * @param key key
+     * @return Left or Right of the value, or empty if the key is not mapped
+     */
+    public Optional<Union<L, R>> getUnion(@NonNull K key) {
+        UnionValueMap<K, L, R> stripe = this.stripe(key);
+        synchronized (stripe) {
+            return stripe.getUnion(key);
+        }
+    }
+
+    /**
+     * Removes mapping of the key.
+     *
+     * @param key key
+     * @return true if the key was mapped
+     */
+    public boolean remove(@NonNull K key) {
+        UnionValueMap<K, L, R> stripe = this.stripe(key);
+        synchronized (stripe) {
+            return stripe.remove(key);
+        }
+    }
+
+    /**
+     * Makes consumer of the side accept each key and value, in no particular order.
+     * Each stripe is copied under its lock, so entries changed concurrently may or may not be visited.
+     *
+     * @param leftResolver  consumer accepts key and left value
+     * @param rightResolver consumer accepts key and right value
+     */
+    public void forEach(
+            @NonNull BiConsumer<? super K, ? super L> leftResolver,
+            @NonNull BiConsumer<? super K, ? super R> rightResolver) {
+        for (UnionValueMap<K, L, R> stripe : this.stripes) {
+            UnionValueMap<K, L, R> copy;
+            synchronized (stripe) {
+                copy = stripe.copy();
+            }
+            copy.forEach(leftResolver, rightResolver);
+        }
+    }
+
+    /**
+     * Removes all entries, stripe by stripe.
+     */
+    public void clear() {
+        for (UnionValueMap<K, L, R> stripe : this.stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * Chooses stripe by high bits of the hash, independent of slots chosen in the stripe by low bits.
+     */
+    private UnionValueMap<K, L, R> stripe(Object key) {
+        if (this.stripes.length == 1) {
+            return this.stripes[0];
+        }
+        return this.stripes[key.hashCode() * 0x85EBCA6B >>> this.shift];
+    }
+}
@@ -0,0 +1,298 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reader of a file of delimited records, parsing each record into Union of parsed value and parse error.
+ * Records are read into direct buffers by positional reads of FileChannel
+ * and handed to RecordParser as a buffer view, without creating String per record.
+ * The file is split into chunks of at least the buffer size to be parsed in parallel;
+ * a chunk owns records starting in it, so each record is parsed exactly once.
+ * Failures of reading are thrown as UncheckedIOException.
+ */
+public final class DelimitedRecordReader implements Closeable {
+    private static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final int MAX_BUFFER_SIZE = Integer.MAX_VALUE - 8;
+
+    private final FileChannel channel;
+    private final byte delimiter;
+    private final int bufferSize;
+
+    private DelimitedRecordReader(FileChannel channel, byte delimiter, int bufferSize) {
+        this.channel = channel;
+        this.delimiter = delimiter;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Opens file of records delimited by line feed, read by buffers of 1MiB.
+     *
+     * @param path path of the file
+     * @return DelimitedRecordReader instance
+     * @throws IOException if the file cannot be opened
+     */
+    public static DelimitedRecordReader open(@NonNull Path path) throws IOException {
+        return open(path, (byte) '\n', DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Opens file of delimited records.
+     * A buffer grows when a record is longer than it.
+     *
+     * @param path       path of the file
+     * @param delimiter  byte delimiting records
+     * @param bufferSize initial size of buffer per chunk, and minimum size of chunk
+     * @return DelimitedRecordReader instance
+     * @throws IOException if the file cannot be opened
+     */
+    public static DelimitedRecordReader open(@NonNull Path path, byte delimiter, int bufferSize) throws IOException {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        }
+        return new DelimitedRecordReader(FileChannel.open(path, StandardOpenOption.READ), delimiter, bufferSize);
+    }
+
+    /**
+     * Parses records in order, and makes either consumer accept correspondent value.
+     *
+     * @param parser        parser of record
+     * @param leftResolver  consumer accepts parsed value
+     * @param rightResolver consumer accepts parse error
+     * @param <L>           type of parsed value
+     * @param <R>           type of parse error
+     */
+    public <L, R> void forEach(
+            @NonNull RecordParser<? extends L, ? extends R> parser,
+            @NonNull Consumer<? super L> leftResolver,
+            @NonNull Consumer<? super R> rightResolver) {
+        this.<L, R>spliterator(parser).forEachRemaining(union -> union.accept(leftResolver, rightResolver));
+    }
+
+    /**
+     * Parses chunks of records in parallel on the common pool, and makes either consumer accept correspondent value.
+     * NOTE: Consumers are called concurrently and out of order.
+     *
+     * @param parser        parser of record, called concurrently
+     * @param leftResolver  thread-safe consumer accepts parsed value
+     * @param rightResolver thread-safe consumer accepts parse error
+     * @param <L>           type of parsed value
+     * @param <R>           type of parse error
+     */
+    public <L, R> void forEachParallel(
+            @NonNull RecordParser<? extends L, ? extends R> parser,
+            @NonNull Consumer<? super L> leftResolver,
+            @NonNull Consumer<? super R> rightResolver) {
+        this.<L, R>stream(parser).parallel().forEach(union -> union.accept(leftResolver, rightResolver));
+    }
+
+    /**
+     * Returns lazy stream of parsed records in order.
+     * The stream reads the file as it is consumed, and is split by chunks when made parallel.
+     * The stream is valid until this reader is closed.
+     *
+     * @param parser parser of record
+     * @param <L>    type of parsed value
+     * @param <R>    type of parse error
+     * @return stream of Left with parsed value, or Right with parse error
+     */
+    public <L, R> Stream<Union<L, R>> stream(@NonNull RecordParser<? extends L, ? extends R> parser) {
+        return StreamSupport.stream(this.spliterator(parser), false);
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private <L, R> Spliterator<Union<L, R>> spliterator(RecordParser<? extends L, ? extends R> parser) {
+        long size;
+        try {
+            size = this.channel.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Chunk<>(parser, 0L, size, size);
+    }
+
+    /**
+     * Spliterator of records starting in [start, end) of the file.
+     * The buffer holds bytes of the file from bufferOffset, and the next record begins at recordStart in it.
+     */
+    private final class Chunk<L, R> implements Spliterator<Union<L, R>> {
+        private final RecordParser<? extends L, ? extends R> parser;
+        private final long fileSize;
+        private long start;
+        private final long end;
+        private ByteBuffer buffer;
+        private ByteBuffer view;
+        private long bufferOffset;
+        private int recordStart;
+        private boolean finished;
+
+        Chunk(RecordParser<? extends L, ? extends R> parser, long start, long end, long fileSize) {
+            this.parser = parser;
+            this.start = start;
+            this.end = end;
+            this.fileSize = fileSize;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Union<L, R>> action) {
+            if (this.buffer == null && !this.finished) {
+                this.begin();
+            }
+            if (this.finished) {
+                return false;
+            }
+            long recordOffset = this.bufferOffset + this.recordStart;
+            if (recordOffset >= this.end) {
+                this.finish();
+                return false;
+            }
+            int delimiterIndex = this.findDelimiter();
+            int recordEnd = delimiterIndex < 0 ? this.buffer.limit() : delimiterIndex;
+            this.view.limit(recordEnd).position(this.recordStart);
+            Union<? extends L, ? extends R> parsed = this.parser.parse(this.view, recordOffset);
+            if (delimiterIndex < 0) {
+                // the last record without trailing delimiter
+                this.finish();
+            } else {
+                this.recordStart = delimiterIndex + 1;
+            }
+            action.accept(narrow(parsed));
+            return true;
+        }
+
+        @Override
+        public Spliterator<Union<L, R>> trySplit() {
+            long size = this.end - this.start;
+            if (this.buffer != null || this.finished || size / 2 < DelimitedRecordReader.this.bufferSize) {
+                return null;
+            }
+            long middle = this.start + size / 2;
+            Chunk<L, R> prefix = new Chunk<>(this.parser, this.start, middle, this.fileSize);
+            this.start = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            // bytes, as the number of records is unknown
+            return this.end - this.start;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+
+        private void begin() {
+            this.buffer = ByteBuffer.allocateDirect(DelimitedRecordReader.this.bufferSize);
+            this.buffer.limit(0);
+            this.view = this.buffer.duplicate();
+            if (this.start == 0) {
+                this.bufferOffset = 0;
+                return;
+            }
+            // the record containing the byte before start belongs to the previous chunk
+            this.bufferOffset = this.start - 1;
+            int delimiterIndex = this.findDelimiter();
+            if (delimiterIndex < 0) {
+                this.finish();
+            } else {
+                this.recordStart = delimiterIndex + 1;
+            }
+        }
+
+        private void finish() {
+            this.finished = true;
+            this.buffer = null;
+            this.view = null;
+        }
+
+        /**
+         * Returns index of delimiter following recordStart, reading the file as needed, or -1 at the end of the file.
+         */
+        private int findDelimiter() {
+            byte delimiter = DelimitedRecordReader.this.delimiter;
+            int from = this.recordStart;
+            while (true) {
+                ByteBuffer buffer = this.buffer;
+                for (int i = from, limit = buffer.limit(); i < limit; i++) {
+                    if (buffer.get(i) == delimiter) {
+                        return i;
+                    }
+                }
+                int scanned = buffer.limit() - this.recordStart;
+                if (!this.fill()) {
+                    return -1;
+                }
+                from = this.recordStart + scanned;
+            }
+        }
+
+        /**
+         * Moves bytes from recordStart to the head of the buffer, and reads following bytes after them.
+         */
+        private boolean fill() {
+            long readPosition = this.bufferOffset + this.buffer.limit();
+            if (readPosition >= this.fileSize) {
+                return false;
+            }
+            this.buffer.position(this.recordStart);
+            this.buffer.compact();
+            this.bufferOffset += this.recordStart;
+            this.recordStart = 0;
+            if (!this.buffer.hasRemaining()) {
+                this.grow();
+            }
+            this.buffer.limit(this.buffer.position() + (int) Math.min(this.buffer.remaining(), this.fileSize - readPosition));
+            try {
+                while (this.buffer.hasRemaining()) {
+                    if (DelimitedRecordReader.this.channel.read(this.buffer, this.bufferOffset + this.buffer.position()) < 0) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.buffer.flip();
+            return true;
+        }
+
+        private void grow() {
+            int capacity = this.buffer.capacity();
+            if (capacity == MAX_BUFFER_SIZE) {
+                throw new IllegalStateException("record at " + this.bufferOffset + " is longer than " + MAX_BUFFER_SIZE + " bytes");
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect((int) Math.min((long) capacity * 2, MAX_BUFFER_SIZE));
+            this.buffer.flip();
+            grown.put(this.buffer);
+            this.buffer = grown;
+            this.view = grown.duplicate();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <L, R> Union<L, R> narrow(Union<? extends L, ? extends R> union) {
+        // unions are read-only, so covariant view is safe
+        return (Union<L, R>) union;
+    }
+}
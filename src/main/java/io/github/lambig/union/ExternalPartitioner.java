@@ -0,0 +1,790 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Partition of unions by side for datasets larger than the heap, spilling to temporary files.
+ * Unions are accepted through Union.accept into a bounded buffer of encoded values per side.
+ * A side is sorted and spilled as a run file when it holds runSize values,
+ * and the larger side is spilled when both hold more than memoryBudget bytes.
+ * The bytes of a side with comparator include what spilling it takes to sort: the values decoded,
+ * taken to be as large as encoded, and two int arrays of their indexes.
+ * Reading a partition ends the input, and yields the values of the side by a streaming k-way merge of its runs,
+ * with intermediate merge passes while there are more runs than fanIn.
+ * Values of a side are ordered by its comparator, keeping the arrival order of equal values; without comparator,
+ * in arrival order.
+ * Run files hold records of little-endian int length and the value encoded by the codec of the side,
+ * in a temporary directory under spillDirectory; each file is deleted once merged, and the directory by close().
+ * NOTE: Not thread-safe; accept and read from a single thread.
+ *
+ * @param <L> type of left value
+ * @param <R> type of right value
+ */
+public final class ExternalPartitioner<L, R> implements Consumer<Union<? extends L, ? extends R>>, Closeable {
+    private static final int MIN_IO_BUFFER = 4096;
+    private static final int MAX_IO_BUFFER = 1 << 20;
+    // per value sorted on spill: two ints of indexes and a reference to the decoded value
+    private static final int SORT_BYTES_PER_VALUE = 2 * Integer.BYTES + 8;
+
+    private final Side<L> lefts;
+    private final Side<R> rights;
+    private final Path spillDirectory;
+    private final long memoryBudget;
+    private final int runSize;
+    private final int fanIn;
+    private final int ioBufferSize;
+    private final List<Closeable> openReaders = new ArrayList<>();
+    private Path runDirectory;
+    private int runNumber;
+    private int mergePasses;
+    private boolean finished;
+    private boolean closed;
+
+    private ExternalPartitioner(Builder<L, R> builder) {
+        this.lefts = new Side<>("left", builder.leftCodec, builder.leftOrder);
+        this.rights = new Side<>("right", builder.rightCodec, builder.rightOrder);
+        this.spillDirectory = builder.spillDirectory;
+        this.memoryBudget = builder.memoryBudget;
+        this.runSize = builder.runSize;
+        this.fanIn = builder.fanIn;
+        // one buffer for each merged run and one for the output run
+        this.ioBufferSize = (int) Math.min(MAX_IO_BUFFER, Math.max(MIN_IO_BUFFER, builder.memoryBudget / (builder.fanIn + 1)));
+    }
+
+    /**
+     * Returns builder of ExternalPartitioner encoding values by the codecs.
+     *
+     * @param leftCodec  codec of left value
+     * @param rightCodec codec of right value
+     * @param <L>        type of left value
+     * @param <R>        type of right value
+     * @return builder
+     */
+    public static <L, R> Builder<L, R> builder(@NonNull BinaryCodec<L> leftCodec, @NonNull BinaryCodec<R> rightCodec) {
+        return new Builder<>(leftCodec, rightCodec);
+    }
+
+    /**
+     * Adds the value of the union to its side.
+     *
+     * @param union union to partition
+     * @throws IllegalStateException if a partition is already read
+     * @throws UncheckedIOException  if spilling fails
+     */
+    @Override
+    public void accept(@NonNull Union<? extends L, ? extends R> union) {
+        // dispatches by hasLeft rather than accept, so that no method reference is bound per union
+        if (union.hasLeft()) {
+            this.addLeft(union.left());
+        } else {
+            this.addRight(union.right());
+        }
+    }
+
+    /**
+     * Adds left value.
+     *
+     * @param value left value
+     * @throws IllegalStateException if a partition is already read
+     * @throws UncheckedIOException  if spilling fails
+     */
+    public void addLeft(@NonNull L value) {
+        this.lefts.add(value);
+    }
+
+    /**
+     * Adds right value.
+     *
+     * @param value right value
+     * @throws IllegalStateException if a partition is already read
+     * @throws UncheckedIOException  if spilling fails
+     */
+    public void addRight(@NonNull R value) {
+        this.rights.add(value);
+    }
+
+    /**
+     * Ends the input and returns iterator of left values. Can be called once.
+     *
+     * @return iterator of left values in order
+     * @throws IllegalStateException if the left partition is already read
+     * @throws UncheckedIOException  if reading or merging runs fails
+     */
+    public Iterator<L> lefts() {
+        return this.lefts.read();
+    }
+
+    /**
+     * Ends the input and returns iterator of right values. Can be called once.
+     *
+     * @return iterator of right values in order
+     * @throws IllegalStateException if the right partition is already read
+     * @throws UncheckedIOException  if reading or merging runs fails
+     */
+    public Iterator<R> rights() {
+        return this.rights.read();
+    }
+
+    /**
+     * Ends the input and passes left values then right values to the consumers.
+     *
+     * @param leftConsumer  consumer of left values
+     * @param rightConsumer consumer of right values
+     */
+    public void forEach(@NonNull Consumer<? super L> leftConsumer, @NonNull Consumer<? super R> rightConsumer) {
+        this.lefts().forEachRemaining(leftConsumer);
+        this.rights().forEachRemaining(rightConsumer);
+    }
+
+    /**
+     * Ends the input and returns sequential stream of left unions then right unions, closing this partitioner on close.
+     *
+     * @return stream of unions
+     */
+    public Stream<Union<L, R>> stream() {
+        Stream<Union<L, R>> lefts = stream(this.lefts()).map(UnionOf::left);
+        // the right partition is read once the left one is exhausted
+        Stream<Union<L, R>> rights = Stream.of(this.rights).flatMap(side -> stream(side.read())).map(UnionOf::right);
+        return Stream.concat(lefts, rights).onClose(this::close);
+    }
+
+    /**
+     * Returns number of left values accepted.
+     *
+     * @return number of left values
+     */
+    public long leftCount() {
+        return this.lefts.total;
+    }
+
+    /**
+     * Returns number of right values accepted.
+     *
+     * @return number of right values
+     */
+    public long rightCount() {
+        return this.rights.total;
+    }
+
+    /**
+     * Returns number of runs spilled from memory, of both sides.
+     *
+     * @return number of spilled runs
+     */
+    public int spilledRunCount() {
+        return this.lefts.spilledRuns + this.rights.spilledRuns;
+    }
+
+    /**
+     * Returns number of intermediate merge passes, of both sides.
+     *
+     * @return number of merge passes
+     */
+    public int mergePassCount() {
+        return this.mergePasses;
+    }
+
+    /**
+     * Closes open run files and deletes the temporary directory. Idempotent.
+     *
+     * @throws UncheckedIOException if deleting fails
+     */
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.finished = true;
+        this.openReaders.forEach(ExternalPartitioner::closeQuietly);
+        this.openReaders.clear();
+        this.lefts.release();
+        this.rights.release();
+        if (this.runDirectory == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(this.runDirectory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long bufferedBytes() {
+        return this.lefts.bufferedBytes() + this.rights.bufferedBytes();
+    }
+
+    private Path newRun() throws IOException {
+        if (this.runDirectory == null) {
+            Files.createDirectories(this.spillDirectory);
+            this.runDirectory = Files.createTempDirectory(this.spillDirectory, "union-partition-");
+        }
+        return this.runDirectory.resolve("run-" + this.runNumber++);
+    }
+
+    private <T> RunReader<T> open(Path run, int index, BinaryCodec<T> codec) throws IOException {
+        RunReader<T> reader = new RunReader<>(run, index, codec, this.ioBufferSize);
+        this.openReaders.add(reader);
+        return reader;
+    }
+
+    private void retire(RunReader<?> reader) throws IOException {
+        this.openReaders.remove(reader);
+        reader.close();
+        Files.deleteIfExists(reader.path);
+    }
+
+    private static <T> Stream<T> stream(Iterator<T> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // deleted with the directory anyway
+        }
+    }
+
+    /**
+     * Buffer and runs of a side. Buffered values are encoded back to back, starting at the offsets.
+     */
+    private final class Side<T> {
+        private final String name;
+        private final BinaryCodec<T> codec;
+        private final Comparator<? super T> order;
+        private final List<Path> runs = new ArrayList<>();
+        private ByteSink records = new ByteSink(MIN_IO_BUFFER);
+        private int[] offsets = new int[64];
+        private int count;
+        private long total;
+        private int spilledRuns;
+        private boolean read;
+
+        private Side(String name, BinaryCodec<T> codec, Comparator<? super T> order) {
+            this.name = name;
+            this.codec = codec;
+            this.order = order;
+        }
+
+        private void add(T value) {
+            if (ExternalPartitioner.this.finished) {
+                throw new IllegalStateException("ExternalPartitioner is finished");
+            }
+            if (this.count == this.offsets.length) {
+                this.offsets = Arrays.copyOf(this.offsets, this.count * 2);
+            }
+            this.offsets[this.count++] = this.records.position();
+            this.records.put(this.codec, value);
+            this.total++;
+            try {
+                if (this.count >= ExternalPartitioner.this.runSize) {
+                    this.spill();
+                } else if (ExternalPartitioner.this.bufferedBytes() > ExternalPartitioner.this.memoryBudget) {
+                    Side<?> other = this == ExternalPartitioner.this.lefts ? ExternalPartitioner.this.rights : ExternalPartitioner.this.lefts;
+                    (other.bufferedBytes() > this.bufferedBytes() ? other : this).spill();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private long bufferedBytes() {
+            long bytes = this.records.position() + (long) this.count * Integer.BYTES;
+            return this.order == null ? bytes : bytes + this.records.position() + (long) this.count * SORT_BYTES_PER_VALUE;
+        }
+
+        private Iterator<T> read() {
+            if (ExternalPartitioner.this.closed) {
+                throw new IllegalStateException("ExternalPartitioner is closed");
+            }
+            if (this.read) {
+                throw new IllegalStateException(this.name + " partition is already read");
+            }
+            this.read = true;
+            ExternalPartitioner.this.finished = true;
+            try {
+                if (this.runs.isEmpty()) {
+                    List<T> values = this.decodeAll(this.records.flip());
+                    if (this.order != null) {
+                        values.sort(this.order);
+                    }
+                    this.release();
+                    return values.iterator();
+                }
+                this.spill();
+                this.release();
+                if (this.order == null) {
+                    return new SequentialIterator();
+                }
+                while (this.runs.size() > ExternalPartitioner.this.fanIn) {
+                    this.mergePass();
+                }
+                return new MergeIterator();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private List<T> decodeAll(ByteBuffer bytes) {
+            List<T> values = new ArrayList<>(this.count);
+            for (int i = 0; i < this.count; i++) {
+                values.add(this.codec.decode(this.record(bytes, i)));
+            }
+            return values;
+        }
+
+        /**
+         * Returns indexes of buffered values in order, decoding them only to compare.
+         * Sorts by a bottom-up merge of int arrays, stable so that equal values keep the arrival order.
+         */
+        private int[] sortedIndexes(ByteBuffer bytes) {
+            int[] indexes = new int[this.count];
+            Arrays.setAll(indexes, i -> i);
+            if (this.order == null) {
+                return indexes;
+            }
+            List<T> values = this.decodeAll(bytes);
+            int[] merged = new int[this.count];
+            for (int width = 1; width < this.count; width <<= 1) {
+                for (int from = 0; from < this.count; from += width * 2) {
+                    int middle = Math.min(from + width, this.count);
+                    int to = Math.min(from + width * 2, this.count);
+                    int i = from;
+                    int j = middle;
+                    int k = from;
+                    while (i < middle && j < to) {
+                        merged[k++] = this.order.compare(values.get(indexes[j]), values.get(indexes[i])) < 0 ? indexes[j++] : indexes[i++];
+                    }
+                    System.arraycopy(indexes, i, merged, k, middle - i);
+                    System.arraycopy(indexes, j, merged, k + middle - i, to - j);
+                }
+                int[] swap = indexes;
+                indexes = merged;
+                merged = swap;
+            }
+            return indexes;
+        }
+
+        private ByteBuffer record(ByteBuffer bytes, int index) {
+            int end = index + 1 < this.count ? this.offsets[index + 1] : bytes.limit();
+            ByteBuffer record = bytes.duplicate();
+            record.limit(end).position(this.offsets[index]);
+            return record.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private void spill() throws IOException {
+            if (this.count == 0) {
+                return;
+            }
+            ByteBuffer bytes = this.records.flip();
+            Path run = ExternalPartitioner.this.newRun();
+            try (RunWriter writer = new RunWriter(run, ExternalPartitioner.this.ioBufferSize)) {
+                for (int index : this.sortedIndexes(bytes)) {
+                    writer.write(this.record(bytes, index));
+                }
+            }
+            this.runs.add(run);
+            this.spilledRuns++;
+            this.records.clear();
+            this.count = 0;
+        }
+
+        /**
+         * Merges consecutive groups of fanIn runs into one run each, keeping the order of runs for stability.
+         */
+        private void mergePass() throws IOException {
+            List<Path> merged = new ArrayList<>();
+            for (int from = 0; from < this.runs.size(); from += ExternalPartitioner.this.fanIn) {
+                List<Path> group = this.runs.subList(from, Math.min(from + ExternalPartitioner.this.fanIn, this.runs.size()));
+                if (group.size() == 1) {
+                    merged.add(group.get(0));
+                    continue;
+                }
+                Path run = ExternalPartitioner.this.newRun();
+                PriorityQueue<RunReader<T>> queue = this.openAll(group);
+                try (RunWriter writer = new RunWriter(run, ExternalPartitioner.this.ioBufferSize)) {
+                    while (!queue.isEmpty()) {
+                        RunReader<T> reader = queue.poll();
+                        writer.write(reader.record());
+                        this.advance(queue, reader);
+                    }
+                }
+                merged.add(run);
+            }
+            this.runs.clear();
+            this.runs.addAll(merged);
+            ExternalPartitioner.this.mergePasses++;
+        }
+
+        private PriorityQueue<RunReader<T>> openAll(List<Path> runs) throws IOException {
+            PriorityQueue<RunReader<T>> queue = new PriorityQueue<>(Math.max(1, runs.size()), (a, b) -> {
+                int compared = this.order.compare(a.head, b.head);
+                return compared != 0 ? compared : Integer.compare(a.index, b.index);
+            });
+            for (int i = 0; i < runs.size(); i++) {
+                RunReader<T> reader = ExternalPartitioner.this.open(runs.get(i), i, this.codec);
+                if (reader.hasHead()) {
+                    queue.add(reader);
+                } else {
+                    ExternalPartitioner.this.retire(reader);
+                }
+            }
+            return queue;
+        }
+
+        private void advance(PriorityQueue<RunReader<T>> queue, RunReader<T> reader) throws IOException {
+            if (reader.advance()) {
+                queue.add(reader);
+            } else {
+                ExternalPartitioner.this.retire(reader);
+            }
+        }
+
+        private void release() {
+            this.records = new ByteSink(0);
+            this.offsets = new int[0];
+            this.count = 0;
+        }
+
+        /**
+         * Streaming k-way merge of the runs.
+         */
+        private final class MergeIterator implements Iterator<T> {
+            private final PriorityQueue<RunReader<T>> queue;
+
+            private MergeIterator() throws IOException {
+                this.queue = Side.this.openAll(Side.this.runs);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !this.queue.isEmpty();
+            }
+
+            @Override
+            public T next() {
+                if (this.queue.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                RunReader<T> reader = this.queue.poll();
+                T value = reader.head;
+                try {
+                    Side.this.advance(this.queue, reader);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return value;
+            }
+        }
+
+        /**
+         * Concatenation of the runs in order, opening one at a time.
+         */
+        private final class SequentialIterator implements Iterator<T> {
+            private int next;
+            private RunReader<T> current;
+
+            @Override
+            public boolean hasNext() {
+                try {
+                    while (this.current == null || !this.current.hasHead()) {
+                        if (this.current != null) {
+                            ExternalPartitioner.this.retire(this.current);
+                            this.current = null;
+                        }
+                        if (this.next == Side.this.runs.size()) {
+                            return false;
+                        }
+                        this.current = ExternalPartitioner.this.open(Side.this.runs.get(this.next), this.next, Side.this.codec);
+                        this.next++;
+                    }
+                    return true;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public T next() {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T value = this.current.head;
+                try {
+                    this.current.advance();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Buffered writer of length-prefixed records to a run file.
+     */
+    private static final class RunWriter implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        private RunWriter(Path path, int bufferSize) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            this.buffer = ByteBuffer.allocate(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private void write(ByteBuffer record) throws IOException {
+            int length = record.remaining();
+            if (this.buffer.remaining() < Integer.BYTES + length) {
+                this.flush();
+            }
+            if (this.buffer.remaining() < Integer.BYTES + length) {
+                // larger than the buffer, written directly
+                this.buffer.putInt(length);
+                this.flush();
+                this.writeFully(record);
+                return;
+            }
+            this.buffer.putInt(length).put(record);
+        }
+
+        private void flush() throws IOException {
+            this.buffer.flip();
+            this.writeFully(this.buffer);
+            this.buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer source) throws IOException {
+            while (source.hasRemaining()) {
+                this.channel.write(source);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.flush();
+            } finally {
+                this.channel.close();
+            }
+        }
+    }
+
+    /**
+     * Buffered reader of a run file, holding the decoded head record.
+     */
+    private static final class RunReader<T> implements Closeable {
+        private final Path path;
+        private final int index;
+        private final BinaryCodec<T> codec;
+        private final FileChannel channel;
+        private ByteBuffer buffer;
+        private T head;
+        private int start;
+        private int length = -1;
+
+        private RunReader(Path path, int index, BinaryCodec<T> codec, int bufferSize) throws IOException {
+            this.path = path;
+            this.index = index;
+            this.codec = codec;
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.buffer = ByteBuffer.allocate(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+            this.buffer.flip();
+            this.advance();
+        }
+
+        private boolean hasHead() {
+            return this.length >= 0;
+        }
+
+        /**
+         * Reads the next record as the head.
+         *
+         * @return false if the run is exhausted
+         */
+        private boolean advance() throws IOException {
+            if (!this.fill(Integer.BYTES)) {
+                if (this.buffer.hasRemaining()) {
+                    throw new IOException("truncated run file: " + this.path);
+                }
+                this.head = null;
+                this.length = -1;
+                return false;
+            }
+            int length = this.buffer.getInt();
+            if (!this.fill(length)) {
+                throw new IOException("truncated run file: " + this.path);
+            }
+            this.start = this.buffer.position();
+            this.length = length;
+            this.head = this.codec.decode(this.record());
+            this.buffer.position(this.start + length);
+            return true;
+        }
+
+        /**
+         * Returns bytes of the head record, valid until the next advance.
+         */
+        private ByteBuffer record() {
+            ByteBuffer record = this.buffer.duplicate();
+            record.limit(this.start + this.length).position(this.start);
+            return record.slice().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private boolean fill(int bytes) throws IOException {
+            if (this.buffer.remaining() >= bytes) {
+                return true;
+            }
+            this.buffer.compact();
+            if (this.buffer.capacity() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(this.buffer.capacity() * 2, bytes)).order(ByteOrder.LITTLE_ENDIAN);
+                this.buffer.flip();
+                grown.put(this.buffer);
+                this.buffer = grown;
+            }
+            while (this.buffer.position() < bytes && this.channel.read(this.buffer) >= 0) {
+                // reads until the record is whole or the end of the file
+            }
+            this.buffer.flip();
+            return this.buffer.remaining() >= bytes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Builder of ExternalPartitioner.
+     *
+     * @param <L> type of left value
+     * @param <R> type of right value
+     */
+    public static final class Builder<L, R> {
+        private final BinaryCodec<L> leftCodec;
+        private final BinaryCodec<R> rightCodec;
+        private Comparator<? super L> leftOrder;
+        private Comparator<? super R> rightOrder;
+        private Path spillDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+        private long memoryBudget = 64L << 20;
+        private int runSize = 1 << 20;
+        private int fanIn = 64;
+
+        private Builder(BinaryCodec<L> leftCodec, BinaryCodec<R> rightCodec) {
+            this.leftCodec = leftCodec;
+            this.rightCodec = rightCodec;
+        }
+
+        /**
+         * Sets order of left values (default arrival order).
+         *
+         * @param leftOrder comparator of left values
+         * @return this builder
+         */
+        public Builder<L, R> leftOrder(@NonNull Comparator<? super L> leftOrder) {
+            this.leftOrder = leftOrder;
+            return this;
+        }
+
+        /**
+         * Sets order of right values (default arrival order).
+         *
+         * @param rightOrder comparator of right values
+         * @return this builder
+         */
+        public Builder<L, R> rightOrder(@NonNull Comparator<? super R> rightOrder) {
+            this.rightOrder = rightOrder;
+            return this;
+        }
+
+        /**
+         * Sets directory in which the temporary directory of runs is made (default java.io.tmpdir).
+         *
+         * @param spillDirectory parent directory of runs, made if absent
+         * @return this builder
+         */
+        public Builder<L, R> spillDirectory(@NonNull Path spillDirectory) {
+            this.spillDirectory = spillDirectory;
+            return this;
+        }
+
+        /**
+         * Sets bytes of encoded values buffered for both sides before spilling (default 64 MiB),
+         * including what sorting them on spill takes for a side with comparator.
+         * The buffers may grow up to twice of it; merge buffers are a share of it.
+         *
+         * @param memoryBudget budget in bytes, must be positive
+         * @return this builder
+         */
+        public Builder<L, R> memoryBudget(long memoryBudget) {
+            if (memoryBudget < 1) {
+                throw new IllegalArgumentException("memoryBudget must be positive: " + memoryBudget);
+            }
+            this.memoryBudget = memoryBudget;
+            return this;
+        }
+
+        /**
+         * Sets maximum number of values of a run (default 2^20).
+         *
+         * @param runSize values per run, must be positive
+         * @return this builder
+         */
+        public Builder<L, R> runSize(int runSize) {
+            if (runSize < 1) {
+                throw new IllegalArgumentException("runSize must be positive: " + runSize);
+            }
+            this.runSize = runSize;
+            return this;
+        }
+
+        /**
+         * Sets maximum number of runs merged at once (default 64).
+         *
+         * @param fanIn runs per merge, must be at least 2
+         * @return this builder
+         */
+        public Builder<L, R> fanIn(int fanIn) {
+            if (fanIn < 2) {
+                throw new IllegalArgumentException("fanIn must be at least 2: " + fanIn);
+            }
+            this.fanIn = fanIn;
+            return this;
+        }
+
+        /**
+         * Builds ExternalPartitioner. Nothing is written until the first spill.
+         *
+         * @return ExternalPartitioner instance
+         */
+        public ExternalPartitioner<L, R> build() {
+            return new ExternalPartitioner<>(this);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.RandomAccess;
+
+/**
+ * Append-only list of unions with a SideIndex over their sides,
+ * answering the number of lefts or rights before a position in constant time,
+ * and the k-th left or right value in constant time when the side is spread evenly
+ * (a sparse side is searched in logarithmic time between its samples),
+ * and iterating the values of one side without visiting the other.
+ * Elements are added at the end only; replacing or removing them is not supported.
+ * NOTE: Not thread-safe.
+ *
+ * @param <L> type of left value
+ * @param <R> type of right value
+ */
+public final class IndexedUnionList<L, R> extends AbstractList<Union<L, R>> implements RandomAccess {
+    private final List<Union<L, R>> unions;
+    private final SideIndex index = SideIndex.create();
+
+    private IndexedUnionList(int capacity) {
+        this.unions = new ArrayList<>(capacity);
+    }
+
+    /**
+     * Returns empty list.
+     *
+     * @param <L> type of left value
+     * @param <R> type of right value
+     * @return IndexedUnionList instance
+     */
+    public static <L, R> IndexedUnionList<L, R> create() {
+        return new IndexedUnionList<>(10);
+    }
+
+    /**
+     * Returns list of the unions in iteration order of the collection.
+     *
+     * @param unions unions
+     * @param <L>    type of left value
+     * @param <R>    type of right value
+     * @return IndexedUnionList instance
+     */
+    public static <L, R> IndexedUnionList<L, R> of(@NonNull Collection<? extends Union<L, R>> unions) {
+        IndexedUnionList<L, R> list = new IndexedUnionList<>(unions.size());
+        list.addAll(unions);
+        return list;
+    }
+
+    @Override
+    public boolean add(@NonNull Union<L, R> union) {
+        this.unions.add(union);
+        this.index.accept(union);
+        this.modCount++;
+        return true;
+    }
+
+    @Override
+    public Union<L, R> get(int index) {
+        return this.unions.get(index);
+    }
+
+    @Override
+    public int size() {
+        return this.unions.size();
+    }
+
+    /**
+     * Returns number of lefts in the list.
+     *
+     * @return number of lefts
+     */
+    public int countLeft() {
+        return this.index.countLeft();
+    }
+
+    /**
+     * Returns number of rights in the list.
+     *
+     * @return number of rights
+     */
+    public int countRight() {
+        return this.index.countRight();
+    }
+
+    /**
+     * Returns number of lefts before the index.
+     *
+     * @param index index from 0 to size, inclusive
+     * @return number of lefts in [0, index)
+     */
+    public int rankLeft(int index) {
+        return this.index.rankLeft(index);
+    }
+
+    /**
+     * Returns number of rights before the index.
+     *
+     * @param index index from 0 to size, inclusive
+     * @return number of rights in [0, index)
+     */
+    public int rankRight(int index) {
+        return this.index.rankRight(index);
+    }
+
+    /**
+     * Returns index of the k-th left.
+     *
+     * @param k rank of left from 0
+     * @return index of the element
+     * @throws IndexOutOfBoundsException if k is not less than the number of lefts
+     */
+    public int selectLeft(int k) {
+        return this.index.selectLeft(k);
+    }
+
+    /**
+     * Returns index of the k-th right.
+     *
+     * @param k rank of right from 0
+     * @return index of the element
+     * @throws IndexOutOfBoundsException if k is not less than the number of rights
+     */
+    public int selectRight(int k) {
+        return this.index.selectRight(k);
+    }
+
+    /**
+     * Returns the k-th left value.
+     *
+     * @param k rank of left from 0
+     * @return left value
+     * @throws IndexOutOfBoundsException if k is not less than the number of lefts
+     */
+    public L left(int k) {
+        return this.unions.get(this.index.selectLeft(k)).left();
+    }
+
+    /**
+     * Returns the k-th right value.
+     *
+     * @param k rank of right from 0
+     * @return right value
+     * @throws IndexOutOfBoundsException if k is not less than the number of rights
+     */
+    public R right(int k) {
+        return this.unions.get(this.index.selectRight(k)).right();
+    }
+
+    /**
+     * Returns iterator of left values of the elements from the index.
+     *
+     * @param fromIndex index of element to start from
+     * @return iterator of left values
+     */
+    public Iterator<L> lefts(int fromIndex) {
+        PrimitiveIterator.OfInt indexes = this.index.leftIndexes(fromIndex);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return indexes.hasNext();
+            }
+
+            @Override
+            public L next() {
+                if (!indexes.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return IndexedUnionList.this.unions.get(indexes.nextInt()).left();
+            }
+        };
+    }
+
+    /**
+     * Returns iterator of right values of the elements from the index.
+     *
+     * @param fromIndex index of element to start from
+     * @return iterator of right values
+     */
+    public Iterator<R> rights(int fromIndex) {
+        PrimitiveIterator.OfInt indexes = this.index.rightIndexes(fromIndex);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return indexes.hasNext();
+            }
+
+            @Override
+            public R next() {
+                if (!indexes.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return IndexedUnionList.this.unions.get(indexes.nextInt()).right();
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Writer and reader of values as JSON, for UnionJsonCodec.
+ *
+ * @param <T> type of value
+ */
+public interface JsonCodec<T> {
+
+    /**
+     * Writes the value as one JSON value.
+     *
+     * @param value  value to write
+     * @param writer writer at a value position
+     */
+    void write(T value, JsonWriter writer);
+
+    /**
+     * Reads one JSON value.
+     *
+     * @param reader reader at a value position
+     * @return read value
+     */
+    T read(JsonReader reader);
+
+    /**
+     * Returns codec of the functions.
+     *
+     * @param writer function writes a value
+     * @param reader function reads a value
+     * @param <T>    type of value
+     * @return codec
+     */
+    static <T> JsonCodec<T> of(@NonNull BiConsumer<? super T, JsonWriter> writer, @NonNull Function<JsonReader, ? extends T> reader) {
+        return new JsonCodec<T>() {
+            @Override
+            public void write(T value, JsonWriter target) {
+                writer.accept(value, target);
+            }
+
+            @Override
+            public T read(JsonReader source) {
+                return reader.apply(source);
+            }
+        };
+    }
+
+    /**
+     * Returns codec of string as JSON string.
+     *
+     * @return codec of string
+     */
+    static JsonCodec<String> strings() {
+        return of((value, writer) -> writer.value(value), JsonReader::nextString);
+    }
+
+    /**
+     * Returns codec of long as JSON number.
+     *
+     * @return codec of long
+     */
+    static JsonCodec<Long> longs() {
+        return of((value, writer) -> writer.value((long) value), JsonReader::nextLong);
+    }
+
+    /**
+     * Returns codec of double as JSON number.
+     *
+     * @return codec of double
+     */
+    static JsonCodec<Double> doubles() {
+        return of((value, writer) -> writer.value((double) value), JsonReader::nextDouble);
+    }
+
+    /**
+     * Returns codec of boolean as JSON boolean.
+     *
+     * @return codec of boolean
+     */
+    static JsonCodec<Boolean> booleans() {
+        return of((value, writer) -> writer.value((boolean) value), JsonReader::nextBoolean);
+    }
+}
@@ -0,0 +1,646 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Streaming pull reader of a JSON value from a CharSequence, or from UTF-8 bytes of a ByteBuffer.
+ * Names and strings are decoded into a reused buffer: selectName and selectString match them against candidates
+ * without making strings, and nextLong parses integers in place; nextString, nextName and nextDouble make one.
+ * An instance can be reset to another source and reused, keeping its buffers.
+ * Syntax errors throw IllegalArgumentException, and reading a token of another kind throws IllegalStateException,
+ * both with the offset in the source.
+ * NOTE: Not thread-safe.
+ */
+public final class JsonReader {
+    private static final byte EMPTY_DOCUMENT = 0;
+    private static final byte NONEMPTY_DOCUMENT = 1;
+    private static final byte EMPTY_ARRAY = 2;
+    private static final byte NONEMPTY_ARRAY = 3;
+    private static final byte EMPTY_OBJECT = 4;
+    private static final byte NONEMPTY_OBJECT = 5;
+    private static final byte DANGLING_NAME = 6;
+
+    private final StringBuilder scratch = new StringBuilder();
+    private CharSequence chars;
+    private ByteBuffer bytes;
+    private int position;
+    private int limit;
+    private char pendingLowSurrogate;
+    private byte[] scopes = new byte[32];
+    private int depth;
+    private JsonToken peeked;
+    private boolean inline;
+
+    private JsonReader() {
+    }
+
+    /**
+     * Returns reader of the characters.
+     *
+     * @param in JSON text
+     * @return JsonReader instance
+     */
+    public static JsonReader of(@NonNull CharSequence in) {
+        return new JsonReader().reset(in);
+    }
+
+    /**
+     * Returns reader of the UTF-8 bytes from the position to the limit of the buffer, not moving its position.
+     *
+     * @param in JSON bytes
+     * @return JsonReader instance
+     */
+    public static JsonReader of(@NonNull ByteBuffer in) {
+        return new JsonReader().reset(in);
+    }
+
+    /**
+     * Restarts reading a new value from the characters.
+     *
+     * @param in JSON text
+     * @return this reader
+     */
+    public JsonReader reset(@NonNull CharSequence in) {
+        this.chars = in;
+        this.bytes = null;
+        this.position = 0;
+        this.limit = in.length();
+        return this.restart();
+    }
+
+    /**
+     * Restarts reading a new value from the UTF-8 bytes from the position to the limit of the buffer.
+     *
+     * @param in JSON bytes
+     * @return this reader
+     */
+    public JsonReader reset(@NonNull ByteBuffer in) {
+        this.chars = null;
+        this.bytes = in;
+        this.position = in.position();
+        this.limit = in.limit();
+        return this.restart();
+    }
+
+    /**
+     * Returns kind of the next token without consuming it.
+     *
+     * @return kind of the next token
+     */
+    public JsonToken peek() {
+        if (this.peeked == null) {
+            this.peeked = this.doPeek();
+        }
+        return this.peeked;
+    }
+
+    /**
+     * Returns whether the current object or array has another element.
+     *
+     * @return false at the end of object, array or document
+     */
+    public boolean hasNext() {
+        JsonToken token = this.peek();
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+    }
+
+    /**
+     * Begins object, or continues the object holding the discriminator of the value.
+     */
+    public void beginObject() {
+        if (this.inline) {
+            this.inline = false;
+            return;
+        }
+        this.expect(JsonToken.BEGIN_OBJECT);
+        this.push(EMPTY_OBJECT);
+    }
+
+    /**
+     * Ends the current object, after its last member.
+     */
+    public void endObject() {
+        this.expect(JsonToken.END_OBJECT);
+        this.depth--;
+    }
+
+    /**
+     * Begins array.
+     */
+    public void beginArray() {
+        this.expect(JsonToken.BEGIN_ARRAY);
+        this.push(EMPTY_ARRAY);
+    }
+
+    /**
+     * Ends the current array, after its last element.
+     */
+    public void endArray() {
+        this.expect(JsonToken.END_ARRAY);
+        this.depth--;
+    }
+
+    /**
+     * Reads name of the next member.
+     *
+     * @return name
+     */
+    public String nextName() {
+        this.readName();
+        return this.scratch.toString();
+    }
+
+    /**
+     * Reads name of the next member and returns its index in the candidates, without making a string.
+     *
+     * @param names candidate names
+     * @return index of the name, or -1 if none matches
+     */
+    public int selectName(@NonNull String... names) {
+        this.readName();
+        return this.indexOfScratch(names);
+    }
+
+    /**
+     * Reads string value.
+     *
+     * @return string value
+     */
+    public String nextString() {
+        this.expect(JsonToken.STRING);
+        this.readString();
+        return this.scratch.toString();
+    }
+
+    /**
+     * Reads string value and returns its index in the candidates, without making a string.
+     *
+     * @param values candidate values
+     * @return index of the value, or -1 if none matches
+     */
+    public int selectString(@NonNull String... values) {
+        this.expect(JsonToken.STRING);
+        this.readString();
+        return this.indexOfScratch(values);
+    }
+
+    /**
+     * Reads number as long.
+     *
+     * @return number value
+     * @throws NumberFormatException if the number is not integral or out of range of long
+     */
+    public long nextLong() {
+        this.expect(JsonToken.NUMBER);
+        this.readNumber();
+        return this.parseLong();
+    }
+
+    /**
+     * Reads number as int.
+     *
+     * @return number value
+     * @throws NumberFormatException if the number is not integral or out of range of int
+     */
+    public int nextInt() {
+        long value = this.nextLong();
+        if ((int) value != value) {
+            throw new NumberFormatException("out of range of int: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads number as double.
+     *
+     * @return number value
+     */
+    public double nextDouble() {
+        this.expect(JsonToken.NUMBER);
+        this.readNumber();
+        return Double.parseDouble(this.scratch.toString());
+    }
+
+    /**
+     * Reads boolean value.
+     *
+     * @return boolean value
+     */
+    public boolean nextBoolean() {
+        this.expect(JsonToken.BOOLEAN);
+        if (this.peekChar() == 't') {
+            this.readLiteral("true");
+            return true;
+        }
+        this.readLiteral("false");
+        return false;
+    }
+
+    /**
+     * Reads null.
+     */
+    public void nextNull() {
+        this.expect(JsonToken.NULL);
+        this.readLiteral("null");
+    }
+
+    /**
+     * Skips the next value with all its contents, or the next member if a name is next.
+     */
+    public void skipValue() {
+        int nesting = 0;
+        do {
+            switch (this.peek()) {
+                case BEGIN_OBJECT:
+                    this.beginObject();
+                    nesting++;
+                    break;
+                case BEGIN_ARRAY:
+                    this.beginArray();
+                    nesting++;
+                    break;
+                case END_OBJECT:
+                    this.endObject();
+                    nesting--;
+                    break;
+                case END_ARRAY:
+                    this.endArray();
+                    nesting--;
+                    break;
+                case NAME:
+                    this.readName();
+                    // skips the value of the member as well
+                    this.skipValue();
+                    break;
+                case STRING:
+                    this.expect(JsonToken.STRING);
+                    this.readString();
+                    break;
+                case NUMBER:
+                    this.expect(JsonToken.NUMBER);
+                    this.readNumber();
+                    break;
+                case BOOLEAN:
+                    this.nextBoolean();
+                    break;
+                case NULL:
+                    this.nextNull();
+                    break;
+                default:
+                    throw new IllegalStateException("no value to skip at " + this.position);
+            }
+        } while (nesting > 0);
+    }
+
+    /**
+     * Lets the next beginObject continue the current object, whose members so far are discriminator of the value.
+     * The value must be read as an object.
+     */
+    void inlineNextObject() {
+        this.inline = true;
+    }
+
+    boolean isInlinePending() {
+        return this.inline;
+    }
+
+    private JsonReader restart() {
+        this.pendingLowSurrogate = 0;
+        this.depth = 1;
+        this.scopes[0] = EMPTY_DOCUMENT;
+        this.peeked = null;
+        this.inline = false;
+        return this;
+    }
+
+    private JsonToken doPeek() {
+        int top = this.depth - 1;
+        switch (this.scopes[top]) {
+            case EMPTY_ARRAY:
+                this.scopes[top] = NONEMPTY_ARRAY;
+                if (this.skipWhitespace() == ']') {
+                    this.position++;
+                    return JsonToken.END_ARRAY;
+                }
+                break;
+            case NONEMPTY_ARRAY: {
+                int c = this.skipWhitespace();
+                if (c == ']') {
+                    this.position++;
+                    return JsonToken.END_ARRAY;
+                }
+                this.consume(c, ',', "',' or ']'");
+                break;
+            }
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT: {
+                int c = this.skipWhitespace();
+                if (c == '}') {
+                    this.position++;
+                    return JsonToken.END_OBJECT;
+                }
+                if (this.scopes[top] == NONEMPTY_OBJECT) {
+                    this.consume(c, ',', "',' or '}'");
+                    c = this.skipWhitespace();
+                }
+                if (c != '"') {
+                    throw this.syntaxError("name");
+                }
+                return JsonToken.NAME;
+            }
+            case DANGLING_NAME:
+                this.consume(this.skipWhitespace(), ':', "':'");
+                this.scopes[top] = NONEMPTY_OBJECT;
+                break;
+            case EMPTY_DOCUMENT:
+                this.scopes[top] = NONEMPTY_DOCUMENT;
+                break;
+            default:
+                if (this.skipWhitespace() == -1) {
+                    return JsonToken.END_DOCUMENT;
+                }
+                throw this.syntaxError("end of document");
+        }
+        switch (this.skipWhitespace()) {
+            case '{':
+                this.position++;
+                return JsonToken.BEGIN_OBJECT;
+            case '[':
+                this.position++;
+                return JsonToken.BEGIN_ARRAY;
+            case '"':
+                return JsonToken.STRING;
+            case 't':
+            case 'f':
+                return JsonToken.BOOLEAN;
+            case 'n':
+                return JsonToken.NULL;
+            case '-':
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                return JsonToken.NUMBER;
+            default:
+                throw this.syntaxError("value");
+        }
+    }
+
+    private void expect(JsonToken token) {
+        if (this.inline) {
+            throw new IllegalStateException("value with discriminator must be an object");
+        }
+        JsonToken actual = this.peek();
+        if (actual != token) {
+            throw new IllegalStateException("expected " + token + " but was " + actual + " at " + this.position);
+        }
+        this.peeked = null;
+    }
+
+    private void push(byte scope) {
+        if (this.depth == this.scopes.length) {
+            this.scopes = Arrays.copyOf(this.scopes, this.depth * 2);
+        }
+        this.scopes[this.depth++] = scope;
+    }
+
+    private void readName() {
+        this.expect(JsonToken.NAME);
+        this.readString();
+        this.scopes[this.depth - 1] = DANGLING_NAME;
+    }
+
+    private int indexOfScratch(String[] candidates) {
+        for (int i = 0; i < candidates.length; i++) {
+            if (candidates[i].contentEquals(this.scratch)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes the string from the opening quote into the scratch buffer.
+     */
+    private void readString() {
+        this.position++;
+        this.scratch.setLength(0);
+        while (true) {
+            if (!this.hasRemaining()) {
+                throw this.syntaxError("end of string");
+            }
+            char c = this.readChar();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                this.scratch.append(this.readEscape());
+            } else if (c < 0x20) {
+                throw this.syntaxError("escaped control character");
+            } else {
+                this.scratch.append(c);
+            }
+        }
+    }
+
+    private char readEscape() {
+        if (!this.hasRemaining()) {
+            throw this.syntaxError("escape sequence");
+        }
+        char c = this.readChar();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u': {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = this.hasRemaining() ? Character.digit(this.readChar(), 16) : -1;
+                    if (digit < 0) {
+                        throw this.syntaxError("4 hex digits");
+                    }
+                    value = value << 4 | digit;
+                }
+                return (char) value;
+            }
+            default:
+                throw this.syntaxError("escape sequence");
+        }
+    }
+
+    /**
+     * Reads the number into the scratch buffer, checking its grammar.
+     */
+    private void readNumber() {
+        this.scratch.setLength(0);
+        this.acceptChar('-');
+        if (this.acceptChar('0')) {
+            // JSON has no leading zeros, so that 01 is not read as 0 followed by 1
+            int c = this.peekChar();
+            if (c >= '0' && c <= '9') {
+                throw this.syntaxError("'.', 'e' or end of number");
+            }
+        } else if (this.acceptDigits() == 0) {
+            throw this.syntaxError("digit");
+        }
+        if (this.acceptChar('.') && this.acceptDigits() == 0) {
+            throw this.syntaxError("digit");
+        }
+        if (this.acceptChar('e') || this.acceptChar('E')) {
+            if (!this.acceptChar('+')) {
+                this.acceptChar('-');
+            }
+            if (this.acceptDigits() == 0) {
+                throw this.syntaxError("digit");
+            }
+        }
+    }
+
+    private boolean acceptChar(char expected) {
+        if (this.peekChar() != expected) {
+            return false;
+        }
+        this.scratch.append(expected);
+        this.position++;
+        return true;
+    }
+
+    private int acceptDigits() {
+        int count = 0;
+        for (int c = this.peekChar(); c >= '0' && c <= '9'; c = this.peekChar()) {
+            this.scratch.append((char) c);
+            this.position++;
+            count++;
+        }
+        return count;
+    }
+
+    private long parseLong() {
+        StringBuilder number = this.scratch;
+        boolean negative = number.charAt(0) == '-';
+        long value = 0;
+        for (int i = negative ? 1 : 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c < '0' || c > '9') {
+                double parsed = Double.parseDouble(number.toString());
+                if (parsed != Math.rint(parsed) || Math.abs(parsed) >= 0x1p63) {
+                    throw new NumberFormatException("not a long: " + number);
+                }
+                return (long) parsed;
+            }
+            // accumulates negatively, as Long.MIN_VALUE has no positive counterpart
+            if (value < Long.MIN_VALUE / 10 || value * 10 < Long.MIN_VALUE + (c - '0')) {
+                throw new NumberFormatException("out of range of long: " + number);
+            }
+            value = value * 10 - (c - '0');
+        }
+        if (!negative && value == Long.MIN_VALUE) {
+            throw new NumberFormatException("out of range of long: " + number);
+        }
+        return negative ? value : -value;
+    }
+
+    private void readLiteral(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (this.peekChar() != literal.charAt(i)) {
+                throw this.syntaxError(literal);
+            }
+            this.position++;
+        }
+        int next = this.peekChar();
+        if (Character.isLetterOrDigit(next)) {
+            throw this.syntaxError("end of " + literal);
+        }
+    }
+
+    private void consume(int actual, char expected, String description) {
+        if (actual != expected) {
+            throw this.syntaxError(description);
+        }
+        this.position++;
+    }
+
+    private int skipWhitespace() {
+        for (int c = this.peekChar(); ; c = this.peekChar()) {
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return c;
+            }
+            this.position++;
+        }
+    }
+
+    private boolean hasRemaining() {
+        return this.position < this.limit || this.pendingLowSurrogate != 0;
+    }
+
+    /**
+     * Returns the next character without consuming it, only exact for ASCII; -1 at the end.
+     */
+    private int peekChar() {
+        if (this.position >= this.limit) {
+            return -1;
+        }
+        return this.chars != null ? this.chars.charAt(this.position) : this.bytes.get(this.position) & 0xFF;
+    }
+
+    private char readChar() {
+        if (this.chars != null) {
+            return this.chars.charAt(this.position++);
+        }
+        if (this.pendingLowSurrogate != 0) {
+            char low = this.pendingLowSurrogate;
+            this.pendingLowSurrogate = 0;
+            return low;
+        }
+        int first = this.bytes.get(this.position++) & 0xFF;
+        if (first < 0x80) {
+            return (char) first;
+        }
+        if (first >> 5 == 0x6) {
+            return (char) ((first & 0x1F) << 6 | this.continuation());
+        }
+        if (first >> 4 == 0xE) {
+            return (char) ((first & 0x0F) << 12 | this.continuation() << 6 | this.continuation());
+        }
+        if (first >> 3 == 0x1E) {
+            int codePoint = (first & 0x07) << 18 | this.continuation() << 12 | this.continuation() << 6 | this.continuation();
+            if (!Character.isSupplementaryCodePoint(codePoint)) {
+                throw this.syntaxError("UTF-8");
+            }
+            this.pendingLowSurrogate = Character.lowSurrogate(codePoint);
+            return Character.highSurrogate(codePoint);
+        }
+        throw this.syntaxError("UTF-8");
+    }
+
+    private int continuation() {
+        if (this.position >= this.limit || (this.bytes.get(this.position) & 0xC0) != 0x80) {
+            throw this.syntaxError("UTF-8 continuation byte");
+        }
+        return this.bytes.get(this.position++) & 0x3F;
+    }
+
+    private IllegalArgumentException syntaxError(String expected) {
+        return new IllegalArgumentException("malformed JSON at " + this.position + ": expected " + expected);
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.lambig.union;
+
+/**
+ * Kind of the next token of JsonReader.
+ */
+public enum JsonToken {
+    BEGIN_OBJECT,
+    END_OBJECT,
+    BEGIN_ARRAY,
+    END_ARRAY,
+    NAME,
+    STRING,
+    NUMBER,
+    BOOLEAN,
+    NULL,
+    /**
+     * End of the top-level value.
+     */
+    END_DOCUMENT
+}
@@ -0,0 +1,386 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Streaming writer of a JSON value to an Appendable, or as UTF-8 to a ByteBuffer.
+ * Writes each token as it is called, with no intermediate string; only value(double) makes one.
+ * An instance can be reset to another target and reused, keeping its buffers.
+ * NOTE: Not thread-safe.
+ */
+public final class JsonWriter {
+    private static final byte EMPTY_DOCUMENT = 0;
+    private static final byte NONEMPTY_DOCUMENT = 1;
+    private static final byte EMPTY_ARRAY = 2;
+    private static final byte NONEMPTY_ARRAY = 3;
+    private static final byte EMPTY_OBJECT = 4;
+    private static final byte NONEMPTY_OBJECT = 5;
+    private static final byte DANGLING_NAME = 6;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final char[] digits = new char[20];
+    private final Utf8Appendable utf8 = new Utf8Appendable();
+    private Appendable out;
+    private byte[] scopes = new byte[32];
+    private int depth;
+    private boolean inline;
+
+    private JsonWriter() {
+    }
+
+    /**
+     * Returns writer to the Appendable.
+     *
+     * @param out target of characters
+     * @return JsonWriter instance
+     */
+    public static JsonWriter of(@NonNull Appendable out) {
+        return new JsonWriter().reset(out);
+    }
+
+    /**
+     * Returns writer of UTF-8 bytes to the buffer, from its position.
+     *
+     * @param out target of bytes
+     * @return JsonWriter instance
+     * @throws java.nio.BufferOverflowException on writing beyond the limit of the buffer
+     */
+    public static JsonWriter of(@NonNull ByteBuffer out) {
+        return new JsonWriter().reset(out);
+    }
+
+    /**
+     * Restarts writing a new value to the Appendable.
+     *
+     * @param out target of characters
+     * @return this writer
+     */
+    public JsonWriter reset(@NonNull Appendable out) {
+        this.out = out;
+        this.depth = 1;
+        this.scopes[0] = EMPTY_DOCUMENT;
+        this.inline = false;
+        return this;
+    }
+
+    /**
+     * Restarts writing a new value as UTF-8 bytes to the buffer, from its position.
+     *
+     * @param out target of bytes
+     * @return this writer
+     */
+    public JsonWriter reset(@NonNull ByteBuffer out) {
+        this.utf8.buffer = out;
+        this.utf8.highSurrogate = 0;
+        return this.reset(this.utf8);
+    }
+
+    /**
+     * Begins object, or continues the object holding the discriminator of the value.
+     *
+     * @return this writer
+     */
+    public JsonWriter beginObject() {
+        if (this.inline) {
+            this.inline = false;
+            return this;
+        }
+        this.beforeValue();
+        this.append('{');
+        this.push(EMPTY_OBJECT);
+        return this;
+    }
+
+    /**
+     * Ends the current object.
+     *
+     * @return this writer
+     */
+    public JsonWriter endObject() {
+        byte scope = this.scopes[this.depth - 1];
+        if (scope != EMPTY_OBJECT && scope != NONEMPTY_OBJECT) {
+            throw new IllegalStateException("no object to end");
+        }
+        this.append('}');
+        this.depth--;
+        return this;
+    }
+
+    /**
+     * Begins array.
+     *
+     * @return this writer
+     */
+    public JsonWriter beginArray() {
+        this.beforeValue();
+        this.append('[');
+        this.push(EMPTY_ARRAY);
+        return this;
+    }
+
+    /**
+     * Ends the current array.
+     *
+     * @return this writer
+     */
+    public JsonWriter endArray() {
+        byte scope = this.scopes[this.depth - 1];
+        if (scope != EMPTY_ARRAY && scope != NONEMPTY_ARRAY) {
+            throw new IllegalStateException("no array to end");
+        }
+        this.append(']');
+        this.depth--;
+        return this;
+    }
+
+    /**
+     * Writes name of the next member of the object.
+     *
+     * @param name name of member
+     * @return this writer
+     */
+    public JsonWriter name(@NonNull CharSequence name) {
+        this.checkInline();
+        byte scope = this.scopes[this.depth - 1];
+        if (scope == NONEMPTY_OBJECT) {
+            this.append(',');
+        } else if (scope != EMPTY_OBJECT) {
+            throw new IllegalStateException("name is not expected here");
+        }
+        this.scopes[this.depth - 1] = DANGLING_NAME;
+        this.string(name);
+        this.append(':');
+        return this;
+    }
+
+    /**
+     * Writes string value, or null.
+     *
+     * @param value string value
+     * @return this writer
+     */
+    public JsonWriter value(CharSequence value) {
+        if (value == null) {
+            return this.nullValue();
+        }
+        this.beforeValue();
+        this.string(value);
+        return this;
+    }
+
+    /**
+     * Writes integral number.
+     *
+     * @param value number value
+     * @return this writer
+     */
+    public JsonWriter value(long value) {
+        this.beforeValue();
+        if (value == Long.MIN_VALUE) {
+            return this.raw("-9223372036854775808");
+        }
+        if (value < 0) {
+            this.append('-');
+            value = -value;
+        }
+        int start = this.digits.length;
+        do {
+            this.digits[--start] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        for (int i = start; i < this.digits.length; i++) {
+            this.append(this.digits[i]);
+        }
+        return this;
+    }
+
+    /**
+     * Writes finite number.
+     *
+     * @param value number value
+     * @return this writer
+     * @throws IllegalArgumentException if the value is NaN or infinite
+     */
+    public JsonWriter value(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("JSON number must be finite: " + value);
+        }
+        if (value == (long) value && Math.abs(value) < 1e15) {
+            return this.value((long) value);
+        }
+        this.beforeValue();
+        return this.raw(Double.toString(value));
+    }
+
+    /**
+     * Writes boolean value.
+     *
+     * @param value boolean value
+     * @return this writer
+     */
+    public JsonWriter value(boolean value) {
+        this.beforeValue();
+        return this.raw(value ? "true" : "false");
+    }
+
+    /**
+     * Writes null.
+     *
+     * @return this writer
+     */
+    public JsonWriter nullValue() {
+        this.beforeValue();
+        return this.raw("null");
+    }
+
+    /**
+     * Lets the next beginObject continue the current object, whose members so far are discriminator of the value.
+     * The value must be written as an object.
+     */
+    void inlineNextObject() {
+        this.inline = true;
+    }
+
+    boolean isInlinePending() {
+        return this.inline;
+    }
+
+    private void beforeValue() {
+        this.checkInline();
+        switch (this.scopes[this.depth - 1]) {
+            case EMPTY_DOCUMENT:
+                this.scopes[this.depth - 1] = NONEMPTY_DOCUMENT;
+                break;
+            case EMPTY_ARRAY:
+                this.scopes[this.depth - 1] = NONEMPTY_ARRAY;
+                break;
+            case NONEMPTY_ARRAY:
+                this.append(',');
+                break;
+            case DANGLING_NAME:
+                this.scopes[this.depth - 1] = NONEMPTY_OBJECT;
+                break;
+            case NONEMPTY_DOCUMENT:
+                throw new IllegalStateException("JSON must have only one top-level value");
+            default:
+                throw new IllegalStateException("name is expected before value in object");
+        }
+    }
+
+    private void checkInline() {
+        if (this.inline) {
+            throw new IllegalStateException("value with discriminator must be an object");
+        }
+    }
+
+    private void push(byte scope) {
+        if (this.depth == this.scopes.length) {
+            this.scopes = Arrays.copyOf(this.scopes, this.depth * 2);
+        }
+        this.scopes[this.depth++] = scope;
+    }
+
+    private void string(CharSequence value) {
+        this.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    this.raw("\\\"");
+                    break;
+                case '\\':
+                    this.raw("\\\\");
+                    break;
+                case '\n':
+                    this.raw("\\n");
+                    break;
+                case '\r':
+                    this.raw("\\r");
+                    break;
+                case '\t':
+                    this.raw("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                        this.raw("\\u").append(HEX[c >> 12]).append(HEX[c >> 8 & 0xF]).append(HEX[c >> 4 & 0xF]).append(HEX[c & 0xF]);
+                    } else {
+                        this.append(c);
+                    }
+            }
+        }
+        this.append('"');
+    }
+
+    private JsonWriter raw(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            this.append(value.charAt(i));
+        }
+        return this;
+    }
+
+    private JsonWriter append(char c) {
+        try {
+            this.out.append(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    /**
+     * Encodes characters to UTF-8 bytes of a buffer, joining surrogate pairs.
+     */
+    private static final class Utf8Appendable implements Appendable {
+        private ByteBuffer buffer;
+        private char highSurrogate;
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            return this.append(csq, 0, csq.length());
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            for (int i = start; i < end; i++) {
+                this.append(csq.charAt(i));
+            }
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            if (this.highSurrogate != 0) {
+                char high = this.highSurrogate;
+                this.highSurrogate = 0;
+                if (Character.isLowSurrogate(c)) {
+                    int codePoint = Character.toCodePoint(high, c);
+                    this.buffer.put((byte) (0xF0 | codePoint >> 18))
+                            .put((byte) (0x80 | codePoint >> 12 & 0x3F))
+                            .put((byte) (0x80 | codePoint >> 6 & 0x3F))
+                            .put((byte) (0x80 | codePoint & 0x3F));
+                    return this;
+                }
+                // unpaired high surrogate
+                this.buffer.put((byte) '?');
+            }
+            if (c < 0x80) {
+                this.buffer.put((byte) c);
+            } else if (c < 0x800) {
+                this.buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c)) {
+                this.highSurrogate = c;
+            } else if (Character.isLowSurrogate(c)) {
+                // unpaired, as String.getBytes does
+                this.buffer.put((byte) '?');
+            } else {
+                this.buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+            return this;
+        }
+    }
+}
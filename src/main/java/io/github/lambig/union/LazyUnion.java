@@ -0,0 +1,269 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.util.function.*;
+
+/**
+ * Union whose side and value are computed on first access.
+ * The supplier is called at most once, and released after the evaluation.
+ * peek and map methods do not evaluate this union; they return another lazy union evaluated with this one.
+ *
+ * @param <L> type of left value
+ * @param <R> type of right value
+ */
+public final class LazyUnion<L, R> implements Union<L, R> {
+    private volatile Union<L, R> evaluated;
+    private Supplier<? extends Union<L, R>> supplier;
+
+    private LazyUnion(Supplier<? extends Union<L, R>> supplier) {
+        this.supplier = supplier;
+    }
+
+    /**
+     * Returns Union evaluated by supplier on first access.
+     *
+     * @param supplier supplier of the union
+     * @param <L>      type of left value
+     * @param <R>      type of right value
+     * @return LazyUnion instance
+     */
+    static <L, R> LazyUnion<L, R> of(@NonNull Supplier<? extends Union<L, R>> supplier) {
+        return new LazyUnion<>(supplier);
+    }
+
+    /**
+     * Returns if the union has already been evaluated.
+     *
+     * @return true if evaluated
+     */
+    public boolean isEvaluated() {
+        return this.evaluated != null;
+    }
+
+    /**
+     * Evaluates (if not yet) and returns the underlying union.
+     *
+     * @return evaluated union
+     * @throws NullPointerException when the supplier returned null
+     */
+    public Union<L, R> evaluate() {
+        Union<L, R> result = this.evaluated;
+        if (result != null) {
+            return result;
+        }
+        synchronized (this) {
+            result = this.evaluated;
+            if (result == null) {
+                Union<L, R> supplied = this.supplier.get();
+                if (supplied == null) {
+                    throw new NullPointerException("supplier of LazyUnion returned null");
+                }
+                // unwrap so that a chain of lazy unions does not keep whole chain reachable
+                result = supplied instanceof LazyUnion ? ((LazyUnion<L, R>) supplied).evaluate() : supplied;
+                this.evaluated = result;
+                this.supplier = null;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public L left() {
+        return this.evaluate().left();
+    }
+
+    @Override
+    public R right() {
+        return this.evaluate().right();
+    }
+
+    @Override
+    public boolean hasLeft() {
+        return this.evaluate().hasLeft();
+    }
+
+    @Override
+    public boolean hasRight() {
+        return this.evaluate().hasRight();
+    }
+
+    @Override
+    public <O> O asJoined(
+            @NonNull Function<? super L, ? extends O> leftResolver,
+            @NonNull Function<? super R, ? extends O> rightResolver) {
+        return this.evaluate().asJoined(leftResolver, rightResolver);
+    }
+
+    @Override
+    public <O> O asJoined(@NonNull BiFunction<? super L, ? super R, ? extends O> biResolver) {
+        return this.evaluate().asJoined(biResolver);
+    }
+
+    @Override
+    public void accept(@NonNull Consumer<? super L> leftResolver, @NonNull Consumer<? super R> rightResolver) {
+        this.evaluate().accept(leftResolver, rightResolver);
+    }
+
+    @Override
+    public void accept(@NonNull BiConsumer<? super L, ? super R> biResolver) {
+        this.evaluate().accept(biResolver);
+    }
+
+    @Override
+    public void acceptLeft(@NonNull Consumer<? super L> leftResolver) {
+        this.evaluate().acceptLeft(leftResolver);
+    }
+
+    @Override
+    public void acceptRight(@NonNull Consumer<? super R> rightResolver) {
+        this.evaluate().acceptRight(rightResolver);
+    }
+
+    /**
+     * Returns lazy union which makes either consumer accept correspondent value on its evaluation.
+     * NOTE: Consumers are not called until the returned union is evaluated.
+     *
+     * @param leftResolver  consumer accepts left value
+     * @param rightResolver consumer accepts right value
+     * @return lazy union
+     */
+    @Override
+    public Union<L, R> peek(
+            @NonNull Consumer<? super L> leftResolver,
+            @NonNull Consumer<? super R> rightResolver) {
+        return this.isEvaluated()
+                ? this.evaluated.peek(leftResolver, rightResolver)
+                : new LazyUnion<>(() -> this.evaluate().peek(leftResolver, rightResolver));
+    }
+
+    /**
+     * Returns lazy union which makes consumer accept values on its evaluation.
+     * NOTE: Consumer is not called until the returned union is evaluated.
+     *
+     * @param biResolver consumer accepts both value
+     * @return lazy union
+     */
+    @Override
+    public Union<L, R> peek(@NonNull BiConsumer<? super L, ? super R> biResolver) {
+        return this.isEvaluated()
+                ? this.evaluated.peek(biResolver)
+                : new LazyUnion<>(() -> this.evaluate().peek(biResolver));
+    }
+
+    /**
+     * Returns lazy union which makes consumer accept left value if it exists on its evaluation.
+     * NOTE: Consumer is not called until the returned union is evaluated.
+     *
+     * @param leftResolver consumer accepts left value
+     * @return lazy union
+     */
+    @Override
+    public Union<L, R> peekLeft(@NonNull Consumer<? super L> leftResolver) {
+        return this.isEvaluated()
+                ? this.evaluated.peekLeft(leftResolver)
+                : new LazyUnion<>(() -> this.evaluate().peekLeft(leftResolver));
+    }
+
+    /**
+     * Returns lazy union which makes consumer accept right value if it exists on its evaluation.
+     * NOTE: Consumer is not called until the returned union is evaluated.
+     *
+     * @param rightResolver consumer accepts right value
+     * @return lazy union
+     */
+    @Override
+    public Union<L, R> peekRight(@NonNull Consumer<? super R> rightResolver) {
+        return this.isEvaluated()
+                ? this.evaluated.peekRight(rightResolver)
+                : new LazyUnion<>(() -> this.evaluate().peekRight(rightResolver));
+    }
+
+    /**
+     * Returns lazy union which hands value off to peeker on its evaluation.
+     * NOTE: Value is not submitted until the returned union is evaluated.
+     *
+     * @param peeker peeker accepts value asynchronously
+     * @return lazy union
+     */
+    @Override
+    public Union<L, R> peekAsync(@NonNull AsyncPeeker<? super L, ? super R> peeker) {
+        return this.isEvaluated()
+                ? this.evaluated.peekAsync(peeker)
+                : new LazyUnion<>(() -> this.evaluate().peekAsync(peeker));
+    }
+
+    /**
+     * Returns lazy union which maps left value on its evaluation.
+     *
+     * @param leftMapper function maps left value to new left value
+     * @param <O>        class of new Left value
+     * @return lazy union
+     */
+    @Override
+    public <O> Union<O, R> mapLeft(@NonNull Function<? super L, ? extends O> leftMapper) {
+        return this.isEvaluated()
+                ? this.evaluated.mapLeft(leftMapper)
+                : new LazyUnion<>(() -> this.evaluate().mapLeft(leftMapper));
+    }
+
+    /**
+     * Returns lazy union which maps right value on its evaluation.
+     *
+     * @param rightMapper function maps right value to new right value
+     * @param <O>         class of new Right value
+     * @return lazy union
+     */
+    @Override
+    public <O> Union<L, O> mapRight(@NonNull Function<? super R, ? extends O> rightMapper) {
+        return this.isEvaluated()
+                ? this.evaluated.mapRight(rightMapper)
+                : new LazyUnion<>(() -> this.evaluate().mapRight(rightMapper));
+    }
+
+    /**
+     * Returns lazy union which maps either value on its evaluation.
+     *
+     * @param leftMapper  function maps left value to new left value
+     * @param rightMapper function maps right value to new right value
+     * @param <A>         class of new Left value
+     * @param <B>         class of new Right value
+     * @return lazy union
+     */
+    @Override
+    public <A, B> Union<A, B> bimap(
+            @NonNull Function<? super L, ? extends A> leftMapper,
+            @NonNull Function<? super R, ? extends B> rightMapper) {
+        return this.isEvaluated()
+                ? this.evaluated.bimap(leftMapper, rightMapper)
+                : new LazyUnion<>(() -> this.evaluate().bimap(leftMapper, rightMapper));
+    }
+
+    /**
+     * Returns lazy union which maps left value to union on its evaluation.
+     *
+     * @param leftMapper function maps left value to union
+     * @param <O>        class of new Left value
+     * @return lazy union
+     */
+    @Override
+    public <O> Union<O, R> flatMapLeft(@NonNull Function<? super L, ? extends Union<O, R>> leftMapper) {
+        return this.isEvaluated()
+                ? this.evaluated.flatMapLeft(leftMapper)
+                : new LazyUnion<>(() -> this.evaluate().flatMapLeft(leftMapper));
+    }
+
+    /**
+     * Returns lazy union which maps right value to union on its evaluation.
+     *
+     * @param rightMapper function maps right value to union
+     * @param <O>         class of new Right value
+     * @return lazy union
+     */
+    @Override
+    public <O> Union<L, O> flatMapRight(@NonNull Function<? super R, ? extends Union<L, O>> rightMapper) {
+        return this.isEvaluated()
+                ? this.evaluated.flatMapRight(rightMapper)
+                : new LazyUnion<>(() -> this.evaluate().flatMapRight(rightMapper));
+    }
+}
@@ -68,8 +68,41 @@ public final class Left<L, R> implements Union<L, R>, Supplier<L> {
     }
 
 
+    @Override
+    public <O> Left<O, R> mapLeft(@NonNull Function<? super L, ? extends O> leftMapper) {
+        return Left.of(leftMapper.apply(this.left()));
+    }
+
+    @Override
+    public <O> Left<L, O> mapRight(@NonNull Function<? super R, ? extends O> rightMapper) {
+        return this.withRightType();
+    }
+
+    @Override
+    public <A, B> Left<A, B> bimap(
+            @NonNull Function<? super L, ? extends A> leftMapper,
+            @NonNull Function<? super R, ? extends B> rightMapper) {
+        return Left.of(leftMapper.apply(this.left()));
+    }
+
+    @Override
+    public <O> Union<O, R> flatMapLeft(@NonNull Function<? super L, ? extends Union<O, R>> leftMapper) {
+        return leftMapper.apply(this.left());
+    }
+
+    @Override
+    public <O> Left<L, O> flatMapRight(@NonNull Function<? super R, ? extends Union<L, O>> rightMapper) {
+        return this.withRightType();
+    }
+
     @Override
     public L get() {
         return this.left();
     }
+
+    // safe as Left has no right value
+    @SuppressWarnings("unchecked")
+    private <O> Left<L, O> withRightType() {
+        return (Left<L, O>) this;
+    }
 }
@@ -0,0 +1,366 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Immutable array of unions of long, held as a long[] of values and a bitmap of tags (set bit for right).
+ * Aggregations per side run over 64 rows per tag word:
+ * words of a single side take an unmasked loop, and mixed words a branch-free masked loop,
+ * both simple enough for the JIT to unroll and vectorize.
+ */
+public final class LongUnionArray {
+    private static final LongUnionArray EMPTY = new LongUnionArray(new long[0], new long[0], 0);
+
+    private final long[] values;
+    private final long[] tags;
+    private final int size;
+
+    private LongUnionArray(long[] values, long[] tags, int size) {
+        this.values = values;
+        this.tags = tags;
+        this.size = size;
+    }
+
+    /**
+     * Returns builder of LongUnionArray.
+     *
+     * @param initialCapacity initial capacity
+     * @return builder
+     */
+    public static Builder builder(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative: " + initialCapacity);
+        }
+        return new Builder(initialCapacity);
+    }
+
+    /**
+     * Returns LongUnionArray of the unions.
+     *
+     * @param unions unions of long
+     * @return LongUnionArray instance
+     */
+    public static LongUnionArray of(@NonNull Iterable<? extends Union<? extends Long, ? extends Long>> unions) {
+        Builder builder = builder(16);
+        unions.forEach(builder);
+        return builder.build();
+    }
+
+    /**
+     * Returns number of unions.
+     *
+     * @return number of unions
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns if the union at index is right.
+     *
+     * @param index index
+     * @return true if right
+     */
+    public boolean isRight(int index) {
+        return (this.tags[this.checkIndex(index) >>> 6] >>> index & 1) != 0;
+    }
+
+    /**
+     * Returns the union at index.
+     *
+     * @param index index
+     * @return Left or Right of the value
+     */
+    public Union<Long, Long> get(int index) {
+        return this.isRight(index) ? Right.of(this.values[index]) : Left.of(this.values[index]);
+    }
+
+    /**
+     * Make either consumer accept the value at index, without boxing.
+     *
+     * @param index         index
+     * @param leftResolver  consumer accepts left value
+     * @param rightResolver consumer accepts right value
+     */
+    public void accept(int index, @NonNull LongConsumer leftResolver, @NonNull LongConsumer rightResolver) {
+        if (this.isRight(index)) {
+            rightResolver.accept(this.values[index]);
+        } else {
+            leftResolver.accept(this.values[index]);
+        }
+    }
+
+    /**
+     * Returns number of left values.
+     *
+     * @return number of left values
+     */
+    public int countLeft() {
+        return this.size - this.countRight();
+    }
+
+    /**
+     * Returns number of right values.
+     *
+     * @return number of right values
+     */
+    public int countRight() {
+        int count = 0;
+        for (long tag : this.tags) {
+            count += Long.bitCount(tag);
+        }
+        return count;
+    }
+
+    /**
+     * Returns sum of left values, overflowing silently as long arithmetic.
+     *
+     * @return sum of left values, or 0 if none
+     */
+    public long sumLeft() {
+        return this.sum(-1L);
+    }
+
+    /**
+     * Returns sum of right values, overflowing silently as long arithmetic.
+     *
+     * @return sum of right values, or 0 if none
+     */
+    public long sumRight() {
+        return this.sum(0L);
+    }
+
+    /**
+     * Returns minimum of left values.
+     *
+     * @return minimum, or empty if no left value
+     */
+    public OptionalLong minLeft() {
+        return this.countLeft() == 0 ? OptionalLong.empty() : OptionalLong.of(this.min(-1L));
+    }
+
+    /**
+     * Returns minimum of right values.
+     *
+     * @return minimum, or empty if no right value
+     */
+    public OptionalLong minRight() {
+        return this.countRight() == 0 ? OptionalLong.empty() : OptionalLong.of(this.min(0L));
+    }
+
+    /**
+     * Returns maximum of left values.
+     *
+     * @return maximum, or empty if no left value
+     */
+    public OptionalLong maxLeft() {
+        return this.countLeft() == 0 ? OptionalLong.empty() : OptionalLong.of(this.max(-1L));
+    }
+
+    /**
+     * Returns maximum of right values.
+     *
+     * @return maximum, or empty if no right value
+     */
+    public OptionalLong maxRight() {
+        return this.countRight() == 0 ? OptionalLong.empty() : OptionalLong.of(this.max(0L));
+    }
+
+    /**
+     * Counts left values by value, for left side of small cardinality such as codes.
+     *
+     * @param cardinality number of possible values; left values must be in [0, cardinality)
+     * @return counts indexed by value
+     * @throws IllegalArgumentException if a left value is out of range
+     */
+    public long[] countLeftByValue(int cardinality) {
+        return this.countByValue(-1L, cardinality);
+    }
+
+    /**
+     * Counts right values by value, for right side of small cardinality such as error codes.
+     *
+     * @param cardinality number of possible values; right values must be in [0, cardinality)
+     * @return counts indexed by value
+     * @throws IllegalArgumentException if a right value is out of range
+     */
+    public long[] countRightByValue(int cardinality) {
+        return this.countByValue(0L, cardinality);
+    }
+
+    /**
+     * Returns bits of rows on the side in the tag word, where flip is -1 for left and 0 for right.
+     */
+    private long selected(int word, long flip) {
+        long bits = this.tags[word] ^ flip;
+        int tail = this.size - (word << 6);
+        return tail >= 64 ? bits : bits & (1L << tail) - 1;
+    }
+
+    private long sum(long flip) {
+        long[] values = this.values;
+        long sum = 0;
+        for (int word = 0; word < this.tags.length; word++) {
+            long selected = this.selected(word, flip);
+            int base = word << 6;
+            if (selected == -1L) {
+                for (int i = 0; i < 64; i++) {
+                    sum += values[base + i];
+                }
+            } else if (selected != 0) {
+                int end = Math.min(64, this.size - base);
+                for (int i = 0; i < end; i++) {
+                    sum += values[base + i] & -(selected >>> i & 1);
+                }
+            }
+        }
+        return sum;
+    }
+
+    private long min(long flip) {
+        long[] values = this.values;
+        long min = Long.MAX_VALUE;
+        for (int word = 0; word < this.tags.length; word++) {
+            long selected = this.selected(word, flip);
+            int base = word << 6;
+            if (selected == -1L) {
+                for (int i = 0; i < 64; i++) {
+                    min = Math.min(min, values[base + i]);
+                }
+            } else if (selected != 0) {
+                int end = Math.min(64, this.size - base);
+                for (int i = 0; i < end; i++) {
+                    long mask = -(selected >>> i & 1);
+                    min = Math.min(min, values[base + i] & mask | Long.MAX_VALUE & ~mask);
+                }
+            }
+        }
+        return min;
+    }
+
+    private long max(long flip) {
+        long[] values = this.values;
+        long max = Long.MIN_VALUE;
+        for (int word = 0; word < this.tags.length; word++) {
+            long selected = this.selected(word, flip);
+            int base = word << 6;
+            if (selected == -1L) {
+                for (int i = 0; i < 64; i++) {
+                    max = Math.max(max, values[base + i]);
+                }
+            } else if (selected != 0) {
+                int end = Math.min(64, this.size - base);
+                for (int i = 0; i < end; i++) {
+                    long mask = -(selected >>> i & 1);
+                    max = Math.max(max, values[base + i] & mask | Long.MIN_VALUE & ~mask);
+                }
+            }
+        }
+        return max;
+    }
+
+    private long[] countByValue(long flip, int cardinality) {
+        if (cardinality < 1) {
+            throw new IllegalArgumentException("cardinality must be positive: " + cardinality);
+        }
+        long[] counts = new long[cardinality];
+        for (int word = 0; word < this.tags.length; word++) {
+            int base = word << 6;
+            // visit only the selected rows, lowest bit first
+            for (long selected = this.selected(word, flip); selected != 0; selected &= selected - 1) {
+                int index = base + Long.numberOfTrailingZeros(selected);
+                long value = this.values[index];
+                if (value < 0 || value >= cardinality) {
+                    throw new IllegalArgumentException("value " + value + " at " + index + " is out of [0, " + cardinality + ")");
+                }
+                counts[(int) value]++;
+            }
+        }
+        return counts;
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("index " + index + " is out of [0, " + this.size + ")");
+        }
+        return index;
+    }
+
+    /**
+     * Builder of LongUnionArray, accepting unions of long.
+     */
+    public static final class Builder implements Consumer<Union<? extends Long, ? extends Long>> {
+        private long[] values;
+        private long[] tags;
+        private int size;
+
+        private Builder(int initialCapacity) {
+            this.values = new long[initialCapacity];
+            this.tags = new long[(initialCapacity + 63) >>> 6];
+        }
+
+        /**
+         * Appends left value.
+         *
+         * @param leftValue left value
+         * @return this builder
+         */
+        public Builder addLeft(long leftValue) {
+            this.ensureCapacity();
+            this.values[this.size++] = leftValue;
+            return this;
+        }
+
+        /**
+         * Appends right value.
+         *
+         * @param rightValue right value
+         * @return this builder
+         */
+        public Builder addRight(long rightValue) {
+            this.ensureCapacity();
+            this.tags[this.size >>> 6] |= 1L << this.size;
+            this.values[this.size++] = rightValue;
+            return this;
+        }
+
+        /**
+         * Appends value of the union.
+         *
+         * @param union union of long
+         */
+        @Override
+        public void accept(@NonNull Union<? extends Long, ? extends Long> union) {
+            // dispatches by hasLeft rather than accept, so that no method reference is bound per union
+            if (union.hasLeft()) {
+                this.addLeft(union.left());
+            } else {
+                this.addRight(union.right());
+            }
+        }
+
+        /**
+         * Builds LongUnionArray of values appended so far.
+         *
+         * @return LongUnionArray instance
+         */
+        public LongUnionArray build() {
+            if (this.size == 0) {
+                return EMPTY;
+            }
+            return new LongUnionArray(Arrays.copyOf(this.values, this.size), Arrays.copyOf(this.tags, (this.size + 63) >>> 6), this.size);
+        }
+
+        private void ensureCapacity() {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, Math.max(16, this.size * 2));
+                this.tags = Arrays.copyOf(this.tags, (this.values.length + 63) >>> 6);
+            }
+        }
+    }
+}
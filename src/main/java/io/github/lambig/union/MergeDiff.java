@@ -0,0 +1,346 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Streaming diff of two inputs sorted by key, emitting Left for records only in left input
+ * and Right for records only in right input.
+ * Inputs are merged in a single pass holding only the current record of each, so memory use is constant.
+ * Records with equal keys are matched one to one in order, and passed to the matched callback if set.
+ * Input not sorted by key is detected and rejected with IllegalStateException.
+ *
+ * @param <A> type of left record
+ * @param <B> type of right record
+ * @param <K> type of key
+ */
+public final class MergeDiff<A, B, K> {
+    private static final BiConsumer<Object, Object> IGNORE_MATCHED = (left, right) -> {
+    };
+
+    private final Function<? super A, ? extends K> leftKey;
+    private final Function<? super B, ? extends K> rightKey;
+    private final Comparator<? super K> comparator;
+    private final BiConsumer<? super A, ? super B> matchedResolver;
+
+    private MergeDiff(
+            Function<? super A, ? extends K> leftKey,
+            Function<? super B, ? extends K> rightKey,
+            Comparator<? super K> comparator,
+            BiConsumer<? super A, ? super B> matchedResolver) {
+        this.leftKey = leftKey;
+        this.rightKey = rightKey;
+        this.comparator = comparator;
+        this.matchedResolver = matchedResolver;
+    }
+
+    /**
+     * Returns diff of inputs sorted by keys.
+     *
+     * @param leftKey    function maps left record to key
+     * @param rightKey   function maps right record to key
+     * @param comparator comparator of key the inputs are sorted by
+     * @param <A>        type of left record
+     * @param <B>        type of right record
+     * @param <K>        type of key
+     * @return MergeDiff instance
+     */
+    public static <A, B, K> MergeDiff<A, B, K> of(
+            @NonNull Function<? super A, ? extends K> leftKey,
+            @NonNull Function<? super B, ? extends K> rightKey,
+            @NonNull Comparator<? super K> comparator) {
+        return new MergeDiff<>(leftKey, rightKey, comparator, IGNORE_MATCHED);
+    }
+
+    /**
+     * Returns diff of inputs of the same type sorted by comparator.
+     *
+     * @param comparator comparator the inputs are sorted by
+     * @param <T>        type of record
+     * @return MergeDiff instance
+     */
+    public static <T> MergeDiff<T, T, T> of(@NonNull Comparator<? super T> comparator) {
+        return new MergeDiff<>(Function.identity(), Function.identity(), comparator, IGNORE_MATCHED);
+    }
+
+    /**
+     * Returns diff which passes pairs of matched records to consumer in addition.
+     *
+     * @param matchedResolver consumer accepts left and right records with equal keys
+     * @return new MergeDiff
+     */
+    public MergeDiff<A, B, K> onMatched(@NonNull BiConsumer<? super A, ? super B> matchedResolver) {
+        return new MergeDiff<>(this.leftKey, this.rightKey, this.comparator, matchedResolver);
+    }
+
+    /**
+     * Returns lazy iterator of unmatched records in key order.
+     *
+     * @param lefts  left records sorted by key
+     * @param rights right records sorted by key
+     * @return iterator of Left with record only in lefts, or Right with record only in rights
+     */
+    public Iterator<Union<A, B>> diff(@NonNull Iterator<? extends A> lefts, @NonNull Iterator<? extends B> rights) {
+        return new DiffIterator(new Cursor<>(lefts, this.leftKey, "left"), new Cursor<>(rights, this.rightKey, "right"));
+    }
+
+    /**
+     * Makes either consumer accept unmatched records in key order, without allocating Union.
+     *
+     * @param lefts         left records sorted by key
+     * @param rights        right records sorted by key
+     * @param leftResolver  consumer accepts record only in lefts
+     * @param rightResolver consumer accepts record only in rights
+     */
+    public void forEach(
+            @NonNull Iterator<? extends A> lefts,
+            @NonNull Iterator<? extends B> rights,
+            @NonNull Consumer<? super A> leftResolver,
+            @NonNull Consumer<? super B> rightResolver) {
+        Cursor<A, K> left = new Cursor<>(lefts, this.leftKey, "left");
+        Cursor<B, K> right = new Cursor<>(rights, this.rightKey, "right");
+        while (this.step(left, right, leftResolver, rightResolver)) {
+            // consumers are called in step
+        }
+    }
+
+    /**
+     * Makes either consumer accept lists of unmatched records in key order.
+     * Each list has batchSize records, except the last ones; lists are handed over and never reused.
+     *
+     * @param lefts              left records sorted by key
+     * @param rights             right records sorted by key
+     * @param batchSize          maximum size of list
+     * @param leftBatchResolver  consumer accepts list of records only in lefts
+     * @param rightBatchResolver consumer accepts list of records only in rights
+     */
+    public void forEachBatch(
+            @NonNull Iterator<? extends A> lefts,
+            @NonNull Iterator<? extends B> rights,
+            int batchSize,
+            @NonNull Consumer<? super List<A>> leftBatchResolver,
+            @NonNull Consumer<? super List<B>> rightBatchResolver) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        Batch<A> leftBatch = new Batch<>(batchSize, leftBatchResolver);
+        Batch<B> rightBatch = new Batch<>(batchSize, rightBatchResolver);
+        this.forEach(lefts, rights, leftBatch, rightBatch);
+        leftBatch.flush();
+        rightBatch.flush();
+    }
+
+    /**
+     * Diffs sorted lists in parallel on the common pool.
+     * Both lists are partitioned at split keys sampled from them, so records with equal keys fall into the same partition.
+     * NOTE: Consumers are called concurrently, and in key order only within a partition.
+     *
+     * @param lefts         random access list of left records sorted by key
+     * @param rights        random access list of right records sorted by key
+     * @param partitions    number of partitions
+     * @param leftResolver  thread-safe consumer accepts record only in lefts
+     * @param rightResolver thread-safe consumer accepts record only in rights
+     */
+    public void forEachParallel(
+            @NonNull List<? extends A> lefts,
+            @NonNull List<? extends B> rights,
+            int partitions,
+            @NonNull Consumer<? super A> leftResolver,
+            @NonNull Consumer<? super B> rightResolver) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitions must be positive: " + partitions);
+        }
+        List<K> splitKeys = this.sampleSplitKeys(lefts, rights, partitions);
+        int[] leftBounds = bounds(lefts, this.leftKey, splitKeys, this.comparator);
+        int[] rightBounds = bounds(rights, this.rightKey, splitKeys, this.comparator);
+        IntStream.range(0, splitKeys.size() + 1).parallel().forEach(partition -> this.forEach(
+                lefts.subList(leftBounds[partition], leftBounds[partition + 1]).iterator(),
+                rights.subList(rightBounds[partition], rightBounds[partition + 1]).iterator(),
+                leftResolver,
+                rightResolver));
+    }
+
+    /**
+     * Emits the next unmatched record to either consumer, matching records with equal keys on the way.
+     *
+     * @return false if both inputs are exhausted
+     */
+    private boolean step(Cursor<A, K> left, Cursor<B, K> right, Consumer<? super A> leftResolver, Consumer<? super B> rightResolver) {
+        while (left.present && right.present) {
+            int compared = this.comparator.compare(left.key, right.key);
+            if (compared < 0) {
+                leftResolver.accept(left.value);
+                left.advance(this.comparator);
+                return true;
+            }
+            if (compared > 0) {
+                rightResolver.accept(right.value);
+                right.advance(this.comparator);
+                return true;
+            }
+            this.matchedResolver.accept(left.value, right.value);
+            left.advance(this.comparator);
+            right.advance(this.comparator);
+        }
+        if (left.present) {
+            leftResolver.accept(left.value);
+            left.advance(this.comparator);
+            return true;
+        }
+        if (right.present) {
+            rightResolver.accept(right.value);
+            right.advance(this.comparator);
+            return true;
+        }
+        return false;
+    }
+
+    private List<K> sampleSplitKeys(List<? extends A> lefts, List<? extends B> rights, int partitions) {
+        List<K> samples = new ArrayList<>(2 * (partitions - 1));
+        for (int i = 1; i < partitions; i++) {
+            if (!lefts.isEmpty()) {
+                samples.add(this.leftKey.apply(lefts.get((int) ((long) lefts.size() * i / partitions))));
+            }
+            if (!rights.isEmpty()) {
+                samples.add(this.rightKey.apply(rights.get((int) ((long) rights.size() * i / partitions))));
+            }
+        }
+        samples.sort(this.comparator);
+        if (samples.size() < 2 * (partitions - 1)) {
+            return samples;
+        }
+        // every other quantile of both inputs approximates the quantiles of the merged input
+        List<K> splitKeys = new ArrayList<>(partitions - 1);
+        for (int i = 1; i < samples.size(); i += 2) {
+            splitKeys.add(samples.get(i));
+        }
+        return splitKeys;
+    }
+
+    /**
+     * Returns index of the first record with key not less than each split key, between 0 and size.
+     */
+    private static <T, K> int[] bounds(
+            List<? extends T> records,
+            Function<? super T, ? extends K> key,
+            List<K> splitKeys,
+            Comparator<? super K> comparator) {
+        int[] bounds = new int[splitKeys.size() + 2];
+        for (int i = 0; i < splitKeys.size(); i++) {
+            int low = bounds[i];
+            int high = records.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (comparator.compare(key.apply(records.get(middle)), splitKeys.get(i)) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            bounds[i + 1] = low;
+        }
+        bounds[splitKeys.size() + 1] = records.size();
+        return bounds;
+    }
+
+    /**
+     * Current record of an input, with check of sorted order.
+     */
+    private static final class Cursor<T, K> {
+        private final Iterator<? extends T> iterator;
+        private final Function<? super T, ? extends K> keyFunction;
+        private final String side;
+        boolean present;
+        T value;
+        K key;
+
+        Cursor(Iterator<? extends T> iterator, Function<? super T, ? extends K> keyFunction, String side) {
+            this.iterator = iterator;
+            this.keyFunction = keyFunction;
+            this.side = side;
+            this.advance(null);
+        }
+
+        void advance(Comparator<? super K> comparator) {
+            if (!this.iterator.hasNext()) {
+                this.present = false;
+                this.value = null;
+                this.key = null;
+                return;
+            }
+            T next = this.iterator.next();
+            K nextKey = this.keyFunction.apply(next);
+            if (comparator != null && comparator.compare(this.key, nextKey) > 0) {
+                throw new IllegalStateException(this.side + " input is not sorted: " + nextKey + " follows " + this.key);
+            }
+            this.present = true;
+            this.value = next;
+            this.key = nextKey;
+        }
+    }
+
+    private final class DiffIterator implements Iterator<Union<A, B>> {
+        private final Cursor<A, K> left;
+        private final Cursor<B, K> right;
+        private final Consumer<A> leftResolver = value -> this.next = Left.of(value);
+        private final Consumer<B> rightResolver = value -> this.next = Right.of(value);
+        private Union<A, B> next;
+
+        DiffIterator(Cursor<A, K> left, Cursor<B, K> right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next != null || MergeDiff.this.step(this.left, this.right, this.leftResolver, this.rightResolver);
+        }
+
+        @Override
+        public Union<A, B> next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Union<A, B> next = this.next;
+            this.next = null;
+            return next;
+        }
+    }
+
+    private static final class Batch<T> implements Consumer<T> {
+        private final int batchSize;
+        private final Consumer<? super List<T>> batchResolver;
+        private List<T> records;
+
+        Batch(int batchSize, Consumer<? super List<T>> batchResolver) {
+            this.batchSize = batchSize;
+            this.batchResolver = batchResolver;
+            this.records = new ArrayList<>(batchSize);
+        }
+
+        @Override
+        public void accept(T record) {
+            this.records.add(record);
+            if (this.records.size() == this.batchSize) {
+                this.batchResolver.accept(this.records);
+                this.records = new ArrayList<>(this.batchSize);
+            }
+        }
+
+        void flush() {
+            if (!this.records.isEmpty()) {
+                this.batchResolver.accept(this.records);
+                this.records = new ArrayList<>(0);
+            }
+        }
+    }
+}
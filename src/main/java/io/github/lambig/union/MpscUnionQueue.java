@@ -0,0 +1,86 @@
+package io.github.lambig.union;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Multi producer queue.
+ * Producers claim slots by CAS on the producer sequence, then publish each slot
+ * by writing its round number, so that the consumer never sees a claimed but unwritten slot.
+ */
+final class MpscUnionQueue<L, R> extends UnionQueue<L, R> {
+    private static final VarHandle ROUNDS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final Object[] values;
+    private final boolean[] sides;
+    private final int[] publishedRounds;
+    private final int mask;
+    private final int shift;
+    private final PaddedSequence producerSequence = new PaddedSequence(0L);
+    private final PaddedSequence consumerSequenceCache = new PaddedSequence(0L);
+    private final PaddedSequence consumerSequence = new PaddedSequence(0L);
+
+    MpscUnionQueue(int capacity, WaitStrategy waitStrategy) {
+        super(capacity, waitStrategy);
+        this.values = new Object[capacity];
+        this.sides = new boolean[capacity];
+        this.publishedRounds = new int[capacity];
+        Arrays.fill(this.publishedRounds, -1);
+        this.mask = capacity - 1;
+        this.shift = Integer.numberOfTrailingZeros(capacity);
+    }
+
+    @Override
+    boolean offer(boolean left, Object value) {
+        long capacity = this.capacity();
+        long sequence;
+        do {
+            sequence = this.producerSequence.get();
+            long wrapPoint = sequence - capacity;
+            if (wrapPoint >= this.consumerSequenceCache.getAcquire()) {
+                long consumed = this.consumerSequence.getAcquire();
+                this.consumerSequenceCache.setRelease(consumed);
+                if (wrapPoint >= consumed) {
+                    return false;
+                }
+            }
+        } while (!this.producerSequence.compareAndSet(sequence, sequence + 1));
+        int index = (int) sequence & this.mask;
+        this.values[index] = value;
+        this.sides[index] = left;
+        ROUNDS.setRelease(this.publishedRounds, index, (int) (sequence >>> this.shift));
+        return true;
+    }
+
+    @Override
+    public int drain(Consumer<? super L> leftResolver, Consumer<? super R> rightResolver, int maxElements) {
+        long sequence = this.consumerSequence.getPlain();
+        int drained = 0;
+        try {
+            while (drained < maxElements) {
+                int index = (int) sequence & this.mask;
+                if ((int) ROUNDS.getAcquire(this.publishedRounds, index) != (int) (sequence >>> this.shift)) {
+                    break;
+                }
+                Object value = this.values[index];
+                boolean left = this.sides[index];
+                this.values[index] = null;
+                sequence++;
+                drained++;
+                this.dispatch(left, value, leftResolver, rightResolver);
+            }
+        } finally {
+            this.consumerSequence.setRelease(sequence);
+        }
+        return drained;
+    }
+
+    @Override
+    public int size() {
+        long consumed = this.consumerSequence.get();
+        long produced = this.producerSequence.get();
+        return (int) Math.max(0L, Math.min(produced - consumed, this.capacity()));
+    }
+}
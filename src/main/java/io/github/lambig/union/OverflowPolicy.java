@@ -0,0 +1,19 @@
+package io.github.lambig.union;
+
+/**
+ * Behavior on adding a value to a full bounded buffer.
+ */
+public enum OverflowPolicy {
+    /**
+     * Discards the value, counting it as dropped.
+     */
+    DROP,
+    /**
+     * Waits until the buffer has space.
+     */
+    BLOCK,
+    /**
+     * Throws IllegalStateException.
+     */
+    FAIL
+}
@@ -0,0 +1,57 @@
+package io.github.lambig.union;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+abstract class PaddedSequenceLeftPadding {
+    long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class PaddedSequenceValue extends PaddedSequenceLeftPadding {
+    volatile long value;
+}
+
+/**
+ * Sequence counter padded to keep it alone in its cache line.
+ */
+final class PaddedSequence extends PaddedSequenceValue {
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(PaddedSequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    long p11, p12, p13, p14, p15, p16, p17;
+
+    PaddedSequence(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    long get() {
+        return this.value;
+    }
+
+    long getPlain() {
+        return (long) VALUE.get(this);
+    }
+
+    long getAcquire() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    void setRelease(long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    boolean compareAndSet(long expectedValue, long newValue) {
+        return VALUE.compareAndSet(this, expectedValue, newValue);
+    }
+
+    long getAndAdd(long delta) {
+        return (long) VALUE.getAndAdd(this, delta);
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.lambig.union;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses bytes of a delimited record into Left of parsed value or Right of parse error.
+ * Used by DelimitedRecordReader.
+ *
+ * @param <L> type of parsed value
+ * @param <R> type of parse error
+ */
+@FunctionalInterface
+public interface RecordParser<L, R> {
+
+    /**
+     * Parses a record.
+     * NOTE: The buffer is reused for following records; it must not be retained or modified after this call.
+     *
+     * @param record buffer whose remaining bytes are the record, without delimiter
+     * @param offset offset of the record in the file
+     * @return Left with parsed value, or Right with parse error
+     */
+    Union<L, R> parse(ByteBuffer record, long offset);
+}
@@ -68,8 +68,41 @@ public final class Right<L, R> implements Union<L, R>, Supplier<R> {
     }
 
 
+    @Override
+    public <O> Right<O, R> mapLeft(@NonNull Function<? super L, ? extends O> leftMapper) {
+        return this.withLeftType();
+    }
+
+    @Override
+    public <O> Right<L, O> mapRight(@NonNull Function<? super R, ? extends O> rightMapper) {
+        return Right.of(rightMapper.apply(this.right()));
+    }
+
+    @Override
+    public <A, B> Right<A, B> bimap(
+            @NonNull Function<? super L, ? extends A> leftMapper,
+            @NonNull Function<? super R, ? extends B> rightMapper) {
+        return Right.of(rightMapper.apply(this.right()));
+    }
+
+    @Override
+    public <O> Right<O, R> flatMapLeft(@NonNull Function<? super L, ? extends Union<O, R>> leftMapper) {
+        return this.withLeftType();
+    }
+
+    @Override
+    public <O> Union<L, O> flatMapRight(@NonNull Function<? super R, ? extends Union<L, O>> rightMapper) {
+        return rightMapper.apply(this.right());
+    }
+
     @Override
     public R get() {
         return this.right();
     }
+
+    // safe as Right has no left value
+    @SuppressWarnings("unchecked")
+    private <O> Right<O, R> withLeftType() {
+        return (Right<O, R>) this;
+    }
 }
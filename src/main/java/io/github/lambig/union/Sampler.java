@@ -0,0 +1,78 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides whether each event should be sampled.
+ * Implementations are thread-safe and lock-free.
+ */
+@FunctionalInterface
+public interface Sampler {
+
+    /**
+     * Returns sampler which samples every event.
+     *
+     * @return sampler
+     */
+    static Sampler all() {
+        return () -> true;
+    }
+
+    /**
+     * Returns sampler which samples one in every n events.
+     * Events are counted per thread, so that threads do not contend on a shared counter;
+     * each thread samples its first event and then every n-th one.
+     *
+     * @param n interval of sampling, must be positive
+     * @return sampler
+     */
+    static Sampler oneIn(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be positive: " + n);
+        }
+        if (n == 1) {
+            return all();
+        }
+        ThreadLocal<long[]> counter = ThreadLocal.withInitial(() -> new long[1]);
+        return () -> counter.get()[0]++ % n == 0;
+    }
+
+    /**
+     * Returns sampler which samples at most one event per interval.
+     *
+     * @param interval minimum interval between sampled events
+     * @return sampler
+     */
+    static Sampler atMostOncePer(@NonNull Duration interval) {
+        long intervalNanos = interval.toNanos();
+        AtomicLong nextNanos = new AtomicLong(System.nanoTime());
+        return () -> {
+            long now = System.nanoTime();
+            long next = nextNanos.get();
+            return now - next >= 0 && nextNanos.compareAndSet(next, now + intervalNanos);
+        };
+    }
+
+    /**
+     * Returns sampler which samples at most permitsPerSecond events per second.
+     *
+     * @param permitsPerSecond maximum rate, must be positive
+     * @return sampler
+     */
+    static Sampler rateLimited(double permitsPerSecond) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + permitsPerSecond);
+        }
+        return atMostOncePer(Duration.ofNanos((long) (1_000_000_000L / permitsPerSecond)));
+    }
+
+    /**
+     * Returns whether the current event should be sampled.
+     *
+     * @return true if sampled
+     */
+    boolean sample();
+}
@@ -0,0 +1,380 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Bounded ring buffer of union values in a memory-mapped file, shared by processes on the same host.
+ * Producers in any number of processes and threads claim slots by CAS on the producer sequence in the file,
+ * write a tag byte and a length-prefixed payload encoded by BinaryCodec, and publish each slot by writing its sequence with release semantics.
+ * A single consumer process drains the values in order like Union.accept.
+ * Give each consumer its own queue file; several consumers of one file are not supported.
+ * NOTE: A producer terminated between claiming and publishing a slot blocks the consumer at that slot.
+ *
+ * @param <L> type of left value
+ * @param <R> type of right value
+ */
+public final class SharedUnionQueue<L, R> implements Closeable {
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int MAGIC = 0x554E5351;
+    private static final int VERSION = 1;
+    // sequences on their own cache lines
+    private static final int PRODUCER_SEQUENCE_OFFSET = 64;
+    private static final int CONSUMER_SEQUENCE_OFFSET = 128;
+    private static final int SLOTS_OFFSET = 192;
+    // long published sequence + 1, int length, byte tag, padding
+    private static final int SLOT_HEADER_LENGTH = 16;
+    private static final byte SKIPPED = 0;
+    private static final byte LEFT = 1;
+    private static final byte RIGHT = 2;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final BinaryCodec<L> leftCodec;
+    private final BinaryCodec<R> rightCodec;
+    private final WaitStrategy waitStrategy;
+    private final int capacity;
+    private final int slotLength;
+    private final int maxPayloadLength;
+    private volatile long consumerSequenceCache;
+    // views of the mapping reused for payloads: one per producer thread, and one for the single consumer thread
+    private final ThreadLocal<ByteBuffer> producerView = ThreadLocal.withInitial(this::view);
+    private final ByteBuffer consumerView;
+
+    private SharedUnionQueue(
+            FileChannel channel,
+            MappedByteBuffer buffer,
+            BinaryCodec<L> leftCodec,
+            BinaryCodec<R> rightCodec,
+            WaitStrategy waitStrategy) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.leftCodec = leftCodec;
+        this.rightCodec = rightCodec;
+        this.waitStrategy = waitStrategy;
+        this.capacity = buffer.getInt(8);
+        this.slotLength = buffer.getInt(12);
+        this.maxPayloadLength = this.slotLength - SLOT_HEADER_LENGTH;
+        this.consumerView = this.view();
+    }
+
+    /**
+     * Creates queue file, replacing the existing one, and maps it.
+     *
+     * @param path             path of the queue file
+     * @param capacity         minimum capacity, rounded up to power of 2
+     * @param maxPayloadLength maximum length of encoded value
+     * @param leftCodec        codec of left value
+     * @param rightCodec       codec of right value
+     * @param <L>              type of left value
+     * @param <R>              type of right value
+     * @return SharedUnionQueue instance waiting with back off: spinning, yielding, then parking up to 1 ms
+     * @throws IOException if the file cannot be created
+     */
+    public static <L, R> SharedUnionQueue<L, R> create(
+            @NonNull Path path,
+            int capacity,
+            int maxPayloadLength,
+            @NonNull BinaryCodec<L> leftCodec,
+            @NonNull BinaryCodec<R> rightCodec) throws IOException {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        }
+        if (maxPayloadLength < 1) {
+            throw new IllegalArgumentException("maxPayloadLength must be positive: " + maxPayloadLength);
+        }
+        int slots = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        long slotLength = (SLOT_HEADER_LENGTH + (long) maxPayloadLength + 7) & ~7L;
+        long size = SLOTS_OFFSET + slots * slotLength;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("queue file of " + slots + " slots of " + slotLength + " bytes exceeds 2GiB");
+        }
+        FileChannel channel = FileChannel.open(
+                path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.nativeOrder());
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, slots);
+            buffer.putInt(12, (int) slotLength);
+            // magic last, so that a process opening the file sees a complete header
+            buffer.putInt(0, MAGIC);
+            buffer.force();
+            return new SharedUnionQueue<>(channel, buffer, leftCodec, rightCodec, WaitStrategy.backoff(100, 10, Duration.ofMillis(1)));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps queue file created by another process.
+     *
+     * @param path       path of the queue file
+     * @param leftCodec  codec of left value
+     * @param rightCodec codec of right value
+     * @param <L>        type of left value
+     * @param <R>        type of right value
+     * @return SharedUnionQueue instance waiting with back off: spinning, yielding, then parking up to 1 ms
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a queue file
+     */
+    public static <L, R> SharedUnionQueue<L, R> open(
+            @NonNull Path path,
+            @NonNull BinaryCodec<L> leftCodec,
+            @NonNull BinaryCodec<R> rightCodec) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size < SLOTS_OFFSET || size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("not a shared union queue: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.nativeOrder());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || SLOTS_OFFSET + (long) buffer.getInt(8) * buffer.getInt(12) != size) {
+                throw new IllegalArgumentException("not a shared union queue: " + path);
+            }
+            return new SharedUnionQueue<>(channel, buffer, leftCodec, rightCodec, WaitStrategy.backoff(100, 10, Duration.ofMillis(1)));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns view of this queue waiting with the strategy in put and awaitDrain.
+     *
+     * @param waitStrategy wait strategy
+     * @return SharedUnionQueue on the same mapping
+     */
+    public SharedUnionQueue<L, R> withWaitStrategy(@NonNull WaitStrategy waitStrategy) {
+        return new SharedUnionQueue<>(this.channel, this.buffer, this.leftCodec, this.rightCodec, waitStrategy);
+    }
+
+    /**
+     * Offers left value if the queue has space.
+     *
+     * @param leftValue left value
+     * @return true if added
+     * @throws IllegalArgumentException if the encoded value exceeds the maximum payload length
+     */
+    public boolean offerLeft(@NonNull L leftValue) {
+        return this.offer(LEFT, leftValue, this.leftCodec);
+    }
+
+    /**
+     * Offers right value if the queue has space.
+     *
+     * @param rightValue right value
+     * @return true if added
+     * @throws IllegalArgumentException if the encoded value exceeds the maximum payload length
+     */
+    public boolean offerRight(@NonNull R rightValue) {
+        return this.offer(RIGHT, rightValue, this.rightCodec);
+    }
+
+    /**
+     * Offers value of the union if the queue has space.
+     *
+     * @param union union to add
+     * @return true if added
+     * @throws IllegalArgumentException if the encoded value exceeds the maximum payload length
+     */
+    public boolean offer(@NonNull Union<? extends L, ? extends R> union) {
+        return union.hasLeft() ? this.offerLeft(union.left()) : this.offerRight(union.right());
+    }
+
+    /**
+     * Adds left value, waiting for space with the wait strategy.
+     *
+     * @param leftValue left value
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void putLeft(@NonNull L leftValue) throws InterruptedException {
+        for (int attempt = 0; !this.offerLeft(leftValue); attempt++) {
+            this.idle(attempt);
+        }
+    }
+
+    /**
+     * Adds right value, waiting for space with the wait strategy.
+     *
+     * @param rightValue right value
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void putRight(@NonNull R rightValue) throws InterruptedException {
+        for (int attempt = 0; !this.offerRight(rightValue); attempt++) {
+            this.idle(attempt);
+        }
+    }
+
+    /**
+     * Makes either consumer accept each decoded value in order, up to maxElements, without waiting.
+     * Call only from the single consumer thread of the single consumer process.
+     *
+     * @param leftResolver  consumer accepts left value
+     * @param rightResolver consumer accepts right value
+     * @param maxElements   maximum number of values to drain
+     * @return number of drained values
+     */
+    public int drain(
+            @NonNull Consumer<? super L> leftResolver,
+            @NonNull Consumer<? super R> rightResolver,
+            int maxElements) {
+        long sequence = (long) LONGS.getAcquire(this.buffer, CONSUMER_SEQUENCE_OFFSET);
+        int drained = 0;
+        try {
+            while (drained < maxElements) {
+                int slot = this.slotOffset(sequence);
+                if ((long) LONGS.getAcquire(this.buffer, slot) != sequence + 1) {
+                    break;
+                }
+                int length = this.buffer.getInt(slot + 8);
+                byte tag = this.buffer.get(slot + 12);
+                sequence++;
+                if (tag == LEFT) {
+                    drained++;
+                    leftResolver.accept(this.leftCodec.decode(payload(this.consumerView, slot, length)));
+                } else if (tag == RIGHT) {
+                    drained++;
+                    rightResolver.accept(this.rightCodec.decode(payload(this.consumerView, slot, length)));
+                }
+            }
+        } finally {
+            LONGS.setRelease(this.buffer, CONSUMER_SEQUENCE_OFFSET, sequence);
+        }
+        return drained;
+    }
+
+    /**
+     * Waits with the wait strategy until any value is available, then drains like drain.
+     *
+     * @param leftResolver  consumer accepts left value
+     * @param rightResolver consumer accepts right value
+     * @param maxElements   maximum number of values to drain, must be positive
+     * @return number of drained values
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public int awaitDrain(
+            @NonNull Consumer<? super L> leftResolver,
+            @NonNull Consumer<? super R> rightResolver,
+            int maxElements) throws InterruptedException {
+        if (maxElements < 1) {
+            throw new IllegalArgumentException("maxElements must be positive: " + maxElements);
+        }
+        int drained;
+        for (int attempt = 0; (drained = this.drain(leftResolver, rightResolver, maxElements)) == 0; attempt++) {
+            this.idle(attempt);
+        }
+        return drained;
+    }
+
+    /**
+     * Returns capacity of the queue.
+     *
+     * @return capacity
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns maximum length of encoded value.
+     *
+     * @return maximum payload length
+     */
+    public int maxPayloadLength() {
+        return this.maxPayloadLength;
+    }
+
+    /**
+     * Returns number of values in the queue.
+     * NOTE: The value is only an estimate while producers or consumer are running.
+     *
+     * @return number of values
+     */
+    public int size() {
+        long consumed = (long) LONGS.getVolatile(this.buffer, CONSUMER_SEQUENCE_OFFSET);
+        long produced = (long) LONGS.getVolatile(this.buffer, PRODUCER_SEQUENCE_OFFSET);
+        return (int) Math.max(0L, Math.min(produced - consumed, this.capacity));
+    }
+
+    /**
+     * Closes the file. The mapping is released when it is garbage collected, and the file stays for other processes.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private <T> boolean offer(byte tag, T value, BinaryCodec<T> codec) {
+        long sequence;
+        do {
+            sequence = (long) LONGS.getVolatile(this.buffer, PRODUCER_SEQUENCE_OFFSET);
+            long wrapPoint = sequence - this.capacity;
+            if (wrapPoint >= this.consumerSequenceCache) {
+                long consumed = (long) LONGS.getAcquire(this.buffer, CONSUMER_SEQUENCE_OFFSET);
+                this.consumerSequenceCache = consumed;
+                if (wrapPoint >= consumed) {
+                    return false;
+                }
+            }
+        } while (!LONGS.compareAndSet(this.buffer, PRODUCER_SEQUENCE_OFFSET, sequence, sequence + 1));
+        int slot = this.slotOffset(sequence);
+        byte published = SKIPPED;
+        int length = 0;
+        try {
+            ByteBuffer payload = payload(this.producerView.get(), slot, this.maxPayloadLength);
+            codec.encode(value, payload);
+            length = payload.position() - slot - SLOT_HEADER_LENGTH;
+            published = tag;
+        } catch (BufferOverflowException e) {
+            throw new IllegalArgumentException("encoded value exceeds maxPayloadLength: " + this.maxPayloadLength, e);
+        } finally {
+            // the claimed slot is published even on failure, as skipped, so that the consumer goes on
+            this.buffer.putInt(slot + 8, length);
+            this.buffer.put(slot + 12, published);
+            LONGS.setRelease(this.buffer, slot, sequence + 1);
+        }
+        return true;
+    }
+
+    private int slotOffset(long sequence) {
+        return SLOTS_OFFSET + ((int) sequence & this.capacity - 1) * this.slotLength;
+    }
+
+    private ByteBuffer view() {
+        return this.buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns the view set to the payload of the slot, without allocating another view.
+     */
+    private static ByteBuffer payload(ByteBuffer view, int slot, int length) {
+        int offset = slot + SLOT_HEADER_LENGTH;
+        return view.limit(view.capacity()).position(offset).limit(offset + length);
+    }
+
+    private void idle(int attempt) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        this.waitStrategy.idle(attempt);
+    }
+}
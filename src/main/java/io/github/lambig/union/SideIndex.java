@@ -0,0 +1,339 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.Consumer;
+
+/**
+ * Append-only rank/select index over the sides of a sequence of unions, held as a bitmap (set bit for right).
+ * Rank reads a count of rights sampled before each block of 512 bits and at most 8 words of the block;
+ * select starts from a position sampled every 8192 values of the side, searches the blocks up to the next sample,
+ * and finds the bit within at most 8 words. Both are constant time for sides spread evenly,
+ * with about 6.6% of space over the bitmap.
+ * Appending keeps the samples up to date, so that the index can be queried while the sequence grows.
+ * NOTE: Not thread-safe; queries concurrent with appending need external synchronization.
+ */
+public final class SideIndex implements Consumer<Union<?, ?>> {
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BLOCK_SHIFT = 9;
+    private static final int SAMPLE_SHIFT = 13;
+
+    private long[] words = new long[WORDS_PER_BLOCK];
+    // number of rights before each block
+    private int[] blockRanks = new int[1];
+    // index of every 8192nd right and left
+    private int[] rightSamples = new int[1];
+    private int[] leftSamples = new int[1];
+    private int size;
+    private int rights;
+
+    private SideIndex() {
+    }
+
+    /**
+     * Returns empty index to append sides to.
+     *
+     * @return SideIndex instance
+     */
+    public static SideIndex create() {
+        return new SideIndex();
+    }
+
+    /**
+     * Returns index of the sides of the unions in the list.
+     * The list is not retained; unions added to it later must be appended to the index as well.
+     *
+     * @param unions list of unions
+     * @return SideIndex instance
+     */
+    public static SideIndex of(@NonNull List<? extends Union<?, ?>> unions) {
+        SideIndex index = new SideIndex();
+        unions.forEach(index);
+        return index;
+    }
+
+    /**
+     * Appends side of the union.
+     *
+     * @param union union
+     */
+    @Override
+    public void accept(@NonNull Union<?, ?> union) {
+        this.add(union.hasRight());
+    }
+
+    /**
+     * Appends a side.
+     *
+     * @param right true for right, false for left
+     * @return this index
+     */
+    public SideIndex add(boolean right) {
+        int index = this.size;
+        if ((index & (1 << BLOCK_SHIFT) - 1) == 0) {
+            int block = index >>> BLOCK_SHIFT;
+            if (block == this.blockRanks.length) {
+                this.blockRanks = Arrays.copyOf(this.blockRanks, block * 2);
+                this.words = Arrays.copyOf(this.words, this.blockRanks.length * WORDS_PER_BLOCK);
+            }
+            this.blockRanks[block] = this.rights;
+        }
+        if (right) {
+            this.rightSamples = sample(this.rightSamples, this.rights, index);
+            this.words[index >>> 6] |= 1L << index;
+            this.rights++;
+        } else {
+            this.leftSamples = sample(this.leftSamples, index - this.rights, index);
+        }
+        this.size++;
+        return this;
+    }
+
+    /**
+     * Returns number of sides appended.
+     *
+     * @return size
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns number of lefts appended.
+     *
+     * @return number of lefts
+     */
+    public int countLeft() {
+        return this.size - this.rights;
+    }
+
+    /**
+     * Returns number of rights appended.
+     *
+     * @return number of rights
+     */
+    public int countRight() {
+        return this.rights;
+    }
+
+    /**
+     * Returns whether the side at the index is right.
+     *
+     * @param index index from 0 to size, exclusive
+     * @return true for right, false for left
+     * @throws IndexOutOfBoundsException if index is out of bounds
+     */
+    public boolean isRight(int index) {
+        this.checkIndex(index);
+        return (this.words[index >>> 6] & 1L << index) != 0;
+    }
+
+    /**
+     * Returns number of rights before the index.
+     *
+     * @param index index from 0 to size, inclusive
+     * @return number of rights in [0, index)
+     */
+    public int rankRight(int index) {
+        if (index < 0 || index > this.size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for size " + this.size);
+        }
+        if (index == this.size) {
+            return this.rights;
+        }
+        int rank = this.blockRanks[index >>> BLOCK_SHIFT];
+        int word = index >>> 6;
+        for (int i = word & -WORDS_PER_BLOCK; i < word; i++) {
+            rank += Long.bitCount(this.words[i]);
+        }
+        return rank + Long.bitCount(this.words[word] & (1L << index) - 1);
+    }
+
+    /**
+     * Returns number of lefts before the index.
+     *
+     * @param index index from 0 to size, inclusive
+     * @return number of lefts in [0, index)
+     */
+    public int rankLeft(int index) {
+        return index - this.rankRight(index);
+    }
+
+    /**
+     * Returns index of the k-th right.
+     *
+     * @param k rank of right from 0
+     * @return index of the right
+     * @throws IndexOutOfBoundsException if k is not less than countRight
+     */
+    public int selectRight(int k) {
+        if (k < 0 || k >= this.rights) {
+            throw new IndexOutOfBoundsException("k " + k + " out of bounds for rights " + this.rights);
+        }
+        int block = this.findBlock(k, this.rightSamples, true);
+        return this.selectInBlock(block, k - this.blockRanks[block], 0);
+    }
+
+    /**
+     * Returns index of the k-th left.
+     *
+     * @param k rank of left from 0
+     * @return index of the left
+     * @throws IndexOutOfBoundsException if k is not less than countLeft
+     */
+    public int selectLeft(int k) {
+        if (k < 0 || k >= this.countLeft()) {
+            throw new IndexOutOfBoundsException("k " + k + " out of bounds for lefts " + this.countLeft());
+        }
+        int block = this.findBlock(k, this.leftSamples, false);
+        return this.selectInBlock(block, k - ((block << BLOCK_SHIFT) - this.blockRanks[block]), -1L);
+    }
+
+    /**
+     * Returns index of the first right at or after the index.
+     *
+     * @param fromIndex index to start from
+     * @return index of the right, or -1 if none
+     */
+    public int nextRight(int fromIndex) {
+        int rank = this.rankRight(Math.max(0, Math.min(fromIndex, this.size)));
+        return rank < this.rights ? this.selectRight(rank) : -1;
+    }
+
+    /**
+     * Returns index of the first left at or after the index.
+     *
+     * @param fromIndex index to start from
+     * @return index of the left, or -1 if none
+     */
+    public int nextLeft(int fromIndex) {
+        int rank = this.rankLeft(Math.max(0, Math.min(fromIndex, this.size)));
+        return rank < this.countLeft() ? this.selectLeft(rank) : -1;
+    }
+
+    /**
+     * Returns iterator of indexes of rights from the index, skipping lefts a word at a time.
+     *
+     * @param fromIndex index to start from
+     * @return iterator of indexes in ascending order
+     */
+    public PrimitiveIterator.OfInt rightIndexes(int fromIndex) {
+        return new SideIterator(Math.max(0, fromIndex), 0);
+    }
+
+    /**
+     * Returns iterator of indexes of lefts from the index, skipping rights a word at a time.
+     *
+     * @param fromIndex index to start from
+     * @return iterator of indexes in ascending order
+     */
+    public PrimitiveIterator.OfInt leftIndexes(int fromIndex) {
+        return new SideIterator(Math.max(0, fromIndex), -1L);
+    }
+
+    private static int[] sample(int[] samples, int rank, int index) {
+        if ((rank & (1 << SAMPLE_SHIFT) - 1) != 0) {
+            return samples;
+        }
+        int sample = rank >>> SAMPLE_SHIFT;
+        int[] grown = sample == samples.length ? Arrays.copyOf(samples, sample * 2) : samples;
+        grown[sample] = index;
+        return grown;
+    }
+
+    /**
+     * Returns the last block whose rank of the side is at most k, searching between the samples around k.
+     */
+    private int findBlock(int k, int[] samples, boolean right) {
+        int sample = k >>> SAMPLE_SHIFT;
+        int low = samples[sample] >>> BLOCK_SHIFT;
+        int next = sample + 1;
+        int high = (next << SAMPLE_SHIFT) < (right ? this.rights : this.countLeft())
+                ? samples[next] >>> BLOCK_SHIFT
+                : (this.size - 1) >>> BLOCK_SHIFT;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            int rank = right ? this.blockRanks[middle] : (middle << BLOCK_SHIFT) - this.blockRanks[middle];
+            if (rank <= k) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns index of the remaining-th set bit of the words of the block, flipped by the mask for lefts.
+     */
+    private int selectInBlock(int block, int remaining, long flip) {
+        for (int word = block * WORDS_PER_BLOCK; ; word++) {
+            long bits = this.words[word] ^ flip;
+            int count = Long.bitCount(bits);
+            if (remaining < count) {
+                return (word << 6) + selectInWord(bits, remaining);
+            }
+            remaining -= count;
+        }
+    }
+
+    private static int selectInWord(long bits, int remaining) {
+        int shift = 0;
+        for (int count = Long.bitCount(bits & 0xFF); remaining >= count; count = Long.bitCount(bits >>> shift & 0xFF)) {
+            remaining -= count;
+            shift += 8;
+        }
+        long rest = bits >>> shift;
+        for (int i = 0; i < remaining; i++) {
+            rest &= rest - 1;
+        }
+        return shift + Long.numberOfTrailingZeros(rest);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for size " + this.size);
+        }
+    }
+
+    /**
+     * Iterator of set bits of the words flipped by the mask, below the size at creation.
+     */
+    private final class SideIterator implements PrimitiveIterator.OfInt {
+        private final long flip;
+        private final int end = SideIndex.this.size;
+        private int word;
+        private long bits;
+
+        private SideIterator(int fromIndex, long flip) {
+            this.flip = flip;
+            this.word = fromIndex >>> 6;
+            this.bits = fromIndex < this.end ? (SideIndex.this.words[this.word] ^ flip) & -1L << fromIndex : 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (this.bits == 0) {
+                if ((this.word + 1) << 6 >= this.end) {
+                    return false;
+                }
+                this.bits = SideIndex.this.words[++this.word] ^ this.flip;
+            }
+            return (this.word << 6) + Long.numberOfTrailingZeros(this.bits) < this.end;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int index = (this.word << 6) + Long.numberOfTrailingZeros(this.bits);
+            this.bits &= this.bits - 1;
+            return index;
+        }
+    }
+}
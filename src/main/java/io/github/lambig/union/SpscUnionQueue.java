@@ -0,0 +1,69 @@
+package io.github.lambig.union;
+
+import java.util.function.Consumer;
+
+/**
+ * Single producer queue.
+ * The producer publishes slots by releasing the producer sequence, so no CAS is needed.
+ */
+final class SpscUnionQueue<L, R> extends UnionQueue<L, R> {
+    private final Object[] values;
+    private final boolean[] sides;
+    private final int mask;
+    private final PaddedSequence producerSequence = new PaddedSequence(0L);
+    private final PaddedSequence consumerSequence = new PaddedSequence(0L);
+    // accessed only by the producer thread
+    private long consumerSequenceCache;
+
+    SpscUnionQueue(int capacity, WaitStrategy waitStrategy) {
+        super(capacity, waitStrategy);
+        this.values = new Object[capacity];
+        this.sides = new boolean[capacity];
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    boolean offer(boolean left, Object value) {
+        long sequence = this.producerSequence.getPlain();
+        long wrapPoint = sequence - this.capacity();
+        if (wrapPoint >= this.consumerSequenceCache) {
+            this.consumerSequenceCache = this.consumerSequence.getAcquire();
+            if (wrapPoint >= this.consumerSequenceCache) {
+                return false;
+            }
+        }
+        int index = (int) sequence & this.mask;
+        this.values[index] = value;
+        this.sides[index] = left;
+        this.producerSequence.setRelease(sequence + 1);
+        return true;
+    }
+
+    @Override
+    public int drain(Consumer<? super L> leftResolver, Consumer<? super R> rightResolver, int maxElements) {
+        long sequence = this.consumerSequence.getPlain();
+        long available = Math.min(this.producerSequence.getAcquire() - sequence, maxElements);
+        int drained = 0;
+        try {
+            while (drained < available) {
+                int index = (int) sequence & this.mask;
+                Object value = this.values[index];
+                boolean left = this.sides[index];
+                this.values[index] = null;
+                sequence++;
+                drained++;
+                this.dispatch(left, value, leftResolver, rightResolver);
+            }
+        } finally {
+            this.consumerSequence.setRelease(sequence);
+        }
+        return drained;
+    }
+
+    @Override
+    public int size() {
+        long consumed = this.consumerSequence.get();
+        long produced = this.producerSequence.get();
+        return (int) Math.max(0L, Math.min(produced - consumed, this.capacity()));
+    }
+}
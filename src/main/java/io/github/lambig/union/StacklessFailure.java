@@ -0,0 +1,53 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+/**
+ * Failure value without stack trace.
+ * Neither stack trace nor suppressed exceptions are recorded, so creating one is cheap
+ * and a single instance can be preallocated and shared as a constant right value.
+ */
+public class StacklessFailure extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructor for subclasses.
+     *
+     * @param message detail message
+     * @param cause   cause (nullable)
+     */
+    protected StacklessFailure(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+
+    /**
+     * Returns failure with message.
+     *
+     * @param message detail message
+     * @return StacklessFailure instance
+     */
+    public static StacklessFailure of(String message) {
+        return new StacklessFailure(message, null);
+    }
+
+    /**
+     * Returns failure with message and cause.
+     *
+     * @param message detail message
+     * @param cause   cause
+     * @return StacklessFailure instance
+     */
+    public static StacklessFailure of(String message, @NonNull Throwable cause) {
+        return new StacklessFailure(message, cause);
+    }
+
+    /**
+     * Returns failure describing the exception, holding it as the cause.
+     *
+     * @param cause exception to describe
+     * @return StacklessFailure instance
+     */
+    public static StacklessFailure from(@NonNull Throwable cause) {
+        return new StacklessFailure(cause.toString(), cause);
+    }
+}
@@ -181,6 +181,130 @@ public interface Union<L, R> {
         return union -> union.peekRight(rightResolver);
     }
 
+    /**
+     * returns UnaryOperator to call peekAsync without lambda.
+     *
+     * @param peeker peeker accepts value asynchronously
+     * @param <L>    class of Left value
+     * @param <R>    class of Right value
+     * @return UnaryOperator to hand value off to peeker
+     */
+    static <L, R> UnaryOperator<Union<L, R>> peekAsyncWith(
+            @NonNull AsyncPeeker<? super L, ? super R> peeker) {
+        return union -> union.peekAsync(peeker);
+    }
+
+    /**
+     * returns Function to call mapLeft without lambda.
+     *
+     * @param leftMapper function maps left value to new left value
+     * @param <L>        class of Left value
+     * @param <R>        class of Right value
+     * @param <O>        class of new Left value
+     * @return Function to map left value
+     */
+    static <L, R, O> Function<Union<L, R>, Union<O, R>> mapLeftWith(
+            @NonNull Function<? super L, ? extends O> leftMapper) {
+        return union -> union.mapLeft(leftMapper);
+    }
+
+    /**
+     * returns Function to call mapRight without lambda.
+     *
+     * @param rightMapper function maps right value to new right value
+     * @param <L>         class of Left value
+     * @param <R>         class of Right value
+     * @param <O>         class of new Right value
+     * @return Function to map right value
+     */
+    static <L, R, O> Function<Union<L, R>, Union<L, O>> mapRightWith(
+            @NonNull Function<? super R, ? extends O> rightMapper) {
+        return union -> union.mapRight(rightMapper);
+    }
+
+    /**
+     * returns Function to call bimap without lambda.
+     *
+     * @param leftMapper  function maps left value to new left value
+     * @param rightMapper function maps right value to new right value
+     * @param <L>         class of Left value
+     * @param <R>         class of Right value
+     * @param <A>         class of new Left value
+     * @param <B>         class of new Right value
+     * @return Function to map either value
+     */
+    static <L, R, A, B> Function<Union<L, R>, Union<A, B>> bimapWith(
+            @NonNull Function<? super L, ? extends A> leftMapper,
+            @NonNull Function<? super R, ? extends B> rightMapper) {
+        return union -> union.bimap(leftMapper, rightMapper);
+    }
+
+    /**
+     * returns Function to call flatMapLeft without lambda.
+     *
+     * @param leftMapper function maps left value to union
+     * @param <L>        class of Left value
+     * @param <R>        class of Right value
+     * @param <O>        class of new Left value
+     * @return Function to map left value
+     */
+    static <L, R, O> Function<Union<L, R>, Union<O, R>> flatMapLeftWith(
+            @NonNull Function<? super L, ? extends Union<O, R>> leftMapper) {
+        return union -> union.flatMapLeft(leftMapper);
+    }
+
+    /**
+     * returns Function to call flatMapRight without lambda.
+     *
+     * @param rightMapper function maps right value to union
+     * @param <L>         class of Left value
+     * @param <R>         class of Right value
+     * @param <O>         class of new Right value
+     * @return Function to map right value
+     */
+    static <L, R, O> Function<Union<L, R>, Union<L, O>> flatMapRightWith(
+            @NonNull Function<? super R, ? extends Union<L, O>> rightMapper) {
+        return union -> union.flatMapRight(rightMapper);
+    }
+
+    /**
+     * returns an empty chain of transformations.
+     * Transformations added to the chain are composed once and applied to a union in a single dispatch,
+     * without allocating intermediate union per stage.
+     *
+     * @param <L> class of Left value
+     * @param <R> class of Right value
+     * @return chain which does nothing
+     */
+    static <L, R> UnionChain<L, R, L, R> pipeline() {
+        return UnionChain.empty();
+    }
+
+    /**
+     * returns Function to call attemptLeft without lambda, capturing any exception as right value.
+     *
+     * @param function function maps left value to new left value, may throw exception
+     * @param <L>      class of Left value
+     * @param <O>      class of new Left value
+     * @return Function to attempt function on left value
+     */
+    static <L, O> Function<Union<L, Throwable>, Union<O, Throwable>> attemptWith(
+            @NonNull CheckedFunction<? super L, ? extends O> function) {
+        return union -> union.attemptLeft(function, Function.identity());
+    }
+
+    /**
+     * returns Function to call recoverRight without lambda, capturing any exception as right value.
+     *
+     * @param recovery function maps right value to left value, may throw exception
+     * @param <L>      class of Left value
+     * @return Function to attempt recovery on right value
+     */
+    static <L> UnaryOperator<Union<L, Throwable>> recoverWith(
+            @NonNull CheckedFunction<? super Throwable, ? extends L> recovery) {
+        return union -> union.recoverRight(recovery, Function.identity());
+    }
+
     /**
      * Returns left value
      *
@@ -358,4 +482,105 @@ public interface Union<L, R> {
         this.acceptRight(rightResolver);
         return this;
     }
+
+    /**
+     * Hands value off to peeker, which makes its consumer accept the value on another thread, and returns self.
+     *
+     * @param peeker peeker accepts value asynchronously
+     * @return self
+     */
+    default Union<L, R> peekAsync(@NonNull AsyncPeeker<? super L, ? super R> peeker) {
+        peeker.submit(this);
+        return this;
+    }
+
+    /**
+     * Maps left value if it exists.
+     *
+     * @param leftMapper function maps left value to new left value
+     * @param <O>        class of new Left value
+     * @return Left with mapped value, or Right with the same value
+     */
+    default <O> Union<O, R> mapLeft(@NonNull Function<? super L, ? extends O> leftMapper) {
+        return this.asJoined(left -> Left.<O, R>of(leftMapper.apply(left)), Right::<O, R>of);
+    }
+
+    /**
+     * Maps right value if it exists.
+     *
+     * @param rightMapper function maps right value to new right value
+     * @param <O>         class of new Right value
+     * @return Right with mapped value, or Left with the same value
+     */
+    default <O> Union<L, O> mapRight(@NonNull Function<? super R, ? extends O> rightMapper) {
+        return this.asJoined(Left::<L, O>of, right -> Right.<L, O>of(rightMapper.apply(right)));
+    }
+
+    /**
+     * Maps either value with correspondent function.
+     *
+     * @param leftMapper  function maps left value to new left value
+     * @param rightMapper function maps right value to new right value
+     * @param <A>         class of new Left value
+     * @param <B>         class of new Right value
+     * @return union with mapped value
+     */
+    default <A, B> Union<A, B> bimap(
+            @NonNull Function<? super L, ? extends A> leftMapper,
+            @NonNull Function<? super R, ? extends B> rightMapper) {
+        return this.asJoined(
+                left -> Left.<A, B>of(leftMapper.apply(left)),
+                right -> Right.<A, B>of(rightMapper.apply(right)));
+    }
+
+    /**
+     * Maps left value to union if it exists.
+     *
+     * @param leftMapper function maps left value to union
+     * @param <O>        class of new Left value
+     * @return union returned by leftMapper, or Right with the same value
+     */
+    default <O> Union<O, R> flatMapLeft(@NonNull Function<? super L, ? extends Union<O, R>> leftMapper) {
+        return this.asJoined(leftMapper, Right::<O, R>of);
+    }
+
+    /**
+     * Maps right value to union if it exists.
+     *
+     * @param rightMapper function maps right value to union
+     * @param <O>         class of new Right value
+     * @return union returned by rightMapper, or Left with the same value
+     */
+    default <O> Union<L, O> flatMapRight(@NonNull Function<? super R, ? extends Union<L, O>> rightMapper) {
+        return this.asJoined(Left::<L, O>of, rightMapper);
+    }
+
+    /**
+     * Attempts function on left value if it exists, capturing thrown exception as right value.
+     * Right value is passed through as it is.
+     *
+     * @param function      function maps left value to new left value, may throw exception
+     * @param failureMapper function maps thrown exception to right value
+     * @param <O>           class of new Left value
+     * @return Left with the result, or Right with the failure or the original right value
+     */
+    default <O> Union<O, R> attemptLeft(
+            @NonNull CheckedFunction<? super L, ? extends O> function,
+            @NonNull Function<? super Exception, ? extends R> failureMapper) {
+        return this.flatMapLeft(left -> UnionOf.attempt(() -> function.apply(left), failureMapper));
+    }
+
+    /**
+     * Attempts recovery on right value if it exists, capturing thrown exception as right value.
+     * Left value is passed through as it is.
+     *
+     * @param recovery      function maps right value to left value, may throw exception
+     * @param failureMapper function maps thrown exception to right value
+     * @return self if left, otherwise Left with the recovered value or Right with the failure
+     */
+    default Union<L, R> recoverRight(
+            @NonNull CheckedFunction<? super R, ? extends L> recovery,
+            @NonNull Function<? super Exception, ? extends R> failureMapper) {
+        return this.flatMapRight(right -> UnionOf.attempt(() -> recovery.apply(right), failureMapper));
+    }
 }
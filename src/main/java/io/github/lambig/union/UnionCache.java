@@ -0,0 +1,674 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * Loading cache of union outcomes: lefts (successes) and rights (failures) are cached with their own
+ * expiry after write, weigher and maximum weight, so that failures are cached negatively for a shorter time
+ * and never evict successes.
+ * Entries are held in segments striped by hash of key, each locked only while it is read or written.
+ * Each side of a segment is a segmented LRU: new entries enter a probation queue and move to a protected queue,
+ * holding 80% of the weight of the side, on their second hit; victims are taken from the probation queue first,
+ * so that a scan of keys read once does not flush entries read repeatedly.
+ * Concurrent misses of the same key share a single load; each caller gets its own dependent future of it.
+ * Expired entries are dropped when read, or evicted by weight.
+ *
+ * @param <K> type of key
+ * @param <L> type of left value
+ * @param <R> type of right value
+ */
+public final class UnionCache<K, L, R> {
+    private final Segment<K, L, R>[] segments;
+    private final int shift;
+    private final Function<? super K, ? extends CompletableFuture<? extends Union<L, R>>> loader;
+    private final Map<K, CompletableFuture<Union<L, R>>> loading = new ConcurrentHashMap<>();
+    private final Policy<K, L> leftPolicy;
+    private final Policy<K, R> rightPolicy;
+    private final LongSupplier nanoClock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private UnionCache(Builder<K, L, R> builder) {
+        int segmentCount = builder.segments == 1 ? 1 : Integer.highestOneBit(builder.segments - 1) << 1;
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            this.segments[i] = new Segment<>(
+                    divide(builder.leftMaximumWeight, segmentCount),
+                    divide(builder.rightMaximumWeight, segmentCount));
+        }
+        this.shift = Integer.SIZE - Integer.numberOfTrailingZeros(segmentCount);
+        this.loader = builder.loader;
+        this.leftPolicy = new Policy<>(builder.leftWeigher, builder.leftExpireAfterWrite);
+        this.rightPolicy = new Policy<>(builder.rightWeigher, builder.rightExpireAfterWrite);
+        this.nanoClock = builder.nanoClock;
+    }
+
+    /**
+     * Returns builder of cache loading by blocking loader, called on the thread of the first caller missing the key.
+     *
+     * @param loader function loads union of the key
+     * @param <K>    type of key
+     * @param <L>    type of left value
+     * @param <R>    type of right value
+     * @return builder
+     */
+    public static <K, L, R> Builder<K, L, R> builder(@NonNull Function<? super K, ? extends Union<L, R>> loader) {
+        return new Builder<>(key -> CompletableFuture.completedFuture(loader.apply(key)));
+    }
+
+    /**
+     * Returns builder of cache loading by asynchronous loader.
+     *
+     * @param loader function starts loading union of the key
+     * @param <K>    type of key
+     * @param <L>    type of left value
+     * @param <R>    type of right value
+     * @return builder
+     */
+    public static <K, L, R> Builder<K, L, R> asyncBuilder(
+            @NonNull Function<? super K, ? extends CompletableFuture<? extends Union<L, R>>> loader) {
+        return new Builder<>(loader);
+    }
+
+    /**
+     * Returns cached union of the key, loading it on miss and waiting for the load.
+     *
+     * @param key key
+     * @return cached or loaded union
+     * @throws CompletionException if the loader fails
+     */
+    public Union<L, R> get(@NonNull K key) {
+        return this.getAsync(key).join();
+    }
+
+    /**
+     * Returns future of union of the key: completed with the cached union on hit,
+     * or a dependent of the load shared by every caller missing the key while it loads.
+     * Completing, cancelling or timing out the returned future affects neither the load nor other callers.
+     * Loaded unions are cached before the future completes; failed loads, including errors thrown by the loader,
+     * are not cached, and the next miss loads again.
+     *
+     * @param key key
+     * @return future of union
+     */
+    public CompletableFuture<Union<L, R>> getAsync(@NonNull K key) {
+        Segment<K, L, R> segment = this.segmentOf(key);
+        Union<L, R> cached = segment.get(key, this.nanoClock.getAsLong());
+        if (cached != null) {
+            this.hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+        this.misses.increment();
+        CompletableFuture<Union<L, R>> created = new CompletableFuture<>();
+        CompletableFuture<Union<L, R>> inFlight = this.loading.putIfAbsent(key, created);
+        if (inFlight != null) {
+            // each caller gets its own dependent, so that completing or cancelling it leaves other waiters alone
+            return inFlight.copy();
+        }
+        // a load may have completed between the miss and taking the flight
+        cached = segment.get(key, this.nanoClock.getAsLong());
+        if (cached != null) {
+            this.loading.remove(key, created);
+            created.complete(cached);
+            return CompletableFuture.completedFuture(cached);
+        }
+        this.load(key, created);
+        return created.copy();
+    }
+
+    /**
+     * Returns cached union of the key without loading.
+     *
+     * @param key key
+     * @return cached union, or empty if absent or expired
+     */
+    public Optional<Union<L, R>> getIfPresent(@NonNull K key) {
+        Union<L, R> cached = this.segmentOf(key).get(key, this.nanoClock.getAsLong());
+        if (cached == null) {
+            this.misses.increment();
+            return Optional.empty();
+        }
+        this.hits.increment();
+        return Optional.of(cached);
+    }
+
+    /**
+     * Caches the union by the policy of its side, replacing the cached one.
+     *
+     * @param key   key
+     * @param union union to cache
+     */
+    public void put(@NonNull K key, @NonNull Union<L, R> union) {
+        Segment<K, L, R> segment = this.segmentOf(key);
+        long now = this.nanoClock.getAsLong();
+        int evicted = union.hasLeft()
+                ? segment.put(key, union, true, this.leftPolicy.weigh(key, union.left()), this.leftPolicy.expiresAt(now))
+                : segment.put(key, union, false, this.rightPolicy.weigh(key, union.right()), this.rightPolicy.expiresAt(now));
+        if (evicted > 0) {
+            this.evictions.add(evicted);
+        }
+    }
+
+    /**
+     * Removes cached union of the key. A load in flight is not cancelled, and caches its result.
+     *
+     * @param key key
+     */
+    public void invalidate(@NonNull K key) {
+        this.segmentOf(key).remove(key);
+    }
+
+    /**
+     * Removes all cached unions, segment by segment.
+     */
+    public void invalidateAll() {
+        for (Segment<K, L, R> segment : this.segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Returns number of cached unions including expired ones not dropped yet, summed over segments one by one.
+     *
+     * @return number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, L, R> segment : this.segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns statistics since creation.
+     *
+     * @return statistics
+     */
+    public CacheStats stats() {
+        return new CacheStats(
+                this.hits.sum(),
+                this.misses.sum(),
+                this.loads.sum(),
+                this.loadFailures.sum(),
+                this.loadNanos.sum(),
+                this.evictions.sum());
+    }
+
+    private void load(K key, CompletableFuture<Union<L, R>> created) {
+        long startNanos = this.nanoClock.getAsLong();
+        CompletableFuture<? extends Union<L, R>> source;
+        try {
+            source = this.loader.apply(key);
+        } catch (Throwable e) {
+            source = CompletableFuture.failedFuture(e);
+        }
+        if (source == null) {
+            source = CompletableFuture.failedFuture(new NullPointerException("loader returned null future for key " + key));
+        }
+        source.whenComplete((union, error) -> {
+            Throwable failure = error == null && union == null
+                    ? new NullPointerException("loader returned null union for key " + key)
+                    : error;
+            try {
+                this.loadNanos.add(this.nanoClock.getAsLong() - startNanos);
+                if (failure == null) {
+                    this.loads.increment();
+                    this.put(key, union);
+                } else {
+                    this.loadFailures.increment();
+                }
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                // the flight is always landed, so that a failure never leaves later callers waiting on it
+                this.loading.remove(key, created);
+                if (failure == null) {
+                    created.complete(union);
+                } else {
+                    created.completeExceptionally(failure);
+                }
+            }
+        });
+    }
+
+    private Segment<K, L, R> segmentOf(K key) {
+        int hash = key.hashCode() * 0x9E3779B9;
+        return this.segments[this.shift == Integer.SIZE ? 0 : hash >>> this.shift];
+    }
+
+    private static long divide(long maximumWeight, int segmentCount) {
+        return (maximumWeight + segmentCount - 1) / segmentCount;
+    }
+
+    /**
+     * Weigher and expiry of a side.
+     */
+    private static final class Policy<K, V> {
+        private final ToIntBiFunction<? super K, ? super V> weigher;
+        private final long expireAfterWriteNanos;
+
+        private Policy(ToIntBiFunction<? super K, ? super V> weigher, Duration expireAfterWrite) {
+            this.weigher = weigher;
+            this.expireAfterWriteNanos = expireAfterWrite == null ? Long.MAX_VALUE : expireAfterWrite.toNanos();
+        }
+
+        private int weigh(K key, V value) {
+            int weight = this.weigher.applyAsInt(key, value);
+            if (weight < 0) {
+                throw new IllegalArgumentException("weight must not be negative: " + weight);
+            }
+            return weight;
+        }
+
+        private long expiresAt(long nowNanos) {
+            return this.expireAfterWriteNanos == Long.MAX_VALUE ? Long.MAX_VALUE : nowNanos + this.expireAfterWriteNanos;
+        }
+    }
+
+    /**
+     * Entry linked into a queue of its side.
+     */
+    private static final class Node<K, L, R> {
+        private final K key;
+        private final Union<L, R> union;
+        private final int weight;
+        private final long expiresAtNanos;
+        private Queue<K, L, R> queue;
+        private Node<K, L, R> previous;
+        private Node<K, L, R> next;
+
+        private Node(K key, Union<L, R> union, int weight, long expiresAtNanos) {
+            this.key = key;
+            this.union = union;
+            this.weight = weight;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired(long nowNanos) {
+            return this.expiresAtNanos != Long.MAX_VALUE && nowNanos - this.expiresAtNanos >= 0;
+        }
+    }
+
+    /**
+     * Doubly linked queue from least to most recently used, with total weight.
+     */
+    private static final class Queue<K, L, R> {
+        private Node<K, L, R> head;
+        private Node<K, L, R> tail;
+        private long weight;
+
+        private void addLast(Node<K, L, R> node) {
+            node.queue = this;
+            node.previous = this.tail;
+            node.next = null;
+            if (this.tail == null) {
+                this.head = node;
+            } else {
+                this.tail.next = node;
+            }
+            this.tail = node;
+            this.weight += node.weight;
+        }
+
+        private void unlink(Node<K, L, R> node) {
+            if (node.previous == null) {
+                this.head = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                this.tail = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.queue = null;
+            node.previous = null;
+            node.next = null;
+            this.weight -= node.weight;
+        }
+    }
+
+    /**
+     * Segmented LRU of a side: probation and protected queues within a maximum weight.
+     */
+    private static final class Region<K, L, R> {
+        private final Queue<K, L, R> probation = new Queue<>();
+        private final Queue<K, L, R> protectedQueue = new Queue<>();
+        private final long maximumWeight;
+        private final long protectedMaximumWeight;
+
+        private Region(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+            this.protectedMaximumWeight = maximumWeight - maximumWeight / 5;
+        }
+
+        private void hit(Node<K, L, R> node) {
+            node.queue.unlink(node);
+            this.protectedQueue.addLast(node);
+            while (this.protectedQueue.weight > this.protectedMaximumWeight) {
+                Node<K, L, R> demoted = this.protectedQueue.head;
+                this.protectedQueue.unlink(demoted);
+                this.probation.addLast(demoted);
+            }
+        }
+
+        private Node<K, L, R> victim() {
+            if (this.probation.weight + this.protectedQueue.weight <= this.maximumWeight) {
+                return null;
+            }
+            return this.probation.head != null ? this.probation.head : this.protectedQueue.head;
+        }
+    }
+
+    /**
+     * Segment of entries of both sides, locked while it is read or written.
+     */
+    private static final class Segment<K, L, R> {
+        private final Map<K, Node<K, L, R>> nodes = new HashMap<>();
+        private final Region<K, L, R> left;
+        private final Region<K, L, R> right;
+
+        private Segment(long leftMaximumWeight, long rightMaximumWeight) {
+            this.left = new Region<>(leftMaximumWeight);
+            this.right = new Region<>(rightMaximumWeight);
+        }
+
+        private synchronized Union<L, R> get(K key, long nowNanos) {
+            Node<K, L, R> node = this.nodes.get(key);
+            if (node == null) {
+                return null;
+            }
+            if (node.isExpired(nowNanos)) {
+                this.unlink(node);
+                return null;
+            }
+            (node.union.hasLeft() ? this.left : this.right).hit(node);
+            return node.union;
+        }
+
+        private synchronized int put(K key, Union<L, R> union, boolean left, int weight, long expiresAtNanos) {
+            Node<K, L, R> existing = this.nodes.get(key);
+            if (existing != null) {
+                this.unlink(existing);
+            }
+            Region<K, L, R> region = left ? this.left : this.right;
+            if (weight > region.maximumWeight) {
+                return 0;
+            }
+            Node<K, L, R> node = new Node<>(key, union, weight, expiresAtNanos);
+            this.nodes.put(key, node);
+            region.probation.addLast(node);
+            int evicted = 0;
+            for (Node<K, L, R> victim = region.victim(); victim != null; victim = region.victim()) {
+                this.unlink(victim);
+                evicted++;
+            }
+            return evicted;
+        }
+
+        private synchronized void remove(K key) {
+            Node<K, L, R> node = this.nodes.get(key);
+            if (node != null) {
+                this.unlink(node);
+            }
+        }
+
+        private synchronized void clear() {
+            for (Node<K, L, R> node : this.nodes.values()) {
+                node.queue.unlink(node);
+            }
+            this.nodes.clear();
+        }
+
+        private synchronized int size() {
+            return this.nodes.size();
+        }
+
+        private void unlink(Node<K, L, R> node) {
+            node.queue.unlink(node);
+            this.nodes.remove(node.key);
+        }
+    }
+
+    /**
+     * Statistics of a cache at a point in time.
+     */
+    public static final class CacheStats {
+        private final long hitCount;
+        private final long missCount;
+        private final long loadSuccessCount;
+        private final long loadFailureCount;
+        private final long totalLoadNanos;
+        private final long evictionCount;
+
+        CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long totalLoadNanos, long evictionCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.loadSuccessCount = loadSuccessCount;
+            this.loadFailureCount = loadFailureCount;
+            this.totalLoadNanos = totalLoadNanos;
+            this.evictionCount = evictionCount;
+        }
+
+        /**
+         * Returns number of lookups finding a cached union.
+         *
+         * @return number of hits
+         */
+        public long hitCount() {
+            return this.hitCount;
+        }
+
+        /**
+         * Returns number of lookups finding no cached union, including callers sharing a load.
+         *
+         * @return number of misses
+         */
+        public long missCount() {
+            return this.missCount;
+        }
+
+        /**
+         * Returns ratio of hits to lookups.
+         *
+         * @return hit rate from 0 to 1, or 0 if no lookup
+         */
+        public double hitRate() {
+            long lookups = this.hitCount + this.missCount;
+            return lookups == 0 ? 0 : (double) this.hitCount / lookups;
+        }
+
+        /**
+         * Returns number of loads completed with a union, whichever its side is.
+         *
+         * @return number of successful loads
+         */
+        public long loadSuccessCount() {
+            return this.loadSuccessCount;
+        }
+
+        /**
+         * Returns number of loads completed exceptionally.
+         *
+         * @return number of failed loads
+         */
+        public long loadFailureCount() {
+            return this.loadFailureCount;
+        }
+
+        /**
+         * Returns time spent in loads in total.
+         *
+         * @return total load time in nanoseconds
+         */
+        public long totalLoadNanos() {
+            return this.totalLoadNanos;
+        }
+
+        /**
+         * Returns mean time of a load.
+         *
+         * @return average load time in nanoseconds, or 0 if no load
+         */
+        public double averageLoadNanos() {
+            long count = this.loadSuccessCount + this.loadFailureCount;
+            return count == 0 ? 0 : (double) this.totalLoadNanos / count;
+        }
+
+        /**
+         * Returns number of entries evicted by weight.
+         *
+         * @return number of evictions
+         */
+        public long evictionCount() {
+            return this.evictionCount;
+        }
+    }
+
+    /**
+     * Builder of UnionCache.
+     *
+     * @param <K> type of key
+     * @param <L> type of left value
+     * @param <R> type of right value
+     */
+    public static final class Builder<K, L, R> {
+        private final Function<? super K, ? extends CompletableFuture<? extends Union<L, R>>> loader;
+        private int segments = Runtime.getRuntime().availableProcessors() * 4;
+        private long leftMaximumWeight = 10_000;
+        private long rightMaximumWeight = 1_000;
+        private ToIntBiFunction<? super K, ? super L> leftWeigher = (key, value) -> 1;
+        private ToIntBiFunction<? super K, ? super R> rightWeigher = (key, value) -> 1;
+        private Duration leftExpireAfterWrite;
+        private Duration rightExpireAfterWrite = Duration.ofSeconds(10);
+        private LongSupplier nanoClock = System::nanoTime;
+
+        private Builder(Function<? super K, ? extends CompletableFuture<? extends Union<L, R>>> loader) {
+            this.loader = loader;
+        }
+
+        /**
+         * Sets number of segments (default 4 per available processor).
+         *
+         * @param segments minimum number of segments, rounded up to power of 2
+         * @return this builder
+         */
+        public Builder<K, L, R> segments(int segments) {
+            if (segments < 1 || segments > 1 << 16) {
+                throw new IllegalArgumentException("segments must be between 1 and 2^16: " + segments);
+            }
+            this.segments = segments;
+            return this;
+        }
+
+        /**
+         * Sets maximum total weight of left entries (default 10000), divided among segments.
+         *
+         * @param leftMaximumWeight maximum weight, must not be negative
+         * @return this builder
+         */
+        public Builder<K, L, R> leftMaximumWeight(long leftMaximumWeight) {
+            if (leftMaximumWeight < 0) {
+                throw new IllegalArgumentException("leftMaximumWeight must not be negative: " + leftMaximumWeight);
+            }
+            this.leftMaximumWeight = leftMaximumWeight;
+            return this;
+        }
+
+        /**
+         * Sets maximum total weight of right entries (default 1000), divided among segments.
+         *
+         * @param rightMaximumWeight maximum weight, 0 not to cache rights
+         * @return this builder
+         */
+        public Builder<K, L, R> rightMaximumWeight(long rightMaximumWeight) {
+            if (rightMaximumWeight < 0) {
+                throw new IllegalArgumentException("rightMaximumWeight must not be negative: " + rightMaximumWeight);
+            }
+            this.rightMaximumWeight = rightMaximumWeight;
+            return this;
+        }
+
+        /**
+         * Sets weigher of left entries (default 1 per entry).
+         *
+         * @param leftWeigher function returns weight of key and left value, not negative
+         * @return this builder
+         */
+        public Builder<K, L, R> leftWeigher(@NonNull ToIntBiFunction<? super K, ? super L> leftWeigher) {
+            this.leftWeigher = leftWeigher;
+            return this;
+        }
+
+        /**
+         * Sets weigher of right entries (default 1 per entry).
+         *
+         * @param rightWeigher function returns weight of key and right value, not negative
+         * @return this builder
+         */
+        public Builder<K, L, R> rightWeigher(@NonNull ToIntBiFunction<? super K, ? super R> rightWeigher) {
+            this.rightWeigher = rightWeigher;
+            return this;
+        }
+
+        /**
+         * Sets time left entries expire after they are loaded or put (default never).
+         *
+         * @param leftExpireAfterWrite time to live, must be positive
+         * @return this builder
+         */
+        public Builder<K, L, R> leftExpireAfterWrite(@NonNull Duration leftExpireAfterWrite) {
+            if (leftExpireAfterWrite.isNegative() || leftExpireAfterWrite.isZero()) {
+                throw new IllegalArgumentException("leftExpireAfterWrite must be positive: " + leftExpireAfterWrite);
+            }
+            this.leftExpireAfterWrite = leftExpireAfterWrite;
+            return this;
+        }
+
+        /**
+         * Sets time right entries expire after they are loaded or put (default 10 seconds).
+         *
+         * @param rightExpireAfterWrite time to live, must be positive
+         * @return this builder
+         */
+        public Builder<K, L, R> rightExpireAfterWrite(@NonNull Duration rightExpireAfterWrite) {
+            if (rightExpireAfterWrite.isNegative() || rightExpireAfterWrite.isZero()) {
+                throw new IllegalArgumentException("rightExpireAfterWrite must be positive: " + rightExpireAfterWrite);
+            }
+            this.rightExpireAfterWrite = rightExpireAfterWrite;
+            return this;
+        }
+
+        Builder<K, L, R> nanoClock(@NonNull LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        /**
+         * Builds empty cache.
+         *
+         * @return UnionCache instance
+         */
+        public UnionCache<K, L, R> build() {
+            return new UnionCache<>(this);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Immutable chain of transformations from Union&lt;L, R&gt; to Union&lt;A, B&gt;.
+ * Consecutive map stages are composed when the chain is built,
+ * and the whole chain is applied to a union in a single dispatch
+ * without allocating intermediate union per stage.
+ * Obtain an instance by Union.pipeline().
+ *
+ * @param <L> class of input Left value
+ * @param <R> class of input Right value
+ * @param <A> class of output Left value
+ * @param <B> class of output Right value
+ */
+public final class UnionChain<L, R, A, B> implements Function<Union<L, R>, Union<A, B>> {
+    private static final UnionChain<?, ?, ?, ?> EMPTY = new UnionChain<>(new Segment[0]);
+
+    private final Segment[] segments;
+
+    private UnionChain(Segment[] segments) {
+        this.segments = segments;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <L, R> UnionChain<L, R, L, R> empty() {
+        return (UnionChain<L, R, L, R>) EMPTY;
+    }
+
+    /**
+     * Returns chain which maps left value in addition.
+     *
+     * @param leftMapper function maps left value to new left value
+     * @param <O>        class of new Left value
+     * @return new chain
+     */
+    public <O> UnionChain<L, R, O, B> mapLeft(@NonNull Function<? super A, ? extends O> leftMapper) {
+        return this.then(true, leftMapper, false);
+    }
+
+    /**
+     * Returns chain which maps right value in addition.
+     *
+     * @param rightMapper function maps right value to new right value
+     * @param <O>         class of new Right value
+     * @return new chain
+     */
+    public <O> UnionChain<L, R, A, O> mapRight(@NonNull Function<? super B, ? extends O> rightMapper) {
+        return this.then(false, rightMapper, false);
+    }
+
+    /**
+     * Returns chain which maps either value in addition.
+     *
+     * @param leftMapper  function maps left value to new left value
+     * @param rightMapper function maps right value to new right value
+     * @param <C>         class of new Left value
+     * @param <D>         class of new Right value
+     * @return new chain
+     */
+    public <C, D> UnionChain<L, R, C, D> bimap(
+            @NonNull Function<? super A, ? extends C> leftMapper,
+            @NonNull Function<? super B, ? extends D> rightMapper) {
+        return this.<C>mapLeft(leftMapper).mapRight(rightMapper);
+    }
+
+    /**
+     * Returns chain which maps left value to union in addition.
+     *
+     * @param leftMapper function maps left value to union
+     * @param <O>        class of new Left value
+     * @return new chain
+     */
+    public <O> UnionChain<L, R, O, B> flatMapLeft(
+            @NonNull Function<? super A, ? extends Union<? extends O, ? extends B>> leftMapper) {
+        return this.then(true, leftMapper, true);
+    }
+
+    /**
+     * Returns chain which maps right value to union in addition.
+     *
+     * @param rightMapper function maps right value to union
+     * @param <O>         class of new Right value
+     * @return new chain
+     */
+    public <O> UnionChain<L, R, A, O> flatMapRight(
+            @NonNull Function<? super B, ? extends Union<? extends A, ? extends O>> rightMapper) {
+        return this.then(false, rightMapper, true);
+    }
+
+    /**
+     * Returns chain which makes consumer accept left value if it exists in addition.
+     *
+     * @param leftResolver consumer accepts left value
+     * @return new chain
+     */
+    public UnionChain<L, R, A, B> peekLeft(@NonNull Consumer<? super A> leftResolver) {
+        return this.mapLeft(left -> {
+            leftResolver.accept(left);
+            return left;
+        });
+    }
+
+    /**
+     * Returns chain which makes consumer accept right value if it exists in addition.
+     *
+     * @param rightResolver consumer accepts right value
+     * @return new chain
+     */
+    public UnionChain<L, R, A, B> peekRight(@NonNull Consumer<? super B> rightResolver) {
+        return this.mapRight(right -> {
+            rightResolver.accept(right);
+            return right;
+        });
+    }
+
+    /**
+     * Returns Function which applies this chain and joins the result.
+     * No union is allocated unless flatMap functions allocate one.
+     *
+     * @param leftResolver  function maps left value to output
+     * @param rightResolver function maps right value to output
+     * @param <O>           output type
+     * @return Function to resolve value by either argument
+     */
+    public <O> Function<Union<L, R>, O> fold(
+            @NonNull Function<? super A, ? extends O> leftResolver,
+            @NonNull Function<? super B, ? extends O> rightResolver) {
+        return union -> this.run(union, leftResolver, rightResolver);
+    }
+
+    /**
+     * Applies this chain to the union.
+     * NOTE: Mapped values must not be null.
+     *
+     * @param union union to transform
+     * @return transformed union
+     */
+    @Override
+    public Union<A, B> apply(@NonNull Union<L, R> union) {
+        return this.segments.length == 0
+                ? this.asIs(union)
+                : this.run(union, Left::<A, B>of, Right::<A, B>of);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Union<A, B> asIs(Union<L, R> union) {
+        // empty chain is typed as UnionChain<L, R, L, R>
+        return (Union<A, B>) (Union<?, ?>) union;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <O> O run(
+            Union<L, R> union,
+            Function<? super A, ? extends O> leftResolver,
+            Function<? super B, ? extends O> rightResolver) {
+        boolean left = union.hasLeft();
+        Object value = left ? union.left() : union.right();
+        for (Segment segment : this.segments) {
+            Function<Object, Object> function = left ? segment.leftFunction : segment.rightFunction;
+            if (function == null) {
+                continue;
+            }
+            value = function.apply(value);
+            if (left ? segment.leftFlat : segment.rightFlat) {
+                Union<?, ?> flattened = (Union<?, ?>) value;
+                left = flattened.hasLeft();
+                value = left ? flattened.left() : flattened.right();
+            }
+        }
+        return left ? leftResolver.apply((A) value) : rightResolver.apply((B) value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <C, D> UnionChain<L, R, C, D> then(boolean left, Function<?, ?> function, boolean flat) {
+        Function<Object, Object> next = (Function<Object, Object>) function;
+        int length = this.segments.length;
+        Segment[] segments;
+        if (length > 0 && this.segments[length - 1].isMapOnly()) {
+            // maps on either side commute, so a stage can be composed into the last map-only segment
+            segments = Arrays.copyOf(this.segments, length);
+            segments[length - 1] = segments[length - 1].compose(left, next, flat);
+        } else {
+            segments = Arrays.copyOf(this.segments, length + 1);
+            segments[length] = Segment.MAP_NOTHING.compose(left, next, flat);
+        }
+        return new UnionChain<>(segments);
+    }
+
+    /**
+     * Composed functions applied to each side.
+     * A flat function returns union, whose value is dispatched to the next segment.
+     */
+    private static final class Segment {
+        static final Segment MAP_NOTHING = new Segment(null, false, null, false);
+
+        final Function<Object, Object> leftFunction;
+        final boolean leftFlat;
+        final Function<Object, Object> rightFunction;
+        final boolean rightFlat;
+
+        Segment(Function<Object, Object> leftFunction, boolean leftFlat, Function<Object, Object> rightFunction, boolean rightFlat) {
+            this.leftFunction = leftFunction;
+            this.leftFlat = leftFlat;
+            this.rightFunction = rightFunction;
+            this.rightFlat = rightFlat;
+        }
+
+        boolean isMapOnly() {
+            return !this.leftFlat && !this.rightFlat;
+        }
+
+        Segment compose(boolean left, Function<Object, Object> next, boolean flat) {
+            return left
+                    ? new Segment(andThen(this.leftFunction, next), flat, this.rightFunction, this.rightFlat)
+                    : new Segment(this.leftFunction, this.leftFlat, andThen(this.rightFunction, next), flat);
+        }
+
+        private static Function<Object, Object> andThen(Function<Object, Object> first, Function<Object, Object> next) {
+            return first == null ? next : first.andThen(next);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Combinators racing CompletableFutures into a future of Union.
+ * The result is completed with Left or Right depending on which side finishes first, and the loser is cancelled.
+ * Delays and deadlines are scheduled on the shared timer of CompletableFuture, so no thread is blocked waiting,
+ * and work on expiry is handed off to an executor, so that continuations of the result never run on the timer thread.
+ * A future completed with null counts as failed with NullPointerException, since a Union holds no null.
+ */
+@UtilityClass
+public final class UnionFutures {
+
+    /**
+     * Returns future completed with value of whichever future completes normally first.
+     * Fails only when both futures fail, with the exception of the first failure.
+     * The other future is cancelled when the result is completed or cancelled.
+     *
+     * @param left  future of left value
+     * @param right future of right value
+     * @param <L>   type of left value
+     * @param <R>   type of right value
+     * @return future of Left with left value, or Right with right value
+     */
+    public static <L, R> CompletableFuture<Union<L, R>> race(
+            @NonNull CompletableFuture<? extends L> left,
+            @NonNull CompletableFuture<? extends R> right) {
+        Race<L, R> race = new Race<>();
+        race.enterLeft(left);
+        race.enterRight(right);
+        return race.result;
+    }
+
+    /**
+     * Returns future racing primary with hedge started after delay on the common pool.
+     * The hedge is started at once if primary fails before the delay, and never if primary completes normally before it.
+     *
+     * @param primary future of primary value
+     * @param delay   delay to start the hedge
+     * @param hedge   supplier starts the hedge
+     * @param <L>     type of primary value
+     * @param <R>     type of hedge value
+     * @return future of Left with primary value, or Right with hedge value
+     */
+    public static <L, R> CompletableFuture<Union<L, R>> hedge(
+            @NonNull CompletableFuture<? extends L> primary,
+            @NonNull Duration delay,
+            @NonNull Supplier<? extends CompletableFuture<? extends R>> hedge) {
+        return hedge(primary, delay, hedge, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns future racing primary with hedge started after delay on the executor.
+     * The hedge is started at once if primary fails before the delay, and never if primary completes normally before it.
+     *
+     * @param primary  future of primary value
+     * @param delay    delay to start the hedge
+     * @param hedge    supplier starts the hedge
+     * @param executor executor calls the hedge supplier
+     * @param <L>      type of primary value
+     * @param <R>      type of hedge value
+     * @return future of Left with primary value, or Right with hedge value
+     */
+    public static <L, R> CompletableFuture<Union<L, R>> hedge(
+            @NonNull CompletableFuture<? extends L> primary,
+            @NonNull Duration delay,
+            @NonNull Supplier<? extends CompletableFuture<? extends R>> hedge,
+            @NonNull Executor executor) {
+        Race<L, R> race = new Race<>();
+        Runnable startHedge = () -> {
+            if (race.result.isDone()) {
+                return;
+            }
+            CompletableFuture<? extends R> hedged;
+            try {
+                hedged = hedge.get();
+            } catch (RuntimeException | Error e) {
+                race.fail(e);
+                return;
+            }
+            race.enterRight(hedged);
+        };
+        Runnable submitHedge = () -> {
+            try {
+                executor.execute(startHedge);
+            } catch (RejectedExecutionException e) {
+                race.fail(e);
+            }
+        };
+        // the timer is completed at most once, so the hedge is submitted at most once
+        CompletableFuture<Void> timer = schedule(delay, submitHedge);
+        race.result.whenComplete((union, throwable) -> timer.complete(null));
+        primary.whenComplete((value, throwable) -> {
+            if (throwable != null && timer.complete(null)) {
+                submitHedge.run();
+            }
+        });
+        race.enterLeft(primary);
+        return race.result;
+    }
+
+    /**
+     * Returns future completed with Left of the value, or Right of TimeoutException if not completed within timeout.
+     * The future is cancelled on timeout.
+     *
+     * @param future  future of value
+     * @param timeout timeout
+     * @param <L>     type of value
+     * @return future of Left with the value, or Right with TimeoutException
+     */
+    public static <L> CompletableFuture<Union<L, TimeoutException>> within(
+            @NonNull CompletableFuture<? extends L> future,
+            @NonNull Duration timeout) {
+        return within(future, timeout, () -> new TimeoutException("not completed within " + timeout));
+    }
+
+    /**
+     * Returns future completed with Left of the value, or Right of supplied value if not completed within timeout.
+     * The future is cancelled on timeout. On timeout, the supplier is called on the common pool.
+     *
+     * @param future    future of value
+     * @param timeout   timeout
+     * @param onTimeout supplier of right value on timeout
+     * @param <L>       type of value
+     * @param <R>       type of right value
+     * @return future of Left with the value, or Right with the supplied value
+     */
+    public static <L, R> CompletableFuture<Union<L, R>> within(
+            @NonNull CompletableFuture<? extends L> future,
+            @NonNull Duration timeout,
+            @NonNull Supplier<? extends R> onTimeout) {
+        return within(future, timeout, onTimeout, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Returns future completed with Left of the value, or Right of supplied value if not completed within timeout.
+     * The future is cancelled on timeout. On timeout, the supplier is called and the result completed on the executor.
+     *
+     * @param future    future of value
+     * @param timeout   timeout
+     * @param onTimeout supplier of right value on timeout
+     * @param executor  executor calls the supplier on timeout
+     * @param <L>       type of value
+     * @param <R>       type of right value
+     * @return future of Left with the value, or Right with the supplied value
+     */
+    public static <L, R> CompletableFuture<Union<L, R>> within(
+            @NonNull CompletableFuture<? extends L> future,
+            @NonNull Duration timeout,
+            @NonNull Supplier<? extends R> onTimeout,
+            @NonNull Executor executor) {
+        CompletableFuture<Union<L, R>> result = new CompletableFuture<>();
+        future.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+            } else if (value == null) {
+                result.completeExceptionally(nullValue());
+            } else {
+                result.complete(Left.of(value));
+            }
+        });
+        CompletableFuture<Void> timer = schedule(timeout, () -> {
+            try {
+                result.completeAsync(() -> Right.of(onTimeout.get()), executor);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        result.whenComplete((union, throwable) -> {
+            timer.complete(null);
+            future.cancel(true);
+        });
+        return result;
+    }
+
+    private static NullPointerException nullValue() {
+        return new NullPointerException("future completed with null");
+    }
+
+    /**
+     * Runs task on the timer thread after delay, unless the returned future is completed before.
+     */
+    private static CompletableFuture<Void> schedule(Duration delay, Runnable task) {
+        CompletableFuture<Void> timer = new CompletableFuture<>();
+        // orTimeout unschedules its timer task when the future is completed otherwise
+        timer.orTimeout(delay.toNanos(), TimeUnit.NANOSECONDS).whenComplete((nothing, throwable) -> {
+            if (throwable instanceof TimeoutException) {
+                task.run();
+            }
+        });
+        return timer;
+    }
+
+    /**
+     * Result shared by contestants, completed by the first normal completion or the last failure.
+     */
+    private static final class Race<L, R> {
+        final CompletableFuture<Union<L, R>> result = new CompletableFuture<>();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+
+        void enterLeft(CompletableFuture<? extends L> left) {
+            this.result.whenComplete((union, throwable) -> left.cancel(true));
+            left.whenComplete((value, throwable) -> {
+                if (throwable != null) {
+                    this.fail(throwable);
+                } else if (value == null) {
+                    this.fail(nullValue());
+                } else {
+                    this.result.complete(Left.of(value));
+                }
+            });
+        }
+
+        void enterRight(CompletableFuture<? extends R> right) {
+            this.result.whenComplete((union, throwable) -> right.cancel(true));
+            right.whenComplete((value, throwable) -> {
+                if (throwable != null) {
+                    this.fail(throwable);
+                } else if (value == null) {
+                    this.fail(nullValue());
+                } else {
+                    this.result.complete(Right.of(value));
+                }
+            });
+        }
+
+        void fail(Throwable throwable) {
+            this.firstFailure.compareAndSet(null, throwable);
+            if (this.failures.incrementAndGet() == 2) {
+                this.result.completeExceptionally(this.firstFailure.get());
+            }
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free tracker of left and right outcomes over a sliding time window, for shedding load on failures (rights).
+ * Outcomes are counted into a ring of time buckets; a bucket is replaced by CAS when its slot comes round again,
+ * and counts are added to LongAdders of the bucket, so that threads recording at once do not contend on one field.
+ * Totals of the completed buckets in the window are summed once per bucket
+ * and cached, so that queries read the cached totals and the current bucket only.
+ * The tracker turns unhealthy when the window has at least minimumCalls outcomes and the ratio of rights reaches
+ * the threshold, and healthy again when either stops holding, calling the callbacks once per transition.
+ * Counts added by a thread delayed across a bucket boundary may fall into the previous bucket.
+ */
+public final class UnionHealth implements Consumer<Union<?, ?>> {
+    private static final VarHandle TOTALS;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TOTALS = lookup.findVarHandle(UnionHealth.class, "totals", Totals.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final LongSupplier nanoClock;
+    private final long originNanos;
+    private final long bucketNanos;
+    private final int bucketCount;
+    private final AtomicReferenceArray<Bucket> buckets;
+    private volatile Totals totals;
+    private final double rightRatioThreshold;
+    private final long minimumCalls;
+    private final Runnable onUnhealthy;
+    private final Runnable onHealthy;
+    private final AtomicBoolean healthy = new AtomicBoolean(true);
+    private final Consumer<Object> leftRecorder = value -> this.recordLeft();
+    private final Consumer<Object> rightRecorder = value -> this.recordRight();
+
+    private UnionHealth(Builder builder) {
+        this.nanoClock = builder.nanoClock;
+        this.originNanos = builder.nanoClock.getAsLong();
+        this.bucketCount = builder.buckets;
+        this.bucketNanos = Math.max(1, builder.window.toNanos() / builder.buckets);
+        this.buckets = new AtomicReferenceArray<>(builder.buckets);
+        for (int i = 0; i < builder.buckets; i++) {
+            this.buckets.set(i, new Bucket(i - builder.buckets));
+        }
+        this.totals = new Totals(0, 0, 0);
+        this.rightRatioThreshold = builder.rightRatioThreshold;
+        this.minimumCalls = builder.minimumCalls;
+        this.onUnhealthy = builder.onUnhealthy;
+        this.onHealthy = builder.onHealthy;
+    }
+
+    /**
+     * Returns builder of tracker.
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Records outcome of the side of the union.
+     *
+     * @param union outcome
+     */
+    @Override
+    public void accept(@NonNull Union<?, ?> union) {
+        if (union.hasLeft()) {
+            this.recordLeft();
+        } else {
+            this.recordRight();
+        }
+    }
+
+    /**
+     * Records a left outcome.
+     */
+    public void recordLeft() {
+        long tick = this.tick();
+        this.current(tick).addLeft();
+        this.evaluate(tick);
+    }
+
+    /**
+     * Records a right outcome.
+     */
+    public void recordRight() {
+        long tick = this.tick();
+        this.current(tick).addRight();
+        this.evaluate(tick);
+    }
+
+    /**
+     * Returns consumer recording a left outcome for any value, to pass to acceptWith or peekWith.
+     *
+     * @return consumer
+     */
+    public Consumer<Object> leftRecorder() {
+        return this.leftRecorder;
+    }
+
+    /**
+     * Returns consumer recording a right outcome for any value, to pass to acceptWith or peekWith.
+     *
+     * @return consumer
+     */
+    public Consumer<Object> rightRecorder() {
+        return this.rightRecorder;
+    }
+
+    /**
+     * Returns number of left outcomes in the window.
+     *
+     * @return count
+     */
+    public long lefts() {
+        long tick = this.tick();
+        return this.totals(tick).lefts + this.counted(tick).lefts.sum();
+    }
+
+    /**
+     * Returns number of right outcomes in the window.
+     *
+     * @return count
+     */
+    public long rights() {
+        long tick = this.tick();
+        return this.totals(tick).rights + this.counted(tick).rights.sum();
+    }
+
+    /**
+     * Returns ratio of right outcomes to all outcomes in the window.
+     *
+     * @return ratio from 0 to 1, or 0 if no outcome
+     */
+    public double rightRatio() {
+        long tick = this.tick();
+        Totals totals = this.totals(tick);
+        Bucket bucket = this.counted(tick);
+        long rights = totals.rights + bucket.rights.sum();
+        long calls = totals.lefts + bucket.lefts.sum() + rights;
+        return calls == 0 ? 0 : (double) rights / calls;
+    }
+
+    /**
+     * Returns right outcomes per second over the window, or over the time since creation if shorter.
+     *
+     * @return rate per second
+     */
+    public double rightRate() {
+        return this.rights() * 1e9 / this.spanNanos();
+    }
+
+    /**
+     * Returns left outcomes per second over the window, or over the time since creation if shorter.
+     *
+     * @return rate per second
+     */
+    public double leftRate() {
+        return this.lefts() * 1e9 / this.spanNanos();
+    }
+
+    /**
+     * Returns whether the outcomes in the window are under the threshold,
+     * evaluating the window as of now so that the tracker recovers once failures fall out of it.
+     *
+     * @return true if healthy
+     */
+    public boolean isHealthy() {
+        this.evaluate(this.tick());
+        return this.healthy.get();
+    }
+
+    /**
+     * Calls and records the outcome if healthy, otherwise returns the rejection without calling.
+     * Pass a precomputed rejection to short-circuit without allocation.
+     *
+     * @param call      expensive work
+     * @param rejection union returned while unhealthy, not recorded
+     * @param <L>       type of left value
+     * @param <R>       type of right value
+     * @return outcome of the call, or the rejection
+     */
+    public <L, R> Union<L, R> call(@NonNull Supplier<? extends Union<L, R>> call, @NonNull Union<L, R> rejection) {
+        if (!this.isHealthy()) {
+            return rejection;
+        }
+        Union<L, R> outcome = call.get();
+        this.accept(outcome);
+        return outcome;
+    }
+
+    private long tick() {
+        return (this.nanoClock.getAsLong() - this.originNanos) / this.bucketNanos;
+    }
+
+    private long spanNanos() {
+        long elapsed = this.nanoClock.getAsLong() - this.originNanos;
+        long window = (this.bucketCount - 1) * this.bucketNanos + elapsed % this.bucketNanos;
+        return Math.max(1, Math.min(elapsed, window));
+    }
+
+    /**
+     * Returns bucket of the tick, replacing the older one in its slot.
+     */
+    private Bucket current(long tick) {
+        int slot = (int) (tick % this.bucketCount);
+        Bucket bucket = this.buckets.get(slot);
+        while (bucket.tick < tick) {
+            Bucket fresh = new Bucket(tick);
+            if (this.buckets.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+            bucket = this.buckets.get(slot);
+        }
+        return bucket;
+    }
+
+    /**
+     * Returns bucket of the tick to read, or an older one with no count of the tick.
+     */
+    private Bucket counted(long tick) {
+        Bucket bucket = this.buckets.get((int) (tick % this.bucketCount));
+        return bucket.tick == tick ? bucket : Bucket.EMPTY;
+    }
+
+    /**
+     * Returns totals of the completed buckets in the window of the tick, summing them once per tick.
+     */
+    private Totals totals(long tick) {
+        Totals current = this.totals;
+        if (current.tick >= tick) {
+            return current;
+        }
+        long lefts = 0;
+        long rights = 0;
+        for (int i = 0; i < this.bucketCount; i++) {
+            Bucket bucket = this.buckets.get(i);
+            if (bucket.tick < tick && bucket.tick > tick - this.bucketCount) {
+                lefts += bucket.lefts.sum();
+                rights += bucket.rights.sum();
+            }
+        }
+        Totals fresh = new Totals(tick, lefts, rights);
+        // a newer tick set concurrently wins
+        while (current.tick < tick && !TOTALS.compareAndSet(this, current, fresh)) {
+            current = this.totals;
+        }
+        return fresh;
+    }
+
+    private void evaluate(long tick) {
+        Totals totals = this.totals(tick);
+        Bucket bucket = this.counted(tick);
+        long rights = totals.rights + bucket.rights.sum();
+        long calls = totals.lefts + bucket.lefts.sum() + rights;
+        boolean unhealthy = calls >= this.minimumCalls && rights >= this.rightRatioThreshold * calls;
+        if (unhealthy == this.healthy.get() && this.healthy.compareAndSet(unhealthy, !unhealthy)) {
+            (unhealthy ? this.onUnhealthy : this.onHealthy).run();
+        }
+    }
+
+    private static final class Bucket {
+        private static final Bucket EMPTY = new Bucket(Long.MIN_VALUE);
+
+        private final long tick;
+        private final LongAdder lefts = new LongAdder();
+        private final LongAdder rights = new LongAdder();
+
+        private Bucket(long tick) {
+            this.tick = tick;
+        }
+
+        private void addLeft() {
+            this.lefts.increment();
+        }
+
+        private void addRight() {
+            this.rights.increment();
+        }
+    }
+
+    private static final class Totals {
+        private final long tick;
+        private final long lefts;
+        private final long rights;
+
+        private Totals(long tick, long lefts, long rights) {
+            this.tick = tick;
+            this.lefts = lefts;
+            this.rights = rights;
+        }
+    }
+
+    /**
+     * Builder of UnionHealth.
+     */
+    public static final class Builder {
+        private Duration window = Duration.ofSeconds(10);
+        private int buckets = 10;
+        private double rightRatioThreshold = 0.5;
+        private long minimumCalls = 100;
+        private Runnable onUnhealthy = () -> {
+        };
+        private Runnable onHealthy = () -> {
+        };
+        private LongSupplier nanoClock = System::nanoTime;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets length of the sliding window (default 10 seconds).
+         *
+         * @param window length of window, must be positive
+         * @return this builder
+         */
+        public Builder window(@NonNull Duration window) {
+            if (window.isNegative() || window.isZero()) {
+                throw new IllegalArgumentException("window must be positive: " + window);
+            }
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * Sets number of buckets the window slides by (default 10).
+         *
+         * @param buckets number of buckets, from 2 to 1024
+         * @return this builder
+         */
+        public Builder buckets(int buckets) {
+            if (buckets < 2 || buckets > 1024) {
+                throw new IllegalArgumentException("buckets must be between 2 and 1024: " + buckets);
+            }
+            this.buckets = buckets;
+            return this;
+        }
+
+        /**
+         * Sets ratio of rights at which the tracker turns unhealthy (default 0.5).
+         *
+         * @param rightRatioThreshold ratio, greater than 0 and at most 1
+         * @return this builder
+         */
+        public Builder rightRatioThreshold(double rightRatioThreshold) {
+            if (!(rightRatioThreshold > 0 && rightRatioThreshold <= 1)) {
+                throw new IllegalArgumentException("rightRatioThreshold must be in (0, 1]: " + rightRatioThreshold);
+            }
+            this.rightRatioThreshold = rightRatioThreshold;
+            return this;
+        }
+
+        /**
+         * Sets number of outcomes in the window below which the tracker stays healthy (default 100).
+         *
+         * @param minimumCalls number of outcomes, must be positive
+         * @return this builder
+         */
+        public Builder minimumCalls(long minimumCalls) {
+            if (minimumCalls < 1) {
+                throw new IllegalArgumentException("minimumCalls must be positive: " + minimumCalls);
+            }
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * Sets callback run once each time the tracker turns unhealthy, on the thread recording or querying.
+         *
+         * @param onUnhealthy callback
+         * @return this builder
+         */
+        public Builder onUnhealthy(@NonNull Runnable onUnhealthy) {
+            this.onUnhealthy = onUnhealthy;
+            return this;
+        }
+
+        /**
+         * Sets callback run once each time the tracker turns healthy again, on the thread recording or querying.
+         *
+         * @param onHealthy callback
+         * @return this builder
+         */
+        public Builder onHealthy(@NonNull Runnable onHealthy) {
+            this.onHealthy = onHealthy;
+            return this;
+        }
+
+        Builder nanoClock(@NonNull LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        /**
+         * Builds tracker starting its window now.
+         *
+         * @return UnionHealth instance
+         */
+        public UnionHealth build() {
+            return new UnionHealth(this);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * JSON encoding of unions, streaming through JsonWriter and JsonReader with no intermediate object or string.
+ * Tagged encoding wraps the value in a member named by its side: {"left":1} or {"right":"not found"}.
+ * Discriminator encoding puts a field naming the side first, followed by the members of the value,
+ * which must be written and read as an object: {"type":"problem","status":404}.
+ * Values are read by the codec of the side into UnionOf.left or UnionOf.right, or passed straight to consumers.
+ * An instance holds no state of reading or writing, and can be shared.
+ *
+ * @param <L> type of left value
+ * @param <R> type of right value
+ */
+public final class UnionJsonCodec<L, R> {
+    private static final int LEFT = 0;
+
+    private final JsonCodec<L> leftCodec;
+    private final JsonCodec<R> rightCodec;
+    // names of the members for tagged encoding, or values of the discriminator field
+    private final String[] sides;
+    private final String[] discriminator;
+
+    private UnionJsonCodec(JsonCodec<L> leftCodec, JsonCodec<R> rightCodec, String[] sides, String[] discriminator) {
+        if (sides[0].equals(sides[1])) {
+            throw new IllegalArgumentException("names of sides must differ: " + sides[0]);
+        }
+        this.leftCodec = leftCodec;
+        this.rightCodec = rightCodec;
+        this.sides = sides;
+        this.discriminator = discriminator;
+    }
+
+    /**
+     * Returns codec of {"left":value} and {"right":value}.
+     *
+     * @param leftCodec  codec of left value
+     * @param rightCodec codec of right value
+     * @param <L>        type of left value
+     * @param <R>        type of right value
+     * @return UnionJsonCodec instance
+     */
+    public static <L, R> UnionJsonCodec<L, R> tagged(@NonNull JsonCodec<L> leftCodec, @NonNull JsonCodec<R> rightCodec) {
+        return tagged("left", leftCodec, "right", rightCodec);
+    }
+
+    /**
+     * Returns codec of value wrapped in a member named by its side.
+     *
+     * @param leftName   name of member holding left value
+     * @param leftCodec  codec of left value
+     * @param rightName  name of member holding right value
+     * @param rightCodec codec of right value
+     * @param <L>        type of left value
+     * @param <R>        type of right value
+     * @return UnionJsonCodec instance
+     */
+    public static <L, R> UnionJsonCodec<L, R> tagged(
+            @NonNull String leftName,
+            @NonNull JsonCodec<L> leftCodec,
+            @NonNull String rightName,
+            @NonNull JsonCodec<R> rightCodec) {
+        return new UnionJsonCodec<>(leftCodec, rightCodec, new String[]{leftName, rightName}, null);
+    }
+
+    /**
+     * Returns codec of object value with the discriminator field as its first member.
+     *
+     * @param field      name of discriminator field
+     * @param leftTag    value of discriminator field for left
+     * @param leftCodec  codec of left value, writing and reading an object
+     * @param rightTag   value of discriminator field for right
+     * @param rightCodec codec of right value, writing and reading an object
+     * @param <L>        type of left value
+     * @param <R>        type of right value
+     * @return UnionJsonCodec instance
+     */
+    public static <L, R> UnionJsonCodec<L, R> discriminated(
+            @NonNull String field,
+            @NonNull String leftTag,
+            @NonNull JsonCodec<L> leftCodec,
+            @NonNull String rightTag,
+            @NonNull JsonCodec<R> rightCodec) {
+        return new UnionJsonCodec<>(leftCodec, rightCodec, new String[]{leftTag, rightTag}, new String[]{field});
+    }
+
+    /**
+     * Writes the union as one JSON value.
+     *
+     * @param union  union to write
+     * @param writer writer at a value position
+     * @throws IllegalStateException if a value of discriminator encoding is not written as an object
+     */
+    public void write(@NonNull Union<? extends L, ? extends R> union, @NonNull JsonWriter writer) {
+        // dispatches by hasLeft rather than accept, so that no lambda captures the writer
+        if (union.hasLeft()) {
+            this.write(LEFT, union.left(), this.leftCodec, writer);
+        } else {
+            this.write(1, union.right(), this.rightCodec, writer);
+        }
+    }
+
+    /**
+     * Writes the unions as JSON array, element by element.
+     *
+     * @param unions unions to write
+     * @param writer writer at a value position
+     */
+    public void writeArray(@NonNull Iterable<? extends Union<? extends L, ? extends R>> unions, @NonNull JsonWriter writer) {
+        writer.beginArray();
+        for (Union<? extends L, ? extends R> union : unions) {
+            this.write(union, writer);
+        }
+        writer.endArray();
+    }
+
+    /**
+     * Returns the union as JSON text.
+     *
+     * @param union union to write
+     * @return JSON text
+     */
+    public String toJson(@NonNull Union<? extends L, ? extends R> union) {
+        StringBuilder json = new StringBuilder();
+        this.write(union, JsonWriter.of(json));
+        return json.toString();
+    }
+
+    /**
+     * Reads one JSON value as union.
+     *
+     * @param reader reader at a value position
+     * @return Left or Right of the read value
+     * @throws IllegalArgumentException if the value is not a union of this encoding
+     */
+    public Union<L, R> read(@NonNull JsonReader reader) {
+        reader.beginObject();
+        return this.readSide(reader) == LEFT
+                ? UnionOf.left(this.readValue(reader, this.leftCodec))
+                : UnionOf.right(this.readValue(reader, this.rightCodec));
+    }
+
+    /**
+     * Reads one JSON value as union, passing the value to the consumer of its side without making a union.
+     *
+     * @param reader        reader at a value position
+     * @param leftConsumer  consumer of left value
+     * @param rightConsumer consumer of right value
+     * @throws IllegalArgumentException if the value is not a union of this encoding
+     */
+    public void read(@NonNull JsonReader reader, @NonNull Consumer<? super L> leftConsumer, @NonNull Consumer<? super R> rightConsumer) {
+        reader.beginObject();
+        if (this.readSide(reader) == LEFT) {
+            leftConsumer.accept(this.readValue(reader, this.leftCodec));
+        } else {
+            rightConsumer.accept(this.readValue(reader, this.rightCodec));
+        }
+    }
+
+    /**
+     * Reads JSON array of unions.
+     *
+     * @param reader reader at a value position
+     * @return list of unions in order
+     */
+    public List<Union<L, R>> readArray(@NonNull JsonReader reader) {
+        List<Union<L, R>> unions = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            unions.add(this.read(reader));
+        }
+        reader.endArray();
+        return unions;
+    }
+
+    /**
+     * Reads JSON array of unions, passing each value to the consumer of its side.
+     *
+     * @param reader        reader at a value position
+     * @param leftConsumer  consumer of left values
+     * @param rightConsumer consumer of right values
+     * @return number of unions read
+     */
+    public int readArray(@NonNull JsonReader reader, @NonNull Consumer<? super L> leftConsumer, @NonNull Consumer<? super R> rightConsumer) {
+        int count = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            this.read(reader, leftConsumer, rightConsumer);
+            count++;
+        }
+        reader.endArray();
+        return count;
+    }
+
+    /**
+     * Reads JSON text of one union.
+     *
+     * @param json JSON text
+     * @return Left or Right of the read value
+     * @throws IllegalArgumentException if the text is not a union of this encoding
+     */
+    public Union<L, R> fromJson(@NonNull CharSequence json) {
+        JsonReader reader = JsonReader.of(json);
+        Union<L, R> union = this.read(reader);
+        // fails on trailing content
+        reader.peek();
+        return union;
+    }
+
+    private <T> void write(int side, T value, JsonCodec<T> codec, JsonWriter writer) {
+        writer.beginObject();
+        if (this.discriminator == null) {
+            writer.name(this.sides[side]);
+            codec.write(value, writer);
+            writer.endObject();
+            return;
+        }
+        writer.name(this.discriminator[0]).value(this.sides[side]);
+        writer.inlineNextObject();
+        codec.write(value, writer);
+        if (writer.isInlinePending()) {
+            throw new IllegalStateException("value with discriminator must be an object");
+        }
+    }
+
+    private int readSide(JsonReader reader) {
+        if (this.discriminator == null) {
+            int side = reader.selectName(this.sides);
+            if (side < 0) {
+                throw new IllegalArgumentException("member of union must be " + this.sides[0] + " or " + this.sides[1]);
+            }
+            return side;
+        }
+        if (reader.selectName(this.discriminator) < 0) {
+            throw new IllegalArgumentException("first member of union must be " + this.discriminator[0]);
+        }
+        int side = reader.selectString(this.sides);
+        if (side < 0) {
+            throw new IllegalArgumentException(this.discriminator[0] + " of union must be " + this.sides[0] + " or " + this.sides[1]);
+        }
+        reader.inlineNextObject();
+        return side;
+    }
+
+    private <T> T readValue(JsonReader reader, JsonCodec<T> codec) {
+        T value = codec.read(reader);
+        if (this.discriminator == null) {
+            reader.endObject();
+        } else if (reader.isInlinePending()) {
+            throw new IllegalStateException("value with discriminator must be an object");
+        }
+        return value;
+    }
+}
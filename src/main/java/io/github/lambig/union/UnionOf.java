@@ -1,7 +1,14 @@
 package io.github.lambig.union;
 
+import lombok.NonNull;
 import lombok.experimental.UtilityClass;
 
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.Callable;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
 /**
  * Instance provider of Union.
  */
@@ -32,6 +39,121 @@ public final class UnionOf {
         return Right.of(rightValue);
     }
 
+    /**
+     * Returns Union evaluated on first access.
+     *
+     * @param supplier supplier of the union, called at most once
+     * @param <A>      Type of left value
+     * @param <B>      Type of right value
+     * @return LazyUnion instance
+     */
+    public static <A, B> LazyUnion<A, B> lazy(@NonNull Supplier<? extends Union<A, B>> supplier) {
+        return LazyUnion.of(supplier);
+    }
+
+    /**
+     * Returns Union evaluated on first access.
+     * Only the supplier of the side chosen by decider is called.
+     *
+     * @param decider       returns true when the union should have left value
+     * @param leftSupplier  supplier of left value
+     * @param rightSupplier supplier of right value
+     * @param <A>           Type of left value
+     * @param <B>           Type of right value
+     * @return LazyUnion instance
+     */
+    public static <A, B> LazyUnion<A, B> lazy(
+            @NonNull BooleanSupplier decider,
+            @NonNull Supplier<? extends A> leftSupplier,
+            @NonNull Supplier<? extends B> rightSupplier) {
+        return LazyUnion.of(() -> decider.getAsBoolean()
+                ? Left.<A, B>of(leftSupplier.get())
+                : Right.<A, B>of(rightSupplier.get()));
+    }
+
+    /**
+     * Returns Union with the result of callable as left value, or thrown exception as right value.
+     * Any Exception is captured. Errors are thrown as they are.
+     * NOTE: Pass Supplier as method reference (e.g. supplier::get).
+     *
+     * @param callable callable to attempt
+     * @param <A>      Type of left value
+     * @return Left with the result or Right with the exception
+     */
+    public static <A> Union<A, Throwable> attempt(@NonNull Callable<? extends A> callable) {
+        return attempt(callable, Function.identity());
+    }
+
+    /**
+     * Returns Union with the result of callable as left value, or thrown exception as right value.
+     * Only the expected exceptions are captured, and the others are thrown
+     * (checked ones wrapped by UndeclaredThrowableException).
+     * Any Exception is captured when no expected class is given.
+     * A null result is treated as a thrown NullPointerException.
+     *
+     * @param callable callable to attempt
+     * @param expected classes of expected exception
+     * @param <A>      Type of left value
+     * @return Left with the result or Right with the exception
+     */
+    @SafeVarargs
+    public static <A> Union<A, Throwable> attempt(
+            @NonNull Callable<? extends A> callable,
+            @NonNull Class<? extends Exception>... expected) {
+        return attempt(callable, Function.identity(), expected);
+    }
+
+    /**
+     * Returns Union with the result of callable as left value, or failure mapped from thrown exception as right value.
+     * Map expected exceptions to preallocated or stackless values (e.g. StacklessFailure) to keep failure path cheap.
+     * Only the expected exceptions are captured, and the others are thrown
+     * (checked ones wrapped by UndeclaredThrowableException).
+     * Any Exception is captured when no expected class is given.
+     * A null result is treated as a thrown NullPointerException.
+     *
+     * @param callable      callable to attempt
+     * @param failureMapper function maps captured exception to right value
+     * @param expected      classes of expected exception
+     * @param <A>           Type of left value
+     * @param <B>           Type of right value
+     * @return Left with the result or Right with the failure
+     */
+    @SafeVarargs
+    public static <A, B> Union<A, B> attempt(
+            @NonNull Callable<? extends A> callable,
+            @NonNull Function<? super Exception, ? extends B> failureMapper,
+            @NonNull Class<? extends Exception>... expected) {
+        try {
+            // inside the try, so that a null result is captured as NullPointerException like a thrown one
+            return Left.of(callable.call());
+        } catch (Exception e) {
+            // restored whether captured or rethrown wrapped
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (!isExpected(e, expected)) {
+                if (e instanceof RuntimeException) {
+                    throw (RuntimeException) e;
+                }
+                throw new UndeclaredThrowableException(e);
+            }
+            return Right.of(failureMapper.apply(e));
+        }
+    }
+
+    @SafeVarargs
+    private static boolean isExpected(Exception e, Class<? extends Exception>... expected) {
+        if (expected.length == 0) {
+            return true;
+        }
+        for (Class<? extends Exception> expectedClass : expected) {
+            if (expectedClass.isInstance(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns Union provider with left value.
      * Call this method when you have to explicitly give type argument of right value.
@@ -0,0 +1,534 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Pipeline of stages running on their own threads, connected by bounded queues of batches.
+ * Each stage maps a left value to a union: left values go on to the next stage in batches,
+ * and right values go straight to the shared right sink without visiting later stages.
+ * A full queue blocks the stage before it, and submit on the first stage, so that a slow stage slows down the input.
+ * Values submitted are processed in order by stages of a single thread; stages of multiple threads may reorder them.
+ * The sinks are called by one thread at a time. Exceptions and errors thrown by a stage or a sink are counted as failed,
+ * and the value is discarded.
+ * A worker stopped otherwise, by interruption, fails the pipeline: submit, flush and close then throw IllegalStateException
+ * instead of waiting for a stage that no longer drains its queue.
+ * Obtain an instance by UnionPipeline.builder().
+ *
+ * @param <I> type of input value
+ */
+public final class UnionPipeline<I> implements AutoCloseable {
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+    /**
+     * Batch telling a worker that no more batch follows, compared by identity.
+     */
+    private static final List<Object> END = new ArrayList<>(0);
+    private static final long PUT_RETRY_MILLIS = 10;
+
+    private final List<Stage> stages;
+    private final int batchSize;
+    private final long startNanos = System.nanoTime();
+    // cause of the first worker stopped abnormally
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private List<Object> pending;
+    private boolean closed;
+
+    private UnionPipeline(Builder<I, ?, ?> builder, Consumer<Object> leftSink, Consumer<Object> rightSink) {
+        this.batchSize = builder.batchSize;
+        this.pending = new ArrayList<>(this.batchSize);
+        Consumer<Object> serialLeftSink = serialized(leftSink);
+        Consumer<Object> serialRightSink = serialized(rightSink);
+        List<Stage> stages = new ArrayList<>(builder.stages.size());
+        Stage next = null;
+        for (int i = builder.stages.size() - 1; i >= 0; i--) {
+            next = new Stage(builder.stages.get(i), builder.queueCapacity, next, serialLeftSink, serialRightSink, this.failure);
+            stages.add(0, next);
+        }
+        this.stages = Collections.unmodifiableList(stages);
+        for (Stage stage : this.stages) {
+            for (int i = 0; i < stage.threads; i++) {
+                stage.workers.add(builder.threadFactory.newThread(stage::work));
+            }
+        }
+    }
+
+    /**
+     * Returns builder of UnionPipeline.
+     *
+     * @param <I> type of input value
+     * @param <R> type of right value of all stages
+     * @return builder without stage
+     */
+    public static <I, R> Builder<I, I, R> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Adds value to the batch for the first stage, handing the batch off when it is full.
+     * Waits while the queue of the first stage is full.
+     *
+     * @param value input value
+     * @throws InterruptedException  if interrupted while waiting
+     * @throws IllegalStateException if closed or failed
+     */
+    public synchronized void submit(@NonNull I value) throws InterruptedException {
+        if (this.closed) {
+            throw new IllegalStateException("UnionPipeline is closed");
+        }
+        this.checkFailure();
+        this.pending.add(value);
+        if (this.pending.size() >= this.batchSize) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Hands the partial batch off to the first stage.
+     * Waits while the queue of the first stage is full.
+     *
+     * @throws InterruptedException  if interrupted while waiting
+     * @throws IllegalStateException if closed or failed
+     */
+    public synchronized void flush() throws InterruptedException {
+        if (this.closed) {
+            throw new IllegalStateException("UnionPipeline is closed");
+        }
+        if (this.pending.isEmpty()) {
+            return;
+        }
+        if (!this.stages.get(0).put(this.stages.get(0).input, this.pending)) {
+            this.checkFailure();
+        }
+        this.pending = new ArrayList<>(this.batchSize);
+    }
+
+    /**
+     * Returns statistics of each stage in order.
+     *
+     * @return statistics of stages
+     */
+    public List<StageStats> stats() {
+        long elapsedNanos = Math.max(1, System.nanoTime() - this.startNanos);
+        List<StageStats> stats = new ArrayList<>(this.stages.size());
+        for (Stage stage : this.stages) {
+            stats.add(new StageStats(
+                    stage.name,
+                    stage.processed.sum(),
+                    stage.rights.sum(),
+                    stage.failed.sum(),
+                    stage.batches.sum(),
+                    stage.input.size(),
+                    elapsedNanos));
+        }
+        return Collections.unmodifiableList(stats);
+    }
+
+    /**
+     * Hands the partial batch off, and waits until every stage has processed all values submitted.
+     * If the pipeline fails, stops the remaining workers instead of waiting for them.
+     * Interrupts during close are deferred until it returns.
+     *
+     * @throws IllegalStateException if failed
+     */
+    @Override
+    public synchronized void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        Stage first = this.stages.get(0);
+        if (!this.pending.isEmpty()) {
+            first.putUninterruptibly(first.input, this.pending);
+            this.pending = new ArrayList<>(0);
+        }
+        first.end();
+        boolean interrupted = false;
+        for (Stage stage : this.stages) {
+            for (Thread worker : stage.workers) {
+                while (worker.isAlive()) {
+                    if (this.failure.get() != null) {
+                        this.stages.forEach(failed -> failed.workers.forEach(Thread::interrupt));
+                    }
+                    try {
+                        worker.join(PUT_RETRY_MILLIS);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        this.checkFailure();
+    }
+
+    private UnionPipeline<I> start() {
+        this.stages.forEach(stage -> stage.workers.forEach(Thread::start));
+        return this;
+    }
+
+    private static Consumer<Object> serialized(Consumer<Object> sink) {
+        Object lock = new Object();
+        return value -> {
+            synchronized (lock) {
+                sink.accept(value);
+            }
+        };
+    }
+
+    private void checkFailure() {
+        Throwable cause = this.failure.get();
+        if (cause != null) {
+            throw new IllegalStateException("UnionPipeline failed", cause);
+        }
+    }
+
+    private static final class StageSpec {
+        private final String name;
+        private final int threads;
+        private final Function<Object, ? extends Union<?, ?>> function;
+
+        private StageSpec(String name, int threads, Function<Object, ? extends Union<?, ?>> function) {
+            this.name = name;
+            this.threads = threads;
+            this.function = function;
+        }
+    }
+
+    private static final class Stage {
+        private final String name;
+        private final int threads;
+        private final Function<Object, ? extends Union<?, ?>> function;
+        private final BlockingQueue<List<Object>> input;
+        private final Stage next;
+        private final Consumer<Object> leftSink;
+        private final Consumer<Object> rightSink;
+        private final List<Thread> workers = new ArrayList<>();
+        private final AtomicInteger live;
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder rights = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder batches = new LongAdder();
+        private final AtomicReference<Throwable> failure;
+
+        private Stage(
+                StageSpec spec,
+                int queueCapacity,
+                Stage next,
+                Consumer<Object> leftSink,
+                Consumer<Object> rightSink,
+                AtomicReference<Throwable> failure) {
+            this.name = spec.name;
+            this.threads = spec.threads;
+            this.function = spec.function;
+            this.input = new ArrayBlockingQueue<>(queueCapacity);
+            this.next = next;
+            this.leftSink = leftSink;
+            this.rightSink = rightSink;
+            this.live = new AtomicInteger(spec.threads);
+            this.failure = failure;
+        }
+
+        private void work() {
+            try {
+                while (true) {
+                    List<Object> batch = this.input.take();
+                    if (batch == END) {
+                        return;
+                    }
+                    List<Object> lefts = new ArrayList<>(batch.size());
+                    for (Object value : batch) {
+                        this.process(value, lefts);
+                    }
+                    this.processed.add(batch.size());
+                    this.batches.increment();
+                    if (this.next != null && !lefts.isEmpty() && !this.put(this.next.input, lefts)) {
+                        return;
+                    }
+                }
+            } catch (Throwable e) {
+                // a stage stopped before END leaves its queue undrained, so the whole pipeline fails
+                this.failure.compareAndSet(null, e);
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+            } finally {
+                // the last worker to stop tells the next stage that no more batch follows
+                if (this.live.decrementAndGet() == 0 && this.next != null) {
+                    this.next.end();
+                }
+            }
+        }
+
+        private void process(Object value, List<Object> lefts) {
+            try {
+                Union<?, ?> union = this.function.apply(value);
+                if (union.hasRight()) {
+                    this.rights.increment();
+                    this.rightSink.accept(union.right());
+                } else if (this.next == null) {
+                    this.leftSink.accept(union.left());
+                } else {
+                    lefts.add(union.left());
+                }
+            } catch (Throwable e) {
+                this.failed.increment();
+            }
+        }
+
+        private void end() {
+            for (int i = 0; i < this.threads; i++) {
+                if (!this.putUninterruptibly(this.input, END)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Puts the batch, waiting while the queue is full unless the pipeline fails.
+         *
+         * @return false if the pipeline failed before the batch was put
+         */
+        private boolean put(BlockingQueue<List<Object>> queue, List<Object> batch) throws InterruptedException {
+            while (!queue.offer(batch, PUT_RETRY_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (this.failure.get() != null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean putUninterruptibly(BlockingQueue<List<Object>> queue, List<Object> batch) {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        return this.put(queue, batch);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Statistics of a stage at a point in time.
+     */
+    public static final class StageStats {
+        private final String name;
+        private final long processedCount;
+        private final long rightCount;
+        private final long failedCount;
+        private final long batchCount;
+        private final int queueDepth;
+        private final long elapsedNanos;
+
+        StageStats(String name, long processedCount, long rightCount, long failedCount, long batchCount, int queueDepth, long elapsedNanos) {
+            this.name = name;
+            this.processedCount = processedCount;
+            this.rightCount = rightCount;
+            this.failedCount = failedCount;
+            this.batchCount = batchCount;
+            this.queueDepth = queueDepth;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Returns name of the stage.
+         *
+         * @return name
+         */
+        public String name() {
+            return this.name;
+        }
+
+        /**
+         * Returns number of values processed by the stage.
+         *
+         * @return number of processed values
+         */
+        public long processedCount() {
+            return this.processedCount;
+        }
+
+        /**
+         * Returns number of right values the stage sent to the right sink.
+         *
+         * @return number of right values
+         */
+        public long rightCount() {
+            return this.rightCount;
+        }
+
+        /**
+         * Returns number of values discarded by exceptions in the stage or a sink.
+         *
+         * @return number of failed values
+         */
+        public long failedCount() {
+            return this.failedCount;
+        }
+
+        /**
+         * Returns number of batches processed by the stage.
+         *
+         * @return number of batches
+         */
+        public long batchCount() {
+            return this.batchCount;
+        }
+
+        /**
+         * Returns number of batches waiting in the queue of the stage.
+         *
+         * @return queue depth in batches
+         */
+        public int queueDepth() {
+            return this.queueDepth;
+        }
+
+        /**
+         * Returns values processed per second since the pipeline started.
+         *
+         * @return throughput
+         */
+        public double throughput() {
+            return this.processedCount * (double) TimeUnit.SECONDS.toNanos(1) / this.elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return this.name + "{processed=" + this.processedCount + ", rights=" + this.rightCount + ", failed=" + this.failedCount
+                    + ", batches=" + this.batchCount + ", queueDepth=" + this.queueDepth + "}";
+        }
+    }
+
+    /**
+     * Builder of UnionPipeline, adding stages in order.
+     *
+     * @param <I> type of input value
+     * @param <L> type of left value of the last stage added
+     * @param <R> type of right value of all stages
+     */
+    public static final class Builder<I, L, R> {
+        private final List<StageSpec> stages = new ArrayList<>();
+        private int batchSize = 256;
+        private int queueCapacity = 16;
+        private ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "union-pipeline-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        private Builder() {
+        }
+
+        /**
+         * Adds stage running on a single thread.
+         *
+         * @param name     name of the stage in statistics
+         * @param function function maps left value of the previous stage
+         * @param <O>      type of left value of the stage
+         * @return this builder
+         */
+        public <O> Builder<I, O, R> stage(
+                @NonNull String name,
+                @NonNull Function<? super L, ? extends Union<? extends O, ? extends R>> function) {
+            return this.stage(name, 1, function);
+        }
+
+        /**
+         * Adds stage running on threads.
+         *
+         * @param name     name of the stage in statistics
+         * @param threads  number of threads, must be positive
+         * @param function function maps left value of the previous stage, called concurrently if threads is more than 1
+         * @param <O>      type of left value of the stage
+         * @return this builder
+         */
+        @SuppressWarnings("unchecked")
+        public <O> Builder<I, O, R> stage(
+                @NonNull String name,
+                int threads,
+                @NonNull Function<? super L, ? extends Union<? extends O, ? extends R>> function) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("threads must be positive: " + threads);
+            }
+            this.stages.add(new StageSpec(name, threads, (Function<Object, ? extends Union<?, ?>>) function));
+            return (Builder<I, O, R>) this;
+        }
+
+        /**
+         * Sets number of values handed off between stages at once (default 256).
+         *
+         * @param batchSize maximum batch size, must be positive
+         * @return this builder
+         */
+        public Builder<I, L, R> batchSize(int batchSize) {
+            if (batchSize < 1) {
+                throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+            }
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets number of batches each stage queue holds (default 16).
+         *
+         * @param queueCapacity capacity of queue in batches, must be positive
+         * @return this builder
+         */
+        public Builder<I, L, R> queueCapacity(int queueCapacity) {
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException("queueCapacity must be positive: " + queueCapacity);
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Sets factory of stage threads (default: daemon platform thread).
+         *
+         * @param threadFactory factory of stage threads
+         * @return this builder
+         */
+        public Builder<I, L, R> threadFactory(@NonNull ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        /**
+         * Builds UnionPipeline and starts its stage threads.
+         *
+         * @param leftSink  consumer accepts left value of the last stage
+         * @param rightSink consumer accepts right value of any stage
+         * @return started UnionPipeline
+         * @throws IllegalStateException if no stage is added
+         */
+        @SuppressWarnings("unchecked")
+        public UnionPipeline<I> start(@NonNull Consumer<? super L> leftSink, @NonNull Consumer<? super R> rightSink) {
+            if (this.stages.isEmpty()) {
+                throw new IllegalStateException("UnionPipeline has no stage");
+            }
+            return new UnionPipeline<>(this, (Consumer<Object>) leftSink, (Consumer<Object>) rightSink).start();
+        }
+    }
+}
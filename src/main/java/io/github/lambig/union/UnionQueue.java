@@ -0,0 +1,223 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer queue of union values, drained by a single consumer thread.
+ * Producers offer left or right value without allocating Left or Right,
+ * and the consumer dispatches each value to the correspondent consumer like Union.accept.
+ *
+ * @param <L> type of left value
+ * @param <R> type of right value
+ */
+public abstract class UnionQueue<L, R> {
+    private final int capacity;
+    private final WaitStrategy waitStrategy;
+
+    UnionQueue(int capacity, WaitStrategy waitStrategy) {
+        this.capacity = capacity;
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Returns queue for many producer threads and single consumer thread.
+     *
+     * @param capacity minimum capacity, rounded up to power of 2
+     * @param <L>      type of left value
+     * @param <R>      type of right value
+     * @return multi producer queue waiting with back off: spinning, yielding, then parking up to 1 ms
+     */
+    public static <L, R> UnionQueue<L, R> mpsc(int capacity) {
+        return mpsc(capacity, WaitStrategy.backoff(100, 10, Duration.ofMillis(1)));
+    }
+
+    /**
+     * Returns queue for many producer threads and single consumer thread.
+     *
+     * @param capacity     minimum capacity, rounded up to power of 2
+     * @param waitStrategy strategy to wait in put and awaitDrain
+     * @param <L>          type of left value
+     * @param <R>          type of right value
+     * @return multi producer queue
+     */
+    public static <L, R> UnionQueue<L, R> mpsc(int capacity, @NonNull WaitStrategy waitStrategy) {
+        return new MpscUnionQueue<>(powerOfTwo(capacity), waitStrategy);
+    }
+
+    /**
+     * Returns queue for single producer thread and single consumer thread.
+     *
+     * @param capacity minimum capacity, rounded up to power of 2
+     * @param <L>      type of left value
+     * @param <R>      type of right value
+     * @return single producer queue waiting with back off: spinning, yielding, then parking up to 1 ms
+     */
+    public static <L, R> UnionQueue<L, R> spsc(int capacity) {
+        return spsc(capacity, WaitStrategy.backoff(100, 10, Duration.ofMillis(1)));
+    }
+
+    /**
+     * Returns queue for single producer thread and single consumer thread.
+     *
+     * @param capacity     minimum capacity, rounded up to power of 2
+     * @param waitStrategy strategy to wait in put and awaitDrain
+     * @param <L>          type of left value
+     * @param <R>          type of right value
+     * @return single producer queue
+     */
+    public static <L, R> UnionQueue<L, R> spsc(int capacity, @NonNull WaitStrategy waitStrategy) {
+        return new SpscUnionQueue<>(powerOfTwo(capacity), waitStrategy);
+    }
+
+    private static int powerOfTwo(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        }
+        return capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    /**
+     * Offers left value if the queue has space.
+     *
+     * @param leftValue left value
+     * @return true if added
+     */
+    public boolean offerLeft(@NonNull L leftValue) {
+        return this.offer(true, leftValue);
+    }
+
+    /**
+     * Offers right value if the queue has space.
+     *
+     * @param rightValue right value
+     * @return true if added
+     */
+    public boolean offerRight(@NonNull R rightValue) {
+        return this.offer(false, rightValue);
+    }
+
+    /**
+     * Offers value of the union if the queue has space.
+     *
+     * @param union union to add
+     * @return true if added
+     */
+    public boolean offer(@NonNull Union<? extends L, ? extends R> union) {
+        return union.hasLeft() ? this.offer(true, union.left()) : this.offer(false, union.right());
+    }
+
+    /**
+     * Adds left value, waiting for space with the wait strategy.
+     *
+     * @param leftValue left value
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void putLeft(@NonNull L leftValue) throws InterruptedException {
+        this.put(true, leftValue);
+    }
+
+    /**
+     * Adds right value, waiting for space with the wait strategy.
+     *
+     * @param rightValue right value
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void putRight(@NonNull R rightValue) throws InterruptedException {
+        this.put(false, rightValue);
+    }
+
+    private void put(boolean left, Object value) throws InterruptedException {
+        for (int attempt = 0; !this.offer(left, value); attempt++) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            this.waitStrategy.idle(attempt);
+        }
+    }
+
+    /**
+     * Makes either consumer accept each value in order, up to maxElements, without waiting.
+     * Call only from the consumer thread.
+     *
+     * @param leftResolver  consumer accepts left value
+     * @param rightResolver consumer accepts right value
+     * @param maxElements   maximum number of values to drain
+     * @return number of drained values
+     */
+    public abstract int drain(
+            @NonNull Consumer<? super L> leftResolver,
+            @NonNull Consumer<? super R> rightResolver,
+            int maxElements);
+
+    /**
+     * Waits with the wait strategy until any value is available, then drains like drain.
+     * Call only from the consumer thread.
+     *
+     * @param leftResolver  consumer accepts left value
+     * @param rightResolver consumer accepts right value
+     * @param maxElements   maximum number of values to drain, must be positive
+     * @return number of drained values
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public int awaitDrain(
+            @NonNull Consumer<? super L> leftResolver,
+            @NonNull Consumer<? super R> rightResolver,
+            int maxElements) throws InterruptedException {
+        if (maxElements < 1) {
+            throw new IllegalArgumentException("maxElements must be positive: " + maxElements);
+        }
+        int drained;
+        for (int attempt = 0; (drained = this.drain(leftResolver, rightResolver, maxElements)) == 0; attempt++) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            this.waitStrategy.idle(attempt);
+        }
+        return drained;
+    }
+
+    /**
+     * Returns capacity of the queue.
+     *
+     * @return capacity
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns number of values in the queue.
+     * NOTE: The value is only an estimate while producers or consumer are running.
+     *
+     * @return number of values
+     */
+    public abstract int size();
+
+    /**
+     * Returns if the queue has no value.
+     * NOTE: The value is only an estimate while producers or consumer are running.
+     *
+     * @return true if no value
+     */
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    abstract boolean offer(boolean left, Object value);
+
+    @SuppressWarnings("unchecked")
+    final void dispatch(
+            boolean left,
+            Object value,
+            Consumer<? super L> leftResolver,
+            Consumer<? super R> rightResolver) {
+        if (left) {
+            leftResolver.accept((L) value);
+        } else {
+            rightResolver.accept((R) value);
+        }
+    }
+}
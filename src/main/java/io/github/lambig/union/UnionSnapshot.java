@@ -0,0 +1,377 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Reader of columnar snapshot of unions written by UnionSnapshotWriter.
+ * Blocks are memory-mapped as they are read, and blocks rejected by a filter on their side counts are never mapped.
+ * Visitors of a side column map and decode only that column, passing long values without boxing
+ * and string values as views of UTF-8 bytes in the mapped file.
+ * Failures of reading are thrown as UncheckedIOException.
+ *
+ * @param <L> type of left value
+ * @param <R> type of right value
+ */
+public final class UnionSnapshot<L, R> implements Closeable {
+    private static final int HEADER_LENGTH = Integer.BYTES + 1;
+    private static final int BLOCK_FOOTER_LENGTH = Long.BYTES + Integer.BYTES * 4 + 2;
+    private static final int TAIL_LENGTH = 2 + Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final FileChannel channel;
+    private final ColumnType<L> leftType;
+    private final ColumnType<R> rightType;
+    private final List<Block> blocks;
+
+    private UnionSnapshot(FileChannel channel, ColumnType<L> leftType, ColumnType<R> rightType, List<Block> blocks) {
+        this.channel = channel;
+        this.leftType = leftType;
+        this.rightType = rightType;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Opens snapshot file and reads its footer.
+     *
+     * @param path      path of the file
+     * @param leftType  type of left column the file was written with
+     * @param rightType type of right column the file was written with
+     * @param <L>       type of left value
+     * @param <R>       type of right value
+     * @return UnionSnapshot instance
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a snapshot of the column types
+     */
+    public static <L, R> UnionSnapshot<L, R> open(
+            @NonNull Path path,
+            @NonNull ColumnType<L> leftType,
+            @NonNull ColumnType<R> rightType) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            List<Block> blocks = readFooter(channel, path, leftType, rightType);
+            return new UnionSnapshot<>(channel, leftType, rightType, blocks);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static List<Block> readFooter(FileChannel channel, Path path, ColumnType<?> leftType, ColumnType<?> rightType) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_LENGTH + TAIL_LENGTH) {
+            throw new IllegalArgumentException("not a union snapshot: " + path);
+        }
+        ByteBuffer header = read(channel, 0, HEADER_LENGTH);
+        ByteBuffer tail = read(channel, size - TAIL_LENGTH, TAIL_LENGTH);
+        byte leftId = tail.get();
+        byte rightId = tail.get();
+        int blockCount = tail.getInt();
+        long footerOffset = tail.getLong();
+        if (header.getInt() != UnionSnapshotWriter.MAGIC || tail.getInt() != UnionSnapshotWriter.MAGIC) {
+            throw new IllegalArgumentException("not a union snapshot: " + path);
+        }
+        if (header.get() != UnionSnapshotWriter.VERSION) {
+            throw new IllegalArgumentException("unsupported version of union snapshot: " + path);
+        }
+        if (leftId != leftType.id() || rightId != rightType.id()) {
+            throw new IllegalArgumentException("columns of " + path + " are " + ColumnType.of(leftId) + " and " + ColumnType.of(rightId)
+                    + ", not " + leftType + " and " + rightType);
+        }
+        ByteBuffer footer = read(channel, footerOffset, (int) (size - TAIL_LENGTH - footerOffset));
+        List<Block> blocks = new ArrayList<>(blockCount);
+        ColumnEncoding[] encodings = ColumnEncoding.values();
+        for (int i = 0; i < blockCount; i++) {
+            blocks.add(new Block(
+                    i,
+                    footer.getLong(),
+                    footer.getInt(),
+                    footer.getInt(),
+                    footer.getInt(),
+                    footer.getInt(),
+                    encodings[footer.get()],
+                    encodings[footer.get()]));
+        }
+        return Collections.unmodifiableList(blocks);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IllegalArgumentException("union snapshot is truncated");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Returns number of unions.
+     *
+     * @return number of unions
+     */
+    public long size() {
+        return this.blocks.stream().mapToLong(Block::rowCount).sum();
+    }
+
+    /**
+     * Returns number of left values, read from the footer.
+     *
+     * @return number of left values
+     */
+    public long leftCount() {
+        return this.blocks.stream().mapToLong(Block::leftCount).sum();
+    }
+
+    /**
+     * Returns number of right values, read from the footer.
+     *
+     * @return number of right values
+     */
+    public long rightCount() {
+        return this.blocks.stream().mapToLong(Block::rightCount).sum();
+    }
+
+    /**
+     * Returns blocks in order.
+     *
+     * @return unmodifiable list of blocks
+     */
+    public List<Block> blocks() {
+        return this.blocks;
+    }
+
+    /**
+     * Makes either consumer accept each value in order.
+     *
+     * @param leftResolver  consumer accepts left value
+     * @param rightResolver consumer accepts right value
+     */
+    public void forEach(@NonNull Consumer<? super L> leftResolver, @NonNull Consumer<? super R> rightResolver) {
+        this.forEach(block -> true, leftResolver, rightResolver);
+    }
+
+    /**
+     * Makes either consumer accept each value in order, in blocks accepted by the filter.
+     * Rejected blocks are not read at all.
+     *
+     * @param blockFilter   predicate on block, e.g. block -> block.leftCount() > 0
+     * @param leftResolver  consumer accepts left value
+     * @param rightResolver consumer accepts right value
+     */
+    public void forEach(
+            @NonNull Predicate<? super Block> blockFilter,
+            @NonNull Consumer<? super L> leftResolver,
+            @NonNull Consumer<? super R> rightResolver) {
+        for (Block block : this.blocks) {
+            if (!blockFilter.test(block)) {
+                continue;
+            }
+            ByteBuffer mapped = this.map(block.offset, block.tagLength() + block.leftLength + block.rightLength);
+            ColumnType.ColumnReader<L> lefts = this.leftType.newReader(slice(mapped, block.tagLength(), block.leftLength), block.leftCount());
+            ColumnType.ColumnReader<R> rights = this.rightType.newReader(
+                    slice(mapped, block.tagLength() + block.leftLength, block.rightLength),
+                    block.rightCount);
+            for (int row = 0; row < block.rowCount; row++) {
+                if ((mapped.get(row >>> 3) & 1 << (row & 7)) == 0) {
+                    leftResolver.accept(lefts.next());
+                } else {
+                    rightResolver.accept(rights.next());
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes consumer accept each union in order.
+     *
+     * @param resolver consumer accepts union
+     */
+    public void forEach(@NonNull Consumer<? super Union<L, R>> resolver) {
+        this.forEach(left -> resolver.accept(UnionOf.left(left)), right -> resolver.accept(UnionOf.right(right)));
+    }
+
+    /**
+     * Visits each left long value in order, without boxing.
+     * Blocks without left value are skipped.
+     *
+     * @param visitor visitor of left value
+     * @throws IllegalStateException if left column is not longs
+     */
+    public void visitLeftLongs(@NonNull LongConsumer visitor) {
+        for (Block block : this.blocks) {
+            if (block.leftCount() > 0) {
+                this.leftType.visitLongs(this.map(block.offset + block.tagLength(), block.leftLength), block.leftCount(), visitor);
+            }
+        }
+    }
+
+    /**
+     * Visits each right long value in order, without boxing.
+     * Blocks without right value are skipped.
+     *
+     * @param visitor visitor of right value
+     * @throws IllegalStateException if right column is not longs
+     */
+    public void visitRightLongs(@NonNull LongConsumer visitor) {
+        for (Block block : this.blocks) {
+            if (block.rightCount > 0) {
+                this.rightType.visitLongs(this.map(block.rightOffset(), block.rightLength), block.rightCount, visitor);
+            }
+        }
+    }
+
+    /**
+     * Visits UTF-8 bytes of each left string value in order, without copying.
+     * Blocks without left value are skipped.
+     * NOTE: The buffer is a view of the mapped file reused for following values; it must not be retained.
+     *
+     * @param visitor visitor of buffer whose remaining bytes are the value
+     * @throws IllegalStateException if left column is not strings
+     */
+    public void visitLeftStrings(@NonNull Consumer<? super ByteBuffer> visitor) {
+        for (Block block : this.blocks) {
+            if (block.leftCount() > 0) {
+                this.leftType.visitBytes(this.map(block.offset + block.tagLength(), block.leftLength), block.leftCount(), visitor);
+            }
+        }
+    }
+
+    /**
+     * Visits UTF-8 bytes of each right string value in order, without copying.
+     * Blocks without right value are skipped.
+     * NOTE: The buffer is a view of the mapped file reused for following values; it must not be retained.
+     *
+     * @param visitor visitor of buffer whose remaining bytes are the value
+     * @throws IllegalStateException if right column is not strings
+     */
+    public void visitRightStrings(@NonNull Consumer<? super ByteBuffer> visitor) {
+        for (Block block : this.blocks) {
+            if (block.rightCount > 0) {
+                this.rightType.visitBytes(this.map(block.rightOffset(), block.rightLength), block.rightCount, visitor);
+            }
+        }
+    }
+
+    /**
+     * Closes the file. Mapped buffers are released when they are garbage collected.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private ByteBuffer map(long position, int length) {
+        try {
+            return this.channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+        return buffer.duplicate().position(position).limit(position + length).slice();
+    }
+
+    /**
+     * Block of rows, with counts of each side read from the footer.
+     */
+    public static final class Block {
+        private final int index;
+        private final long offset;
+        private final int rowCount;
+        private final int rightCount;
+        private final int leftLength;
+        private final int rightLength;
+        private final ColumnEncoding leftEncoding;
+        private final ColumnEncoding rightEncoding;
+
+        Block(int index, long offset, int rowCount, int rightCount, int leftLength, int rightLength, ColumnEncoding leftEncoding, ColumnEncoding rightEncoding) {
+            this.index = index;
+            this.offset = offset;
+            this.rowCount = rowCount;
+            this.rightCount = rightCount;
+            this.leftLength = leftLength;
+            this.rightLength = rightLength;
+            this.leftEncoding = leftEncoding;
+            this.rightEncoding = rightEncoding;
+        }
+
+        /**
+         * Returns index of this block.
+         *
+         * @return index from 0
+         */
+        public int index() {
+            return this.index;
+        }
+
+        /**
+         * Returns number of unions in this block.
+         *
+         * @return number of unions
+         */
+        public int rowCount() {
+            return this.rowCount;
+        }
+
+        /**
+         * Returns number of left values in this block.
+         *
+         * @return number of left values
+         */
+        public int leftCount() {
+            return this.rowCount - this.rightCount;
+        }
+
+        /**
+         * Returns number of right values in this block.
+         *
+         * @return number of right values
+         */
+        public int rightCount() {
+            return this.rightCount;
+        }
+
+        /**
+         * Returns encoding of left column in this block.
+         *
+         * @return encoding
+         */
+        public ColumnEncoding leftEncoding() {
+            return this.leftEncoding;
+        }
+
+        /**
+         * Returns encoding of right column in this block.
+         *
+         * @return encoding
+         */
+        public ColumnEncoding rightEncoding() {
+            return this.rightEncoding;
+        }
+
+        private int tagLength() {
+            return (this.rowCount + 7) >>> 3;
+        }
+
+        private long rightOffset() {
+            return this.offset + this.tagLength() + this.leftLength;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Writer of columnar snapshot of unions, read by UnionSnapshot.
+ * Unions are written by blocks of rows; each block has a bit-packed tag column,
+ * a column of left values and a column of right values encoded separately,
+ * and the footer holds offsets and side counts of every block.
+ * Failures of writing are thrown as UncheckedIOException.
+ *
+ * @param <L> type of left value
+ * @param <R> type of right value
+ */
+public final class UnionSnapshotWriter<L, R> implements Consumer<Union<? extends L, ? extends R>>, Closeable {
+    static final int MAGIC = 0x554E534E;
+    static final byte VERSION = 1;
+    static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ColumnType<L> leftType;
+    private final ColumnType<R> rightType;
+    private final int blockSize;
+    private final ColumnType.ColumnWriter<L> lefts;
+    private final ColumnType.ColumnWriter<R> rights;
+    private final byte[] tags;
+    private final ByteSink block;
+    private final ByteSink footer = new ByteSink(256);
+    private int rows;
+    private int blockCount;
+    private long position;
+    private boolean closed;
+
+    private UnionSnapshotWriter(FileChannel channel, ColumnType<L> leftType, ColumnType<R> rightType, int blockSize) {
+        this.channel = channel;
+        this.leftType = leftType;
+        this.rightType = rightType;
+        this.blockSize = blockSize;
+        this.lefts = leftType.newWriter(blockSize);
+        this.rights = rightType.newWriter(blockSize);
+        this.tags = new byte[(blockSize + 7) >>> 3];
+        this.block = new ByteSink(Math.min(blockSize, 1 << 16) * 9);
+    }
+
+    /**
+     * Creates snapshot file with blocks of 65536 rows, replacing existing one.
+     *
+     * @param path      path of the file
+     * @param leftType  type of left column
+     * @param rightType type of right column
+     * @param <L>       type of left value
+     * @param <R>       type of right value
+     * @return UnionSnapshotWriter instance
+     * @throws IOException if the file cannot be created
+     */
+    public static <L, R> UnionSnapshotWriter<L, R> create(
+            @NonNull Path path,
+            @NonNull ColumnType<L> leftType,
+            @NonNull ColumnType<R> rightType) throws IOException {
+        return create(path, leftType, rightType, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates snapshot file, replacing existing one.
+     *
+     * @param path      path of the file
+     * @param leftType  type of left column
+     * @param rightType type of right column
+     * @param blockSize number of rows per block
+     * @param <L>       type of left value
+     * @param <R>       type of right value
+     * @return UnionSnapshotWriter instance
+     * @throws IOException if the file cannot be created
+     */
+    public static <L, R> UnionSnapshotWriter<L, R> create(
+            @NonNull Path path,
+            @NonNull ColumnType<L> leftType,
+            @NonNull ColumnType<R> rightType,
+            int blockSize) throws IOException {
+        if (blockSize < 1 || blockSize > 1 << 24) {
+            throw new IllegalArgumentException("blockSize must be between 1 and 2^24: " + blockSize);
+        }
+        FileChannel channel = FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        UnionSnapshotWriter<L, R> writer = new UnionSnapshotWriter<>(channel, leftType, rightType, blockSize);
+        writer.writeHeader();
+        return writer;
+    }
+
+    /**
+     * Appends left value.
+     *
+     * @param leftValue left value
+     */
+    public void writeLeft(@NonNull L leftValue) {
+        this.ensureOpen();
+        this.lefts.add(leftValue);
+        this.endRow();
+    }
+
+    /**
+     * Appends right value.
+     *
+     * @param rightValue right value
+     */
+    public void writeRight(@NonNull R rightValue) {
+        this.ensureOpen();
+        this.tags[this.rows >>> 3] |= (byte) (1 << (this.rows & 7));
+        this.rights.add(rightValue);
+        this.endRow();
+    }
+
+    /**
+     * Appends value of the union.
+     *
+     * @param union union to append
+     */
+    @Override
+    public void accept(@NonNull Union<? extends L, ? extends R> union) {
+        // dispatches by hasLeft rather than accept, so that no method reference is bound per union
+        if (union.hasLeft()) {
+            this.writeLeft(union.left());
+        } else {
+            this.writeRight(union.right());
+        }
+    }
+
+    /**
+     * Writes the last block and the footer, and closes the file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            this.flushBlock();
+            long footerOffset = this.position;
+            this.footer.put(this.leftType.id());
+            this.footer.put(this.rightType.id());
+            this.footer.putInt(this.blockCount);
+            this.footer.putLong(footerOffset);
+            this.footer.putInt(MAGIC);
+            this.write(this.footer.flip());
+        } finally {
+            this.channel.close();
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        ByteSink header = new ByteSink(8);
+        header.putInt(MAGIC);
+        header.put(VERSION);
+        this.write(header.flip());
+    }
+
+    private void endRow() {
+        if (++this.rows == this.blockSize) {
+            try {
+                this.flushBlock();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (this.rows == 0) {
+            return;
+        }
+        int tagLength = (this.rows + 7) >>> 3;
+        int rightCount = this.rights.size();
+        this.block.clear();
+        this.block.put(Arrays.copyOf(this.tags, tagLength));
+        ColumnEncoding leftEncoding = this.lefts.writeTo(this.block);
+        int leftLength = this.block.position() - tagLength;
+        ColumnEncoding rightEncoding = this.rights.writeTo(this.block);
+        int rightLength = this.block.position() - tagLength - leftLength;
+        this.footer.putLong(this.position);
+        this.footer.putInt(this.rows);
+        this.footer.putInt(rightCount);
+        this.footer.putInt(leftLength);
+        this.footer.putInt(rightLength);
+        this.footer.put((byte) leftEncoding.ordinal());
+        this.footer.put((byte) rightEncoding.ordinal());
+        this.write(this.block.flip());
+        Arrays.fill(this.tags, 0, tagLength, (byte) 0);
+        this.rows = 0;
+        this.blockCount++;
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            this.position += this.channel.write(bytes, this.position);
+        }
+    }
+
+    private void ensureOpen() {
+        if (this.closed) {
+            throw new IllegalStateException("UnionSnapshotWriter is closed");
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy split of a one-shot source of unions into lefts and rights, consuming the source once.
+ * Each side pulls the source only when its own buffer is empty, and each pulled union is dispatched by Union.accept:
+ * a value of the pulling side is returned, and a value of the other side is held in its bounded buffer
+ * until that side is read. A full buffer is handled by the OverflowPolicy:
+ * FAIL (default) throws IllegalStateException, DROP discards the value, and BLOCK waits for the other side to be read.
+ * NOTE: BLOCK needs lefts and rights to be read by different threads; a single reader of both sides waits forever.
+ * Closing a side stream discards its buffered and later values; closing both closes the source.
+ *
+ * @param <L> type of left value
+ * @param <R> type of right value
+ */
+public final class UnionSplit<L, R> {
+    private static final int DEFAULT_BUFFER_CAPACITY = 1024;
+
+    private final Iterator<? extends Union<? extends L, ? extends R>> upstream;
+    private final Runnable sourceCloser;
+    private final int bufferCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = this.lock.newCondition();
+    private final Side<L> lefts = new Side<>("left");
+    private final Side<R> rights = new Side<>("right");
+    private boolean pulling;
+    private boolean exhausted;
+    private long dropped;
+
+    private UnionSplit(
+            Iterator<? extends Union<? extends L, ? extends R>> upstream,
+            Runnable sourceCloser,
+            int bufferCapacity,
+            OverflowPolicy overflowPolicy) {
+        if (bufferCapacity < 1) {
+            throw new IllegalArgumentException("bufferCapacity must be positive: " + bufferCapacity);
+        }
+        this.upstream = upstream;
+        this.sourceCloser = sourceCloser;
+        this.bufferCapacity = bufferCapacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Returns split of the stream, buffering up to 1024 values per side and failing beyond that.
+     *
+     * @param source stream of unions, consumed once
+     * @param <L>    type of left value
+     * @param <R>    type of right value
+     * @return UnionSplit instance
+     */
+    public static <L, R> UnionSplit<L, R> of(@NonNull Stream<? extends Union<? extends L, ? extends R>> source) {
+        return of(source, DEFAULT_BUFFER_CAPACITY, OverflowPolicy.FAIL);
+    }
+
+    /**
+     * Returns split of the stream.
+     *
+     * @param source         stream of unions, consumed once
+     * @param bufferCapacity maximum number of values held for each side
+     * @param overflowPolicy behavior on a value for a full buffer
+     * @param <L>            type of left value
+     * @param <R>            type of right value
+     * @return UnionSplit instance
+     */
+    public static <L, R> UnionSplit<L, R> of(
+            @NonNull Stream<? extends Union<? extends L, ? extends R>> source,
+            int bufferCapacity,
+            @NonNull OverflowPolicy overflowPolicy) {
+        return new UnionSplit<>(source.iterator(), source::close, bufferCapacity, overflowPolicy);
+    }
+
+    /**
+     * Returns split of the iterator.
+     *
+     * @param source         iterator of unions, consumed once
+     * @param bufferCapacity maximum number of values held for each side
+     * @param overflowPolicy behavior on a value for a full buffer
+     * @param <L>            type of left value
+     * @param <R>            type of right value
+     * @return UnionSplit instance
+     */
+    public static <L, R> UnionSplit<L, R> of(
+            @NonNull Iterator<? extends Union<? extends L, ? extends R>> source,
+            int bufferCapacity,
+            @NonNull OverflowPolicy overflowPolicy) {
+        return new UnionSplit<>(source, () -> {
+        }, bufferCapacity, overflowPolicy);
+    }
+
+    /**
+     * Returns iterator of left values in order. The same iterator is returned on every call.
+     *
+     * @return iterator of left values
+     */
+    public Iterator<L> lefts() {
+        return this.lefts;
+    }
+
+    /**
+     * Returns iterator of right values in order. The same iterator is returned on every call.
+     *
+     * @return iterator of right values
+     */
+    public Iterator<R> rights() {
+        return this.rights;
+    }
+
+    /**
+     * Returns sequential stream of left values, closed as a side when it is closed.
+     *
+     * @return stream of left values
+     */
+    public Stream<L> leftStream() {
+        return this.lefts.stream();
+    }
+
+    /**
+     * Returns sequential stream of right values, closed as a side when it is closed.
+     *
+     * @return stream of right values
+     */
+    public Stream<R> rightStream() {
+        return this.rights.stream();
+    }
+
+    /**
+     * Returns number of values discarded by DROP policy.
+     *
+     * @return number of dropped values
+     */
+    public long droppedCount() {
+        this.lock.lock();
+        try {
+            return this.dropped;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Pulls one union from the source and dispatches it, or waits for another reader pulling.
+     * Called with the lock held.
+     *
+     * @return false if the source is exhausted
+     */
+    private boolean pullOrAwait() {
+        if (this.exhausted) {
+            return false;
+        }
+        if (this.pulling) {
+            this.await("source");
+            return true;
+        }
+        this.pulling = true;
+        try {
+            Union<? extends L, ? extends R> union = this.pull();
+            if (union == null) {
+                this.exhausted = true;
+            } else {
+                // keeps pulling while dispatching, so that no later union overtakes a blocked one
+                union.accept(this.lefts::offer, this.rights::offer);
+            }
+            return !this.exhausted;
+        } finally {
+            this.pulling = false;
+            this.changed.signalAll();
+        }
+    }
+
+    /**
+     * Reads the source without the lock, so that the other side can be read meanwhile.
+     */
+    private Union<? extends L, ? extends R> pull() {
+        this.lock.unlock();
+        try {
+            return this.upstream.hasNext() ? this.upstream.next() : null;
+        } finally {
+            this.lock.lock();
+        }
+    }
+
+    private void await(String target) {
+        try {
+            this.changed.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for " + target + " of UnionSplit", e);
+        }
+    }
+
+    private void closeSourceIfBothClosed() {
+        if (this.lefts.closed && this.rights.closed) {
+            this.sourceCloser.run();
+        }
+    }
+
+    private final class Side<T> implements Iterator<T> {
+        private final String name;
+        private final ArrayDeque<T> buffer = new ArrayDeque<>();
+        private boolean closed;
+
+        private Side(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean hasNext() {
+            lock.lock();
+            try {
+                while (this.buffer.isEmpty()) {
+                    if (this.closed || !pullOrAwait()) {
+                        return false;
+                    }
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public T next() {
+            lock.lock();
+            try {
+                if (!this.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T value = this.buffer.poll();
+                changed.signalAll();
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Buffers the value pulled from the source. Called with the lock held.
+         */
+        private void offer(T value) {
+            while (!this.closed && this.buffer.size() >= bufferCapacity) {
+                switch (overflowPolicy) {
+                    case BLOCK:
+                        await(this.name + " buffer");
+                        break;
+                    case FAIL:
+                        throw new IllegalStateException(this.name + " buffer of UnionSplit is full: " + bufferCapacity);
+                    default:
+                        dropped++;
+                        return;
+                }
+            }
+            if (!this.closed) {
+                this.buffer.add(value);
+            }
+        }
+
+        private Stream<T> stream() {
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(this::close);
+        }
+
+        private void close() {
+            lock.lock();
+            try {
+                if (this.closed) {
+                    return;
+                }
+                this.closed = true;
+                this.buffer.clear();
+                changed.signalAll();
+                closeSourceIfBothClosed();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
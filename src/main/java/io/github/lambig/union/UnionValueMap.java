@@ -0,0 +1,404 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Hash map from key to either left or right value, without Left/Right or entry objects.
+ * Keys and values are held in parallel arrays by open addressing with linear probing,
+ * and the side of each value in a bitmap (set bit for right).
+ * Lookups pass the value to a resolver of its side, and Union views are made only by getUnion.
+ * Not thread-safe; use ConcurrentUnionValueMap from multiple threads.
+ *
+ * @param <K> type of key
+ * @param <L> type of left value
+ * @param <R> type of right value
+ */
+public final class UnionValueMap<K, L, R> {
+    private static final int MINIMUM_CAPACITY = 8;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private Object[] keys;
+    private Object[] values;
+    private long[] sides;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    private UnionValueMap(int capacity) {
+        this.allocate(capacity);
+    }
+
+    /**
+     * Returns empty map.
+     *
+     * @param <K> type of key
+     * @param <L> type of left value
+     * @param <R> type of right value
+     * @return UnionValueMap instance
+     */
+    public static <K, L, R> UnionValueMap<K, L, R> create() {
+        return new UnionValueMap<>(MINIMUM_CAPACITY);
+    }
+
+    /**
+     * Returns empty map holding the expected number of entries without resize.
+     *
+     * @param expectedSize expected number of entries
+     * @param <K>          type of key
+     * @param <L>          type of left value
+     * @param <R>          type of right value
+     * @return UnionValueMap instance
+     */
+    public static <K, L, R> UnionValueMap<K, L, R> create(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+        }
+        return new UnionValueMap<>(capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns number of entries.
+     *
+     * @return number of entries
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns if no entry exists.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Returns if the key is mapped.
+     *
+     * @param key key
+     * @return true if mapped to either value
+     */
+    public boolean containsKey(@NonNull K key) {
+        return this.indexOf(key) >= 0;
+    }
+
+    /**
+     * Returns if the key is mapped to right value.
+     *
+     * @param key key
+     * @return true if mapped to right value, false if mapped to left value or not mapped
+     */
+    public boolean hasRight(@NonNull K key) {
+        int index = this.indexOf(key);
+        return index >= 0 && this.isRightAt(index);
+    }
+
+    /**
+     * Maps the key to left value, replacing the value of either side.
+     *
+     * @param key       key
+     * @param leftValue left value
+     */
+    public void putLeft(@NonNull K key, @NonNull L leftValue) {
+        this.put(key, leftValue, false);
+    }
+
+    /**
+     * Maps the key to right value, replacing the value of either side.
+     *
+     * @param key        key
+     * @param rightValue right value
+     */
+    public void putRight(@NonNull K key, @NonNull R rightValue) {
+        this.put(key, rightValue, true);
+    }
+
+    /**
+     * Maps the key to the value of the union.
+     *
+     * @param key   key
+     * @param union union whose value is mapped
+     */
+    public void put(@NonNull K key, @NonNull Union<? extends L, ? extends R> union) {
+        // dispatches by hasLeft rather than accept, so that no lambda captures the key
+        if (union.hasLeft()) {
+            this.putLeft(key, union.left());
+        } else {
+            this.putRight(key, union.right());
+        }
+    }
+
+    /**
+     * Applies function of the side to the value mapped to the key.
+     *
+     * @param key           key
+     * @param leftResolver  function applied to left value
+     * @param rightResolver function applied to right value
+     * @param <O>           type of result
+     * @return result of the function, or null if the key is not mapped
+     */
+    public <O> O get(
+            @NonNull K key,
+            @NonNull Function<? super L, ? extends O> leftResolver,
+            @NonNull Function<? super R, ? extends O> rightResolver) {
+        int index = this.indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        return resolve(this.values[index], this.isRightAt(index), leftResolver, rightResolver);
+    }
+
+    /**
+     * Makes consumer of the side accept the value mapped to the key.
+     *
+     * @param key           key
+     * @param leftResolver  consumer accepts left value
+     * @param rightResolver consumer accepts right value
+     * @return true if the key is mapped
+     */
+    public boolean accept(
+            @NonNull K key,
+            @NonNull Consumer<? super L> leftResolver,
+            @NonNull Consumer<? super R> rightResolver) {
+        int index = this.indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        accept(this.values[index], this.isRightAt(index), leftResolver, rightResolver);
+        return true;
+    }
+
+    /**
+     * Returns the value mapped to the key as a new Union.
+     *
+     * @param key key
+     * @return Left or Right of the value, or empty if the key is not mapped
+     */
+    public Optional<Union<L, R>> getUnion(@NonNull K key) {
+        int index = this.indexOf(key);
+        if (index < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(union(this.values[index], this.isRightAt(index)));
+    }
+
+    /**
+     * Removes mapping of the key.
+     *
+     * @param key key
+     * @return true if the key was mapped
+     */
+    public boolean remove(@NonNull K key) {
+        int index = this.indexOf(key);
+        if (index < 0) {
+            return false;
+        }
+        this.removeAt(index);
+        return true;
+    }
+
+    /**
+     * Makes consumer of the side accept each key and value, in no particular order.
+     *
+     * @param leftResolver  consumer accepts key and left value
+     * @param rightResolver consumer accepts key and right value
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(
+            @NonNull BiConsumer<? super K, ? super L> leftResolver,
+            @NonNull BiConsumer<? super K, ? super R> rightResolver) {
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.keys[i] == null) {
+                continue;
+            }
+            if (this.isRightAt(i)) {
+                rightResolver.accept((K) this.keys[i], (R) this.values[i]);
+            } else {
+                leftResolver.accept((K) this.keys[i], (L) this.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries, keeping the capacity.
+     */
+    public void clear() {
+        Arrays.fill(this.keys, null);
+        Arrays.fill(this.values, null);
+        Arrays.fill(this.sides, 0L);
+        this.size = 0;
+    }
+
+    /**
+     * Returns index of the key, or negative if not mapped.
+     */
+    int indexOf(Object key) {
+        Object[] keys = this.keys;
+        for (int i = hash(key) & this.mask; ; i = i + 1 & this.mask) {
+            Object candidate = keys[i];
+            if (candidate == null) {
+                return -1;
+            }
+            if (candidate.equals(key)) {
+                return i;
+            }
+        }
+    }
+
+    Object valueAt(int index) {
+        return this.values[index];
+    }
+
+    boolean isRightAt(int index) {
+        return (this.sides[index >>> 6] >>> index & 1) != 0;
+    }
+
+    /**
+     * Returns copy of this map, to be read without a lock.
+     */
+    UnionValueMap<K, L, R> copy() {
+        UnionValueMap<K, L, R> copy = new UnionValueMap<>(MINIMUM_CAPACITY);
+        copy.keys = this.keys.clone();
+        copy.values = this.values.clone();
+        copy.sides = this.sides.clone();
+        copy.mask = this.mask;
+        copy.size = this.size;
+        copy.threshold = this.threshold;
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <L, R, O> O resolve(
+            Object value,
+            boolean right,
+            Function<? super L, ? extends O> leftResolver,
+            Function<? super R, ? extends O> rightResolver) {
+        return right ? rightResolver.apply((R) value) : leftResolver.apply((L) value);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <L, R> void accept(Object value, boolean right, Consumer<? super L> leftResolver, Consumer<? super R> rightResolver) {
+        if (right) {
+            rightResolver.accept((R) value);
+        } else {
+            leftResolver.accept((L) value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <L, R> Union<L, R> union(Object value, boolean right) {
+        return right ? Right.of((R) value) : Left.of((L) value);
+    }
+
+    private void put(Object key, Object value, boolean right) {
+        Object[] keys = this.keys;
+        int i = hash(key) & this.mask;
+        for (Object candidate = keys[i]; candidate != null; candidate = keys[i]) {
+            if (candidate.equals(key)) {
+                this.values[i] = value;
+                this.setSide(i, right);
+                return;
+            }
+            i = i + 1 & this.mask;
+        }
+        if (this.size == this.threshold) {
+            // grows before inserting, so that the map is left unchanged when it cannot grow
+            this.resize();
+            keys = this.keys;
+            i = hash(key) & this.mask;
+            while (keys[i] != null) {
+                i = i + 1 & this.mask;
+            }
+        }
+        keys[i] = key;
+        this.values[i] = value;
+        this.setSide(i, right);
+        this.size++;
+    }
+
+    /**
+     * Removes the entry and shifts following entries of the probe sequence back, leaving no tombstone.
+     */
+    private void removeAt(int index) {
+        Object[] keys = this.keys;
+        int gap = index;
+        for (int i = gap + 1 & this.mask; keys[i] != null; i = i + 1 & this.mask) {
+            int home = hash(keys[i]) & this.mask;
+            // the entry may move back to the gap only if the gap is between its home and its slot
+            if ((i - home & this.mask) >= (i - gap & this.mask)) {
+                keys[gap] = keys[i];
+                this.values[gap] = this.values[i];
+                this.setSide(gap, this.isRightAt(i));
+                gap = i;
+            }
+        }
+        keys[gap] = null;
+        this.values[gap] = null;
+        this.setSide(gap, false);
+        this.size--;
+    }
+
+    private void setSide(int index, boolean right) {
+        if (right) {
+            this.sides[index >>> 6] |= 1L << index;
+        } else {
+            this.sides[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    private void resize() {
+        if (this.keys.length == MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("UnionValueMap cannot grow beyond 2^30 slots");
+        }
+        Object[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        long[] oldSides = this.sides;
+        this.allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) {
+                continue;
+            }
+            int j = hash(oldKeys[i]) & this.mask;
+            while (this.keys[j] != null) {
+                j = j + 1 & this.mask;
+            }
+            this.keys[j] = oldKeys[i];
+            this.values[j] = oldValues[i];
+            this.setSide(j, (oldSides[i >>> 6] >>> i & 1) != 0);
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+        this.sides = new long[(capacity + 63) >>> 6];
+        this.mask = capacity - 1;
+        this.threshold = capacity - (capacity >>> 2);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        // at most 3/4 of slots are used
+        long required = ((long) expectedSize * 4 + 2) / 3;
+        long capacity = MINIMUM_CAPACITY;
+        while (capacity < required && capacity < MAXIMUM_CAPACITY) {
+            capacity <<= 1;
+        }
+        return (int) capacity;
+    }
+
+    /**
+     * Spreads hash code so that linear probing works on keys with sequential hash codes.
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ h >>> 16;
+    }
+}
@@ -0,0 +1,169 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Operations on collections of Union.
+ */
+@UtilityClass
+public final class Unions {
+    // value of a parallel task skipped because the result is already completed
+    private static final Object SKIPPED = new Object();
+
+    /**
+     * Returns Left with all left values, or the first right value.
+     * Stops iterating at the first right value.
+     *
+     * @param unions unions to sequence
+     * @param <L>    Type of left value
+     * @param <R>    Type of right value
+     * @return Left with list of left values in order, or Right with the first right value
+     */
+    public static <L, R> Union<List<L>, R> sequence(@NonNull Iterable<? extends Union<? extends L, ? extends R>> unions) {
+        return traverse(unions, Function.identity());
+    }
+
+    /**
+     * Maps each element to Union and returns Left with all left values, or the first right value.
+     * Stops mapping at the first right value.
+     *
+     * @param elements elements to traverse
+     * @param mapper   function maps element to union
+     * @param <T>      Type of element
+     * @param <L>      Type of left value
+     * @param <R>      Type of right value
+     * @return Left with list of left values in order, or Right with the first right value
+     */
+    public static <T, L, R> Union<List<L>, R> traverse(
+            @NonNull Iterable<? extends T> elements,
+            @NonNull Function<? super T, ? extends Union<? extends L, ? extends R>> mapper) {
+        List<L> lefts = new ArrayList<>(sizeHint(elements));
+        for (T element : elements) {
+            Union<? extends L, ? extends R> union = mapper.apply(element);
+            if (union.hasRight()) {
+                return Right.of(union.right());
+            }
+            lefts.add(union.left());
+        }
+        return Left.of(lefts);
+    }
+
+    /**
+     * Returns Left with all left values, or Right with all right values.
+     *
+     * @param unions unions to accumulate
+     * @param <L>    Type of left value
+     * @param <R>    Type of right value
+     * @return Left with list of left values in order if no right value exists, otherwise Right with list of right values in order
+     */
+    public static <L, R> Union<List<L>, List<R>> accumulate(@NonNull Iterable<? extends Union<? extends L, ? extends R>> unions) {
+        return traverseAccumulating(unions, Function.identity());
+    }
+
+    /**
+     * Maps each element to Union and returns Left with all left values, or Right with all right values.
+     * Every element is mapped even after a right value appears.
+     *
+     * @param elements elements to traverse
+     * @param mapper   function maps element to union
+     * @param <T>      Type of element
+     * @param <L>      Type of left value
+     * @param <R>      Type of right value
+     * @return Left with list of left values in order if no right value exists, otherwise Right with list of right values in order
+     */
+    public static <T, L, R> Union<List<L>, List<R>> traverseAccumulating(
+            @NonNull Iterable<? extends T> elements,
+            @NonNull Function<? super T, ? extends Union<? extends L, ? extends R>> mapper) {
+        int sizeHint = sizeHint(elements);
+        List<L> lefts = new ArrayList<>(sizeHint);
+        List<R> rights = null;
+        for (T element : elements) {
+            Union<? extends L, ? extends R> union = mapper.apply(element);
+            if (union.hasLeft()) {
+                if (rights == null) {
+                    lefts.add(union.left());
+                }
+            } else {
+                if (rights == null) {
+                    // lefts beyond the hint of an Iterable leave no hint for rights
+                    rights = new ArrayList<>(Math.max(0, sizeHint - lefts.size()));
+                }
+                rights.add(union.right());
+            }
+        }
+        return rights == null ? Left.of(lefts) : Right.of(rights);
+    }
+
+    /**
+     * Maps elements to Union in parallel, and completes with Left of all left values, or the first right value.
+     * When a right value is found, mappings not yet started are cancelled.
+     * NOTE: "first" means first to be completed, not first in order.
+     * The result fails with NullPointerException if the mapper returns null.
+     *
+     * @param elements elements to traverse
+     * @param mapper   function maps element to union
+     * @param executor executor to run mapper
+     * @param <T>      Type of element
+     * @param <L>      Type of left value
+     * @param <R>      Type of right value
+     * @return future of Left with list of left values in order, or Right with the first completed right value
+     */
+    public static <T, L, R> CompletableFuture<Union<List<L>, R>> traverseParallel(
+            @NonNull Collection<? extends T> elements,
+            @NonNull Function<? super T, ? extends Union<? extends L, ? extends R>> mapper,
+            @NonNull Executor executor) {
+        int size = elements.size();
+        CompletableFuture<Union<List<L>, R>> result = new CompletableFuture<>();
+        if (size == 0) {
+            result.complete(Left.of(new ArrayList<>(0)));
+            return result;
+        }
+        @SuppressWarnings("unchecked")
+        L[] lefts = (L[]) new Object[size];
+        List<CompletableFuture<?>> tasks = new ArrayList<>(size);
+        AtomicInteger remaining = new AtomicInteger(size);
+        int index = 0;
+        for (T element : elements) {
+            int position = index++;
+            CompletableFuture<Object> task = CompletableFuture
+                    .supplyAsync(() -> result.isDone() ? SKIPPED : mapper.apply(element), executor);
+            tasks.add(task);
+            task.whenComplete((value, throwable) -> {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else if (value == null) {
+                    result.completeExceptionally(new NullPointerException("mapper returned null for element at " + position));
+                } else if (value != SKIPPED) {
+                    @SuppressWarnings("unchecked")
+                    Union<? extends L, ? extends R> union = (Union<? extends L, ? extends R>) value;
+                    if (union.hasRight()) {
+                        result.complete(Right.of(union.right()));
+                    } else {
+                        lefts[position] = union.left();
+                        if (remaining.decrementAndGet() == 0) {
+                            // the decrement publishes every preceding write of lefts
+                            result.complete(Left.of(new ArrayList<>(Arrays.asList(lefts))));
+                        }
+                    }
+                }
+            });
+        }
+        // tasks not started yet are skipped by cancellation
+        result.whenComplete((union, throwable) -> tasks.forEach(task -> task.cancel(false)));
+        return result;
+    }
+
+    private static int sizeHint(Iterable<?> elements) {
+        return elements instanceof Collection ? ((Collection<?>) elements).size() : 10;
+    }
+}
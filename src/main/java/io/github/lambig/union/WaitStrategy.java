@@ -0,0 +1,79 @@
+package io.github.lambig.union;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Strategy to wait between attempts of an operation which could not proceed.
+ */
+@FunctionalInterface
+public interface WaitStrategy {
+
+    /**
+     * Returns strategy which spins, keeping the thread on CPU.
+     * Lowest latency, but a core is fully used while waiting.
+     *
+     * @return busy spin strategy
+     */
+    static WaitStrategy busySpin() {
+        return attempt -> Thread.onSpinWait();
+    }
+
+    /**
+     * Returns strategy which spins for a while, then yields the thread.
+     *
+     * @param spins number of attempts to spin before yielding
+     * @return yielding strategy
+     */
+    static WaitStrategy yielding(int spins) {
+        return attempt -> {
+            if (attempt < spins) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        };
+    }
+
+    /**
+     * Returns strategy which spins, yields, then parks the thread with growing duration up to maxPark.
+     *
+     * @param spins   number of attempts to spin
+     * @param yields  number of attempts to yield after spinning
+     * @param maxPark maximum duration to park
+     * @return back off strategy
+     */
+    static WaitStrategy backoff(int spins, int yields, @NonNull Duration maxPark) {
+        long maxParkNanos = maxPark.toNanos();
+        return attempt -> {
+            if (attempt < spins) {
+                Thread.onSpinWait();
+            } else if (attempt < spins + yields) {
+                Thread.yield();
+            } else {
+                int shift = Math.min(attempt - spins - yields, 20);
+                LockSupport.parkNanos(Math.min(1_000L << shift, maxParkNanos));
+            }
+        };
+    }
+
+    /**
+     * Returns strategy which parks the thread for fixed duration.
+     *
+     * @param park duration to park
+     * @return parking strategy
+     */
+    static WaitStrategy parking(@NonNull Duration park) {
+        long parkNanos = park.toNanos();
+        return attempt -> LockSupport.parkNanos(parkNanos);
+    }
+
+    /**
+     * Waits before the next attempt.
+     *
+     * @param attempt number of attempts failed in a row, starting from 0
+     */
+    void idle(int attempt);
+}
@@ -0,0 +1,9 @@
+/**
+ * Union-like types of either a left or a right value, and utilities over them.
+ * Lombok is needed only to compile; the module has no runtime dependency.
+ */
+module io.github.lambig.union {
+    requires static lombok;
+
+    exports io.github.lambig.union;
+}
@@ -0,0 +1,43 @@
+package io.github.lambig.union;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures bytes allocated by the current thread per call of an operation, after warming it up.
+ * Results of the operation are stored to a volatile field, so that the JIT can neither drop the call nor scalar-replace the result.
+ */
+final class AllocationMeter {
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final int WARMUP_CALLS = 50_000;
+    private static final int MEASURED_CALLS = 100_000;
+    private static final int ROUNDS = 5;
+
+    static volatile Object sink;
+
+    private AllocationMeter() {
+    }
+
+    static boolean isSupported() {
+        return THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * Returns the smallest average of bytes per call in rounds, excluding noise such as the first call of a lazily linked lambda.
+     */
+    static double bytesPerCall(Runnable operation) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            operation.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        double minimum = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = THREADS.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_CALLS; i++) {
+                operation.run();
+            }
+            long after = THREADS.getThreadAllocatedBytes(threadId);
+            minimum = Math.min(minimum, (after - before) / (double) MEASURED_CALLS);
+        }
+        return minimum;
+    }
+}
@@ -0,0 +1,269 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class AsyncPeekerTest {
+
+    @Nested
+    class submitTest {
+        @Test
+        void consume_on_drainer_thread() {
+            //SetUp
+            List<String> consumed = new CopyOnWriteArrayList<>();
+            AtomicReference<Thread> consumerThread = new AtomicReference<>();
+            AsyncPeeker<Long, String> target = AsyncPeeker.<Long, String>builder(
+                            left -> {
+                                consumerThread.set(Thread.currentThread());
+                                consumed.add("left:" + left);
+                            },
+                            right -> consumed.add("right:" + right))
+                    .start();
+            //Exercise
+            target.submit(UnionOf.left(1L));
+            target.submit(UnionOf.right("a"));
+            target.submit(UnionOf.left(2L));
+            target.close();
+            //Verify
+            assertThat(consumed).containsExactly("left:1", "right:a", "left:2");
+            assertThat(consumerThread.get()).isNotSameAs(Thread.currentThread());
+            assertThat(consumerThread.get().getName()).startsWith("union-async-peek-");
+            assertThat(target.droppedCount()).isZero();
+        }
+
+        @Test
+        void submit_only_sampled() {
+            //SetUp
+            List<Long> consumed = new CopyOnWriteArrayList<>();
+            AsyncPeeker<Long, String> target = AsyncPeeker.<Long, String>builder(consumed::add, right -> {
+                    })
+                    .sampler(Sampler.oneIn(3))
+                    .start();
+            //Exercise
+            for (long i = 0; i < 9; i++) {
+                target.submit(UnionOf.left(i));
+            }
+            target.close();
+            //Verify
+            assertThat(consumed).containsExactly(0L, 3L, 6L);
+        }
+
+        @Test
+        void drop_on_overflow() throws InterruptedException {
+            //SetUp
+            CountDownLatch consuming = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            List<Long> consumed = new CopyOnWriteArrayList<>();
+            AsyncPeeker<Long, String> target = AsyncPeeker.<Long, String>builder(blocking(consuming, release, consumed), right -> {
+                    })
+                    .capacity(2)
+                    .batchSize(1)
+                    .overflowPolicy(OverflowPolicy.DROP)
+                    .start();
+            target.submit(UnionOf.left(0L));
+            consuming.await();
+            //Exercise
+            for (long i = 1; i <= 5; i++) {
+                target.submit(UnionOf.left(i));
+            }
+            release.countDown();
+            target.close();
+            //Verify
+            assertThat(consumed).containsExactly(0L, 1L);
+            assertThat(target.droppedCount()).isEqualTo(4L);
+        }
+
+        @Test
+        void fail_on_overflow() throws InterruptedException {
+            //SetUp
+            CountDownLatch consuming = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            AsyncPeeker<Long, String> target = AsyncPeeker.<Long, String>builder(blocking(consuming, release, new CopyOnWriteArrayList<>()), right -> {
+                    })
+                    .capacity(2)
+                    .overflowPolicy(OverflowPolicy.FAIL)
+                    .start();
+            try {
+                target.submit(UnionOf.left(0L));
+                consuming.await();
+                target.submit(UnionOf.left(1L));
+                //Exercise
+                assertThatThrownBy(() -> target.submit(UnionOf.left(2L)))
+                        //Verify
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasMessage("queue of AsyncPeeker is full");
+            } finally {
+                release.countDown();
+                target.close();
+            }
+        }
+
+        @Test
+        void block_on_overflow() throws InterruptedException {
+            //SetUp
+            CountDownLatch consuming = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            List<Long> consumed = new CopyOnWriteArrayList<>();
+            AsyncPeeker<Long, String> target = AsyncPeeker.<Long, String>builder(blocking(consuming, release, consumed), right -> {
+                    })
+                    .capacity(2)
+                    .overflowPolicy(OverflowPolicy.BLOCK)
+                    .start();
+            target.submit(UnionOf.left(0L));
+            consuming.await();
+            target.submit(UnionOf.left(1L));
+            Thread producer = new Thread(() -> target.submit(UnionOf.left(2L)));
+            //Exercise
+            producer.start();
+            producer.join(50);
+            boolean blocked = producer.isAlive();
+            release.countDown();
+            producer.join();
+            target.close();
+            //Verify
+            assertThat(blocked).isTrue();
+            assertThat(consumed).containsExactly(0L, 1L, 2L);
+            assertThat(target.droppedCount()).isZero();
+        }
+
+        @Test
+        void drop_after_close() {
+            //SetUp
+            List<Long> consumed = new CopyOnWriteArrayList<>();
+            AsyncPeeker<Long, String> target = AsyncPeeker.<Long, String>builder(consumed::add, right -> {
+            }).start();
+            target.close();
+            //Exercise
+            target.submit(UnionOf.left(1L));
+            //Verify
+            assertThat(consumed).isEmpty();
+            assertThat(target.droppedCount()).isEqualTo(1L);
+        }
+
+        @Test
+        void count_failed_consumer_and_keep_draining() {
+            //SetUp
+            List<Long> consumed = new CopyOnWriteArrayList<>();
+            AsyncPeeker<Long, String> target = AsyncPeeker.<Long, String>builder(
+                    left -> {
+                        if (left % 2 == 0) {
+                            throw new IllegalArgumentException();
+                        }
+                        consumed.add(left);
+                    },
+                    right -> {
+                    }).start();
+            //Exercise
+            for (long i = 0; i < 4; i++) {
+                target.submit(UnionOf.left(i));
+            }
+            target.close();
+            //Verify
+            assertThat(consumed).containsExactly(1L, 3L);
+            assertThat(target.failedCount()).isEqualTo(2L);
+        }
+
+        @Test
+        void count_consumer_error_and_keep_draining() {
+            //SetUp
+            List<Long> consumed = new CopyOnWriteArrayList<>();
+            AsyncPeeker<Long, String> target = AsyncPeeker.<Long, String>builder(
+                    left -> {
+                        if (left == 0) {
+                            throw new StackOverflowError();
+                        }
+                        consumed.add(left);
+                    },
+                    right -> {
+                    }).start();
+            //Exercise
+            target.submit(UnionOf.left(0L));
+            target.submit(UnionOf.left(1L));
+            target.close();
+            //Verify
+            assertThat(consumed).containsExactly(1L);
+            assertThat(target.failedCount()).isEqualTo(1L);
+        }
+
+        @Test
+        void consume_or_drop_every_value_submitted_during_close() throws InterruptedException {
+            //SetUp
+            LongAdder consumed = new LongAdder();
+            AsyncPeeker<Long, String> target = AsyncPeeker.<Long, String>builder(left -> consumed.increment(), right -> {
+            }).capacity(1 << 16).start();
+            CountDownLatch started = new CountDownLatch(4);
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                producers.add(new Thread(() -> {
+                    started.countDown();
+                    for (long i = 0; i < 10_000; i++) {
+                        target.submit(UnionOf.left(i));
+                    }
+                }));
+            }
+            producers.forEach(Thread::start);
+            started.await();
+            //Exercise
+            target.close();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            //Verify
+            assertThat(consumed.sum() + target.droppedCount()).isEqualTo(40_000L);
+        }
+    }
+
+    @Nested
+    class builderTest {
+        @Test
+        void use_thread_factory() {
+            //SetUp
+            AtomicReference<Thread> consumerThread = new AtomicReference<>();
+            //Exercise
+            AsyncPeeker<Long, String> target = AsyncPeeker.<Long, String>builder(left -> consumerThread.set(Thread.currentThread()), right -> {
+                    })
+                    .threadFactory(runnable -> new Thread(runnable, "custom-peeker"))
+                    .start();
+            target.submit(UnionOf.left(1L));
+            target.close();
+            //Verify
+            assertThat(consumerThread.get().getName()).isEqualTo("custom-peeker");
+        }
+
+        @Test
+        void reject_non_positive_batch_size() {
+            //SetUp
+            AsyncPeeker.Builder<Long, String> target = AsyncPeeker.builder(left -> {
+            }, right -> {
+            });
+            //Exercise
+            assertThatThrownBy(() -> target.batchSize(0))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("batchSize must be positive: 0");
+        }
+    }
+
+    private static Consumer<Long> blocking(CountDownLatch consuming, CountDownLatch release, List<Long> consumed) {
+        return left -> {
+            consuming.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            consumed.add(left);
+        };
+    }
+}
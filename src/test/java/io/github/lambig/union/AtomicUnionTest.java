@@ -0,0 +1,186 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AtomicUnionTest {
+
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private static <T> List<T> runConcurrently(Callable<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Nested
+    class compareAndSetTest {
+        @Test
+        void update_only_if_identical() {
+            //SetUp
+            Union<Long, String> initial = UnionOf.left(3L);
+            AtomicUnion<Long, String> target = AtomicUnion.of(initial);
+            //Exercise
+            boolean failed = target.compareAndSet(UnionOf.left(3L), UnionOf.right("abc"));
+            boolean succeeded = target.compareAndSet(initial, UnionOf.right("abc"));
+            //Verify
+            assertThat(failed).isFalse();
+            assertThat(succeeded).isTrue();
+            assertThat(target.get().right()).isEqualTo("abc");
+        }
+    }
+
+    @Nested
+    class updateAndGetTest {
+        @Test
+        void return_updated() {
+            //SetUp
+            AtomicUnion<Long, String> target = AtomicUnion.ofLeft(3L);
+            //Exercise
+            Union<Long, String> actual = target.updateAndGet(union -> union.mapLeft(left -> left + 1));
+            //Verify
+            assertThat(actual.left()).isEqualTo(4L);
+            assertThat(target.get()).isSameAs(actual);
+        }
+    }
+
+    @Nested
+    class updateLeftTest {
+        @Test
+        void keep_right() {
+            //SetUp
+            AtomicUnion<Long, String> target = AtomicUnion.ofRight("abc");
+            //Exercise
+            Union<Long, String> actual = target.updateLeft(left -> left + 1);
+            //Verify
+            assertThat(actual.right()).isEqualTo("abc");
+        }
+
+        @Test
+        void never_lose_update_under_contention() throws Exception {
+            //SetUp
+            AtomicUnion<Long, String> target = AtomicUnion.ofLeft(0L);
+            int iterations = 20_000;
+            //Exercise
+            runConcurrently(() -> {
+                for (int i = 0; i < iterations; i++) {
+                    target.updateLeft(left -> left + 1);
+                }
+                return null;
+            });
+            //Verify
+            assertThat(target.get().left()).isEqualTo((long) THREADS * iterations);
+        }
+    }
+
+    @Nested
+    class updateRightTest {
+        @Test
+        void update_right() {
+            //SetUp
+            AtomicUnion<Long, String> target = AtomicUnion.ofRight("abc");
+            //Exercise
+            Union<Long, String> actual = target.updateRight(right -> right + "d");
+            //Verify
+            assertThat(actual.right()).isEqualTo("abcd");
+        }
+    }
+
+    @Nested
+    class transitionToRightTest {
+        @Test
+        void transit_only_once_under_contention() throws Exception {
+            //SetUp
+            AtomicUnion<Long, String> target = AtomicUnion.ofLeft(3L);
+            //Exercise
+            List<Boolean> actual = runConcurrently(() ->
+                    target.transitionToRight(left -> Thread.currentThread().getName()));
+            //Verify
+            assertThat(actual).containsOnlyOnce(true);
+            assertThat(target.hasRight()).isTrue();
+        }
+    }
+
+    @Nested
+    class transitionToLeftTest {
+        @Test
+        void do_nothing_if_left() {
+            //SetUp
+            AtomicUnion<Long, String> target = AtomicUnion.ofLeft(3L);
+            //Exercise
+            boolean actual = target.transitionToLeft(right -> (long) right.length());
+            //Verify
+            assertThat(actual).isFalse();
+            assertThat(target.get().left()).isEqualTo(3L);
+        }
+    }
+
+    @Nested
+    class getAndSetRightTest {
+        @Test
+        void hand_every_value_over_exactly_once() throws Exception {
+            //SetUp
+            AtomicUnion<Long, Long> target = AtomicUnion.ofLeft(-1L);
+            int iterations = 10_000;
+            AtomicLong sequence = new AtomicLong();
+            //Exercise
+            List<List<Long>> previousValues = runConcurrently(() -> {
+                List<Long> previous = new ArrayList<>();
+                for (int i = 0; i < iterations; i++) {
+                    previous.add(target.getAndSetRight(sequence.getAndIncrement()).asJoined(left -> left, right -> right));
+                }
+                return previous;
+            });
+            //Verify
+            Set<Long> seen = new HashSet<>();
+            previousValues.forEach(seen::addAll);
+            seen.add(target.get().right());
+            assertThat(seen).hasSize(THREADS * iterations + 1);
+        }
+    }
+
+    @Nested
+    class acceptTest {
+        @Test
+        void consume_current_value() {
+            //SetUp
+            AtomicUnion<Long, String> target = AtomicUnion.ofLeft(3L);
+            AtomicLong atomicLong = new AtomicLong();
+            //Exercise
+            target.acceptLeft(atomicLong::addAndGet);
+            target.acceptRight(right -> atomicLong.addAndGet(100));
+            target.accept(atomicLong::addAndGet, right -> atomicLong.addAndGet(100));
+            //Verify
+            assertThat(atomicLong).hasValue(6L);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class ConcurrentUnionSinkTest {
+
+    @Nested
+    class createTest {
+        @Test
+        void reject_non_positive() {
+            //SetUp
+            //Exercise
+            assertThatThrownBy(() -> ConcurrentUnionSink.create(0))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("stripes must be between 1 and 2^16: 0");
+        }
+    }
+
+    @Nested
+    class drainToTest {
+        @Test
+        void partition_by_side_in_order() {
+            //SetUp
+            ConcurrentUnionSink<Long, String> target = ConcurrentUnionSink.create();
+            Stream.<Union<Long, String>>of(UnionOf.left(1L), UnionOf.right("a"), UnionOf.left(2L)).forEach(target);
+            target.addRight("b");
+            List<Long> lefts = new ArrayList<>();
+            List<String> rights = new ArrayList<>();
+            //Exercise
+            target.drainTo(lefts::addAll, rights::addAll);
+            //Verify
+            assertThat(lefts).containsExactly(1L, 2L);
+            assertThat(rights).containsExactly("a", "b");
+        }
+
+        @Test
+        void return_empty_batches_after_drain() {
+            //SetUp
+            ConcurrentUnionSink<Long, String> target = ConcurrentUnionSink.create(1);
+            target.addLeft(1L);
+            target.drainTo(lefts -> {
+            }, rights -> {
+            });
+            List<Long> lefts = new ArrayList<>();
+            List<String> rights = new ArrayList<>();
+            //Exercise
+            target.drainTo(lefts::addAll, rights::addAll);
+            //Verify
+            assertThat(lefts).isEmpty();
+            assertThat(rights).isEmpty();
+        }
+
+        @Test
+        void never_lose_value_while_producers_run() throws Exception {
+            //SetUp
+            ConcurrentUnionSink<Long, Long> target = ConcurrentUnionSink.create(4);
+            int producers = 8;
+            long perProducer = 20_000L;
+            ExecutorService executor = Executors.newFixedThreadPool(producers);
+            List<Future<?>> futures = new ArrayList<>();
+            List<Long> lefts = new ArrayList<>();
+            List<Long> rights = new ArrayList<>();
+            AtomicBoolean running = new AtomicBoolean(true);
+            try {
+                for (int p = 0; p < producers; p++) {
+                    futures.add(executor.submit(() -> {
+                        for (long i = 0; i < perProducer; i++) {
+                            target.accept(i % 2 == 0 ? UnionOf.left(i) : UnionOf.right(i));
+                        }
+                        return null;
+                    }));
+                }
+                //Exercise
+                while (running.get()) {
+                    target.drainTo(lefts::addAll, rights::addAll);
+                    running.set(futures.stream().anyMatch(future -> !future.isDone()));
+                }
+                for (Future<?> future : futures) {
+                    future.get(10, TimeUnit.SECONDS);
+                }
+                target.drainTo(lefts::addAll, rights::addAll);
+            } finally {
+                executor.shutdownNow();
+            }
+            //Verify
+            assertThat(lefts).hasSize((int) (producers * perProducer / 2));
+            assertThat(rights).hasSize((int) (producers * perProducer / 2));
+        }
+    }
+}
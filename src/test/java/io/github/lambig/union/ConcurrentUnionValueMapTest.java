@@ -0,0 +1,86 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class ConcurrentUnionValueMapTest {
+
+    @Nested
+    class putTest {
+        @Test
+        void put_from_many_threads() {
+            //SetUp
+            ConcurrentUnionValueMap<Integer, Integer, String> target = ConcurrentUnionValueMap.create(8, 0);
+            //Exercise
+            CompletableFuture.allOf(IntStream.range(0, 8)
+                    .mapToObj(thread -> CompletableFuture.runAsync(() -> {
+                        for (int i = thread; i < 40_000; i += 8) {
+                            if (i % 5 == 0) {
+                                target.putRight(i, "E" + i);
+                            } else {
+                                target.putLeft(i, i);
+                            }
+                        }
+                    }))
+                    .toArray(CompletableFuture[]::new)).join();
+            //Verify
+            assertThat(target.size()).isEqualTo(40_000);
+            for (int i = 0; i < 40_000; i++) {
+                assertThat(target.<Object>get(i, left -> left, right -> right)).isEqualTo(i % 5 == 0 ? "E" + i : i);
+            }
+        }
+
+        @Test
+        void remove_and_clear() {
+            //SetUp
+            ConcurrentUnionValueMap<String, Integer, String> target = ConcurrentUnionValueMap.create();
+            target.put("a", UnionOf.left(1));
+            target.put("b", UnionOf.right("failed"));
+            //Exercise
+            boolean removed = target.remove("a");
+            //Verify
+            assertThat(removed).isTrue();
+            assertThat(target.containsKey("a")).isFalse();
+            assertThat(target.getUnion("b")).hasValueSatisfying(union -> assertThat(union.right()).isEqualTo("failed"));
+            target.clear();
+            assertThat(target.size()).isZero();
+        }
+
+        @Test
+        void reject_stripes_out_of_range() {
+            //Exercise
+            assertThatThrownBy(() -> ConcurrentUnionValueMap.create(0, 0))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("stripes must be between 1 and 2^16: 0");
+        }
+    }
+
+    @Nested
+    class forEachTest {
+        @Test
+        void visit_all_stripes() {
+            //SetUp
+            ConcurrentUnionValueMap<Integer, Integer, String> target = ConcurrentUnionValueMap.create(4, 100);
+            for (int i = 0; i < 100; i++) {
+                target.putLeft(i, i);
+            }
+            target.putRight(100, "failed");
+            Map<Integer, Object> visited = new HashMap<>();
+            //Exercise
+            target.forEach(visited::put, visited::put);
+            //Verify
+            assertThat(visited).hasSize(101).containsEntry(100, "failed").containsEntry(99, 99);
+            assertThat(target.accept(100, left -> {
+            }, right -> assertThat(right).isEqualTo("failed"))).isTrue();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class DelimitedRecordReaderTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * parses a record of digits as long without String, or returns the record with its offset as error.
+     */
+    private static final RecordParser<Long, String> PARSE_LONG = (record, offset) -> {
+        if (!record.hasRemaining()) {
+            return UnionOf.right("empty@" + offset);
+        }
+        long value = 0;
+        for (int i = record.position(); i < record.limit(); i++) {
+            byte digit = record.get(i);
+            if (digit < '0' || digit > '9') {
+                byte[] bytes = new byte[record.remaining()];
+                record.get(bytes);
+                return UnionOf.right(new String(bytes, StandardCharsets.UTF_8) + "@" + offset);
+            }
+            value = value * 10 + digit - '0';
+        }
+        return UnionOf.left(value);
+    };
+
+    private Path write(String content) throws IOException {
+        return Files.write(this.directory.resolve("records.txt"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Nested
+    class forEachTest {
+        @Test
+        void parse_each_record_in_order() throws IOException {
+            //SetUp
+            Path path = write("12\nab\n\n345");
+            List<Long> lefts = new ArrayList<>();
+            List<String> rights = new ArrayList<>();
+            //Exercise
+            try (DelimitedRecordReader target = DelimitedRecordReader.open(path)) {
+                target.forEach(PARSE_LONG, lefts::add, rights::add);
+            }
+            //Verify
+            assertThat(lefts).containsExactly(12L, 345L);
+            assertThat(rights).containsExactly("ab@3", "empty@6");
+        }
+
+        @Test
+        void ignore_trailing_delimiter() throws IOException {
+            //SetUp
+            Path path = write("1;2;");
+            List<Long> lefts = new ArrayList<>();
+            List<String> rights = new ArrayList<>();
+            //Exercise
+            try (DelimitedRecordReader target = DelimitedRecordReader.open(path, (byte) ';', 16)) {
+                target.forEach(PARSE_LONG, lefts::add, rights::add);
+            }
+            //Verify
+            assertThat(lefts).containsExactly(1L, 2L);
+            assertThat(rights).isEmpty();
+        }
+
+        @Test
+        void read_record_longer_than_buffer() throws IOException {
+            //SetUp
+            String longRecord = IntStream.range(0, 100).mapToObj(i -> "x").collect(Collectors.joining());
+            Path path = write("1\n" + longRecord + "\n2\n");
+            List<Long> lefts = new ArrayList<>();
+            List<String> rights = new ArrayList<>();
+            //Exercise
+            try (DelimitedRecordReader target = DelimitedRecordReader.open(path, (byte) '\n', 4)) {
+                target.forEach(PARSE_LONG, lefts::add, rights::add);
+            }
+            //Verify
+            assertThat(lefts).containsExactly(1L, 2L);
+            assertThat(rights).containsExactly(longRecord + "@2");
+        }
+
+        @Test
+        void read_empty_file() throws IOException {
+            //SetUp
+            Path path = write("");
+            List<Object> all = new ArrayList<>();
+            //Exercise
+            try (DelimitedRecordReader target = DelimitedRecordReader.open(path)) {
+                target.forEach(PARSE_LONG, all::add, all::add);
+            }
+            //Verify
+            assertThat(all).isEmpty();
+        }
+    }
+
+    @Nested
+    class streamTest {
+        @Test
+        void stream_lazily_in_order() throws IOException {
+            //SetUp
+            Path path = write("1\n2\nx\n4\n");
+            List<Long> actual;
+            //Exercise
+            try (DelimitedRecordReader target = DelimitedRecordReader.open(path, (byte) '\n', 2)) {
+                actual = target.stream(PARSE_LONG)
+                        .filter(Union::hasLeft)
+                        .map(Union::left)
+                        .limit(2)
+                        .collect(Collectors.toList());
+            }
+            //Verify
+            assertThat(actual).containsExactly(1L, 2L);
+        }
+
+        @Test
+        void keep_order_in_parallel() throws IOException {
+            //SetUp
+            List<Long> expected = IntStream.range(0, 10_000).mapToObj(Long::valueOf).collect(Collectors.toList());
+            Path path = write(expected.stream().map(String::valueOf).collect(Collectors.joining("\n")));
+            List<Long> actual;
+            //Exercise
+            try (DelimitedRecordReader target = DelimitedRecordReader.open(path, (byte) '\n', 64)) {
+                actual = target.stream(PARSE_LONG).parallel().map(Union::left).collect(Collectors.toList());
+            }
+            //Verify
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    @Nested
+    class forEachParallelTest {
+        @Test
+        void parse_each_record_exactly_once() throws IOException {
+            //SetUp
+            StringBuilder content = new StringBuilder();
+            for (int i = 0; i < 10_000; i++) {
+                content.append(i % 100 == 0 ? "bad" + i : String.valueOf(i)).append('\n');
+            }
+            Path path = write(content.toString());
+            Queue<Long> lefts = new ConcurrentLinkedQueue<>();
+            Queue<String> rights = new ConcurrentLinkedQueue<>();
+            //Exercise
+            try (DelimitedRecordReader target = DelimitedRecordReader.open(path, (byte) '\n', 32)) {
+                target.forEachParallel(PARSE_LONG, lefts::add, rights::add);
+            }
+            //Verify
+            assertThat(lefts).hasSize(9_900).doesNotHaveDuplicates();
+            assertThat(lefts.stream().mapToLong(Long::longValue).sum())
+                    .isEqualTo(IntStream.range(0, 10_000).filter(i -> i % 100 != 0).asLongStream().sum());
+            assertThat(rights).hasSize(100).allMatch(right -> right.startsWith("bad"));
+        }
+    }
+
+    @Nested
+    class openTest {
+        @Test
+        void reject_non_positive_buffer_size() throws IOException {
+            //SetUp
+            Path path = write("1");
+            //Exercise
+            assertThatThrownBy(() -> DelimitedRecordReader.open(path, (byte) '\n', 0))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("bufferSize must be positive: 0");
+        }
+
+        @Test
+        void pass_record_as_buffer_view() throws IOException {
+            //SetUp
+            Path path = write("abc\ndef");
+            List<Integer> remainings = new ArrayList<>();
+            List<Boolean> directs = new ArrayList<>();
+            //Exercise
+            try (DelimitedRecordReader target = DelimitedRecordReader.open(path)) {
+                target.forEach((ByteBuffer record, long offset) -> {
+                    remainings.add(record.remaining());
+                    directs.add(record.isDirect());
+                    return UnionOf.left(offset);
+                }, left -> {
+                }, right -> {
+                });
+            }
+            //Verify
+            assertThat(remainings).containsExactly(3, 3);
+            assertThat(directs).containsOnly(true);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class ExternalPartitionerTest {
+    @TempDir
+    Path directory;
+
+    private long fileCount() throws IOException {
+        try (Stream<Path> paths = Files.walk(this.directory)) {
+            return paths.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static <T> List<T> toList(Iterator<T> iterator) {
+        List<T> values = new ArrayList<>();
+        iterator.forEachRemaining(values::add);
+        return values;
+    }
+
+    @Nested
+    class acceptTest {
+        @Test
+        void partition_in_memory_by_side_and_order() throws IOException {
+            //SetUp
+            List<Object> actual = new ArrayList<>();
+            try (ExternalPartitioner<Long, String> target = ExternalPartitioner.builder(BinaryCodec.longs(), BinaryCodec.utf8())
+                    .leftOrder(Comparator.naturalOrder())
+                    .spillDirectory(directory)
+                    .build()) {
+                Stream.<Union<Long, String>>of(UnionOf.left(3L), UnionOf.right("b"), UnionOf.left(1L), UnionOf.right("a"), UnionOf.left(2L))
+                        .forEach(target);
+                //Exercise
+                target.forEach(actual::add, actual::add);
+                //Verify
+                assertThat(target.leftCount()).isEqualTo(3);
+                assertThat(target.rightCount()).isEqualTo(2);
+                assertThat(target.spilledRunCount()).isZero();
+            }
+            assertThat(actual).containsExactly(1L, 2L, 3L, "b", "a");
+            assertThat(fileCount()).isZero();
+        }
+
+        @Test
+        void spill_runs_of_run_size_and_merge_them() throws IOException {
+            //SetUp
+            Random random = new Random(42);
+            List<Long> values = random.longs(10_000).boxed().collect(Collectors.toList());
+            try (ExternalPartitioner<Long, String> target = ExternalPartitioner.builder(BinaryCodec.longs(), BinaryCodec.utf8())
+                    .leftOrder(Comparator.naturalOrder())
+                    .runSize(1_000)
+                    .spillDirectory(directory)
+                    .build()) {
+                values.forEach(value -> target.accept(UnionOf.left(value)));
+                //Exercise
+                List<Long> actual = toList(target.lefts());
+                //Verify
+                assertThat(target.spilledRunCount()).isEqualTo(10);
+                assertThat(target.mergePassCount()).isZero();
+                assertThat(actual).isEqualTo(values.stream().sorted().collect(Collectors.toList()));
+                assertThat(fileCount()).isZero();
+            }
+        }
+
+        @Test
+        void spill_larger_side_beyond_memory_budget() throws IOException {
+            //SetUp
+            try (ExternalPartitioner<Long, String> target = ExternalPartitioner.builder(BinaryCodec.longs(), BinaryCodec.utf8())
+                    .memoryBudget(1_024)
+                    .spillDirectory(directory)
+                    .build()) {
+                //Exercise
+                for (int i = 0; i < 100; i++) {
+                    target.addLeft((long) i);
+                    target.addRight("r" + i);
+                }
+                //Verify
+                assertThat(target.spilledRunCount()).isPositive();
+                assertThat(fileCount()).isEqualTo(target.spilledRunCount());
+                assertThat(toList(target.lefts())).isEqualTo(LongStream.range(0, 100).boxed().collect(Collectors.toList()));
+                assertThat(toList(target.rights())).hasSize(100).startsWith("r0", "r1").endsWith("r99");
+            }
+        }
+
+        @Test
+        void count_sorting_of_ordered_side_against_memory_budget() throws IOException {
+            //SetUp
+            try (ExternalPartitioner<Long, String> unordered = ExternalPartitioner.builder(BinaryCodec.longs(), BinaryCodec.utf8())
+                    .memoryBudget(1_024)
+                    .spillDirectory(directory)
+                    .build();
+                 ExternalPartitioner<Long, String> target = ExternalPartitioner.builder(BinaryCodec.longs(), BinaryCodec.utf8())
+                         .leftOrder(Comparator.reverseOrder())
+                         .memoryBudget(1_024)
+                         .spillDirectory(directory)
+                         .build()) {
+                //Exercise
+                for (long i = 0; i < 100; i++) {
+                    unordered.addLeft(i);
+                    target.addLeft(i);
+                }
+                //Verify
+                assertThat(unordered.spilledRunCount()).isEqualTo(1);
+                assertThat(target.spilledRunCount()).isEqualTo(3);
+                assertThat(toList(target.lefts())).isEqualTo(LongStream.range(0, 100).map(i -> 99 - i).boxed().collect(Collectors.toList()));
+            }
+        }
+
+        @Test
+        void reject_value_after_reading() throws IOException {
+            //SetUp
+            try (ExternalPartitioner<Long, String> target = ExternalPartitioner.builder(BinaryCodec.longs(), BinaryCodec.utf8()).build()) {
+                target.lefts();
+                //Exercise
+                assertThatThrownBy(() -> target.addRight("late"))
+                        //Verify
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasMessage("ExternalPartitioner is finished");
+            }
+        }
+    }
+
+    @Nested
+    class leftsTest {
+        @Test
+        void merge_in_passes_beyond_fan_in_keeping_arrival_order_of_equal_values() throws IOException {
+            //SetUp
+            Comparator<String> byKey = Comparator.comparing(value -> value.substring(0, 1));
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < 1_000; i++) {
+                values.add((char) ('a' + i * 7 % 5) + ":" + i);
+            }
+            try (ExternalPartitioner<String, Long> target = ExternalPartitioner.builder(BinaryCodec.utf8(), BinaryCodec.longs())
+                    .leftOrder(byKey)
+                    .runSize(10)
+                    .fanIn(3)
+                    .spillDirectory(directory)
+                    .build()) {
+                values.forEach(target::addLeft);
+                //Exercise
+                List<String> actual = toList(target.lefts());
+                //Verify
+                assertThat(target.spilledRunCount()).isEqualTo(100);
+                // 100 -> 34 -> 12 -> 4 -> 2 runs
+                assertThat(target.mergePassCount()).isEqualTo(4);
+                assertThat(actual).isEqualTo(values.stream().sorted(byKey).collect(Collectors.toList()));
+                assertThat(fileCount()).isZero();
+            }
+        }
+
+        @Test
+        void concatenate_runs_without_order() throws IOException {
+            //SetUp
+            try (ExternalPartitioner<Long, String> target = ExternalPartitioner.builder(BinaryCodec.longs(), BinaryCodec.utf8())
+                    .runSize(7)
+                    .fanIn(2)
+                    .spillDirectory(directory)
+                    .build()) {
+                LongStream.range(0, 100).map(i -> 100 - i).forEach(target::addLeft);
+                //Exercise
+                List<Long> actual = toList(target.lefts());
+                //Verify
+                assertThat(target.mergePassCount()).isZero();
+                assertThat(actual).isEqualTo(LongStream.range(0, 100).map(i -> 100 - i).boxed().collect(Collectors.toList()));
+            }
+        }
+
+        @Test
+        void merge_values_larger_than_buffer() throws IOException {
+            //SetUp
+            byte[] large = new byte[20_000];
+            try (ExternalPartitioner<byte[], String> target = ExternalPartitioner.builder(BinaryCodec.bytes(), BinaryCodec.utf8())
+                    .leftOrder(Comparator.comparingInt(value -> value[0]))
+                    .memoryBudget(1)
+                    .spillDirectory(directory)
+                    .build()) {
+                for (byte i = 3; i > 0; i--) {
+                    large[0] = i;
+                    target.addLeft(large.clone());
+                }
+                //Exercise
+                List<byte[]> actual = toList(target.lefts());
+                //Verify
+                assertThat(target.spilledRunCount()).isEqualTo(3);
+                assertThat(actual).extracting(value -> value[0]).containsExactly((byte) 1, (byte) 2, (byte) 3);
+                assertThat(actual).allSatisfy(value -> assertThat(value).hasSize(20_000));
+            }
+        }
+
+        @Test
+        void reject_second_read() throws IOException {
+            //SetUp
+            try (ExternalPartitioner<Long, String> target = ExternalPartitioner.builder(BinaryCodec.longs(), BinaryCodec.utf8()).build()) {
+                target.lefts();
+                //Exercise
+                assertThatThrownBy(target::lefts)
+                        //Verify
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasMessage("left partition is already read");
+            }
+        }
+    }
+
+    @Nested
+    class streamTest {
+        @Test
+        void stream_lefts_then_rights_and_delete_runs_on_close() throws IOException {
+            //SetUp
+            ExternalPartitioner<Long, String> target = ExternalPartitioner.builder(BinaryCodec.longs(), BinaryCodec.utf8())
+                    .leftOrder(Comparator.reverseOrder())
+                    .rightOrder(Comparator.naturalOrder())
+                    .runSize(2)
+                    .spillDirectory(directory)
+                    .build();
+            Stream.<Union<Long, String>>of(UnionOf.right("c"), UnionOf.left(1L), UnionOf.right("a"), UnionOf.left(3L), UnionOf.right("b"), UnionOf.left(2L))
+                    .forEach(target);
+            List<Object> actual = new ArrayList<>();
+            //Exercise
+            try (Stream<Union<Long, String>> stream = target.stream()) {
+                Iterator<Union<Long, String>> iterator = stream.iterator();
+                actual.add(iterator.next().left());
+                assertThat(fileCount()).isPositive();
+                iterator.forEachRemaining(union -> union.accept(actual::add, actual::add));
+            }
+            //Verify
+            assertThat(actual).containsExactly(3L, 2L, 1L, "a", "b", "c");
+            assertThat(fileCount()).isZero();
+            try (Stream<Path> paths = Files.list(directory)) {
+                assertThat(paths.count()).isZero();
+            }
+        }
+    }
+
+    @Nested
+    class builderTest {
+        @Test
+        void reject_fan_in_below_two() {
+            //Exercise
+            assertThatThrownBy(() -> ExternalPartitioner.builder(BinaryCodec.longs(), BinaryCodec.utf8()).fanIn(1))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("fanIn must be at least 2: 1");
+        }
+
+        @Test
+        void reject_non_positive_memory_budget() {
+            //Exercise
+            assertThatThrownBy(() -> ExternalPartitioner.builder(BinaryCodec.longs(), BinaryCodec.utf8()).memoryBudget(0))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("memoryBudget must be positive: 0");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class IndexedUnionListTest {
+
+    private static IndexedUnionList<Integer, String> sample() {
+        return IndexedUnionList.of(Arrays.asList(
+                UnionOf.left(1), UnionOf.right("a"), UnionOf.left(2), UnionOf.right("b"), UnionOf.right("c"), UnionOf.left(3)));
+    }
+
+    @Nested
+    class leftRightTest {
+        @Test
+        void get_kth_value_of_side() {
+            //SetUp
+            IndexedUnionList<Integer, String> target = sample();
+            //Exercise & Verify
+            assertThat(target.left(2)).isEqualTo(3);
+            assertThat(target.right(1)).isEqualTo("b");
+            assertThat(target.rankRight(5)).isEqualTo(3);
+            assertThat(target.rankLeft(5)).isEqualTo(2);
+            assertThat(target.selectRight(2)).isEqualTo(4);
+            assertThat(target.selectLeft(2)).isEqualTo(5);
+            assertThat(target.countLeft()).isEqualTo(3);
+            assertThat(target.countRight()).isEqualTo(3);
+        }
+
+        @Test
+        void reject_rank_beyond_count() {
+            //SetUp
+            IndexedUnionList<Integer, String> target = sample();
+            //Exercise
+            assertThatThrownBy(() -> target.right(3))
+                    //Verify
+                    .isInstanceOf(IndexOutOfBoundsException.class)
+                    .hasMessage("k 3 out of bounds for rights 3");
+        }
+    }
+
+    @Nested
+    class addTest {
+        @Test
+        void index_appended_unions() {
+            //SetUp
+            IndexedUnionList<Integer, String> target = IndexedUnionList.create();
+            //Exercise
+            for (int i = 0; i < 2_000; i++) {
+                target.add(i % 5 == 0 ? UnionOf.right("r" + i) : UnionOf.left(i));
+            }
+            //Verify
+            assertThat(target).hasSize(2_000);
+            assertThat(target.get(1_000).right()).isEqualTo("r1000");
+            assertThat(target.right(200)).isEqualTo("r1000");
+            assertThat(target.left(800)).isEqualTo(1_001);
+        }
+
+        @Test
+        void reject_set() {
+            //SetUp
+            IndexedUnionList<Integer, String> target = sample();
+            //Exercise
+            assertThatThrownBy(() -> target.set(0, UnionOf.right("x")))
+                    //Verify
+                    .isInstanceOf(UnsupportedOperationException.class);
+        }
+    }
+
+    @Nested
+    class leftsRightsTest {
+        @Test
+        void iterate_values_of_side() {
+            //SetUp
+            IndexedUnionList<Integer, String> target = sample();
+            List<Integer> lefts = new ArrayList<>();
+            List<String> rights = new ArrayList<>();
+            //Exercise
+            target.lefts(1).forEachRemaining(lefts::add);
+            target.rights(0).forEachRemaining(rights::add);
+            //Verify
+            assertThat(lefts).containsExactly(2, 3);
+            assertThat(rights).containsExactly("a", "b", "c");
+            assertThat(target.stream().map(union -> union.asJoined(String::valueOf, right -> right)).collect(Collectors.joining()))
+                    .isEqualTo("1a2bc3");
+        }
+    }
+}
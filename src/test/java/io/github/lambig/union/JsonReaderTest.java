@@ -0,0 +1,176 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class JsonReaderTest {
+
+    @Nested
+    class ofCharSequenceTest {
+        @Test
+        void read_nested_values() {
+            //SetUp
+            JsonReader target = JsonReader.of(" {\"id\": -42, \"ratio\": 2.5e-1, \"tags\": [\"a\", true, null, []], \"empty\": {}} ");
+            List<Object> actual = new ArrayList<>();
+            //Exercise
+            target.beginObject();
+            actual.add(target.nextName());
+            actual.add(target.nextLong());
+            actual.add(target.nextName());
+            actual.add(target.nextDouble());
+            actual.add(target.selectName("other", "tags"));
+            target.beginArray();
+            actual.add(target.nextString());
+            actual.add(target.nextBoolean());
+            target.nextNull();
+            target.beginArray();
+            actual.add(target.hasNext());
+            target.endArray();
+            target.endArray();
+            actual.add(target.nextName());
+            target.beginObject();
+            target.endObject();
+            actual.add(target.hasNext());
+            target.endObject();
+            //Verify
+            assertThat(actual).containsExactly("id", -42L, "ratio", 0.25, 1, "a", true, false, "empty", false);
+            assertThat(target.peek()).isEqualTo(JsonToken.END_DOCUMENT);
+        }
+
+        @Test
+        void unescape_string() {
+            //SetUp
+            JsonReader target = JsonReader.of("\"quote\\\" slash\\/ tab\\t \\u3042\"");
+            //Exercise
+            String actual = target.nextString();
+            //Verify
+            assertThat(actual).isEqualTo("quote\" slash/ tab\t \u3042");
+        }
+
+        @Test
+        void read_extreme_longs() {
+            //SetUp
+            JsonReader target = JsonReader.of("[-9223372036854775808, 9223372036854775807, 1e3]");
+            //Exercise
+            target.beginArray();
+            //Verify
+            assertThat(target.nextLong()).isEqualTo(Long.MIN_VALUE);
+            assertThat(target.nextLong()).isEqualTo(Long.MAX_VALUE);
+            assertThat(target.nextLong()).isEqualTo(1000L);
+        }
+
+        @Test
+        void reject_long_overflow() {
+            //SetUp
+            JsonReader target = JsonReader.of("9223372036854775808");
+            //Exercise
+            assertThatThrownBy(target::nextLong)
+                    //Verify
+                    .isInstanceOf(NumberFormatException.class)
+                    .hasMessage("out of range of long: 9223372036854775808");
+        }
+
+        @Test
+        void reject_leading_zeros() {
+            //SetUp
+            JsonReader target = JsonReader.of("[0, -0.5, 01]");
+            target.beginArray();
+            //Exercise
+            assertThat(target.nextLong()).isZero();
+            assertThat(target.nextDouble()).isEqualTo(-0.5);
+            assertThatThrownBy(target::nextLong)
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("malformed JSON at 11: expected '.', 'e' or end of number");
+            assertThatThrownBy(() -> JsonReader.of("-00").nextDouble())
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("malformed JSON at 2: expected '.', 'e' or end of number");
+        }
+
+        @Test
+        void skip_values() {
+            //SetUp
+            JsonReader target = JsonReader.of("{\"skipped\": {\"a\": [1, {\"b\": null}]}, \"kept\": 1}");
+            target.beginObject();
+            //Exercise
+            target.skipValue();
+            //Verify
+            assertThat(target.nextName()).isEqualTo("kept");
+            assertThat(target.nextInt()).isEqualTo(1);
+        }
+
+        @Test
+        void reject_missing_comma() {
+            //SetUp
+            JsonReader target = JsonReader.of("[1 2]");
+            target.beginArray();
+            target.nextLong();
+            //Exercise
+            assertThatThrownBy(target::hasNext)
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("malformed JSON at 3: expected ',' or ']'");
+        }
+
+        @Test
+        void reject_token_of_other_kind() {
+            //SetUp
+            JsonReader target = JsonReader.of("\"text\"");
+            //Exercise
+            assertThatThrownBy(target::nextLong)
+                    //Verify
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("expected NUMBER but was STRING at 0");
+        }
+
+        @Test
+        void reject_trailing_content() {
+            //SetUp
+            JsonReader target = JsonReader.of("1 2");
+            target.nextLong();
+            //Exercise
+            assertThatThrownBy(target::peek)
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("malformed JSON at 2: expected end of document");
+        }
+    }
+
+    @Nested
+    class ofByteBufferTest {
+        @Test
+        void read_utf8_bytes() {
+            //SetUp
+            String value = "caf\u00e9 \u3042 \ud83d\ude00";
+            ByteBuffer buffer = ByteBuffer.wrap(("[\"" + value + "\", 1]").getBytes(StandardCharsets.UTF_8));
+            JsonReader target = JsonReader.of(buffer);
+            //Exercise
+            target.beginArray();
+            String actual = target.nextString();
+            //Verify
+            assertThat(actual).isEqualTo(value);
+            assertThat(target.nextLong()).isEqualTo(1L);
+            assertThat(buffer.position()).isZero();
+        }
+
+        @Test
+        void reset_to_reuse() {
+            //SetUp
+            JsonReader target = JsonReader.of("\"first\"");
+            target.nextString();
+            //Exercise
+            target.reset(ByteBuffer.wrap("[true]".getBytes(StandardCharsets.UTF_8)));
+            //Verify
+            target.beginArray();
+            assertThat(target.nextBoolean()).isTrue();
+        }
+    }
+}
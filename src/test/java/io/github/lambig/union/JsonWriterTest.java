@@ -0,0 +1,123 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class JsonWriterTest {
+
+    @Nested
+    class ofAppendableTest {
+        @Test
+        void write_nested_values() {
+            //SetUp
+            StringBuilder actual = new StringBuilder();
+            JsonWriter target = JsonWriter.of(actual);
+            //Exercise
+            target.beginObject()
+                    .name("id").value(-42L)
+                    .name("ratio").value(0.25)
+                    .name("count").value(3.0)
+                    .name("tags").beginArray().value("a").value(true).nullValue().beginArray().endArray().endArray()
+                    .name("empty").beginObject().endObject()
+                    .endObject();
+            //Verify
+            assertThat(actual).hasToString("{\"id\":-42,\"ratio\":0.25,\"count\":3,\"tags\":[\"a\",true,null,[]],\"empty\":{}}");
+        }
+
+        @Test
+        void escape_string() {
+            //SetUp
+            StringBuilder actual = new StringBuilder();
+            //Exercise
+            JsonWriter.of(actual).value("quote\" back\\ new\nline \u0001 \u2028");
+            //Verify
+            assertThat(actual).hasToString("\"quote\\\" back\\\\ new\\nline \\u0001 \\u2028\"");
+        }
+
+        @Test
+        void write_extreme_longs() {
+            //SetUp
+            StringBuilder actual = new StringBuilder();
+            //Exercise
+            JsonWriter.of(actual).beginArray().value(Long.MIN_VALUE).value(Long.MAX_VALUE).value(0L).endArray();
+            //Verify
+            assertThat(actual).hasToString("[-9223372036854775808,9223372036854775807,0]");
+        }
+
+        @Test
+        void reject_value_without_name_in_object() {
+            //SetUp
+            JsonWriter target = JsonWriter.of(new StringBuilder()).beginObject();
+            //Exercise
+            assertThatThrownBy(() -> target.value(1L))
+                    //Verify
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("name is expected before value in object");
+        }
+
+        @Test
+        void reject_second_top_level_value() {
+            //SetUp
+            JsonWriter target = JsonWriter.of(new StringBuilder()).value(1L);
+            //Exercise
+            assertThatThrownBy(() -> target.value(2L))
+                    //Verify
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("JSON must have only one top-level value");
+        }
+
+        @Test
+        void reject_non_finite_number() {
+            //Exercise
+            assertThatThrownBy(() -> JsonWriter.of(new StringBuilder()).value(Double.NaN))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("JSON number must be finite: NaN");
+        }
+    }
+
+    @Nested
+    class ofByteBufferTest {
+        @Test
+        void write_utf8_bytes() {
+            //SetUp
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+            String value = "caf\u00e9 \u3042 \ud83d\ude00";
+            //Exercise
+            JsonWriter.of(buffer).beginArray().value(value).endArray();
+            //Verify
+            buffer.flip();
+            assertThat(StandardCharsets.UTF_8.decode(buffer).toString()).isEqualTo("[\"" + value + "\"]");
+        }
+
+        @Test
+        void reset_to_reuse() {
+            //SetUp
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            JsonWriter target = JsonWriter.of(buffer).value("first");
+            buffer.clear();
+            //Exercise
+            target.reset(buffer).value(2L);
+            //Verify
+            buffer.flip();
+            assertThat(StandardCharsets.UTF_8.decode(buffer).toString()).isEqualTo("2");
+        }
+
+        @Test
+        void overflow_full_buffer() {
+            //SetUp
+            JsonWriter target = JsonWriter.of(ByteBuffer.allocate(4));
+            //Exercise
+            assertThatThrownBy(() -> target.value("too long"))
+                    //Verify
+                    .isInstanceOf(BufferOverflowException.class);
+        }
+    }
+}
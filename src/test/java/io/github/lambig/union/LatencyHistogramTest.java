@@ -0,0 +1,200 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class LatencyHistogramTest {
+
+    /**
+     * exact below 16, then 8 buckets per power of two.
+     */
+    private static LatencyHistogram small() {
+        return new LatencyHistogram(1 << 20, 4);
+    }
+
+    @Nested
+    class indexOfTest {
+        @Test
+        void count_exactly_below_two_to_precision_bits() {
+            //SetUp
+            LatencyHistogram target = LatencyHistogram.create();
+            //Exercise & Verify
+            for (int value = 0; value < 256; value++) {
+                assertThat(target.indexOf(value)).isEqualTo(value);
+                assertThat(target.lowestValueAt(value)).isEqualTo(value);
+                assertThat(target.highestValueAt(value)).isEqualTo(value);
+            }
+            assertThat(target.indexOf(256)).isEqualTo(256);
+            assertThat(target.indexOf(257)).isEqualTo(256);
+            assertThat(target.indexOf(258)).isEqualTo(257);
+            assertThat(target.lowestValueAt(256)).isEqualTo(256);
+            assertThat(target.highestValueAt(256)).isEqualTo(257);
+        }
+
+        @Test
+        void start_half_buckets_at_each_power_of_two() {
+            //SetUp
+            LatencyHistogram target = small();
+            //Exercise & Verify
+            for (int exponent = 4; exponent < 20; exponent++) {
+                long power = 1L << exponent;
+                int index = 16 + (exponent - 4) * 8;
+                assertThat(target.indexOf(power)).isEqualTo(index);
+                assertThat(target.indexOf(power - 1)).isEqualTo(index - 1);
+                assertThat(target.lowestValueAt(index)).isEqualTo(power);
+                assertThat(target.highestValueAt(index - 1)).isEqualTo(power - 1);
+                assertThat(target.highestValueAt(index + 7)).isEqualTo(power * 2 - 1);
+            }
+        }
+
+        @Test
+        void hold_value_within_bucket_of_relative_width() {
+            //SetUp
+            LatencyHistogram target = small();
+            //Exercise & Verify
+            for (long value = 0; value <= 1 << 20; value += value / 64 + 1) {
+                int index = target.indexOf(value);
+                assertThat(target.lowestValueAt(index)).isLessThanOrEqualTo(value);
+                assertThat(target.highestValueAt(index)).isGreaterThanOrEqualTo(value);
+                assertThat(target.highestValueAt(index) - target.lowestValueAt(index)).isLessThanOrEqualTo(value / 8);
+                assertThat(target.lowestValueAt(index + 1)).isEqualTo(target.highestValueAt(index) + 1);
+            }
+        }
+    }
+
+    @Nested
+    class valueAtPercentileTest {
+        @Test
+        void return_value_of_rank() {
+            //SetUp
+            LatencyHistogram target = LatencyHistogram.create();
+            //Exercise
+            for (int value = 1; value <= 100; value++) {
+                target.record(value);
+            }
+            //Verify
+            assertThat(target.valueAtPercentile(0)).isEqualTo(1);
+            assertThat(target.valueAtPercentile(50)).isEqualTo(50);
+            assertThat(target.valueAtPercentile(50.5)).isEqualTo(51);
+            assertThat(target.valueAtPercentile(99)).isEqualTo(99);
+            assertThat(target.valueAtPercentile(100)).isEqualTo(100);
+        }
+
+        @Test
+        void return_highest_value_of_bucket_capped_by_max() {
+            //SetUp
+            LatencyHistogram target = LatencyHistogram.create();
+            //Exercise
+            target.record(1000);
+            target.record(2000);
+            //Verify
+            assertThat(target.valueAtPercentile(50)).isEqualTo(1003);
+            assertThat(target.valueAtPercentile(100)).isEqualTo(2000);
+        }
+
+        @Test
+        void count_values_above_highest_trackable_as_highest_trackable() {
+            //SetUp
+            LatencyHistogram target = new LatencyHistogram(1000, 8);
+            //Exercise
+            target.record(1 << 20);
+            target.record(1 << 20);
+            //Verify
+            assertThat(target.valueAtPercentile(50)).isEqualTo(1003);
+            assertThat(target.max()).isEqualTo(1 << 20);
+        }
+
+        @Test
+        void return_zero_if_empty() {
+            //Exercise & Verify
+            assertThat(LatencyHistogram.create().valueAtPercentile(99)).isZero();
+        }
+
+        @Test
+        void reject_percentile_out_of_range() {
+            //Exercise
+            assertThatThrownBy(() -> LatencyHistogram.create().valueAtPercentile(100.5))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("percentile must be between 0 and 100: 100.5");
+        }
+    }
+
+    @Nested
+    class addTest {
+        @Test
+        void merge_counts_and_summary() {
+            //SetUp
+            LatencyHistogram target = LatencyHistogram.create();
+            LatencyHistogram other = LatencyHistogram.create();
+            target.record(10);
+            target.record(30);
+            other.record(20);
+            other.record(5000);
+            //Exercise
+            target.add(other);
+            //Verify
+            assertThat(target.count()).isEqualTo(4);
+            assertThat(target.min()).isEqualTo(10);
+            assertThat(target.max()).isEqualTo(5000);
+            assertThat(target.mean()).isEqualTo(1265.0);
+            assertThat(target.valueAtPercentile(50)).isEqualTo(20);
+            assertThat(target.valueAtPercentile(75)).isEqualTo(30);
+            assertThat(other.count()).isEqualTo(2);
+        }
+
+        @Test
+        void keep_min_of_empty_histogram_added() {
+            //SetUp
+            LatencyHistogram target = LatencyHistogram.create();
+            target.record(10);
+            //Exercise
+            target.add(LatencyHistogram.create());
+            //Verify
+            assertThat(target.min()).isEqualTo(10);
+            assertThat(target.count()).isEqualTo(1);
+        }
+
+        @Test
+        void reject_histogram_of_other_precision() {
+            //SetUp
+            LatencyHistogram target = LatencyHistogram.create();
+            //Exercise
+            assertThatThrownBy(() -> target.add(new LatencyHistogram(3_600_000_000_000L, 4)))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("histograms of different precision or range cannot be added");
+        }
+    }
+
+    @Nested
+    class recordCorrectedTest {
+        @Test
+        void record_values_of_requests_not_sent() {
+            //SetUp
+            LatencyHistogram target = LatencyHistogram.create();
+            //Exercise
+            target.recordCorrected(100, 30);
+            //Verify
+            assertThat(target.count()).isEqualTo(3);
+            assertThat(target.min()).isEqualTo(40);
+            assertThat(target.max()).isEqualTo(100);
+            assertThat(target.mean()).isEqualTo(70.0);
+        }
+
+        @Test
+        void record_value_only_within_interval_or_without_correction() {
+            //SetUp
+            LatencyHistogram target = LatencyHistogram.create();
+            //Exercise
+            target.recordCorrected(50, 30);
+            target.recordCorrected(100, 0);
+            //Verify
+            assertThat(target.count()).isEqualTo(2);
+            assertThat(target.min()).isEqualTo(50);
+        }
+    }
+}
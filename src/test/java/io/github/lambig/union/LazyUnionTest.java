@@ -0,0 +1,178 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class LazyUnionTest {
+
+    @Nested
+    class initializeTest {
+        @Test
+        void not_evaluated_on_construction() {
+            //SetUp
+            AtomicInteger calls = new AtomicInteger();
+            //Exercise
+            LazyUnion<Long, String> target = UnionOf.lazy(() -> {
+                calls.incrementAndGet();
+                return UnionOf.left(3L);
+            });
+            //Verify
+            assertThat(target.isEvaluated()).isFalse();
+            assertThat(calls).hasValue(0);
+        }
+
+        @Test
+        void reject_null_supplied() {
+            //SetUp
+            LazyUnion<Long, String> target = UnionOf.lazy(() -> null);
+            //Exercise
+            assertThatThrownBy(target::hasLeft)
+                    //Verify
+                    .isInstanceOf(NullPointerException.class)
+                    .hasMessage("supplier of LazyUnion returned null");
+        }
+    }
+
+    @Nested
+    class evaluateTest {
+        @Test
+        void evaluate_once() {
+            //SetUp
+            AtomicInteger calls = new AtomicInteger();
+            LazyUnion<Long, String> target = UnionOf.lazy(() -> {
+                calls.incrementAndGet();
+                return UnionOf.right("abc");
+            });
+            //Exercise
+            boolean hasLeft = target.hasLeft();
+            String joined = target.asJoined(String::valueOf, string -> string);
+            //Verify
+            assertThat(hasLeft).isFalse();
+            assertThat(joined).isEqualTo("abc");
+            assertThat(target.isEvaluated()).isTrue();
+            assertThat(calls).hasValue(1);
+        }
+
+        @Test
+        void evaluate_once_concurrently() throws Exception {
+            //SetUp
+            AtomicInteger calls = new AtomicInteger();
+            LazyUnion<Long, String> target = UnionOf.lazy(() -> {
+                calls.incrementAndGet();
+                return UnionOf.left(3L);
+            });
+            int threads = 8;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Long>> futures = new ArrayList<>();
+            try {
+                for (int i = 0; i < threads; i++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        return target.left();
+                    }));
+                }
+                //Exercise
+                start.countDown();
+                //Verify
+                for (Future<Long> future : futures) {
+                    assertThat(future.get()).isEqualTo(3L);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            assertThat(calls).hasValue(1);
+        }
+    }
+
+    @Nested
+    class lazyWithDeciderTest {
+        @Test
+        void call_only_decided_side() {
+            //SetUp
+            AtomicInteger rightCalls = new AtomicInteger();
+            LazyUnion<Long, String> target = UnionOf.lazy(
+                    () -> true,
+                    () -> 3L,
+                    () -> {
+                        rightCalls.incrementAndGet();
+                        return "abc";
+                    });
+            //Exercise
+            Long actual = target.left();
+            //Verify
+            assertThat(actual).isEqualTo(3L);
+            assertThat(rightCalls).hasValue(0);
+        }
+    }
+
+    @Nested
+    class peekTest {
+        @Test
+        void stay_lazy_until_terminal_access() {
+            //SetUp
+            AtomicInteger calls = new AtomicInteger();
+            AtomicInteger peeked = new AtomicInteger();
+            LazyUnion<Long, String> target = UnionOf.lazy(() -> {
+                calls.incrementAndGet();
+                return UnionOf.left(3L);
+            });
+            //Exercise
+            Union<Long, String> chained = target
+                    .peekLeft(left -> peeked.incrementAndGet())
+                    .peek(left -> peeked.incrementAndGet(), right -> peeked.addAndGet(100))
+                    .peekRight(right -> peeked.addAndGet(100));
+            //Verify
+            assertThat(calls).hasValue(0);
+            assertThat(peeked).hasValue(0);
+            assertThat(chained.left()).isEqualTo(3L);
+            assertThat(calls).hasValue(1);
+            assertThat(peeked).hasValue(2);
+        }
+
+        @Test
+        void peek_evaluated_eagerly() {
+            //SetUp
+            AtomicInteger peeked = new AtomicInteger();
+            LazyUnion<Long, String> target = UnionOf.lazy(() -> UnionOf.left(3L));
+            target.hasLeft();
+            //Exercise
+            target.peek((left, right) -> peeked.incrementAndGet());
+            //Verify
+            assertThat(peeked).hasValue(1);
+        }
+    }
+
+    @Nested
+    class mapLeftTest {
+        @Test
+        void stay_lazy_until_terminal_access() {
+            //SetUp
+            AtomicInteger calls = new AtomicInteger();
+            LazyUnion<Long, String> target = UnionOf.lazy(() -> {
+                calls.incrementAndGet();
+                return UnionOf.left(3L);
+            });
+            //Exercise
+            Union<String, Integer> mapped = target
+                    .mapLeft(left -> left * 2)
+                    .mapRight(String::length)
+                    .flatMapLeft(left -> UnionOf.left("value:" + left));
+            //Verify
+            assertThat(calls).hasValue(0);
+            assertThat(mapped.left()).isEqualTo("value:6");
+            assertThat(calls).hasValue(1);
+        }
+    }
+}
@@ -218,4 +218,72 @@ class LeftTest {
             assertThat(actual).isEqualTo(3L);
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    class mapLeftTest {
+        @Test
+        void map_value() {
+            //SetUp
+            Union<Long, String> target = UnionOf.left(3L);
+            //Exercise
+            Union<String, String> actual = target.mapLeft(String::valueOf);
+            //Verify
+            assertThat(actual.left()).isEqualTo("3");
+        }
+    }
+
+    @Nested
+    class mapRightTest {
+        @Test
+        void return_self_without_calling_mapper() {
+            //SetUp
+            Union<Long, String> target = UnionOf.left(3L);
+            AtomicLong atomicLong = new AtomicLong(0L);
+            //Exercise
+            Union<Long, Long> actual = target.mapRight(right -> atomicLong.incrementAndGet());
+            //Verify
+            assertThat(actual).isSameAs(target);
+            assertThat(atomicLong).hasValue(0L);
+        }
+    }
+
+    @Nested
+    class bimapTest {
+        @Test
+        void map_value() {
+            //SetUp
+            Union<Long, String> target = UnionOf.left(3L);
+            //Exercise
+            Union<String, Integer> actual = target.bimap(String::valueOf, String::length);
+            //Verify
+            assertThat(actual.left()).isEqualTo("3");
+        }
+    }
+
+    @Nested
+    class flatMapLeftTest {
+        @Test
+        void return_mapped_union() {
+            //SetUp
+            Union<Long, String> target = UnionOf.left(3L);
+            Union<Integer, String> mapped = UnionOf.right("abc");
+            //Exercise
+            Union<Integer, String> actual = target.flatMapLeft(left -> mapped);
+            //Verify
+            assertThat(actual).isSameAs(mapped);
+        }
+    }
+
+    @Nested
+    class flatMapRightTest {
+        @Test
+        void return_self_without_calling_mapper() {
+            //SetUp
+            Union<Long, String> target = UnionOf.left(3L);
+            //Exercise
+            Union<Long, Integer> actual = target.flatMapRight(right -> UnionOf.right(right.length()));
+            //Verify
+            assertThat(actual).isSameAs(target);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class LongUnionArrayTest {
+
+    /**
+     * mixed rows, followed by runs of a single side to take unmasked loops, and a partial last word.
+     */
+    private static List<Union<Long, Long>> sample() {
+        Random random = new Random(38);
+        List<Union<Long, Long>> unions = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            long value = random.nextInt(2_000_001) - 1_000_000;
+            unions.add(random.nextInt(3) == 0 ? UnionOf.right(value) : UnionOf.left(value));
+        }
+        for (int i = 0; i < 200; i++) {
+            unions.add(UnionOf.left((long) i));
+        }
+        for (int i = 0; i < 200; i++) {
+            unions.add(UnionOf.right((long) -i));
+        }
+        unions.add(UnionOf.left(Long.MAX_VALUE));
+        unions.add(UnionOf.right(Long.MIN_VALUE));
+        return unions;
+    }
+
+    @Nested
+    class aggregateTest {
+        @Test
+        void aggregate_same_as_asJoined_loop() {
+            //SetUp
+            List<Union<Long, Long>> unions = sample();
+            //Exercise
+            LongUnionArray target = LongUnionArray.of(unions);
+            //Verify
+            assertThat(target.size()).isEqualTo(unions.size());
+            assertThat(target.countLeft()).isEqualTo((int) unions.stream().filter(Union::hasLeft).count());
+            assertThat(target.countRight()).isEqualTo((int) unions.stream().filter(Union::hasRight).count());
+            assertThat(target.sumLeft()).isEqualTo(unions.stream().mapToLong(union -> union.asJoined(left -> left, right -> 0L)).sum());
+            assertThat(target.sumRight()).isEqualTo(unions.stream().mapToLong(union -> union.asJoined(left -> 0L, right -> right)).sum());
+            assertThat(target.minLeft()).isEqualTo(naive(unions, Union::hasLeft).min());
+            assertThat(target.maxLeft()).hasValue(Long.MAX_VALUE);
+            assertThat(target.minRight()).hasValue(Long.MIN_VALUE);
+            assertThat(target.maxRight()).isEqualTo(naive(unions, Union::hasRight).max());
+        }
+
+        @Test
+        void aggregate_nothing_on_empty_side() {
+            //SetUp
+            LongUnionArray target = LongUnionArray.builder(0).addLeft(3L).addLeft(-4L).build();
+            //Exercise
+            OptionalLong min = target.minRight();
+            //Verify
+            assertThat(min).isEmpty();
+            assertThat(target.maxRight()).isEmpty();
+            assertThat(target.sumRight()).isZero();
+            assertThat(target.countRight()).isZero();
+            assertThat(target.sumLeft()).isEqualTo(-1L);
+        }
+    }
+
+    @Nested
+    class countByValueTest {
+        @Test
+        void count_by_value_per_side() {
+            //SetUp
+            LongUnionArray.Builder builder = LongUnionArray.builder(4);
+            for (int i = 0; i < 130; i++) {
+                builder.addLeft(i % 3);
+                builder.addRight(i % 2);
+            }
+            LongUnionArray target = builder.build();
+            //Exercise
+            long[] lefts = target.countLeftByValue(3);
+            long[] rights = target.countRightByValue(4);
+            //Verify
+            assertThat(lefts).containsExactly(44L, 43L, 43L);
+            assertThat(rights).containsExactly(65L, 65L, 0L, 0L);
+        }
+
+        @Test
+        void reject_value_out_of_range() {
+            //SetUp
+            LongUnionArray target = LongUnionArray.builder(2).addRight(1L).addRight(5L).build();
+            //Exercise
+            assertThatThrownBy(() -> target.countRightByValue(5))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("value 5 at 1 is out of [0, 5)");
+        }
+    }
+
+    @Nested
+    class getTest {
+        @Test
+        void get_union_and_accept() {
+            //SetUp
+            LongUnionArray target = LongUnionArray.builder(1).addLeft(1L).addRight(2L).build();
+            List<String> accepted = new ArrayList<>();
+            //Exercise
+            target.accept(1, left -> accepted.add("L" + left), right -> accepted.add("R" + right));
+            //Verify
+            assertThat(target.get(0).left()).isEqualTo(1L);
+            assertThat(target.get(1).right()).isEqualTo(2L);
+            assertThat(accepted).containsExactly("R2");
+        }
+
+        @Test
+        void reject_index_out_of_range() {
+            //SetUp
+            LongUnionArray target = LongUnionArray.builder(1).addLeft(1L).build();
+            //Exercise
+            assertThatThrownBy(() -> target.get(1))
+                    //Verify
+                    .isInstanceOf(IndexOutOfBoundsException.class)
+                    .hasMessage("index 1 is out of [0, 1)");
+        }
+    }
+
+    private static LongStream naive(List<Union<Long, Long>> unions, Predicate<Union<Long, Long>> side) {
+        return unions.stream().filter(side).mapToLong(union -> union.asJoined(left -> left, right -> right));
+    }
+}
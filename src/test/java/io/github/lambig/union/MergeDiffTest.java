@@ -0,0 +1,167 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class MergeDiffTest {
+
+    @Nested
+    class diffTest {
+        @Test
+        void emit_unmatched_in_key_order() {
+            //SetUp
+            MergeDiff<Integer, String, Integer> target = MergeDiff.of(left -> left, Integer::valueOf, Comparator.<Integer>naturalOrder());
+            List<Integer> lefts = Arrays.asList(1, 2, 4, 6);
+            List<String> rights = Arrays.asList("2", "3", "6", "7");
+            //Exercise
+            Iterator<Union<Integer, String>> actual = target.diff(lefts.iterator(), rights.iterator());
+            //Verify
+            List<String> emitted = new ArrayList<>();
+            actual.forEachRemaining(union -> emitted.add(union.asJoined(left -> "L" + left, right -> "R" + right)));
+            assertThat(emitted).containsExactly("L1", "R3", "L4", "R7");
+        }
+
+        @Test
+        void match_equal_keys_one_to_one() {
+            //SetUp
+            List<String> matched = new ArrayList<>();
+            MergeDiff<Integer, Integer, Integer> target = MergeDiff.<Integer>of(Comparator.naturalOrder())
+                    .onMatched((left, right) -> matched.add(left + "=" + right));
+            //Exercise
+            List<Union<Integer, Integer>> actual = new ArrayList<>();
+            target.diff(Arrays.asList(1, 1, 1, 2).iterator(), Arrays.asList(1, 2, 2).iterator()).forEachRemaining(actual::add);
+            //Verify
+            assertThat(actual).extracting(union -> union.asJoined(left -> "L" + left, right -> "R" + right))
+                    .containsExactly("L1", "L1", "R2");
+            assertThat(matched).containsExactly("1=1", "2=2");
+        }
+
+        @Test
+        void reject_unsorted_input() {
+            //SetUp
+            MergeDiff<Integer, Integer, Integer> target = MergeDiff.of(Comparator.naturalOrder());
+            Iterator<Union<Integer, Integer>> diff = target.diff(Arrays.asList(1, 3, 2).iterator(), Arrays.asList(5).iterator());
+            //Exercise
+            assertThatThrownBy(() -> diff.forEachRemaining(union -> {
+            }))
+                    //Verify
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("left input is not sorted: 2 follows 3");
+        }
+
+        @Test
+        void consume_inputs_lazily() {
+            //SetUp
+            AtomicInteger pulled = new AtomicInteger();
+            Iterator<Integer> lefts = IntStream.range(0, 1_000_000).peek(i -> pulled.incrementAndGet()).boxed().iterator();
+            MergeDiff<Integer, Integer, Integer> target = MergeDiff.of(Comparator.naturalOrder());
+            //Exercise
+            Iterator<Union<Integer, Integer>> actual = target.diff(lefts, Arrays.asList(0, 1).iterator());
+            //Verify
+            assertThat(actual.next().left()).isEqualTo(2);
+            assertThat(pulled.get()).isLessThan(10);
+        }
+    }
+
+    @Nested
+    class forEachTest {
+        @Test
+        void call_either_consumer() {
+            //SetUp
+            MergeDiff<Integer, Integer, Integer> target = MergeDiff.of(Comparator.naturalOrder());
+            List<Integer> lefts = new ArrayList<>();
+            List<Integer> rights = new ArrayList<>();
+            //Exercise
+            target.forEach(Arrays.asList(1, 3, 5).iterator(), Arrays.asList(2, 3, 4).iterator(), lefts::add, rights::add);
+            //Verify
+            assertThat(lefts).containsExactly(1, 5);
+            assertThat(rights).containsExactly(2, 4);
+        }
+    }
+
+    @Nested
+    class forEachBatchTest {
+        @Test
+        void pass_batches() {
+            //SetUp
+            MergeDiff<Integer, Integer, Integer> target = MergeDiff.of(Comparator.naturalOrder());
+            List<List<Integer>> leftBatches = new ArrayList<>();
+            List<List<Integer>> rightBatches = new ArrayList<>();
+            //Exercise
+            target.forEachBatch(
+                    IntStream.range(0, 10).boxed().iterator(),
+                    Arrays.asList(20).iterator(),
+                    4,
+                    leftBatches::add,
+                    rightBatches::add);
+            //Verify
+            assertThat(leftBatches).containsExactly(Arrays.asList(0, 1, 2, 3), Arrays.asList(4, 5, 6, 7), Arrays.asList(8, 9));
+            assertThat(rightBatches).containsExactly(Arrays.asList(20));
+        }
+
+        @Test
+        void reject_non_positive_batch_size() {
+            //SetUp
+            MergeDiff<Integer, Integer, Integer> target = MergeDiff.of(Comparator.naturalOrder());
+            //Exercise
+            assertThatThrownBy(() -> target.forEachBatch(new ArrayList<Integer>().iterator(), new ArrayList<Integer>().iterator(), 0, batch -> {
+            }, batch -> {
+            }))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("batchSize must be positive: 0");
+        }
+    }
+
+    @Nested
+    class forEachParallelTest {
+        @Test
+        void emit_same_records_as_sequential() {
+            //SetUp
+            List<Integer> lefts = IntStream.range(0, 100_000).filter(i -> i % 3 != 0).boxed().collect(Collectors.toList());
+            List<Integer> rights = IntStream.range(0, 100_000).map(i -> i / 2 * 2).filter(i -> i % 5 != 0).boxed().collect(Collectors.toList());
+            AtomicInteger matched = new AtomicInteger();
+            MergeDiff<Integer, Integer, Integer> target = MergeDiff.<Integer>of(Comparator.naturalOrder())
+                    .onMatched((left, right) -> matched.incrementAndGet());
+            List<Integer> expectedLefts = new ArrayList<>();
+            List<Integer> expectedRights = new ArrayList<>();
+            target.forEach(lefts.iterator(), rights.iterator(), expectedLefts::add, expectedRights::add);
+            int expectedMatched = matched.getAndSet(0);
+            Queue<Integer> actualLefts = new ConcurrentLinkedQueue<>();
+            Queue<Integer> actualRights = new ConcurrentLinkedQueue<>();
+            //Exercise
+            target.forEachParallel(lefts, rights, 8, actualLefts::add, actualRights::add);
+            //Verify
+            assertThat(actualLefts).containsExactlyInAnyOrderElementsOf(expectedLefts);
+            assertThat(actualRights).containsExactlyInAnyOrderElementsOf(expectedRights);
+            assertThat(matched).hasValue(expectedMatched);
+        }
+
+        @Test
+        void handle_empty_side() {
+            //SetUp
+            MergeDiff<Integer, Integer, Integer> target = MergeDiff.of(Comparator.naturalOrder());
+            Queue<Integer> actualLefts = new ConcurrentLinkedQueue<>();
+            Queue<Integer> actualRights = new ConcurrentLinkedQueue<>();
+            //Exercise
+            target.forEachParallel(Arrays.asList(1, 2, 3, 4, 5), new ArrayList<>(), 4, actualLefts::add, actualRights::add);
+            //Verify
+            assertThat(actualLefts).containsExactlyInAnyOrder(1, 2, 3, 4, 5);
+            assertThat(actualRights).isEmpty();
+        }
+    }
+}
@@ -218,4 +218,72 @@ class RightTest {
             assertThat(actual).isEqualTo(3L);
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    class mapLeftTest {
+        @Test
+        void return_self_without_calling_mapper() {
+            //SetUp
+            Union<Long, String> target = UnionOf.right("abc");
+            AtomicLong atomicLong = new AtomicLong(0L);
+            //Exercise
+            Union<Long, String> actual = target.mapLeft(left -> atomicLong.incrementAndGet());
+            //Verify
+            assertThat(actual).isSameAs(target);
+            assertThat(atomicLong).hasValue(0L);
+        }
+    }
+
+    @Nested
+    class mapRightTest {
+        @Test
+        void map_value() {
+            //SetUp
+            Union<Long, String> target = UnionOf.right("abc");
+            //Exercise
+            Union<Long, Integer> actual = target.mapRight(String::length);
+            //Verify
+            assertThat(actual.right()).isEqualTo(3);
+        }
+    }
+
+    @Nested
+    class bimapTest {
+        @Test
+        void map_value() {
+            //SetUp
+            Union<Long, String> target = UnionOf.right("abc");
+            //Exercise
+            Union<String, Integer> actual = target.bimap(String::valueOf, String::length);
+            //Verify
+            assertThat(actual.right()).isEqualTo(3);
+        }
+    }
+
+    @Nested
+    class flatMapLeftTest {
+        @Test
+        void return_self_without_calling_mapper() {
+            //SetUp
+            Union<Long, String> target = UnionOf.right("abc");
+            //Exercise
+            Union<Integer, String> actual = target.flatMapLeft(left -> UnionOf.left(left.intValue()));
+            //Verify
+            assertThat(actual).isSameAs(target);
+        }
+    }
+
+    @Nested
+    class flatMapRightTest {
+        @Test
+        void return_mapped_union() {
+            //SetUp
+            Union<Long, String> target = UnionOf.right("abc");
+            Union<Long, Integer> mapped = UnionOf.left(3L);
+            //Exercise
+            Union<Long, Integer> actual = target.flatMapRight(right -> mapped);
+            //Verify
+            assertThat(actual).isSameAs(mapped);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class SamplerTest {
+
+    @Nested
+    class allTest {
+        @Test
+        void sample_every_event() {
+            //SetUp
+            Sampler target = Sampler.all();
+            //Exercise
+            long actual = IntStream.range(0, 10).filter(i -> target.sample()).count();
+            //Verify
+            assertThat(actual).isEqualTo(10L);
+        }
+    }
+
+    @Nested
+    class oneInTest {
+        @Test
+        void sample_one_in_n() {
+            //SetUp
+            Sampler target = Sampler.oneIn(4);
+            //Exercise
+            int[] actual = IntStream.range(0, 10).filter(i -> target.sample()).toArray();
+            //Verify
+            assertThat(actual).containsExactly(0, 4, 8);
+        }
+
+        @Test
+        void count_per_thread() throws InterruptedException {
+            //SetUp
+            Sampler target = Sampler.oneIn(4);
+            target.sample();
+            boolean[] actual = new boolean[2];
+            //Exercise
+            Thread other = new Thread(() -> {
+                actual[0] = target.sample();
+                actual[1] = target.sample();
+            });
+            other.start();
+            other.join();
+            //Verify
+            assertThat(actual).containsExactly(true, false);
+            assertThat(target.sample()).isFalse();
+        }
+
+        @Test
+        void reject_non_positive() {
+            //Exercise
+            assertThatThrownBy(() -> Sampler.oneIn(0))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("n must be positive: 0");
+        }
+    }
+
+    @Nested
+    class atMostOncePerTest {
+        @Test
+        void sample_once_in_interval() {
+            //SetUp
+            Sampler target = Sampler.atMostOncePer(Duration.ofHours(1));
+            //Exercise
+            long actual = IntStream.range(0, 10).filter(i -> target.sample()).count();
+            //Verify
+            assertThat(actual).isEqualTo(1L);
+        }
+
+        @Test
+        void sample_again_after_interval() throws InterruptedException {
+            //SetUp
+            Sampler target = Sampler.atMostOncePer(Duration.ofMillis(5));
+            boolean first = target.sample();
+            Thread.sleep(10);
+            //Exercise
+            boolean actual = target.sample();
+            //Verify
+            assertThat(first).isTrue();
+            assertThat(actual).isTrue();
+        }
+    }
+
+    @Nested
+    class rateLimitedTest {
+        @Test
+        void sample_within_rate() {
+            //SetUp
+            Sampler target = Sampler.rateLimited(0.001);
+            //Exercise
+            long actual = IntStream.range(0, 10).filter(i -> target.sample()).count();
+            //Verify
+            assertThat(actual).isEqualTo(1L);
+        }
+
+        @Test
+        void reject_non_positive() {
+            //Exercise
+            assertThatThrownBy(() -> Sampler.rateLimited(0))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("permitsPerSecond must be positive: 0.0");
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class SharedUnionQueueTest {
+    private static final long PRODUCER_STRIDE = 1_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Producer process: puts count values, every 10th as right "id:i" and others as left id * 10^9 + i.
+     */
+    public static final class Producer {
+        public static void main(String[] args) throws Exception {
+            int id = Integer.parseInt(args[1]);
+            int count = Integer.parseInt(args[2]);
+            try (SharedUnionQueue<Long, String> queue = SharedUnionQueue.open(Paths.get(args[0]), BinaryCodec.longs(), BinaryCodec.utf8())) {
+                for (int i = 0; i < count; i++) {
+                    if (i % 10 == 9) {
+                        queue.putRight(id + ":" + i);
+                    } else {
+                        queue.putLeft(id * PRODUCER_STRIDE + i);
+                    }
+                }
+            }
+        }
+    }
+
+    private static Process startProducer(Path path, int id, int count) throws IOException {
+        return new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                Producer.class.getName(), path.toString(), String.valueOf(id), String.valueOf(count))
+                .inheritIO()
+                .start();
+    }
+
+    @Nested
+    class drainTest {
+        @Test
+        void drain_in_order() throws IOException {
+            //SetUp
+            List<Object> actual = new ArrayList<>();
+            try (SharedUnionQueue<Long, String> target = SharedUnionQueue.create(directory.resolve("queue"), 4, 16, BinaryCodec.longs(), BinaryCodec.utf8())) {
+                target.offerLeft(1L);
+                target.offerRight("failed");
+                target.offer(UnionOf.left(3L));
+                //Exercise
+                int drained = target.drain(actual::add, actual::add, 10);
+                //Verify
+                assertThat(drained).isEqualTo(3);
+                assertThat(target.size()).isZero();
+            }
+            assertThat(actual).containsExactly(1L, "failed", 3L);
+        }
+
+        @Test
+        void reject_offer_to_full_queue() throws IOException {
+            //SetUp
+            try (SharedUnionQueue<Long, String> target = SharedUnionQueue.create(directory.resolve("queue"), 2, 8, BinaryCodec.longs(), BinaryCodec.utf8())) {
+                target.offerLeft(1L);
+                target.offerLeft(2L);
+                //Exercise
+                boolean offered = target.offerLeft(3L);
+                //Verify
+                assertThat(offered).isFalse();
+                assertThat(target.size()).isEqualTo(2);
+            }
+        }
+
+        @Test
+        void skip_value_exceeding_payload_length() throws IOException {
+            //SetUp
+            List<Object> actual = new ArrayList<>();
+            try (SharedUnionQueue<Long, String> target = SharedUnionQueue.create(directory.resolve("queue"), 4, 8, BinaryCodec.longs(), BinaryCodec.utf8())) {
+                //Exercise
+                assertThatThrownBy(() -> target.offerRight("too long to fit"))
+                        //Verify
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessage("encoded value exceeds maxPayloadLength: 8");
+                target.offerRight("fits");
+                target.drain(actual::add, actual::add, 10);
+            }
+            assertThat(actual).containsExactly("fits");
+        }
+
+        @Test
+        void share_values_through_file() throws IOException {
+            //SetUp
+            Path path = directory.resolve("queue");
+            List<Object> actual = new ArrayList<>();
+            try (SharedUnionQueue<Long, String> producer = SharedUnionQueue.create(path, 8, 8, BinaryCodec.longs(), BinaryCodec.utf8());
+                 SharedUnionQueue<Long, String> consumer = SharedUnionQueue.open(path, BinaryCodec.longs(), BinaryCodec.utf8())) {
+                producer.offerLeft(1L);
+                producer.offerRight("a");
+                //Exercise
+                consumer.drain(actual::add, actual::add, 10);
+                //Verify
+                assertThat(consumer.capacity()).isEqualTo(8);
+                assertThat(consumer.maxPayloadLength()).isEqualTo(8);
+            }
+            assertThat(actual).containsExactly(1L, "a");
+        }
+    }
+
+    @Nested
+    class processTest {
+        @Test
+        void drain_values_of_two_producer_processes_in_order() throws Exception {
+            //SetUp
+            Path path = directory.resolve("queue");
+            int count = 200_000;
+            try (SharedUnionQueue<Long, String> target = SharedUnionQueue.create(path, 1024, 16, BinaryCodec.longs(), BinaryCodec.utf8())) {
+                Process first = startProducer(path, 1, count);
+                Process second = startProducer(path, 2, count);
+                try {
+                    long[] nextIndex = new long[3];
+                    long[] rights = new long[3];
+                    int drained = 0;
+                    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+                    //Exercise
+                    while (drained < count * 2 && System.nanoTime() < deadline) {
+                        int batch = target.drain(
+                                left -> {
+                                    int id = (int) (left / PRODUCER_STRIDE);
+                                    assertThat(left % PRODUCER_STRIDE).isEqualTo(nextIndex[id]++);
+                                },
+                                right -> {
+                                    String[] idAndIndex = right.split(":");
+                                    int id = Integer.parseInt(idAndIndex[0]);
+                                    assertThat(Long.parseLong(idAndIndex[1])).isEqualTo(nextIndex[id]++);
+                                    rights[id]++;
+                                },
+                                256);
+                        if (batch == 0) {
+                            Thread.yield();
+                        }
+                        drained += batch;
+                    }
+                    //Verify
+                    assertThat(drained).isEqualTo(count * 2);
+                    assertThat(first.waitFor(30, TimeUnit.SECONDS)).isTrue();
+                    assertThat(second.waitFor(30, TimeUnit.SECONDS)).isTrue();
+                    assertThat(first.exitValue()).isZero();
+                    assertThat(second.exitValue()).isZero();
+                    assertThat(nextIndex).containsExactly(0L, count, count);
+                    assertThat(rights).containsExactly(0L, count / 10, count / 10);
+                } finally {
+                    first.destroyForcibly();
+                    second.destroyForcibly();
+                }
+            }
+        }
+    }
+
+    @Nested
+    class openTest {
+        @Test
+        void reject_other_file() throws IOException {
+            //SetUp
+            Path path = Files.write(directory.resolve("other"), new byte[256]);
+            //Exercise
+            assertThatThrownBy(() -> SharedUnionQueue.open(path, BinaryCodec.longs(), BinaryCodec.utf8()))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("not a shared union queue");
+        }
+
+        @Test
+        void reject_capacity_out_of_range() {
+            //Exercise
+            assertThatThrownBy(() -> SharedUnionQueue.create(directory.resolve("queue"), 0, 8, BinaryCodec.bytes(), BinaryCodec.utf8()))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("capacity must be between 1 and 2^30: 0");
+        }
+    }
+
+    @Nested
+    class binaryCodecTest {
+        @Test
+        void round_trip_values() {
+            //SetUp
+            ByteBuffer buffer = ByteBuffer.allocate(32);
+            //Exercise
+            BinaryCodec.utf8().encode("caf\u00e9", buffer);
+            buffer.flip();
+            //Verify
+            assertThat(BinaryCodec.utf8().decode(buffer)).isEqualTo("caf\u00e9");
+            buffer.clear();
+            BinaryCodec.bytes().encode("ab".getBytes(StandardCharsets.UTF_8), buffer);
+            buffer.flip();
+            assertThat(BinaryCodec.bytes().decode(buffer)).containsExactly('a', 'b');
+        }
+    }
+}
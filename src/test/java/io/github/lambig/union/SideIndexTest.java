@@ -0,0 +1,180 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class SideIndexTest {
+
+    /**
+     * mixed sides, followed by a long run of lefts to cross samples of rights by blocks without rights,
+     * and a partial last block.
+     */
+    private static boolean[] sample() {
+        Random random = new Random(48);
+        boolean[] sides = new boolean[100_000 + 40_000 + 300];
+        for (int i = 0; i < 100_000; i++) {
+            sides[i] = random.nextInt(4) == 0;
+        }
+        for (int i = 140_000; i < sides.length; i++) {
+            sides[i] = random.nextBoolean();
+        }
+        return sides;
+    }
+
+    private static SideIndex indexOf(boolean[] sides) {
+        SideIndex index = SideIndex.create();
+        for (boolean side : sides) {
+            index.add(side);
+        }
+        return index;
+    }
+
+    private static List<Integer> naive(boolean[] sides, boolean right, int fromIndex) {
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = fromIndex; i < sides.length; i++) {
+            if (sides[i] == right) {
+                indexes.add(i);
+            }
+        }
+        return indexes;
+    }
+
+    private static List<Integer> toList(PrimitiveIterator.OfInt iterator) {
+        List<Integer> indexes = new ArrayList<>();
+        iterator.forEachRemaining((int i) -> indexes.add(i));
+        return indexes;
+    }
+
+    @Nested
+    class ofTest {
+        @Test
+        void index_sides_of_unions() {
+            //SetUp
+            List<Union<Integer, String>> unions = Arrays.asList(UnionOf.left(1), UnionOf.right("a"), UnionOf.right("b"), UnionOf.left(2));
+            //Exercise
+            SideIndex target = SideIndex.of(unions);
+            //Verify
+            assertThat(target.size()).isEqualTo(4);
+            assertThat(target.countLeft()).isEqualTo(2);
+            assertThat(target.countRight()).isEqualTo(2);
+            assertThat(target.isRight(1)).isTrue();
+            assertThat(target.isRight(3)).isFalse();
+            assertThat(target.selectRight(1)).isEqualTo(2);
+            assertThat(target.selectLeft(1)).isEqualTo(3);
+        }
+    }
+
+    @Nested
+    class rankTest {
+        @Test
+        void rank_same_as_naive_count() {
+            //SetUp
+            boolean[] sides = sample();
+            SideIndex target = indexOf(sides);
+            int rights = 0;
+            //Exercise & Verify
+            for (int i = 0; i < sides.length; i++) {
+                assertThat(target.rankRight(i)).isEqualTo(rights);
+                assertThat(target.rankLeft(i)).isEqualTo(i - rights);
+                rights += sides[i] ? 1 : 0;
+            }
+            assertThat(target.rankRight(sides.length)).isEqualTo(rights);
+            assertThat(target.countRight()).isEqualTo(rights);
+        }
+
+        @Test
+        void reject_index_beyond_size() {
+            //SetUp
+            SideIndex target = SideIndex.create().add(true);
+            //Exercise
+            assertThatThrownBy(() -> target.rankRight(2))
+                    //Verify
+                    .isInstanceOf(IndexOutOfBoundsException.class)
+                    .hasMessage("index 2 out of bounds for size 1");
+        }
+    }
+
+    @Nested
+    class selectTest {
+        @Test
+        void select_same_as_naive_scan() {
+            //SetUp
+            boolean[] sides = sample();
+            SideIndex target = indexOf(sides);
+            List<Integer> rights = naive(sides, true, 0);
+            List<Integer> lefts = naive(sides, false, 0);
+            //Exercise & Verify
+            for (int k = 0; k < rights.size(); k++) {
+                assertThat(target.selectRight(k)).isEqualTo(rights.get(k));
+            }
+            for (int k = 0; k < lefts.size(); k++) {
+                assertThat(target.selectLeft(k)).isEqualTo(lefts.get(k));
+            }
+        }
+
+        @Test
+        void select_while_appending() {
+            //SetUp
+            SideIndex target = SideIndex.create();
+            //Exercise & Verify
+            for (int i = 0; i < 20_000; i++) {
+                boolean right = i % 3 == 0;
+                target.add(right);
+                assertThat(right ? target.selectRight(target.countRight() - 1) : target.selectLeft(target.countLeft() - 1)).isEqualTo(i);
+            }
+        }
+
+        @Test
+        void reject_rank_beyond_count() {
+            //SetUp
+            SideIndex target = SideIndex.create().add(true).add(false);
+            //Exercise
+            assertThatThrownBy(() -> target.selectRight(1))
+                    //Verify
+                    .isInstanceOf(IndexOutOfBoundsException.class)
+                    .hasMessage("k 1 out of bounds for rights 1");
+        }
+    }
+
+    @Nested
+    class nextTest {
+        @Test
+        void next_same_as_naive_scan() {
+            //SetUp
+            boolean[] sides = sample();
+            SideIndex target = indexOf(sides);
+            //Exercise & Verify
+            for (int from : new int[]{0, 1, 511, 512, 99_999, 100_000, 139_999, sides.length - 1}) {
+                List<Integer> rights = naive(sides, true, from);
+                List<Integer> lefts = naive(sides, false, from);
+                assertThat(target.nextRight(from)).isEqualTo(rights.isEmpty() ? -1 : rights.get(0));
+                assertThat(target.nextLeft(from)).isEqualTo(lefts.isEmpty() ? -1 : lefts.get(0));
+            }
+            assertThat(target.nextRight(sides.length)).isEqualTo(-1);
+        }
+    }
+
+    @Nested
+    class indexesTest {
+        @Test
+        void iterate_same_as_naive_scan() {
+            //SetUp
+            boolean[] sides = sample();
+            SideIndex target = indexOf(sides);
+            //Exercise & Verify
+            for (int from : new int[]{0, 63, 64, 100_001, sides.length - 1, sides.length}) {
+                assertThat(toList(target.rightIndexes(from))).isEqualTo(naive(sides, true, from));
+                assertThat(toList(target.leftIndexes(from))).isEqualTo(naive(sides, false, from));
+            }
+        }
+    }
+}
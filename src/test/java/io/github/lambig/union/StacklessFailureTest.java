@@ -0,0 +1,46 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StacklessFailureTest {
+
+    @Nested
+    class ofTest {
+        @Test
+        void has_no_stack_trace() {
+            //SetUp
+            //Exercise
+            StacklessFailure actual = StacklessFailure.of("abc");
+            //Verify
+            assertThat(actual).hasMessage("abc").hasNoCause();
+            assertThat(actual.getStackTrace()).isEmpty();
+        }
+
+        @Test
+        void ignore_suppressed() {
+            //SetUp
+            StacklessFailure target = StacklessFailure.of("abc");
+            //Exercise
+            target.addSuppressed(new IllegalStateException());
+            //Verify
+            assertThat(target.getSuppressed()).isEmpty();
+        }
+    }
+
+    @Nested
+    class fromTest {
+        @Test
+        void describe_cause() {
+            //SetUp
+            IllegalStateException cause = new IllegalStateException("abc");
+            //Exercise
+            StacklessFailure actual = StacklessFailure.from(cause);
+            //Verify
+            assertThat(actual).hasMessage("java.lang.IllegalStateException: abc").hasCause(cause);
+            assertThat(actual.getStackTrace()).isEmpty();
+        }
+    }
+}
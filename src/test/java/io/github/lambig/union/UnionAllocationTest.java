@@ -0,0 +1,246 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Pins bytes allocated per call of public methods of Union and factories of UnionOf, on warmed-up loops.
+ * Budgets of 0 are guarantees; others are upper bounds of the objects the method is expected to make
+ * (16 bytes per Left, Right, Optional or capturing lambda with compressed oops).
+ * Run alone by ./gradlew allocationTest; the report is written to the file of system property union.allocation.report if set.
+ */
+@Tag("allocation")
+class UnionAllocationTest {
+    private static final Union<String, String> LEFT = UnionOf.left("left");
+    private static final Union<String, String> RIGHT = UnionOf.right("right");
+    private static final Function<String, String> IDENTITY = value -> value;
+    private static final Function<String, Union<String, String>> TO_LEFT = UnionOf::left;
+    private static final Function<String, Union<String, String>> TO_RIGHT = UnionOf::right;
+    private static final BiFunction<String, String, String> FIRST = (left, right) -> left;
+    private static final Consumer<String> IGNORE = value -> {
+    };
+    private static final BiConsumer<String, String> IGNORE_BOTH = (left, right) -> {
+    };
+    private static final CheckedFunction<String, String> CHECKED_IDENTITY = value -> value;
+    private static final Function<Exception, String> FAILURE = Throwable::getMessage;
+    private static final int NOT_APPLICABLE = -1;
+
+    private static final List<String> REPORT = Collections.synchronizedList(new ArrayList<>());
+    private static AsyncPeeker<String, String> peeker;
+
+    private static final class Operation {
+        private final String key;
+        private final long leftBudget;
+        private final long rightBudget;
+        private final Function<Union<String, String>, Object> body;
+
+        private Operation(String key, long leftBudget, long rightBudget, Function<Union<String, String>, Object> body) {
+            this.key = key;
+            this.leftBudget = leftBudget;
+            this.rightBudget = rightBudget;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Instance methods of Union keyed by name/parameterCount, with budgets on Left and on Right.
+     */
+    private static Map<String, Operation> instanceOperations() {
+        Map<String, Operation> operations = new LinkedHashMap<>();
+        Stream.of(
+                new Operation("left/0", 0, NOT_APPLICABLE, Union::left),
+                new Operation("right/0", NOT_APPLICABLE, 0, Union::right),
+                new Operation("hasLeft/0", 0, 0, Union::hasLeft),
+                new Operation("hasRight/0", 0, 0, Union::hasRight),
+                new Operation("leftOptional/0", 16, 0, Union::leftOptional),
+                new Operation("rightOptional/0", 0, 16, Union::rightOptional),
+                new Operation("asJoined/2", 0, 0, union -> union.asJoined(IDENTITY, IDENTITY)),
+                new Operation("asJoined/1", 0, 0, union -> union.asJoined(FIRST)),
+                new Operation("asJoinedOptional/2", 16, 16, union -> union.asJoinedOptional(IDENTITY, IDENTITY)),
+                new Operation("asJoinedOptional/1", 16, 0, union -> union.asJoinedOptional(FIRST)),
+                new Operation("accept/2", 0, 0, union -> {
+                    union.accept(IGNORE, IGNORE);
+                    return union;
+                }),
+                new Operation("accept/1", 0, 0, union -> {
+                    union.accept(IGNORE_BOTH);
+                    return union;
+                }),
+                new Operation("acceptLeft/1", 0, 0, union -> {
+                    union.acceptLeft(IGNORE);
+                    return union;
+                }),
+                new Operation("acceptRight/1", 0, 0, union -> {
+                    union.acceptRight(IGNORE);
+                    return union;
+                }),
+                new Operation("peek/2", 0, 0, union -> union.peek(IGNORE, IGNORE)),
+                new Operation("peek/1", 0, 0, union -> union.peek(IGNORE_BOTH)),
+                new Operation("peekLeft/1", 0, 0, union -> union.peekLeft(IGNORE)),
+                new Operation("peekRight/1", 0, 0, union -> union.peekRight(IGNORE)),
+                new Operation("peekAsync/1", 0, 0, union -> union.peekAsync(peeker)),
+                // new union, and lambda capturing the mapper
+                new Operation("mapLeft/1", 32, 32, union -> union.mapLeft(IDENTITY)),
+                new Operation("mapRight/1", 32, 32, union -> union.mapRight(IDENTITY)),
+                new Operation("bimap/2", 48, 48, union -> union.bimap(IDENTITY, IDENTITY)),
+                // union made by the mapper on the side, or new union of the other side
+                new Operation("flatMapLeft/1", 16, 16, union -> union.flatMapLeft(TO_LEFT)),
+                new Operation("flatMapRight/1", 16, 16, union -> union.flatMapRight(TO_RIGHT)),
+                // lambdas capturing the function and the value, and new union
+                new Operation("attemptLeft/2", 96, 32, union -> union.attemptLeft(CHECKED_IDENTITY, FAILURE)),
+                new Operation("recoverRight/2", 32, 96, union -> union.recoverRight(CHECKED_IDENTITY, FAILURE)))
+                .forEach(operation -> operations.put(operation.key, operation));
+        return operations;
+    }
+
+    /**
+     * Static methods of Union keyed by name/parameterCount, each expected to make one capturing lambda at most.
+     */
+    private static Map<String, Supplier<Object>> staticOperations() {
+        Map<String, Supplier<Object>> operations = new LinkedHashMap<>();
+        operations.put("toJoinedWith/2", () -> Union.toJoinedWith(IDENTITY, IDENTITY));
+        operations.put("toJoinedWith/1", () -> Union.toJoinedWith(FIRST));
+        operations.put("toJoinedOptionalWith/2", () -> Union.toJoinedOptionalWith(IDENTITY, IDENTITY));
+        operations.put("toJoinedOptionalWith/1", () -> Union.toJoinedOptionalWith(FIRST));
+        operations.put("acceptWith/2", () -> Union.acceptWith(IGNORE, IGNORE));
+        operations.put("acceptWith/1", () -> Union.acceptWith(IGNORE_BOTH));
+        operations.put("acceptLeftWith/1", () -> Union.acceptLeftWith(IGNORE));
+        operations.put("acceptRightWith/1", () -> Union.acceptRightWith(IGNORE));
+        operations.put("peekWith/2", () -> Union.peekWith(IGNORE, IGNORE));
+        operations.put("peekWith/1", () -> Union.peekWith(IGNORE_BOTH));
+        operations.put("peekLeftWith/1", () -> Union.peekLeftWith(IGNORE));
+        operations.put("peekRightWith/1", () -> Union.peekRightWith(IGNORE));
+        operations.put("peekAsyncWith/1", () -> Union.peekAsyncWith(peeker));
+        operations.put("mapLeftWith/1", () -> Union.mapLeftWith(IDENTITY));
+        operations.put("mapRightWith/1", () -> Union.mapRightWith(IDENTITY));
+        operations.put("bimapWith/2", () -> Union.bimapWith(IDENTITY, IDENTITY));
+        operations.put("flatMapLeftWith/1", () -> Union.flatMapLeftWith(TO_LEFT));
+        operations.put("flatMapRightWith/1", () -> Union.flatMapRightWith(TO_RIGHT));
+        operations.put("attemptWith/1", () -> Union.<String, String>attemptWith(CHECKED_IDENTITY));
+        operations.put("recoverWith/1", () -> Union.<String>recoverWith(throwable -> "recovered"));
+        return operations;
+    }
+
+    private static long staticBudget(String key) {
+        // the empty chain is shared
+        return key.equals("pipeline/0") ? 0 : 24;
+    }
+
+    @BeforeAll
+    static void startPeeker() {
+        assumeTrue(AllocationMeter.isSupported(), "allocated bytes per thread are not measurable on this JVM");
+        peeker = AsyncPeeker.<String, String>builder(IGNORE, IGNORE).capacity(1024).overflowPolicy(OverflowPolicy.DROP).start();
+    }
+
+    @AfterAll
+    static void writeReport() throws IOException {
+        if (peeker != null) {
+            peeker.close();
+        }
+        String reportPath = System.getProperty("union.allocation.report");
+        if (reportPath == null || REPORT.isEmpty()) {
+            return;
+        }
+        Path path = Paths.get(reportPath);
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-40s %12s %8s", "operation", "bytes/call", "budget"));
+        synchronized (REPORT) {
+            REPORT.stream().sorted().forEach(lines::add);
+        }
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    private static DynamicTest measure(String name, long budget, Runnable operation) {
+        return DynamicTest.dynamicTest(name, () -> {
+            double actual = AllocationMeter.bytesPerCall(operation);
+            REPORT.add(String.format("%-40s %12.2f %8d", name, actual, budget));
+            // below 1 byte per call, allocation is from the measurement itself
+            assertThat(actual).as("bytes per call of %s", name).isLessThanOrEqualTo(budget + 0.5);
+        });
+    }
+
+    @Nested
+    class unionTest {
+        @TestFactory
+        Stream<DynamicTest> allocate_within_budget_on_left_and_right() {
+            return instanceOperations().values().stream().flatMap(operation -> Stream.of(
+                    operation.leftBudget == NOT_APPLICABLE ? null
+                            : measure("Left." + operation.key, operation.leftBudget, () -> AllocationMeter.sink = operation.body.apply(LEFT)),
+                    operation.rightBudget == NOT_APPLICABLE ? null
+                            : measure("Right." + operation.key, operation.rightBudget, () -> AllocationMeter.sink = operation.body.apply(RIGHT)))
+                    .filter(test -> test != null));
+        }
+
+        @TestFactory
+        Stream<DynamicTest> allocate_within_budget_on_static_methods() {
+            Map<String, Supplier<Object>> operations = staticOperations();
+            operations.put("pipeline/0", Union::pipeline);
+            return operations.entrySet().stream().map(entry -> measure(
+                    "Union." + entry.getKey(),
+                    staticBudget(entry.getKey()),
+                    () -> AllocationMeter.sink = entry.getValue().get()));
+        }
+
+        @Test
+        void cover_every_public_method() {
+            //SetUp
+            List<String> covered = new ArrayList<>(instanceOperations().keySet());
+            covered.addAll(staticOperations().keySet());
+            covered.add("pipeline/0");
+            //Exercise
+            List<String> actual = Arrays.stream(Union.class.getDeclaredMethods())
+                    .filter(method -> Modifier.isPublic(method.getModifiers()) && !method.isSynthetic())
+                    .map(UnionAllocationTest::key)
+                    .collect(Collectors.toList());
+            //Verify
+            assertThat(covered).containsExactlyInAnyOrderElementsOf(actual);
+        }
+    }
+
+    @Nested
+    class unionOfTest {
+        @TestFactory
+        Stream<DynamicTest> allocate_within_budget() {
+            return Stream.of(
+                    measure("UnionOf.left/1", 16, () -> AllocationMeter.sink = UnionOf.left("left")),
+                    measure("UnionOf.right/1", 16, () -> AllocationMeter.sink = UnionOf.right("right")),
+                    // anonymous provider capturing the value, and the union it makes
+                    measure("UnionOf.l/1", 32, () -> AllocationMeter.sink = UnionOf.l("left").r()),
+                    measure("UnionOf.r/1", 32, () -> AllocationMeter.sink = UnionOf.r("right").l()));
+        }
+    }
+
+    private static String key(Method method) {
+        return method.getName() + "/" + method.getParameterCount();
+    }
+}
@@ -0,0 +1,254 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class UnionCacheTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(SECOND * 1_000);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    /**
+     * loads negative keys as failures.
+     */
+    private UnionCache.Builder<Integer, String, String> builder() {
+        return UnionCache.<Integer, String, String>builder(key -> {
+                    this.loads.incrementAndGet();
+                    return key < 0 ? UnionOf.right("missing " + key) : UnionOf.left("value " + key);
+                })
+                .segments(1)
+                .nanoClock(this.clock::get);
+    }
+
+    @Nested
+    class getTest {
+        @Test
+        void load_once_and_hit() {
+            //SetUp
+            UnionCache<Integer, String, String> target = builder().build();
+            //Exercise
+            Union<String, String> first = target.get(1);
+            Union<String, String> second = target.get(1);
+            //Verify
+            assertThat(first.left()).isEqualTo("value 1");
+            assertThat(second).isSameAs(first);
+            assertThat(loads).hasValue(1);
+            UnionCache.CacheStats stats = target.stats();
+            assertThat(stats.hitCount()).isEqualTo(1);
+            assertThat(stats.missCount()).isEqualTo(1);
+            assertThat(stats.loadSuccessCount()).isEqualTo(1);
+            assertThat(stats.hitRate()).isEqualTo(0.5);
+        }
+
+        @Test
+        void expire_sides_by_own_ttl() {
+            //SetUp
+            UnionCache<Integer, String, String> target = builder()
+                    .leftExpireAfterWrite(Duration.ofMinutes(1))
+                    .rightExpireAfterWrite(Duration.ofSeconds(5))
+                    .build();
+            target.get(1);
+            target.get(-1);
+            //Exercise
+            clock.addAndGet(SECOND * 5);
+            //Verify
+            assertThat(target.getIfPresent(1)).isPresent();
+            assertThat(target.getIfPresent(-1)).isEmpty();
+            clock.addAndGet(SECOND * 55);
+            assertThat(target.getIfPresent(1)).isEmpty();
+            assertThat(target.size()).isZero();
+        }
+
+        @Test
+        void keep_lefts_when_rights_overflow() {
+            //SetUp
+            UnionCache<Integer, String, String> target = builder().leftMaximumWeight(10).rightMaximumWeight(2).build();
+            for (int i = 0; i < 10; i++) {
+                target.get(i);
+            }
+            //Exercise
+            for (int i = 1; i <= 100; i++) {
+                target.get(-i);
+            }
+            //Verify
+            assertThat(target.size()).isEqualTo(12);
+            assertThat(target.getIfPresent(0)).isPresent();
+            assertThat(target.getIfPresent(-100)).isPresent();
+            assertThat(target.getIfPresent(-98)).isEmpty();
+            assertThat(target.stats().evictionCount()).isEqualTo(98);
+        }
+
+        @Test
+        void protect_entries_hit_twice_from_scan() {
+            //SetUp
+            UnionCache<Integer, String, String> target = builder().leftMaximumWeight(10).build();
+            for (int i = 0; i < 4; i++) {
+                target.get(i);
+                target.get(i);
+            }
+            //Exercise
+            for (int i = 100; i < 200; i++) {
+                target.get(i);
+            }
+            //Verify
+            for (int i = 0; i < 4; i++) {
+                assertThat(target.getIfPresent(i)).isPresent();
+            }
+            assertThat(target.getIfPresent(150)).isEmpty();
+        }
+
+        @Test
+        void weigh_entries() {
+            //SetUp
+            UnionCache<Integer, String, String> target = builder()
+                    .leftMaximumWeight(20)
+                    .leftWeigher((key, value) -> value.length())
+                    .build();
+            //Exercise
+            target.get(1);
+            target.get(2);
+            target.get(3);
+            //Verify
+            assertThat(target.getIfPresent(1)).isEmpty();
+            assertThat(target.getIfPresent(3)).isPresent();
+        }
+
+        @Test
+        void not_cache_failed_load() {
+            //SetUp
+            UnionCache<Integer, String, String> target = UnionCache.<Integer, String, String>builder(key -> {
+                loads.incrementAndGet();
+                throw new IllegalStateException("backend down");
+            }).build();
+            //Exercise
+            assertThatThrownBy(() -> target.get(1))
+                    //Verify
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> target.get(1)).isInstanceOf(CompletionException.class);
+            assertThat(loads).hasValue(2);
+            assertThat(target.stats().loadFailureCount()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    class getAsyncTest {
+        @Test
+        void coalesce_concurrent_misses() throws Exception {
+            //SetUp
+            List<CompletableFuture<Union<String, String>>> pending = new ArrayList<>();
+            UnionCache<Integer, String, String> target = UnionCache.<Integer, String, String>asyncBuilder(key -> {
+                CompletableFuture<Union<String, String>> future = new CompletableFuture<>();
+                synchronized (pending) {
+                    pending.add(future);
+                }
+                return future;
+            }).build();
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<CompletableFuture<Union<String, String>>>> callers = new ArrayList<>();
+            //Exercise
+            for (int i = 0; i < 8; i++) {
+                callers.add(executor.submit(() -> {
+                    start.await();
+                    return target.getAsync(7);
+                }));
+            }
+            start.countDown();
+            List<CompletableFuture<Union<String, String>>> futures = new ArrayList<>();
+            for (Future<CompletableFuture<Union<String, String>>> caller : callers) {
+                futures.add(caller.get());
+            }
+            executor.shutdown();
+            pending.get(0).complete(UnionOf.left("seven"));
+            //Verify
+            assertThat(pending).hasSize(1);
+            for (CompletableFuture<Union<String, String>> future : futures) {
+                assertThat(future.join().left()).isEqualTo("seven");
+            }
+            assertThat(target.getAsync(7).join().left()).isEqualTo("seven");
+            assertThat(target.stats().loadSuccessCount()).isEqualTo(1);
+        }
+
+        @Test
+        void isolate_callers_sharing_a_load() {
+            //SetUp
+            CompletableFuture<Union<String, String>> source = new CompletableFuture<>();
+            UnionCache<Integer, String, String> target = UnionCache.<Integer, String, String>asyncBuilder(key -> source).build();
+            CompletableFuture<Union<String, String>> impatient = target.getAsync(1);
+            CompletableFuture<Union<String, String>> patient = target.getAsync(1);
+            //Exercise
+            impatient.completeExceptionally(new TimeoutException());
+            source.complete(UnionOf.left("one"));
+            //Verify
+            assertThat(patient.join().left()).isEqualTo("one");
+            assertThat(target.getIfPresent(1)).isPresent();
+        }
+
+        @Test
+        void load_again_after_loader_error() {
+            //SetUp
+            AtomicInteger calls = new AtomicInteger();
+            UnionCache<Integer, String, String> target = UnionCache.<Integer, String, String>asyncBuilder(key -> {
+                if (calls.incrementAndGet() == 1) {
+                    throw new StackOverflowError();
+                }
+                return CompletableFuture.completedFuture(UnionOf.left("loaded"));
+            }).build();
+            //Exercise
+            CompletableFuture<Union<String, String>> failed = target.getAsync(1);
+            //Verify
+            assertThat(failed).isCompletedExceptionally();
+            assertThat(target.getAsync(1).join().left()).isEqualTo("loaded");
+            assertThat(target.stats().loadFailureCount()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class invalidateTest {
+        @Test
+        void reload_after_invalidate() {
+            //SetUp
+            UnionCache<Integer, String, String> target = builder().build();
+            target.get(1);
+            target.put(2, UnionOf.right("put"));
+            //Exercise
+            target.invalidate(1);
+            //Verify
+            target.get(1);
+            assertThat(loads).hasValue(2);
+            assertThat(target.get(2).right()).isEqualTo("put");
+            target.invalidateAll();
+            assertThat(target.size()).isZero();
+        }
+    }
+
+    @Nested
+    class builderTest {
+        @Test
+        void reject_non_positive_expiry() {
+            //Exercise
+            assertThatThrownBy(() -> builder().rightExpireAfterWrite(Duration.ZERO))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("rightExpireAfterWrite must be positive: PT0S");
+        }
+    }
+}
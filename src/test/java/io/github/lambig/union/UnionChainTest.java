@@ -0,0 +1,101 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UnionChainTest {
+
+    @Nested
+    class applyTest {
+        @Test
+        void return_same_union_for_empty_chain() {
+            //SetUp
+            Union<Long, String> target = UnionOf.left(3L);
+            //Exercise
+            Union<Long, String> actual = Union.<Long, String>pipeline().apply(target);
+            //Verify
+            assertThat(actual).isSameAs(target);
+        }
+
+        @Test
+        void map_left_through_stages() {
+            //SetUp
+            UnionChain<Long, String, String, Integer> chain = Union.<Long, String>pipeline()
+                    .mapLeft(left -> left * 2)
+                    .mapRight(String::length)
+                    .mapLeft(left -> "value:" + left);
+            //Exercise
+            Union<String, Integer> actual = chain.apply(UnionOf.left(3L));
+            //Verify
+            assertThat(actual.left()).isEqualTo("value:6");
+        }
+
+        @Test
+        void map_right_through_stages() {
+            //SetUp
+            UnionChain<Long, String, String, Integer> chain = Union.<Long, String>pipeline()
+                    .bimap(left -> "value:" + left, String::length)
+                    .mapRight(right -> right * 10);
+            //Exercise
+            Union<String, Integer> actual = chain.apply(UnionOf.right("abc"));
+            //Verify
+            assertThat(actual.right()).isEqualTo(30);
+        }
+
+        @Test
+        void switch_side_by_flatMap() {
+            //SetUp
+            List<String> peeked = new ArrayList<>();
+            UnionChain<String, String, Integer, String> chain = Union.<String, String>pipeline()
+                    .peekLeft(peeked::add)
+                    .flatMapLeft(left -> UnionOf.attempt(() -> Integer.parseInt(left), Exception::getMessage))
+                    .peekRight(peeked::add)
+                    .flatMapRight(right -> right.startsWith("For input") ? UnionOf.left(0) : UnionOf.right(right))
+                    .mapLeft(left -> left + 1);
+            //Exercise
+            Union<Integer, String> parsed = chain.apply(UnionOf.left("3"));
+            Union<Integer, String> recovered = chain.apply(UnionOf.left("abc"));
+            Union<Integer, String> failed = chain.apply(UnionOf.right("failed"));
+            //Verify
+            assertThat(parsed.left()).isEqualTo(4);
+            assertThat(recovered.left()).isEqualTo(1);
+            assertThat(failed.right()).isEqualTo("failed");
+            assertThat(peeked).containsExactly("3", "abc", "For input string: \"abc\"", "failed");
+        }
+
+        @Test
+        void keep_built_chain_unchanged() {
+            //SetUp
+            UnionChain<Long, String, Long, String> base = Union.<Long, String>pipeline().mapLeft(left -> left + 1);
+            //Exercise
+            UnionChain<Long, String, Long, String> extended = base.mapLeft(left -> left * 10);
+            //Verify
+            assertThat(base.apply(UnionOf.left(1L)).left()).isEqualTo(2L);
+            assertThat(extended.apply(UnionOf.left(1L)).left()).isEqualTo(20L);
+        }
+    }
+
+    @Nested
+    class foldTest {
+        @Test
+        void join_result() {
+            //SetUp
+            Function<Union<Long, String>, String> target = Union.<Long, String>pipeline()
+                    .mapLeft(left -> left + 1)
+                    .flatMapLeft(left -> left > 3 ? UnionOf.right("too large") : UnionOf.left(left))
+                    .fold(left -> "left:" + left, right -> "right:" + right);
+            //Exercise
+            String small = target.apply(UnionOf.left(1L));
+            String large = target.apply(UnionOf.left(5L));
+            //Verify
+            assertThat(small).isEqualTo("left:2");
+            assertThat(large).isEqualTo("right:too large");
+        }
+    }
+}
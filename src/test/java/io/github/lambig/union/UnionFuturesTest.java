@@ -0,0 +1,253 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class UnionFuturesTest {
+
+    @Nested
+    class raceTest {
+        @Test
+        void complete_with_left_winner_and_cancel_right() {
+            //SetUp
+            CompletableFuture<Long> left = new CompletableFuture<>();
+            CompletableFuture<String> right = new CompletableFuture<>();
+            CompletableFuture<Union<Long, String>> target = UnionFutures.race(left, right);
+            //Exercise
+            left.complete(3L);
+            //Verify
+            assertThat(target.join().left()).isEqualTo(3L);
+            assertThat(right).isCancelled();
+        }
+
+        @Test
+        void complete_with_right_winner_and_cancel_left() {
+            //SetUp
+            CompletableFuture<Long> left = new CompletableFuture<>();
+            CompletableFuture<String> right = new CompletableFuture<>();
+            CompletableFuture<Union<Long, String>> target = UnionFutures.race(left, right);
+            //Exercise
+            right.complete("abc");
+            //Verify
+            assertThat(target.join().right()).isEqualTo("abc");
+            assertThat(left).isCancelled();
+        }
+
+        @Test
+        void wait_for_other_on_failure() {
+            //SetUp
+            CompletableFuture<Long> left = new CompletableFuture<>();
+            CompletableFuture<String> right = new CompletableFuture<>();
+            CompletableFuture<Union<Long, String>> target = UnionFutures.race(left, right);
+            //Exercise
+            left.completeExceptionally(new IllegalStateException("left failed"));
+            boolean doneAfterFailure = target.isDone();
+            right.complete("abc");
+            //Verify
+            assertThat(doneAfterFailure).isFalse();
+            assertThat(target.join().right()).isEqualTo("abc");
+        }
+
+        @Test
+        void treat_null_value_as_failure() {
+            //SetUp
+            CompletableFuture<Void> left = new CompletableFuture<>();
+            CompletableFuture<String> right = new CompletableFuture<>();
+            CompletableFuture<Union<Void, String>> target = UnionFutures.race(left, right);
+            //Exercise
+            left.complete(null);
+            right.complete("abc");
+            //Verify
+            assertThat(target.join().right()).isEqualTo("abc");
+        }
+
+        @Test
+        void fail_with_first_failure_when_both_fail() {
+            //SetUp
+            CompletableFuture<Long> left = new CompletableFuture<>();
+            CompletableFuture<String> right = new CompletableFuture<>();
+            CompletableFuture<Union<Long, String>> target = UnionFutures.race(left, right);
+            //Exercise
+            right.completeExceptionally(new IllegalStateException("right failed"));
+            left.completeExceptionally(new IllegalStateException("left failed"));
+            //Verify
+            assertThatThrownBy(target::join)
+                    .isInstanceOf(CompletionException.class)
+                    .hasRootCauseMessage("right failed");
+        }
+
+        @Test
+        void cancel_both_on_cancellation() {
+            //SetUp
+            CompletableFuture<Long> left = new CompletableFuture<>();
+            CompletableFuture<String> right = new CompletableFuture<>();
+            CompletableFuture<Union<Long, String>> target = UnionFutures.race(left, right);
+            //Exercise
+            target.cancel(true);
+            //Verify
+            assertThat(left).isCancelled();
+            assertThat(right).isCancelled();
+        }
+    }
+
+    @Nested
+    class hedgeTest {
+        @Test
+        void not_start_hedge_if_primary_completes_in_time() throws InterruptedException {
+            //SetUp
+            CompletableFuture<Long> primary = new CompletableFuture<>();
+            AtomicInteger hedges = new AtomicInteger();
+            CompletableFuture<Union<Long, String>> target = UnionFutures.hedge(
+                    primary,
+                    Duration.ofMillis(50),
+                    () -> {
+                        hedges.incrementAndGet();
+                        return CompletableFuture.completedFuture("hedge");
+                    },
+                    Runnable::run);
+            //Exercise
+            primary.complete(3L);
+            Thread.sleep(100);
+            //Verify
+            assertThat(target.join().left()).isEqualTo(3L);
+            assertThat(hedges).hasValue(0);
+        }
+
+        @Test
+        void start_hedge_after_delay_and_cancel_primary() {
+            //SetUp
+            CompletableFuture<Long> primary = new CompletableFuture<>();
+            //Exercise
+            CompletableFuture<Union<Long, String>> target = UnionFutures.hedge(
+                    primary,
+                    Duration.ofMillis(10),
+                    () -> CompletableFuture.completedFuture("hedge"));
+            //Verify
+            assertThat(target.join().right()).isEqualTo("hedge");
+            // the loser is cancelled by a dependent of the result, which may run after join returns
+            assertThat(primary.handle((value, throwable) -> throwable).join()).isInstanceOf(CancellationException.class);
+        }
+
+        @Test
+        void start_hedge_at_once_on_primary_failure() {
+            //SetUp
+            CompletableFuture<Long> primary = new CompletableFuture<>();
+            CompletableFuture<Union<Long, String>> target = UnionFutures.hedge(
+                    primary,
+                    Duration.ofHours(1),
+                    () -> CompletableFuture.completedFuture("hedge"),
+                    Runnable::run);
+            //Exercise
+            primary.completeExceptionally(new IllegalStateException("primary failed"));
+            //Verify
+            assertThat(target).isCompleted();
+            assertThat(target.join().right()).isEqualTo("hedge");
+        }
+
+        @Test
+        void fail_when_both_fail() {
+            //SetUp
+            CompletableFuture<Long> primary = new CompletableFuture<>();
+            CompletableFuture<Union<Long, String>> target = UnionFutures.hedge(
+                    primary,
+                    Duration.ofHours(1),
+                    () -> {
+                        throw new IllegalStateException("hedge failed");
+                    },
+                    Runnable::run);
+            //Exercise
+            primary.completeExceptionally(new IllegalStateException("primary failed"));
+            //Verify
+            assertThatThrownBy(target::join)
+                    .isInstanceOf(CompletionException.class)
+                    .hasRootCauseMessage("primary failed");
+        }
+    }
+
+    @Nested
+    class withinTest {
+        @Test
+        void complete_with_left_in_time() {
+            //SetUp
+            CompletableFuture<Long> future = new CompletableFuture<>();
+            CompletableFuture<Union<Long, TimeoutException>> target = UnionFutures.within(future, Duration.ofHours(1));
+            //Exercise
+            future.complete(3L);
+            //Verify
+            assertThat(target.join().left()).isEqualTo(3L);
+        }
+
+        @Test
+        void complete_with_timeout_and_cancel_future() {
+            //SetUp
+            CompletableFuture<Long> future = new CompletableFuture<>();
+            //Exercise
+            CompletableFuture<Union<Long, TimeoutException>> target = UnionFutures.within(future, Duration.ofMillis(10));
+            //Verify
+            assertThat(target.join().right()).hasMessage("not completed within PT0.01S");
+            assertThat(future.handle((value, throwable) -> throwable).join()).isInstanceOf(CancellationException.class);
+        }
+
+        @Test
+        void complete_on_executor_on_timeout() throws Exception {
+            //SetUp
+            CompletableFuture<Long> future = new CompletableFuture<>();
+            ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "timeout-executor"));
+            //Exercise
+            CompletableFuture<String> target = UnionFutures.within(future, Duration.ofMillis(10), () -> "fallback", executor)
+                    .thenApply(union -> Thread.currentThread().getName());
+            //Verify
+            assertThat(target.get(10, TimeUnit.SECONDS)).isEqualTo("timeout-executor");
+            executor.shutdown();
+        }
+
+        @Test
+        void fail_on_null_value() {
+            //SetUp
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            CompletableFuture<Union<Void, TimeoutException>> target = UnionFutures.within(future, Duration.ofHours(1));
+            //Exercise
+            future.complete(null);
+            //Verify
+            assertThatThrownBy(target::join)
+                    .isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(NullPointerException.class);
+        }
+
+        @Test
+        void complete_with_supplied_right_on_timeout() {
+            //SetUp
+            CompletableFuture<Long> future = new CompletableFuture<>();
+            //Exercise
+            CompletableFuture<Union<Long, String>> target = UnionFutures.within(future, Duration.ofMillis(10), () -> "fallback");
+            //Verify
+            assertThat(target.join().right()).isEqualTo("fallback");
+        }
+
+        @Test
+        void propagate_failure() {
+            //SetUp
+            CompletableFuture<Long> future = new CompletableFuture<>();
+            CompletableFuture<Union<Long, TimeoutException>> target = UnionFutures.within(future, Duration.ofHours(1));
+            //Exercise
+            future.completeExceptionally(new IllegalStateException("failed"));
+            //Verify
+            assertThatThrownBy(target::join)
+                    .isInstanceOf(CompletionException.class)
+                    .hasRootCauseMessage("failed");
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class UnionHealthTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(SECOND * 1_000);
+
+    private UnionHealth.Builder builder() {
+        return UnionHealth.builder().window(Duration.ofSeconds(10)).buckets(10).nanoClock(this.clock::get);
+    }
+
+    private static void record(UnionHealth target, int lefts, int rights) {
+        for (int i = 0; i < lefts; i++) {
+            target.recordLeft();
+        }
+        for (int i = 0; i < rights; i++) {
+            target.recordRight();
+        }
+    }
+
+    @Nested
+    class windowTest {
+        @Test
+        void count_outcomes_in_window() {
+            //SetUp
+            UnionHealth target = builder().build();
+            //Exercise
+            Stream.<Union<String, String>>of(UnionOf.left("a"), UnionOf.right("x"), UnionOf.left("b"))
+                    .map(Union.peekWith(target.leftRecorder(), target.rightRecorder()))
+                    .forEach(Union.acceptWith(value -> {
+                    }, value -> {
+                    }));
+            clock.addAndGet(SECOND * 3 / 2);
+            target.accept(UnionOf.right("y"));
+            //Verify
+            assertThat(target.lefts()).isEqualTo(2);
+            assertThat(target.rights()).isEqualTo(2);
+            assertThat(target.rightRatio()).isEqualTo(0.5);
+            assertThat(target.rightRate()).isEqualTo(2 / 1.5);
+        }
+
+        @Test
+        void slide_out_old_buckets() {
+            //SetUp
+            UnionHealth target = builder().build();
+            record(target, 5, 1);
+            clock.addAndGet(SECOND * 5);
+            record(target, 2, 3);
+            //Exercise
+            clock.addAndGet(SECOND * 5);
+            //Verify
+            assertThat(target.lefts()).isEqualTo(2);
+            assertThat(target.rights()).isEqualTo(3);
+            assertThat(target.rightRate()).isEqualTo(3.0 / 9);
+            clock.addAndGet(SECOND * 5);
+            assertThat(target.lefts()).isZero();
+            assertThat(target.rightRatio()).isZero();
+        }
+
+        @Test
+        void reuse_slots_after_idle_period() {
+            //SetUp
+            UnionHealth target = builder().build();
+            record(target, 3, 0);
+            clock.addAndGet(SECOND * 100);
+            //Exercise
+            record(target, 1, 1);
+            //Verify
+            assertThat(target.lefts()).isEqualTo(1);
+            assertThat(target.rights()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class isHealthyTest {
+        @Test
+        void turn_unhealthy_and_recover() {
+            //SetUp
+            AtomicInteger unhealthy = new AtomicInteger();
+            AtomicInteger healthy = new AtomicInteger();
+            UnionHealth target = builder()
+                    .minimumCalls(10)
+                    .rightRatioThreshold(0.5)
+                    .onUnhealthy(unhealthy::incrementAndGet)
+                    .onHealthy(healthy::incrementAndGet)
+                    .build();
+            //Exercise
+            record(target, 5, 4);
+            boolean underMinimum = target.isHealthy();
+            record(target, 0, 3);
+            boolean overThreshold = target.isHealthy();
+            clock.addAndGet(SECOND * 10);
+            //Verify
+            assertThat(underMinimum).isTrue();
+            assertThat(overThreshold).isFalse();
+            assertThat(unhealthy).hasValue(1);
+            assertThat(target.isHealthy()).isTrue();
+            assertThat(healthy).hasValue(1);
+        }
+    }
+
+    @Nested
+    class callTest {
+        @Test
+        void short_circuit_while_unhealthy() {
+            //SetUp
+            UnionHealth target = builder().minimumCalls(2).build();
+            Union<String, String> rejection = UnionOf.right("shed");
+            AtomicInteger calls = new AtomicInteger();
+            //Exercise
+            List<Union<String, String>> actual = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                actual.add(target.call(() -> {
+                    calls.incrementAndGet();
+                    return UnionOf.right("failed");
+                }, rejection));
+            }
+            //Verify
+            assertThat(calls).hasValue(2);
+            assertThat(actual.get(1).right()).isEqualTo("failed");
+            assertThat(actual.get(2)).isSameAs(rejection);
+            assertThat(actual.get(3)).isSameAs(rejection);
+            assertThat(target.rights()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    class concurrencyTest {
+        @Test
+        void count_all_outcomes_from_many_threads() throws Exception {
+            //SetUp
+            UnionHealth target = builder().build();
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            List<Future<?>> futures = new ArrayList<>();
+            //Exercise
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> record(target, 20_000 + thread, 10_000)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+            //Verify
+            assertThat(target.lefts()).isEqualTo(80_006);
+            assertThat(target.rights()).isEqualTo(40_000);
+        }
+    }
+
+    @Nested
+    class builderTest {
+        @Test
+        void reject_too_few_buckets() {
+            //Exercise
+            assertThatThrownBy(() -> UnionHealth.builder().buckets(1))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("buckets must be between 2 and 1024: 1");
+        }
+
+        @Test
+        void reject_threshold_out_of_range() {
+            //Exercise
+            assertThatThrownBy(() -> UnionHealth.builder().rightRatioThreshold(0))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("rightRatioThreshold must be in (0, 1]: 0.0");
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class UnionJsonCodecTest {
+    private static final UnionJsonCodec<Long, String> TAGGED = UnionJsonCodec.tagged(JsonCodec.longs(), JsonCodec.strings());
+
+    private static final class Problem {
+        private final int status;
+        private final String title;
+
+        private Problem(int status, String title) {
+            this.status = status;
+            this.title = title;
+        }
+    }
+
+    private static final JsonCodec<Problem> PROBLEM = JsonCodec.of(
+            (problem, writer) -> writer.beginObject().name("status").value(problem.status).name("title").value(problem.title).endObject(),
+            reader -> {
+                int status = 0;
+                String title = null;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName("status", "title")) {
+                        case 0:
+                            status = reader.nextInt();
+                            break;
+                        case 1:
+                            title = reader.nextString();
+                            break;
+                        default:
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                return new Problem(status, title);
+            });
+
+    private static final JsonCodec<Long> PAYLOAD = JsonCodec.of(
+            (id, writer) -> writer.beginObject().name("id").value((long) id).endObject(),
+            reader -> {
+                reader.beginObject();
+                reader.nextName();
+                long id = reader.nextLong();
+                reader.endObject();
+                return id;
+            });
+
+    private static final UnionJsonCodec<Long, Problem> DISCRIMINATED = UnionJsonCodec.discriminated("type", "payload", PAYLOAD, "problem", PROBLEM);
+
+    @Nested
+    class taggedTest {
+        @Test
+        void write_and_read_tagged() {
+            //Exercise
+            String left = TAGGED.toJson(UnionOf.left(1L));
+            String right = TAGGED.toJson(UnionOf.right("not found"));
+            //Verify
+            assertThat(left).isEqualTo("{\"left\":1}");
+            assertThat(right).isEqualTo("{\"right\":\"not found\"}");
+            assertThat(TAGGED.fromJson(left).left()).isEqualTo(1L);
+            assertThat(TAGGED.fromJson(right).right()).isEqualTo("not found");
+        }
+
+        @Test
+        void write_with_names() {
+            //SetUp
+            UnionJsonCodec<Long, String> target = UnionJsonCodec.tagged("ok", JsonCodec.longs(), "error", JsonCodec.strings());
+            //Exercise
+            String actual = target.toJson(UnionOf.right("failed"));
+            //Verify
+            assertThat(actual).isEqualTo("{\"error\":\"failed\"}");
+        }
+
+        @Test
+        void reject_unknown_member() {
+            //Exercise
+            assertThatThrownBy(() -> TAGGED.fromJson("{\"middle\":1}"))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("member of union must be left or right");
+        }
+    }
+
+    @Nested
+    class discriminatedTest {
+        @Test
+        void write_and_read_discriminated() {
+            //Exercise
+            String left = DISCRIMINATED.toJson(UnionOf.left(7L));
+            String right = DISCRIMINATED.toJson(UnionOf.right(new Problem(404, "not found")));
+            //Verify
+            assertThat(left).isEqualTo("{\"type\":\"payload\",\"id\":7}");
+            assertThat(right).isEqualTo("{\"type\":\"problem\",\"status\":404,\"title\":\"not found\"}");
+            assertThat(DISCRIMINATED.fromJson(left).left()).isEqualTo(7L);
+            Problem problem = DISCRIMINATED.fromJson(right).right();
+            assertThat(problem.status).isEqualTo(404);
+            assertThat(problem.title).isEqualTo("not found");
+        }
+
+        @Test
+        void reject_discriminator_not_first() {
+            //Exercise
+            assertThatThrownBy(() -> DISCRIMINATED.fromJson("{\"id\":7,\"type\":\"payload\"}"))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("first member of union must be type");
+        }
+
+        @Test
+        void reject_value_not_object() {
+            //SetUp
+            UnionJsonCodec<Long, String> target = UnionJsonCodec.discriminated("type", "payload", JsonCodec.longs(), "problem", JsonCodec.strings());
+            //Exercise
+            assertThatThrownBy(() -> target.toJson(UnionOf.left(1L)))
+                    //Verify
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("value with discriminator must be an object");
+        }
+    }
+
+    @Nested
+    class arrayTest {
+        @Test
+        void write_and_read_array_through_bytes() {
+            //SetUp
+            List<Union<Long, String>> unions = Arrays.asList(UnionOf.left(1L), UnionOf.right("failed"), UnionOf.left(3L));
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+            //Exercise
+            TAGGED.writeArray(unions, JsonWriter.of(buffer));
+            buffer.flip();
+            //Verify
+            assertThat(StandardCharsets.UTF_8.decode(buffer.duplicate()).toString()).isEqualTo("[{\"left\":1},{\"right\":\"failed\"},{\"left\":3}]");
+            assertThat(TAGGED.readArray(JsonReader.of(buffer))).extracting(union -> union.asJoined(String::valueOf, right -> right))
+                    .containsExactly("1", "failed", "3");
+        }
+
+        @Test
+        void read_array_into_consumers() {
+            //SetUp
+            List<Long> lefts = new ArrayList<>();
+            List<Problem> rights = new ArrayList<>();
+            //Exercise
+            int actual = DISCRIMINATED.readArray(
+                    JsonReader.of("[{\"type\":\"payload\",\"id\":1},{\"type\":\"problem\",\"title\":\"gone\",\"extra\":[1]},{\"type\":\"payload\",\"id\":2}]"),
+                    lefts::add,
+                    rights::add);
+            //Verify
+            assertThat(actual).isEqualTo(3);
+            assertThat(lefts).containsExactly(1L, 2L);
+            assertThat(rights).extracting(problem -> problem.title).containsExactly("gone");
+        }
+    }
+
+    @Nested
+    @Tag("allocation")
+    class allocationTest {
+        @Test
+        void write_and_read_with_reused_buffers_without_allocation() {
+            //SetUp
+            assumeTrue(AllocationMeter.isSupported(), "allocated bytes per thread are not measurable on this JVM");
+            UnionJsonCodec<Boolean, Boolean> target = UnionJsonCodec.tagged("ok", JsonCodec.booleans(), "failed", JsonCodec.booleans());
+            Union<Boolean, Boolean> union = UnionOf.right(true);
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+            JsonWriter writer = JsonWriter.of(buffer);
+            JsonReader reader = JsonReader.of(buffer);
+            Consumer<Boolean> ignore = value -> {
+            };
+            //Exercise
+            double written = AllocationMeter.bytesPerCall(() -> {
+                buffer.clear();
+                target.write(union, writer.reset(buffer));
+                buffer.flip();
+            });
+            double read = AllocationMeter.bytesPerCall(() -> target.read(reader.reset(buffer), ignore, ignore));
+            //Verify
+            assertThat(written).isLessThanOrEqualTo(0.5);
+            assertThat(read).isLessThanOrEqualTo(0.5);
+        }
+    }
+}
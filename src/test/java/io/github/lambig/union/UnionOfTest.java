@@ -3,6 +3,9 @@ package io.github.lambig.union;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.lang.reflect.UndeclaredThrowableException;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
@@ -57,5 +60,113 @@ class UnionOfTest {
         }
     }
 
+    @Nested
+    class attemptTest {
+        @Test
+        void retrieve_left_on_success() {
+            //SetUp
+            //Exercise
+            Union<Integer, Throwable> target = UnionOf.attempt(() -> Integer.parseInt("3"));
+            //Verify
+            assertThat(target.left()).isEqualTo(3);
+        }
+
+        @Test
+        void retrieve_right_on_exception() {
+            //SetUp
+            IOException exception = new IOException("abc");
+            //Exercise
+            Union<Integer, Throwable> target = UnionOf.attempt(() -> {
+                throw exception;
+            });
+            //Verify
+            assertThat(target.right()).isSameAs(exception);
+        }
+
+        @Test
+        void retrieve_right_on_expected_exception() {
+            //SetUp
+            //Exercise
+            Union<Integer, Throwable> target = UnionOf.attempt(() -> Integer.parseInt("abc"), NumberFormatException.class);
+            //Verify
+            assertThat(target.right()).isInstanceOf(NumberFormatException.class);
+        }
+
+        @Test
+        void throw_unexpected_exception() {
+            //SetUp
+            IOException exception = new IOException("abc");
+            //Exercise
+            assertThatThrownBy(() -> UnionOf.attempt(() -> {
+                throw exception;
+            }, NumberFormatException.class))
+                    //Verify
+                    .isInstanceOf(UndeclaredThrowableException.class)
+                    .hasCause(exception);
+        }
+
+        @Test
+        void throw_unexpected_runtime_exception_as_it_is() {
+            //SetUp
+            IllegalStateException exception = new IllegalStateException("abc");
+            //Exercise
+            assertThatThrownBy(() -> UnionOf.attempt(() -> {
+                throw exception;
+            }, IOException.class))
+                    //Verify
+                    .isSameAs(exception);
+        }
 
-}
\ No newline at end of file
+        @Test
+        void map_failure_to_preallocated_value() {
+            //SetUp
+            StacklessFailure invalid = StacklessFailure.of("invalid number");
+            //Exercise
+            Union<Integer, StacklessFailure> target =
+                    UnionOf.attempt(() -> Integer.parseInt("abc"), e -> invalid, NumberFormatException.class);
+            //Verify
+            assertThat(target.right()).isSameAs(invalid);
+        }
+
+        @Test
+        void keep_interrupted_status() {
+            //SetUp
+            //Exercise
+            Union<Integer, Throwable> target = UnionOf.attempt(() -> {
+                throw new InterruptedException();
+            });
+            //Verify
+            assertThat(Thread.interrupted()).isTrue();
+            assertThat(target.right()).isInstanceOf(InterruptedException.class);
+        }
+
+        @Test
+        void keep_interrupted_status_of_unexpected_interruption() {
+            //Exercise
+            assertThatThrownBy(() -> UnionOf.attempt(() -> {
+                throw new InterruptedException();
+            }, NumberFormatException.class))
+                    //Verify
+                    .isInstanceOf(UndeclaredThrowableException.class)
+                    .hasCauseInstanceOf(InterruptedException.class);
+            assertThat(Thread.interrupted()).isTrue();
+        }
+
+        @Test
+        void capture_null_result_as_right() {
+            //SetUp
+            //Exercise
+            Union<Integer, Throwable> target = UnionOf.attempt(() -> null);
+            //Verify
+            assertThat(target.right()).isInstanceOf(NullPointerException.class);
+        }
+
+        @Test
+        void throw_null_result_unless_expected() {
+            //Exercise
+            assertThatThrownBy(() -> UnionOf.attempt(() -> null, NumberFormatException.class))
+                    //Verify
+                    .isInstanceOf(NullPointerException.class);
+        }
+    }
+}
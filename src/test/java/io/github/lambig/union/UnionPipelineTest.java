@@ -0,0 +1,266 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class UnionPipelineTest {
+
+    private static Union<Integer, String> parse(String text) {
+        return text.chars().allMatch(Character::isDigit) ? UnionOf.left(Integer.valueOf(text)) : UnionOf.right("not a number: " + text);
+    }
+
+    private static Union<Integer, String> enrich(Integer number) {
+        return number % 10 == 0 ? UnionOf.right("round: " + number) : UnionOf.left(number * 2);
+    }
+
+    @Nested
+    class submitTest {
+        @Test
+        void pass_lefts_through_stages_and_rights_to_sink() throws InterruptedException {
+            //SetUp
+            List<Integer> persisted = new ArrayList<>();
+            List<String> errors = new ArrayList<>();
+            AtomicInteger enriched = new AtomicInteger();
+            UnionPipeline<String> target = UnionPipeline.<String, String>builder()
+                    .stage("parse", UnionPipelineTest::parse)
+                    .stage("enrich", (Integer number) -> {
+                        enriched.incrementAndGet();
+                        return enrich(number);
+                    })
+                    .batchSize(3)
+                    .start(persisted::add, errors::add);
+            //Exercise
+            for (String text : new String[]{"1", "x", "10", "3", "y", "4", "5"}) {
+                target.submit(text);
+            }
+            target.close();
+            //Verify
+            assertThat(persisted).containsExactly(2, 6, 8, 10);
+            assertThat(errors).containsExactlyInAnyOrder("not a number: x", "not a number: y", "round: 10");
+            assertThat(enriched).hasValue(5);
+        }
+
+        @Test
+        void run_stage_on_threads() throws InterruptedException {
+            //SetUp
+            List<Integer> persisted = new ArrayList<>();
+            List<String> errors = new ArrayList<>();
+            UnionPipeline<String> target = UnionPipeline.<String, String>builder()
+                    .stage("parse", 2, UnionPipelineTest::parse)
+                    .stage("enrich", 4, UnionPipelineTest::enrich)
+                    .batchSize(16)
+                    .start(persisted::add, errors::add);
+            //Exercise
+            for (int i = 0; i < 10_000; i++) {
+                target.submit(String.valueOf(i));
+            }
+            target.close();
+            //Verify
+            assertThat(persisted).containsExactlyInAnyOrderElementsOf(
+                    IntStream.range(0, 10_000).filter(i -> i % 10 != 0).map(i -> i * 2).boxed().collect(Collectors.toList()));
+            assertThat(errors).hasSize(1_000);
+        }
+
+        @Test
+        void block_while_queue_is_full() throws Exception {
+            //SetUp
+            CountDownLatch release = new CountDownLatch(1);
+            List<Integer> persisted = new ArrayList<>();
+            UnionPipeline<Integer> target = UnionPipeline.<Integer, String>builder()
+                    .stage("slow", (Integer number) -> {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return UnionOf.<Integer, String>left(number);
+                    })
+                    .batchSize(1)
+                    .queueCapacity(1)
+                    .start(persisted::add, error -> {
+                    });
+            //Exercise
+            CompletableFuture<Void> submitted = CompletableFuture.runAsync(() -> {
+                try {
+                    for (int i = 0; i < 3; i++) {
+                        target.submit(i);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            Thread.sleep(100);
+            boolean blocked = !submitted.isDone();
+            release.countDown();
+            submitted.get(10, TimeUnit.SECONDS);
+            target.close();
+            //Verify
+            assertThat(blocked).isTrue();
+            assertThat(persisted).containsExactly(0, 1, 2);
+        }
+
+        @Test
+        void reject_submit_after_close() {
+            //SetUp
+            UnionPipeline<String> target = UnionPipeline.<String, String>builder()
+                    .stage("parse", UnionPipelineTest::parse)
+                    .start(number -> {
+                    }, error -> {
+                    });
+            target.close();
+            //Exercise
+            assertThatThrownBy(() -> target.submit("1"))
+                    //Verify
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("UnionPipeline is closed");
+        }
+
+        @Test
+        void reject_flush_after_close() throws InterruptedException {
+            //SetUp
+            List<Integer> persisted = new ArrayList<>();
+            UnionPipeline<String> target = UnionPipeline.<String, String>builder()
+                    .stage("parse", UnionPipelineTest::parse)
+                    .batchSize(10)
+                    .start(persisted::add, error -> {
+                    });
+            target.submit("1");
+            target.close();
+            //Exercise
+            assertThatThrownBy(target::flush)
+                    //Verify
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("UnionPipeline is closed");
+            assertThat(persisted).containsExactly(1);
+        }
+
+        @Test
+        void count_error_as_failed_and_keep_running() throws InterruptedException {
+            //SetUp
+            List<Integer> persisted = new ArrayList<>();
+            UnionPipeline<String> target = UnionPipeline.<String, String>builder()
+                    .stage("parse", (String text) -> {
+                        if (text.equals("deep")) {
+                            throw new StackOverflowError();
+                        }
+                        return parse(text);
+                    })
+                    .batchSize(1)
+                    .start(persisted::add, error -> {
+                    });
+            //Exercise
+            target.submit("1");
+            target.submit("deep");
+            target.submit("2");
+            target.close();
+            //Verify
+            assertThat(persisted).containsExactly(1, 2);
+            assertThat(target.stats().get(0).failedCount()).isEqualTo(1);
+        }
+
+        @Test
+        void fail_fast_after_worker_stopped() throws InterruptedException {
+            //SetUp
+            CountDownLatch stopped = new CountDownLatch(1);
+            UnionPipeline<String> target = UnionPipeline.<String, String>builder()
+                    .stage("parse", (String text) -> {
+                        Thread.currentThread().interrupt();
+                        stopped.countDown();
+                        return parse(text);
+                    })
+                    .batchSize(1)
+                    .queueCapacity(1)
+                    .start(number -> {
+                    }, error -> {
+                    });
+            target.submit("1");
+            stopped.await(10, TimeUnit.SECONDS);
+            //Exercise
+            CompletableFuture<Void> submitted = CompletableFuture.runAsync(() -> {
+                try {
+                    for (int i = 0; i < 100; i++) {
+                        target.submit(String.valueOf(i));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            //Verify
+            assertThatThrownBy(() -> submitted.get(10, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasRootCauseInstanceOf(InterruptedException.class);
+            assertThatThrownBy(target::close)
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("UnionPipeline failed");
+        }
+    }
+
+    @Nested
+    class statsTest {
+        @Test
+        void count_per_stage() throws InterruptedException {
+            //SetUp
+            UnionPipeline<String> target = UnionPipeline.<String, String>builder()
+                    .stage("parse", UnionPipelineTest::parse)
+                    .stage("enrich", (Integer number) -> {
+                        if (number == 7) {
+                            throw new IllegalStateException("unlucky");
+                        }
+                        return enrich(number);
+                    })
+                    .batchSize(2)
+                    .start(number -> {
+                    }, error -> {
+                    });
+            for (String text : new String[]{"1", "x", "7", "10", "3"}) {
+                target.submit(text);
+            }
+            target.close();
+            //Exercise
+            List<UnionPipeline.StageStats> actual = target.stats();
+            //Verify
+            assertThat(actual).extracting(UnionPipeline.StageStats::name).containsExactly("parse", "enrich");
+            assertThat(actual).extracting(UnionPipeline.StageStats::processedCount).containsExactly(5L, 4L);
+            assertThat(actual).extracting(UnionPipeline.StageStats::rightCount).containsExactly(1L, 1L);
+            assertThat(actual).extracting(UnionPipeline.StageStats::failedCount).containsExactly(0L, 1L);
+            assertThat(actual).extracting(UnionPipeline.StageStats::batchCount).containsExactly(3L, 3L);
+            assertThat(actual).extracting(UnionPipeline.StageStats::queueDepth).containsExactly(0, 0);
+            assertThat(actual.get(0).throughput()).isPositive();
+        }
+    }
+
+    @Nested
+    class builderTest {
+        @Test
+        void reject_pipeline_without_stage() {
+            //Exercise
+            assertThatThrownBy(() -> UnionPipeline.<String, String>builder().start(text -> {
+            }, error -> {
+            }))
+                    //Verify
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("UnionPipeline has no stage");
+        }
+
+        @Test
+        void reject_non_positive_threads() {
+            //Exercise
+            assertThatThrownBy(() -> UnionPipeline.<String, String>builder().stage("parse", 0, UnionPipelineTest::parse))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("threads must be positive: 0");
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class UnionQueueTest {
+
+    private static UnionQueue<Long, String> queueOf(String kind, int capacity) {
+        return "mpsc".equals(kind) ? UnionQueue.mpsc(capacity) : UnionQueue.spsc(capacity);
+    }
+
+    @Nested
+    class capacityTest {
+        @Test
+        void round_up_to_power_of_two() {
+            //SetUp
+            //Exercise
+            UnionQueue<Long, String> target = UnionQueue.mpsc(100);
+            //Verify
+            assertThat(target.capacity()).isEqualTo(128);
+        }
+
+        @Test
+        void reject_non_positive() {
+            //SetUp
+            //Exercise
+            assertThatThrownBy(() -> UnionQueue.spsc(0))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("capacity must be between 1 and 2^30: 0");
+        }
+    }
+
+    @Nested
+    class offerTest {
+        @Test
+        void reject_when_full_mpsc() {
+            this.reject_when_full("mpsc");
+        }
+
+        @Test
+        void reject_when_full_spsc() {
+            this.reject_when_full("spsc");
+        }
+
+        private void reject_when_full(String kind) {
+            //SetUp
+            UnionQueue<Long, String> target = queueOf(kind, 2);
+            //Exercise
+            boolean first = target.offerLeft(1L);
+            boolean second = target.offerRight("a");
+            boolean third = target.offer(UnionOf.left(2L));
+            //Verify
+            assertThat(first).isTrue();
+            assertThat(second).isTrue();
+            assertThat(third).isFalse();
+            assertThat(target.size()).isEqualTo(2);
+        }
+    }
+
+    @Nested
+    class drainTest {
+        @Test
+        void dispatch_in_order_up_to_max_mpsc() {
+            this.dispatch_in_order_up_to_max("mpsc");
+        }
+
+        @Test
+        void dispatch_in_order_up_to_max_spsc() {
+            this.dispatch_in_order_up_to_max("spsc");
+        }
+
+        private void dispatch_in_order_up_to_max(String kind) {
+            //SetUp
+            UnionQueue<Long, String> target = queueOf(kind, 4);
+            List<Object> drained = new ArrayList<>();
+            target.offerLeft(1L);
+            target.offerRight("a");
+            target.offerLeft(2L);
+            //Exercise
+            int first = target.drain(drained::add, right -> drained.add("right:" + right), 2);
+            target.offerRight("b");
+            target.offerRight("c");
+            int second = target.drain(drained::add, right -> drained.add("right:" + right), 10);
+            //Verify
+            assertThat(first).isEqualTo(2);
+            assertThat(second).isEqualTo(3);
+            assertThat(drained).containsExactly(1L, "right:a", 2L, "right:b", "right:c");
+            assertThat(target.isEmpty()).isTrue();
+        }
+    }
+
+    @Nested
+    class concurrencyTest {
+        @Test
+        void keep_order_per_producer_with_many_producers() throws Exception {
+            //SetUp
+            int producers = 4;
+            long perProducer = 50_000L;
+            UnionQueue<Long, Long> target = UnionQueue.mpsc(256);
+            ExecutorService executor = Executors.newFixedThreadPool(producers);
+            List<Future<?>> futures = new ArrayList<>();
+            long[] lastSeen = new long[producers];
+            Arrays.fill(lastSeen, -1L);
+            long[] counts = new long[2];
+            try {
+                for (int p = 0; p < producers; p++) {
+                    long producer = p;
+                    futures.add(executor.submit(() -> {
+                        for (long i = 0; i < perProducer; i++) {
+                            long value = producer << 32 | i;
+                            if (i % 2 == 0) {
+                                target.putLeft(value);
+                            } else {
+                                target.putRight(value);
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                //Exercise
+                Consumer<Long> check = value -> {
+                    int producer = (int) (value >>> 32);
+                    long sequence = value & 0xFFFF_FFFFL;
+                    assertThat(sequence).isEqualTo(lastSeen[producer] + 1);
+                    lastSeen[producer] = sequence;
+                };
+                long received = 0;
+                while (received < producers * perProducer) {
+                    received += target.awaitDrain(
+                            left -> {
+                                check.accept(left);
+                                counts[0]++;
+                            },
+                            right -> {
+                                check.accept(right);
+                                counts[1]++;
+                            },
+                            64);
+                }
+                for (Future<?> future : futures) {
+                    future.get(10, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            //Verify
+            assertThat(counts).containsExactly(producers * perProducer / 2, producers * perProducer / 2);
+            assertThat(target.isEmpty()).isTrue();
+        }
+
+        @Test
+        void keep_order_with_single_producer() throws Exception {
+            //SetUp
+            long total = 200_000L;
+            UnionQueue<Long, Long> target = UnionQueue.spsc(128, WaitStrategy.busySpin());
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            long[] next = new long[1];
+            try {
+                Future<?> producer = executor.submit(() -> {
+                    for (long i = 0; i < total; i++) {
+                        if (i % 3 == 0) {
+                            target.putRight(i);
+                        } else {
+                            target.putLeft(i);
+                        }
+                    }
+                    return null;
+                });
+                //Exercise
+                Consumer<Long> check = value -> assertThat(value).isEqualTo(next[0]++);
+                long received = 0;
+                while (received < total) {
+                    received += target.awaitDrain(check, check, 32);
+                }
+                producer.get(10, TimeUnit.SECONDS);
+            } finally {
+                executor.shutdownNow();
+            }
+            //Verify
+            assertThat(next[0]).isEqualTo(total);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class UnionSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    private Path write(List<Union<Long, String>> unions, int blockSize) throws IOException {
+        Path path = this.directory.resolve("snapshot.bin");
+        try (UnionSnapshotWriter<Long, String> writer = UnionSnapshotWriter.create(path, ColumnType.longs(), ColumnType.strings(), blockSize)) {
+            unions.forEach(writer);
+        }
+        return path;
+    }
+
+    private static List<Union<Long, String>> sample(int size) {
+        List<Union<Long, String>> unions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            unions.add(i % 4 == 0 ? UnionOf.right("E" + i % 3) : UnionOf.left(1_000_000L + i));
+        }
+        return unions;
+    }
+
+    @Nested
+    class forEachTest {
+        @Test
+        void read_unions_written() throws IOException {
+            //SetUp
+            List<Union<Long, String>> expected = sample(1_000);
+            Path path = write(expected, 64);
+            List<Union<Long, String>> actual = new ArrayList<>();
+            //Exercise
+            try (UnionSnapshot<Long, String> target = UnionSnapshot.open(path, ColumnType.longs(), ColumnType.strings())) {
+                target.forEach(actual::add);
+            }
+            //Verify
+            assertThat(actual).hasSize(expected.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertThat(actual.get(i).<Object>asJoined(left -> left, right -> right))
+                        .isEqualTo(expected.get(i).<Object>asJoined(left -> left, right -> right));
+                assertThat(actual.get(i).hasLeft()).isEqualTo(expected.get(i).hasLeft());
+            }
+        }
+
+        @Test
+        void skip_blocks_rejected_by_filter() throws IOException {
+            //SetUp
+            List<Union<Long, String>> unions = new ArrayList<>();
+            for (long i = 0; i < 8; i++) {
+                unions.add(UnionOf.left(i));
+            }
+            unions.add(UnionOf.right("only"));
+            Path path = write(unions, 4);
+            List<Object> actual = new ArrayList<>();
+            List<Integer> visited = new ArrayList<>();
+            //Exercise
+            try (UnionSnapshot<Long, String> target = UnionSnapshot.open(path, ColumnType.longs(), ColumnType.strings())) {
+                target.forEach(block -> {
+                    visited.add(block.index());
+                    return block.rightCount() > 0;
+                }, actual::add, actual::add);
+            }
+            //Verify
+            assertThat(visited).containsExactly(0, 1, 2);
+            assertThat(actual).containsExactly("only");
+        }
+    }
+
+    @Nested
+    class blocksTest {
+        @Test
+        void read_counts_from_footer() throws IOException {
+            //SetUp
+            Path path = write(sample(10), 4);
+            //Exercise
+            try (UnionSnapshot<Long, String> target = UnionSnapshot.open(path, ColumnType.longs(), ColumnType.strings())) {
+                //Verify
+                assertThat(target.size()).isEqualTo(10L);
+                assertThat(target.leftCount()).isEqualTo(7L);
+                assertThat(target.rightCount()).isEqualTo(3L);
+                assertThat(target.blocks()).extracting(UnionSnapshot.Block::rowCount).containsExactly(4, 4, 2);
+                assertThat(target.blocks()).extracting(UnionSnapshot.Block::rightCount).containsExactly(1, 1, 1);
+            }
+        }
+
+        @Test
+        void choose_smaller_encoding() throws IOException {
+            //SetUp
+            List<Union<Long, String>> unions = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                unions.add(UnionOf.left(1_000_000L + i));
+                unions.add(UnionOf.right(i % 2 == 0 ? "E1" : "E2"));
+            }
+            for (int i = 0; i < 100; i++) {
+                unions.add(UnionOf.left(i * 0x9E3779B97F4A7C15L));
+                unions.add(UnionOf.right("unique" + i));
+            }
+            Path path = write(unions, 200);
+            //Exercise
+            try (UnionSnapshot<Long, String> target = UnionSnapshot.open(path, ColumnType.longs(), ColumnType.strings())) {
+                //Verify
+                assertThat(target.blocks()).extracting(UnionSnapshot.Block::leftEncoding)
+                        .containsExactly(ColumnEncoding.DELTA, ColumnEncoding.PLAIN);
+                assertThat(target.blocks()).extracting(UnionSnapshot.Block::rightEncoding)
+                        .containsExactly(ColumnEncoding.DICTIONARY, ColumnEncoding.PLAIN);
+            }
+        }
+
+        @Test
+        void use_fixed_encoding() throws IOException {
+            //SetUp
+            Path path = directory.resolve("fixed.bin");
+            try (UnionSnapshotWriter<Long, String> writer = UnionSnapshotWriter.create(
+                    path,
+                    ColumnType.longs(ColumnEncoding.PLAIN),
+                    ColumnType.strings(ColumnEncoding.DICTIONARY))) {
+                writer.writeLeft(1L);
+                writer.writeRight("a");
+                writer.writeLeft(2L);
+            }
+            List<Object> actual = new ArrayList<>();
+            //Exercise
+            try (UnionSnapshot<Long, String> target = UnionSnapshot.open(path, ColumnType.longs(), ColumnType.strings())) {
+                target.forEach(actual::add, actual::add);
+                //Verify
+                assertThat(target.blocks().get(0).leftEncoding()).isEqualTo(ColumnEncoding.PLAIN);
+                assertThat(target.blocks().get(0).rightEncoding()).isEqualTo(ColumnEncoding.DICTIONARY);
+            }
+            assertThat(actual).containsExactly(1L, "a", 2L);
+        }
+    }
+
+    @Nested
+    class visitTest {
+        @Test
+        void sum_left_longs_without_boxing() throws IOException {
+            //SetUp
+            List<Union<Long, String>> unions = sample(1_000);
+            Path path = write(unions, 100);
+            long expected = unions.stream().filter(Union::hasLeft).mapToLong(Union::left).sum();
+            AtomicLong actual = new AtomicLong();
+            //Exercise
+            try (UnionSnapshot<Long, String> target = UnionSnapshot.open(path, ColumnType.longs(), ColumnType.strings())) {
+                target.visitLeftLongs(actual::addAndGet);
+            }
+            //Verify
+            assertThat(actual).hasValue(expected);
+        }
+
+        @Test
+        void count_right_strings_by_code() throws IOException {
+            //SetUp
+            List<Union<Long, String>> unions = sample(1_000);
+            Path path = write(unions, 100);
+            Map<String, Long> expected = unions.stream().filter(Union::hasRight)
+                    .collect(Collectors.groupingBy(Union::right, Collectors.counting()));
+            Map<String, Long> actual = new HashMap<>();
+            //Exercise
+            try (UnionSnapshot<Long, String> target = UnionSnapshot.open(path, ColumnType.longs(), ColumnType.strings())) {
+                target.visitRightStrings(utf8 -> actual.merge(StandardCharsets.UTF_8.decode(utf8).toString(), 1L, Long::sum));
+            }
+            //Verify
+            assertThat(actual).isEqualTo(expected);
+        }
+
+        @Test
+        void reject_visitor_of_other_type() throws IOException {
+            //SetUp
+            Path path = write(sample(10), 4);
+            //Exercise
+            try (UnionSnapshot<Long, String> target = UnionSnapshot.open(path, ColumnType.longs(), ColumnType.strings())) {
+                assertThatThrownBy(() -> target.visitRightLongs(value -> {
+                }))
+                        //Verify
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasMessage("column of strings has no long values");
+            }
+        }
+    }
+
+    @Nested
+    class openTest {
+        @Test
+        void reject_other_column_types() throws IOException {
+            //SetUp
+            Path path = write(sample(10), 4);
+            //Exercise
+            assertThatThrownBy(() -> UnionSnapshot.open(path, ColumnType.strings(), ColumnType.strings()))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageEndingWith("are longs and strings, not strings and strings");
+        }
+
+        @Test
+        void reject_other_file() throws IOException {
+            //SetUp
+            Path path = Files.write(directory.resolve("other.bin"), "not a snapshot at all".getBytes(StandardCharsets.UTF_8));
+            //Exercise
+            assertThatThrownBy(() -> UnionSnapshot.open(path, ColumnType.longs(), ColumnType.strings()))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageStartingWith("not a union snapshot");
+        }
+
+        @Test
+        void read_empty_snapshot() throws IOException {
+            //SetUp
+            Path path = write(new ArrayList<>(), 4);
+            //Exercise
+            try (UnionSnapshot<Long, String> target = UnionSnapshot.open(path, ColumnType.longs(), ColumnType.strings())) {
+                //Verify
+                assertThat(target.size()).isZero();
+                assertThat(target.blocks()).isEmpty();
+            }
+        }
+    }
+
+    @Nested
+    class columnTypeTest {
+        @Test
+        void reject_unsupported_encoding() {
+            //Exercise
+            assertThatThrownBy(() -> ColumnType.longs(ColumnEncoding.DICTIONARY))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("encoding of longs must be PLAIN or DELTA: DICTIONARY");
+            assertThatThrownBy(() -> ColumnType.strings(ColumnEncoding.DELTA))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("encoding of strings must be PLAIN or DICTIONARY: DELTA");
+        }
+    }
+
+    @Nested
+    class writerTest {
+        @Test
+        void reject_write_after_close() throws IOException {
+            //SetUp
+            UnionSnapshotWriter<Long, String> target = UnionSnapshotWriter.create(
+                    directory.resolve("closed.bin"), ColumnType.longs(), ColumnType.strings());
+            target.close();
+            //Exercise
+            assertThatThrownBy(() -> target.accept(UnionOf.left(1L)))
+                    //Verify
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("UnionSnapshotWriter is closed");
+        }
+    }
+}
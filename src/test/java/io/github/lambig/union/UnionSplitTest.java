@@ -0,0 +1,149 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class UnionSplitTest {
+
+    private static Stream<Union<Integer, String>> source(List<Union<Integer, String>> unions) {
+        return unions.stream();
+    }
+
+    @Nested
+    class leftsTest {
+        @Test
+        void pull_source_only_as_needed() {
+            //SetUp
+            AtomicInteger pulled = new AtomicInteger();
+            Stream<Union<Integer, String>> infinite = Stream.iterate(0, i -> i + 1)
+                    .peek(i -> pulled.incrementAndGet())
+                    .map(i -> i % 3 == 2 ? UnionOf.right("E" + i) : UnionOf.left(i));
+            UnionSplit<Integer, String> target = UnionSplit.of(infinite);
+            //Exercise
+            List<Integer> actual = target.leftStream().limit(4).collect(Collectors.toList());
+            //Verify
+            assertThat(actual).containsExactly(0, 1, 3, 4);
+            assertThat(pulled).hasValue(5);
+            assertThat(target.rights().next()).isEqualTo("E2");
+        }
+
+        @Test
+        void buffer_values_of_other_side_in_order() {
+            //SetUp
+            UnionSplit<Integer, String> target = UnionSplit.of(source(Arrays.asList(
+                    UnionOf.right("a"), UnionOf.left(1), UnionOf.right("b"), UnionOf.left(2), UnionOf.right("c"))));
+            //Exercise
+            List<Integer> lefts = target.leftStream().collect(Collectors.toList());
+            List<String> rights = target.rightStream().collect(Collectors.toList());
+            //Verify
+            assertThat(lefts).containsExactly(1, 2);
+            assertThat(rights).containsExactly("a", "b", "c");
+        }
+    }
+
+    @Nested
+    class overflowPolicyTest {
+        @Test
+        void fail_on_full_buffer() {
+            //SetUp
+            UnionSplit<Integer, String> target = UnionSplit.of(source(Arrays.asList(
+                    UnionOf.right("a"), UnionOf.right("b"), UnionOf.right("c"), UnionOf.left(1))), 2, OverflowPolicy.FAIL);
+            //Exercise
+            assertThatThrownBy(() -> target.lefts().next())
+                    //Verify
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("right buffer of UnionSplit is full: 2");
+        }
+
+        @Test
+        void drop_on_full_buffer() {
+            //SetUp
+            UnionSplit<Integer, String> target = UnionSplit.of(source(Arrays.asList(
+                    UnionOf.right("a"), UnionOf.right("b"), UnionOf.right("c"), UnionOf.left(1))), 1, OverflowPolicy.DROP);
+            //Exercise
+            List<Integer> lefts = target.leftStream().collect(Collectors.toList());
+            //Verify
+            assertThat(lefts).containsExactly(1);
+            assertThat(target.droppedCount()).isEqualTo(2L);
+            assertThat(target.rightStream().collect(Collectors.toList())).containsExactly("a");
+        }
+
+        @Test
+        void block_until_other_side_is_read() throws Exception {
+            //SetUp
+            List<Union<Integer, String>> unions = IntStream.range(0, 10_000)
+                    .mapToObj(i -> i % 100 < 70 ? UnionOf.<Integer, String>left(i) : UnionOf.<Integer, String>right("E" + i))
+                    .collect(Collectors.toList());
+            UnionSplit<Integer, String> target = UnionSplit.of(source(unions), 4, OverflowPolicy.BLOCK);
+            //Exercise
+            CompletableFuture<List<Integer>> lefts = CompletableFuture.supplyAsync(() -> target.leftStream().collect(Collectors.toList()));
+            CompletableFuture<List<String>> rights = CompletableFuture.supplyAsync(() -> target.rightStream().collect(Collectors.toList()));
+            //Verify
+            assertThat(lefts.get(10, TimeUnit.SECONDS))
+                    .isEqualTo(unions.stream().filter(Union::hasLeft).map(Union::left).collect(Collectors.toList()));
+            assertThat(rights.get(10, TimeUnit.SECONDS))
+                    .isEqualTo(unions.stream().filter(Union::hasRight).map(Union::right).collect(Collectors.toList()));
+            assertThat(target.droppedCount()).isZero();
+        }
+    }
+
+    @Nested
+    class closeTest {
+        @Test
+        void discard_values_of_closed_side() {
+            //SetUp
+            UnionSplit<Integer, String> target = UnionSplit.of(source(Arrays.asList(
+                    UnionOf.right("a"), UnionOf.right("b"), UnionOf.left(1), UnionOf.right("c"), UnionOf.left(2))), 1, OverflowPolicy.FAIL);
+            target.rightStream().close();
+            //Exercise
+            List<Integer> lefts = target.leftStream().collect(Collectors.toList());
+            //Verify
+            assertThat(lefts).containsExactly(1, 2);
+            assertThat(target.rights().hasNext()).isFalse();
+        }
+
+        @Test
+        void close_source_when_both_sides_are_closed() {
+            //SetUp
+            AtomicBoolean closed = new AtomicBoolean();
+            UnionSplit<Integer, String> target = UnionSplit.of(
+                    source(new ArrayList<>()).onClose(() -> closed.set(true)));
+            //Exercise
+            target.leftStream().close();
+            boolean closedByLeft = closed.get();
+            target.rightStream().close();
+            //Verify
+            assertThat(closedByLeft).isFalse();
+            assertThat(closed).isTrue();
+        }
+    }
+
+    @Nested
+    class ofTest {
+        @Test
+        void reject_non_positive_capacity() {
+            //SetUp
+            Iterator<Union<Integer, String>> source = new ArrayList<Union<Integer, String>>().iterator();
+            //Exercise
+            assertThatThrownBy(() -> UnionSplit.of(source, 0, OverflowPolicy.BLOCK))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("bufferCapacity must be positive: 0");
+        }
+    }
+}
@@ -221,6 +221,26 @@ class UnionTest {
         }
     }
 
+    @Nested
+    class PeekAsyncWithTest {
+        @Test
+        void consume_asynchronously_and_return_self() {
+            //SetUp
+            Union<String, Long> target = UnionOf.right(3L);
+            AtomicLong atomicLong = new AtomicLong(0L);
+            Consumer<Long> countUp = atomicLong::addAndGet;
+            Union<String, Long> actual;
+            //Execute
+            try (AsyncPeeker<String, Long> peeker = AsyncPeeker.<String, Long>builder(left -> {
+            }, countUp).start()) {
+                actual = Optional.ofNullable(target).map(peekAsyncWith(peeker)).orElse(null);
+            }
+            //Verify
+            assertThat(atomicLong).hasValue(3L);
+            assertThat(actual).isEqualTo(target);
+        }
+    }
+
     @Nested
     class asJoinedOptional_2FunctionsTest {
 
@@ -322,4 +342,184 @@ class UnionTest {
             assertThat(actual).isEqualTo(target);
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    class PeekAsyncTest {
+        @Test
+        void consume_asynchronously_and_return_self() {
+            //SetUp
+            Union<Long, String> target = UnionOf.left(3L);
+            AtomicLong atomicLong = new AtomicLong(0L);
+            Consumer<Long> countUp = atomicLong::addAndGet;
+            Union<Long, String> actual;
+            //Execute
+            try (AsyncPeeker<Long, String> peeker = AsyncPeeker.<Long, String>builder(countUp, right -> {
+            }).start()) {
+                actual = target.peekAsync(peeker);
+            }
+            //Verify
+            assertThat(atomicLong).hasValue(3L);
+            assertThat(actual).isEqualTo(target);
+        }
+    }
+
+    @Nested
+    class attemptWithTest {
+        @Test
+        void capture_exception_as_right() {
+            //SetUp
+            Union<String, Throwable> target = UnionOf.left("abc");
+            //Execute
+            Union<Integer, Throwable> actual = Optional.of(target).map(attemptWith(Integer::parseInt)).orElseThrow();
+            //Verify
+            assertThat(actual.hasRight()).isTrue();
+            assertThat(actual.right()).isInstanceOf(NumberFormatException.class);
+        }
+    }
+
+    @Nested
+    class recoverWithTest {
+        @Test
+        void recover_right() {
+            //SetUp
+            Union<Integer, Throwable> target = UnionOf.right(new IllegalStateException("abc"));
+            //Execute
+            Union<Integer, Throwable> actual = Optional.of(target).map(recoverWith(throwable -> 0)).orElseThrow();
+            //Verify
+            assertThat(actual.left()).isEqualTo(0);
+        }
+    }
+
+    @Nested
+    class AttemptLeftTest {
+        @Test
+        void apply_to_left() {
+            //SetUp
+            Union<String, String> target = UnionOf.left("3");
+            //Execute
+            Union<Integer, String> actual = target.attemptLeft(Integer::parseInt, Exception::getMessage);
+            //Verify
+            assertThat(actual.left()).isEqualTo(3);
+        }
+
+        @Test
+        void capture_exception_as_right() {
+            //SetUp
+            Union<String, String> target = UnionOf.left("abc");
+            //Execute
+            Union<Integer, String> actual = target.attemptLeft(Integer::parseInt, Exception::getMessage);
+            //Verify
+            assertThat(actual.right()).isEqualTo("For input string: \"abc\"");
+        }
+
+        @Test
+        void pass_right_through() {
+            //SetUp
+            Union<String, String> target = UnionOf.right("failed");
+            AtomicLong atomicLong = new AtomicLong(0L);
+            //Execute
+            Union<Integer, String> actual = target.attemptLeft(left -> (int) atomicLong.incrementAndGet(), Exception::getMessage);
+            //Verify
+            assertThat(actual.right()).isEqualTo("failed");
+            assertThat(atomicLong).hasValue(0L);
+        }
+    }
+
+    @Nested
+    class RecoverRightTest {
+        @Test
+        void recover_right() {
+            //SetUp
+            Union<Integer, String> target = UnionOf.right("3");
+            //Execute
+            Union<Integer, String> actual = target.recoverRight(Integer::parseInt, Exception::getMessage);
+            //Verify
+            assertThat(actual.left()).isEqualTo(3);
+        }
+
+        @Test
+        void capture_exception_as_right() {
+            //SetUp
+            Union<Integer, String> target = UnionOf.right("abc");
+            //Execute
+            Union<Integer, String> actual = target.recoverRight(Integer::parseInt, e -> "unrecoverable");
+            //Verify
+            assertThat(actual.right()).isEqualTo("unrecoverable");
+        }
+
+        @Test
+        void return_self_if_left() {
+            //SetUp
+            Union<Integer, String> target = UnionOf.left(3);
+            //Execute
+            Union<Integer, String> actual = target.recoverRight(Integer::parseInt, Exception::getMessage);
+            //Verify
+            assertThat(actual).isSameAs(target);
+        }
+    }
+
+    @Nested
+    class mapLeftWithTest {
+        @Test
+        void map_left() {
+            //SetUp
+            Union<Long, String> target = UnionOf.left(3L);
+            //Execute
+            Optional<Union<String, String>> actual = Optional.of(target).map(mapLeftWith(String::valueOf));
+            //Verify
+            assertThat(actual.map(Union::left)).hasValue("3");
+        }
+    }
+
+    @Nested
+    class mapRightWithTest {
+        @Test
+        void map_right() {
+            //SetUp
+            Union<Long, String> target = UnionOf.right("abc");
+            //Execute
+            Optional<Union<Long, Integer>> actual = Optional.of(target).map(mapRightWith(String::length));
+            //Verify
+            assertThat(actual.map(Union::right)).hasValue(3);
+        }
+    }
+
+    @Nested
+    class bimapWithTest {
+        @Test
+        void map_either() {
+            //SetUp
+            Union<Long, String> target = UnionOf.left(3L);
+            //Execute
+            Optional<Union<String, Integer>> actual = Optional.of(target).map(bimapWith(String::valueOf, String::length));
+            //Verify
+            assertThat(actual.map(Union::left)).hasValue("3");
+        }
+    }
+
+    @Nested
+    class flatMapLeftWithTest {
+        @Test
+        void flat_map_left() {
+            //SetUp
+            Union<Long, String> target = UnionOf.left(3L);
+            //Execute
+            Optional<Union<Long, String>> actual = Optional.of(target).map(flatMapLeftWith(left -> UnionOf.right("abc")));
+            //Verify
+            assertThat(actual.map(Union::right)).hasValue("abc");
+        }
+    }
+
+    @Nested
+    class flatMapRightWithTest {
+        @Test
+        void flat_map_right() {
+            //SetUp
+            Union<Long, String> target = UnionOf.right("abc");
+            //Execute
+            Optional<Union<Long, String>> actual = Optional.of(target).map(flatMapRightWith(right -> UnionOf.left(3L)));
+            //Verify
+            assertThat(actual.map(Union::left)).hasValue(3L);
+        }
+    }
+}
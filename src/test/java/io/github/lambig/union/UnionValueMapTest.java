@@ -0,0 +1,164 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class UnionValueMapTest {
+
+    /**
+     * Key with few distinct hash codes, to make long probe sequences.
+     */
+    private static final class Colliding {
+        private final int id;
+
+        private Colliding(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Colliding && ((Colliding) other).id == this.id;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.id % 7;
+        }
+    }
+
+    @Nested
+    class putTest {
+        @Test
+        void behave_as_map_of_unions() {
+            //SetUp
+            UnionValueMap<Colliding, Integer, String> target = UnionValueMap.create();
+            Map<Colliding, Union<Integer, String>> expected = new HashMap<>();
+            Random random = new Random(41);
+            //Exercise
+            for (int i = 0; i < 20_000; i++) {
+                Colliding key = new Colliding(random.nextInt(200));
+                int operation = random.nextInt(3);
+                if (operation == 0) {
+                    target.putLeft(key, i);
+                    expected.put(key, UnionOf.left(i));
+                } else if (operation == 1) {
+                    target.putRight(key, "E" + i);
+                    expected.put(key, UnionOf.right("E" + i));
+                } else {
+                    assertThat(target.remove(key)).isEqualTo(expected.remove(key) != null);
+                }
+            }
+            //Verify
+            assertThat(target.size()).isEqualTo(expected.size());
+            for (int id = 0; id < 200; id++) {
+                Colliding key = new Colliding(id);
+                Union<Integer, String> union = expected.get(key);
+                assertThat(target.containsKey(key)).isEqualTo(union != null);
+                assertThat(target.<Object>get(key, left -> left, right -> right))
+                        .isEqualTo(union == null ? null : union.<Object>asJoined(left -> left, right -> right));
+                assertThat(target.hasRight(key)).isEqualTo(union != null && union.hasRight());
+            }
+        }
+
+        @Test
+        void replace_value_of_other_side() {
+            //SetUp
+            UnionValueMap<String, Integer, String> target = UnionValueMap.create(2);
+            target.putRight("a", "failed");
+            //Exercise
+            target.put("a", UnionOf.left(1));
+            //Verify
+            assertThat(target.size()).isEqualTo(1);
+            assertThat(target.hasRight("a")).isFalse();
+            assertThat(target.getUnion("a")).hasValueSatisfying(union -> assertThat(union.left()).isEqualTo(1));
+        }
+
+        @Test
+        void grow_beyond_expected_size() {
+            //SetUp
+            UnionValueMap<Integer, Integer, String> target = UnionValueMap.create(0);
+            //Exercise
+            for (int i = 0; i < 10_000; i++) {
+                target.putLeft(i, -i);
+            }
+            //Verify
+            assertThat(target.size()).isEqualTo(10_000);
+            assertThat(target.<Integer>get(9_999, left -> left, right -> 0)).isEqualTo(-9_999);
+        }
+
+        @Test
+        void reject_negative_expected_size() {
+            //Exercise
+            assertThatThrownBy(() -> UnionValueMap.create(-1))
+                    //Verify
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("expectedSize must not be negative: -1");
+        }
+    }
+
+    @Nested
+    class acceptTest {
+        @Test
+        void accept_value_of_side() {
+            //SetUp
+            UnionValueMap<String, Integer, String> target = UnionValueMap.create();
+            target.putLeft("a", 1);
+            target.putRight("b", "failed");
+            List<Object> accepted = new ArrayList<>();
+            //Exercise
+            boolean a = target.accept("a", accepted::add, right -> accepted.add("R:" + right));
+            boolean b = target.accept("b", accepted::add, right -> accepted.add("R:" + right));
+            boolean c = target.accept("c", accepted::add, right -> accepted.add("R:" + right));
+            //Verify
+            assertThat(accepted).containsExactly(1, "R:failed");
+            assertThat(a).isTrue();
+            assertThat(b).isTrue();
+            assertThat(c).isFalse();
+            assertThat(target.getUnion("c")).isEmpty();
+        }
+    }
+
+    @Nested
+    class forEachTest {
+        @Test
+        void visit_all_entries() {
+            //SetUp
+            UnionValueMap<String, Integer, String> target = UnionValueMap.create();
+            target.putLeft("a", 1);
+            target.putRight("b", "failed");
+            target.putLeft("c", 3);
+            Map<String, Object> visited = new HashMap<>();
+            //Exercise
+            target.forEach(visited::put, (key, right) -> visited.put(key, "R:" + right));
+            //Verify
+            assertThat(visited).containsOnly(
+                    entry("a", 1),
+                    entry("b", "R:failed"),
+                    entry("c", 3));
+        }
+
+        @Test
+        void visit_nothing_after_clear() {
+            //SetUp
+            UnionValueMap<String, Integer, String> target = UnionValueMap.create();
+            target.putLeft("a", 1);
+            target.clear();
+            List<String> visited = new ArrayList<>();
+            //Exercise
+            target.forEach((key, left) -> visited.add(key), (key, right) -> visited.add(key));
+            //Verify
+            assertThat(visited).isEmpty();
+            assertThat(target.isEmpty()).isTrue();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package io.github.lambig.union;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+class UnionsTest {
+
+    @Nested
+    class sequenceTest {
+        @Test
+        void retrieve_all_lefts() {
+            //SetUp
+            List<Union<Long, String>> target = List.of(UnionOf.left(1L), UnionOf.left(2L), UnionOf.left(3L));
+            //Exercise
+            Union<List<Long>, String> actual = Unions.sequence(target);
+            //Verify
+            assertThat(actual.left()).containsExactly(1L, 2L, 3L);
+        }
+
+        @Test
+        void retrieve_first_right() {
+            //SetUp
+            List<Union<Long, String>> target = List.of(UnionOf.left(1L), UnionOf.right("a"), UnionOf.right("b"));
+            //Exercise
+            Union<List<Long>, String> actual = Unions.sequence(target);
+            //Verify
+            assertThat(actual.right()).isEqualTo("a");
+        }
+    }
+
+    @Nested
+    class traverseTest {
+        @Test
+        void stop_at_first_right() {
+            //SetUp
+            List<String> target = List.of("1", "a", "3");
+            AtomicInteger calls = new AtomicInteger();
+            //Exercise
+            Union<List<Integer>, Throwable> actual = Unions.traverse(target, string -> {
+                calls.incrementAndGet();
+                return UnionOf.attempt(() -> Integer.parseInt(string));
+            });
+            //Verify
+            assertThat(actual.right()).isInstanceOf(NumberFormatException.class);
+            assertThat(calls).hasValue(2);
+        }
+    }
+
+    @Nested
+    class accumulateTest {
+        @Test
+        void retrieve_all_lefts() {
+            //SetUp
+            List<Union<Long, String>> target = List.of(UnionOf.left(1L), UnionOf.left(2L));
+            //Exercise
+            Union<List<Long>, List<String>> actual = Unions.accumulate(target);
+            //Verify
+            assertThat(actual.left()).containsExactly(1L, 2L);
+        }
+
+        @Test
+        void retrieve_all_rights() {
+            //SetUp
+            List<Union<Long, String>> target = List.of(UnionOf.right("a"), UnionOf.left(1L), UnionOf.right("b"));
+            //Exercise
+            Union<List<Long>, List<String>> actual = Unions.accumulate(target);
+            //Verify
+            assertThat(actual.right()).containsExactly("a", "b");
+        }
+
+        @Test
+        void retrieve_rights_after_more_lefts_than_hint_of_iterable() {
+            //SetUp
+            List<Union<Long, String>> unions = new ArrayList<>();
+            for (long i = 0; i < 12; i++) {
+                unions.add(UnionOf.left(i));
+            }
+            unions.add(UnionOf.right("a"));
+            Iterable<Union<Long, String>> target = unions::iterator;
+            //Exercise
+            Union<List<Long>, List<String>> actual = Unions.accumulate(target);
+            //Verify
+            assertThat(actual.right()).containsExactly("a");
+        }
+    }
+
+    @Nested
+    class traverseAccumulatingTest {
+        @Test
+        void map_every_element() {
+            //SetUp
+            List<String> target = List.of("a", "2", "c");
+            AtomicInteger calls = new AtomicInteger();
+            //Exercise
+            Union<List<Integer>, List<String>> actual = Unions.traverseAccumulating(target, string -> {
+                calls.incrementAndGet();
+                return UnionOf.attempt(() -> Integer.parseInt(string), e -> string);
+            });
+            //Verify
+            assertThat(actual.right()).containsExactly("a", "c");
+            assertThat(calls).hasValue(3);
+        }
+    }
+
+    @Nested
+    class traverseParallelTest {
+        @Test
+        void fail_on_null_union() {
+            //SetUp
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                //Exercise
+                CompletableFuture<Union<List<Integer>, String>> actual =
+                        Unions.<Integer, Integer, String>traverseParallel(List.of(1, 2), i -> i == 2 ? null : UnionOf.left(i), executor);
+                //Verify
+                assertThatThrownBy(() -> actual.get(10, TimeUnit.SECONDS))
+                        .isInstanceOf(ExecutionException.class)
+                        .hasCauseInstanceOf(NullPointerException.class);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        void retrieve_all_lefts_in_order() throws Exception {
+            //SetUp
+            List<Integer> target = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                target.add(i);
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                //Exercise
+                Union<List<Integer>, String> actual =
+                        Unions.<Integer, Integer, String>traverseParallel(target, UnionOf::left, executor)
+                                .get(10, TimeUnit.SECONDS);
+                //Verify
+                assertThat(actual.left()).isEqualTo(target);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        void skip_outstanding_work_on_first_right() throws Exception {
+            //SetUp
+            List<Integer> target = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                target.add(i);
+            }
+            AtomicInteger calls = new AtomicInteger();
+            CountDownLatch failed = new CountDownLatch(1);
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                //Exercise
+                Union<List<Integer>, String> actual = Unions.<Integer, Integer, String>traverseParallel(
+                        target,
+                        i -> {
+                            calls.incrementAndGet();
+                            return i == 0 ? UnionOf.right("failed") : UnionOf.left(i);
+                        },
+                        executor).get(10, TimeUnit.SECONDS);
+                executor.execute(failed::countDown);
+                failed.await(10, TimeUnit.SECONDS);
+                //Verify
+                assertThat(actual.right()).isEqualTo("failed");
+                assertThat(calls).hasValue(1);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}